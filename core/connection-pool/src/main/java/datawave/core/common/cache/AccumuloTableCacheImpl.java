@@ -68,6 +68,8 @@ public class AccumuloTableCacheImpl implements AccumuloTableCache {
             detail.setTableName(tableName);
             detail.setConnectionPoolName(accumuloTableCacheProperties.getPoolName());
             detail.setReloadInterval(accumuloTableCacheProperties.getReloadInterval());
+            detail.setIncremental(accumuloTableCacheProperties.getIncrementalTableNames().contains(tableName));
+            detail.setFullReloadInterval(accumuloTableCacheProperties.getFullReloadInterval());
 
             detail.setInstance(instance);
 
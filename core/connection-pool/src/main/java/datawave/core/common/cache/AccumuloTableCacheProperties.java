@@ -11,6 +11,8 @@ public class AccumuloTableCacheProperties {
     private List<String> tableNames = new ArrayList<>();
     private String poolName;
     private long reloadInterval;
+    private List<String> incrementalTableNames = new ArrayList<>();
+    private long fullReloadInterval = TimeUnit.DAYS.toMillis(1);
     private int evictionReaperIntervalInSeconds;
     private int numLocks;
     private int maxRetries;
@@ -53,6 +55,24 @@ public class AccumuloTableCacheProperties {
         return this;
     }
 
+    public List<String> getIncrementalTableNames() {
+        return incrementalTableNames;
+    }
+
+    public AccumuloTableCacheProperties withIncrementalTableNames(List<String> incrementalTableNames) {
+        this.incrementalTableNames = incrementalTableNames;
+        return this;
+    }
+
+    public long getFullReloadInterval() {
+        return fullReloadInterval;
+    }
+
+    public AccumuloTableCacheProperties withFullReloadInterval(long fullReloadInterval) {
+        this.fullReloadInterval = fullReloadInterval;
+        return this;
+    }
+
     public int getEvictionReaperIntervalInSeconds() {
         return evictionReaperIntervalInSeconds;
     }
@@ -96,6 +116,14 @@ public class AccumuloTableCacheProperties {
         this.reloadInterval = reloadInterval;
     }
 
+    public void setIncrementalTableNames(List<String> incrementalTableNames) {
+        this.incrementalTableNames = incrementalTableNames;
+    }
+
+    public void setFullReloadInterval(long fullReloadInterval) {
+        this.fullReloadInterval = fullReloadInterval;
+    }
+
     public void setEvictionReaperIntervalInSeconds(int evictionReaperIntervalInSeconds) {
         this.evictionReaperIntervalInSeconds = evictionReaperIntervalInSeconds;
     }
@@ -136,6 +164,8 @@ public class AccumuloTableCacheProperties {
             .append("tableNames", tableNames)
             .append("poolName", poolName)
             .append("reloadInterval", reloadInterval)
+            .append("incrementalTableNames", incrementalTableNames)
+            .append("fullReloadInterval", fullReloadInterval)
             .append("evictionReaperIntervalInSeconds", evictionReaperIntervalInSeconds)
             .append("numLocks", numLocks)
             .append("maxRetries", maxRetries)
@@ -1,10 +1,13 @@
 package datawave.core.common.cache;
 
 import java.io.Serializable;
+import java.util.Collections;
 import java.util.Date;
+import java.util.HashSet;
 import java.util.Iterator;
 import java.util.Map;
 import java.util.Map.Entry;
+import java.util.Set;
 import java.util.concurrent.Future;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.locks.ReentrantLock;
@@ -15,12 +18,15 @@ import org.apache.accumulo.core.client.AccumuloSecurityException;
 import org.apache.accumulo.core.client.BatchScanner;
 import org.apache.accumulo.core.client.BatchWriter;
 import org.apache.accumulo.core.client.BatchWriterConfig;
+import org.apache.accumulo.core.client.IteratorSetting;
 import org.apache.accumulo.core.client.NamespaceExistsException;
+import org.apache.accumulo.core.client.TableNotFoundException;
 import org.apache.accumulo.core.client.admin.NamespaceOperations;
 import org.apache.accumulo.core.data.Key;
 import org.apache.accumulo.core.data.Mutation;
 import org.apache.accumulo.core.data.Range;
 import org.apache.accumulo.core.data.Value;
+import org.apache.accumulo.core.iterators.user.TimestampFilter;
 import org.apache.accumulo.core.security.Authorizations;
 import org.apache.accumulo.core.security.ColumnVisibility;
 import org.slf4j.Logger;
@@ -34,10 +40,22 @@ import datawave.accumulo.inmemory.InMemoryTableOperations;
 import datawave.core.common.connection.AccumuloConnectionFactory;
 import datawave.webservice.common.connection.WrappedAccumuloClient;
 
+/**
+ * Caches the contents of an Accumulo table in an in-memory table.
+ * <p>
+ * Each load is written to a separate table which is then frozen and replaces the cached table, so that scanners already open on the cached table keep
+ * reading a consistent snapshot. When {@link #setIncremental(boolean) incremental} refresh is enabled, a reload after a complete load only fetches the entries
+ * whose timestamp is not older than any seen before and writes them to a clone of the cached table, counting them against the max rows along with the entries
+ * already cached. As deletes, age off and late writes carrying older timestamps
+ * can not be seen this way, this should only be enabled for tables whose entries are written with the current time, and a full reload is still done when the
+ * table is evicted or the {@link #setFullReloadInterval(long) full reload interval} has passed.
+ */
 public class BaseTableCache implements Serializable, TableCache {
 
     private static final long serialVersionUID = -5849784584173005890L;
 
+    private static final int INCREMENTAL_FILTER_PRIORITY = 100;
+
     private final transient Logger log = LoggerFactory.getLogger(this.getClass());
 
     /** should be set by configuration **/
@@ -46,6 +64,8 @@ public class BaseTableCache implements Serializable, TableCache {
     private String auths = null;
     private long reloadInterval = 0;
     private long maxRows = Long.MAX_VALUE;
+    private boolean incremental = false;
+    private long fullReloadInterval = 0;
 
     /** set programatically **/
     private boolean available = false;
@@ -54,6 +74,13 @@ public class BaseTableCache implements Serializable, TableCache {
     private transient InMemoryInstance instance = null;
     private SharedCacheCoordinator watcher = null;
     private Future<Boolean> reference = null;
+    private Date lastFullRefresh = new Date(0);
+    /** the newest timestamp of the cached entries, or -1 if the cached table is not a complete load */
+    private long highWaterMark = -1;
+    /** the keys cached with the high water mark timestamp, which an incremental refresh reads again but does not need to write */
+    private transient Set<Key> highWaterMarkKeys = new HashSet<>();
+    /** the number of entries written to the cached table, where an entry rewritten by an incremental refresh is counted again */
+    private long cachedRows = 0;
 
     private ReentrantLock lock = new ReentrantLock();
 
@@ -162,6 +189,30 @@ public class BaseTableCache implements Serializable, TableCache {
         this.maxRows = maxRows;
     }
 
+    public boolean isIncremental() {
+        return incremental;
+    }
+
+    public void setIncremental(boolean incremental) {
+        this.incremental = incremental;
+    }
+
+    public long getFullReloadInterval() {
+        return fullReloadInterval;
+    }
+
+    public void setFullReloadInterval(long fullReloadInterval) {
+        this.fullReloadInterval = fullReloadInterval;
+    }
+
+    public Date getLastFullRefresh() {
+        return lastFullRefresh;
+    }
+
+    public long getHighWaterMark() {
+        return highWaterMark;
+    }
+
     @Override
     public Boolean call() throws Exception {
         if (!lock.tryLock(0, TimeUnit.SECONDS))
@@ -196,14 +247,26 @@ public class BaseTableCache implements Serializable, TableCache {
                 instanceClient.tableOperations().delete(tempTableName);
             }
 
-            instanceClient.tableOperations().create(tempTableName);
+            // a lastRefresh of 0 means the table was evicted, which is how deletes are published, so the whole table is read again
+            boolean incrementalRefresh = incremental && available && highWaterMark >= 0 && lastRefresh.getTime() != 0
+                            && (System.currentTimeMillis() - lastFullRefresh.getTime()) <= fullReloadInterval
+                            && instanceClient.tableOperations().exists(tableName);
 
-            writer = instanceClient.createBatchWriter(tempTableName,
-                            new BatchWriterConfig().setMaxMemory(10L * (1024L * 1024L)).setMaxLatency(100L, TimeUnit.MILLISECONDS).setMaxWriteThreads(1));
             setupScanner(scanner);
+            if (incrementalRefresh) {
+                setupIncrementalScanner(scanner, highWaterMark);
+            } else {
+                instanceClient.tableOperations().create(tempTableName);
+                writer = createWriter(instanceClient, tempTableName);
+            }
 
             Iterator<Entry<Key,Value>> iter = scanner.iterator();
-            long count = 0;
+            // an incremental refresh adds to the cached table, so the entries already cached count against the max rows
+            long previousRows = incrementalRefresh ? cachedRows : 0;
+            long count = previousRows;
+            long maxTimestamp = incrementalRefresh ? highWaterMark : Long.MIN_VALUE;
+            Set<Key> cachedKeys = (incrementalRefresh && highWaterMarkKeys != null) ? highWaterMarkKeys : Collections.emptySet();
+            Set<Key> maxTimestampKeys = new HashSet<>(cachedKeys);
             while (iter.hasNext()) {
 
                 if (count > maxRows)
@@ -211,16 +274,49 @@ public class BaseTableCache implements Serializable, TableCache {
                 Entry<Key,Value> value = iter.next();
 
                 Key valueKey = value.getKey();
+                if (valueKey.getTimestamp() == highWaterMark && cachedKeys.contains(valueKey)) {
+                    // already cached by the previous load
+                    continue;
+                }
+
+                if (null == writer) {
+                    // the new entries are applied to a copy, leaving the cached table untouched until the copy replaces it
+                    instanceClient.tableOperations().clone(tableName, tempTableName, false, Collections.emptyMap(), Collections.emptySet());
+                    writer = createWriter(instanceClient, tempTableName);
+                }
 
                 Mutation m = new Mutation(value.getKey().getRow());
                 m.put(valueKey.getColumnFamily(), valueKey.getColumnQualifier(), new ColumnVisibility(valueKey.getColumnVisibility()), valueKey.getTimestamp(),
                                 value.getValue());
                 writer.addMutation(m);
+                if (valueKey.getTimestamp() > maxTimestamp) {
+                    maxTimestamp = valueKey.getTimestamp();
+                    maxTimestampKeys = new HashSet<>();
+                }
+                if (valueKey.getTimestamp() == maxTimestamp) {
+                    maxTimestampKeys.add(new Key(valueKey));
+                }
                 count++;
             }
             this.lastRefresh = new Date();
-            ((InMemoryTableOperations) instanceClient.tableOperations()).rename(tempTableName, tableName, true);
-            log.info("Cached {} k,v for table: {}", count, tableName);
+            if (!incrementalRefresh) {
+                this.lastFullRefresh = this.lastRefresh;
+            }
+            // a truncated load can not be brought up to date incrementally
+            this.highWaterMark = (count > maxRows) ? -1 : Math.max(maxTimestamp, 0);
+            this.highWaterMarkKeys = maxTimestampKeys;
+            this.cachedRows = count;
+            if (null != writer) {
+                // the cache is only read from here on, so it is held in the smaller and faster frozen form
+                InMemoryTableOperations tableOperations = (InMemoryTableOperations) instanceClient.tableOperations();
+                tableOperations.freeze(tempTableName);
+                tableOperations.rename(tempTableName, tableName, true);
+            }
+            if (incrementalRefresh) {
+                log.info("Cached {} new k,v for table: {}", count - previousRows, tableName);
+            } else {
+                log.info("Cached {} k,v for table: {}", count, tableName);
+            }
             this.available = true;
         } catch (Exception e) {
             log.error(e.getMessage(), e);
@@ -249,6 +345,27 @@ public class BaseTableCache implements Serializable, TableCache {
         scanner.setRanges(Lists.newArrayList(new Range()));
     }
 
+    /**
+     * Limit the scanner of an incremental refresh to the entries no older than those already cached. The start is inclusive, as entries may have been written
+     * with the high water mark timestamp after the previous load read it. The filter runs after the iterators configured on the table, so that e.g. a combined
+     * entry is read whole when any of its parts is new.
+     *
+     * @param scanner
+     *            the scanner, already set up by {@link #setupScanner(BatchScanner)}
+     * @param highWaterMark
+     *            the newest timestamp of the cached entries
+     */
+    public void setupIncrementalScanner(BatchScanner scanner, long highWaterMark) {
+        IteratorSetting setting = new IteratorSetting(INCREMENTAL_FILTER_PRIORITY, "incrementalRefresh", TimestampFilter.class);
+        TimestampFilter.setStart(setting, highWaterMark, true);
+        scanner.addScanIterator(setting);
+    }
+
+    private BatchWriter createWriter(AccumuloClient instanceClient, String table) throws TableNotFoundException {
+        return instanceClient.createBatchWriter(table,
+                        new BatchWriterConfig().setMaxMemory(10L * (1024L * 1024L)).setMaxLatency(100L, TimeUnit.MILLISECONDS).setMaxWriteThreads(1));
+    }
+
     @Override
     public String toString() {
         return "tableName: " + getTableName() + ", connectionPoolName: " + getConnectionPoolName() + ", auths: " + getAuths();
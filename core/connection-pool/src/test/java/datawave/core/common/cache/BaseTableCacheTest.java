@@ -0,0 +1,186 @@
+package datawave.core.common.cache;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.apache.accumulo.core.client.AccumuloClient;
+import org.apache.accumulo.core.client.BatchWriter;
+import org.apache.accumulo.core.client.BatchWriterConfig;
+import org.apache.accumulo.core.client.Scanner;
+import org.apache.accumulo.core.data.Key;
+import org.apache.accumulo.core.data.Mutation;
+import org.apache.accumulo.core.data.Value;
+import org.apache.accumulo.core.security.Authorizations;
+import org.easymock.EasyMock;
+import org.junit.Before;
+import org.junit.Test;
+
+import datawave.accumulo.inmemory.InMemoryAccumuloClient;
+import datawave.accumulo.inmemory.InMemoryInstance;
+import datawave.core.common.connection.AccumuloConnectionFactory;
+
+public class BaseTableCacheTest {
+
+    private static final String TABLE = "cachedTable";
+
+    private AccumuloClient source;
+    private AccumuloClient cache;
+    private BaseTableCache tableCache;
+
+    @Before
+    public void setup() throws Exception {
+        source = new InMemoryAccumuloClient(AccumuloTableCache.MOCK_USERNAME, new InMemoryInstance());
+        source.tableOperations().create(TABLE);
+
+        AccumuloConnectionFactory connectionFactory = EasyMock.createNiceMock(AccumuloConnectionFactory.class);
+        EasyMock.expect(connectionFactory.getTrackingMap(EasyMock.anyObject())).andReturn(new HashMap<>()).anyTimes();
+        EasyMock.expect(connectionFactory.getClient(EasyMock.isNull(), EasyMock.isNull(), EasyMock.isNull(),
+                        EasyMock.eq(AccumuloConnectionFactory.Priority.ADMIN), EasyMock.anyObject())).andReturn(source).anyTimes();
+        EasyMock.replay(connectionFactory);
+
+        InMemoryInstance instance = new InMemoryInstance();
+        cache = new InMemoryAccumuloClient(AccumuloTableCache.MOCK_USERNAME, instance);
+
+        tableCache = new BaseTableCache();
+        tableCache.setTableName(TABLE);
+        tableCache.setAuths("A");
+        tableCache.setConnectionFactory(connectionFactory);
+        tableCache.setInstance(instance);
+        tableCache.setIncremental(true);
+        tableCache.setFullReloadInterval(Long.MAX_VALUE);
+    }
+
+    @Test
+    public void testIncrementalRefresh() throws Exception {
+        write("row1", 10, false);
+        write("row2", 20, false);
+        assertTrue(tableCache.call());
+        assertEquals(List.of("row1", "row2"), cachedRows());
+        assertEquals(20, tableCache.getHighWaterMark());
+        long lastFullRefresh = tableCache.getLastFullRefresh().getTime();
+
+        Scanner snapshot = cache.createScanner(TABLE, new Authorizations());
+
+        // the delete is not seen by an incremental refresh
+        write("row3", 30, false);
+        write("row1", 40, true);
+        assertTrue(tableCache.call());
+        assertEquals(List.of("row1", "row2", "row3"), cachedRows());
+        assertEquals(30, tableCache.getHighWaterMark());
+        assertEquals(lastFullRefresh, tableCache.getLastFullRefresh().getTime());
+
+        // a scanner opened before the refresh keeps reading the previous table
+        assertEquals(List.of("row1", "row2"), rows(snapshot));
+
+        // nothing new leaves the cached table in place
+        assertTrue(tableCache.call());
+        assertEquals(List.of("row1", "row2", "row3"), cachedRows());
+    }
+
+    @Test
+    public void testIncrementalRefreshReadsHighWaterMark() throws Exception {
+        write("row1", 10, false);
+        write("row2", 20, false);
+        assertTrue(tableCache.call());
+        Date lastFullRefresh = tableCache.getLastFullRefresh();
+
+        // written with the high water mark timestamp after the previous load
+        write("row3", 20, false);
+        assertTrue(tableCache.call());
+        assertEquals(List.of("row1", "row2", "row3"), cachedRows());
+        assertEquals(20, tableCache.getHighWaterMark());
+        assertSame(lastFullRefresh, tableCache.getLastFullRefresh());
+    }
+
+    @Test
+    public void testIncrementalRefreshLimitedByMaxRows() throws Exception {
+        tableCache.setMaxRows(2);
+        write("row1", 10, false);
+        write("row2", 20, false);
+        assertTrue(tableCache.call());
+        assertEquals(20, tableCache.getHighWaterMark());
+        Date lastFullRefresh = tableCache.getLastFullRefresh();
+
+        // the entries already cached count against the max rows, so the refresh is truncated as a full load would be
+        write("row3", 30, false);
+        write("row4", 40, false);
+        assertTrue(tableCache.call());
+        List<String> truncated = cachedRows();
+        assertEquals(-1, tableCache.getHighWaterMark());
+        assertSame(lastFullRefresh, tableCache.getLastFullRefresh());
+
+        // and the next refresh is a full reload
+        assertTrue(tableCache.call());
+        assertNotSame(lastFullRefresh, tableCache.getLastFullRefresh());
+        assertEquals(truncated.size(), cachedRows().size());
+    }
+
+    @Test
+    public void testFullReloadAfterEviction() throws Exception {
+        write("row1", 10, false);
+        write("row2", 20, false);
+        assertTrue(tableCache.call());
+
+        write("row1", 30, true);
+        tableCache.setLastRefresh(new Date(0));
+        assertTrue(tableCache.call());
+        assertEquals(List.of("row2"), cachedRows());
+    }
+
+    @Test
+    public void testFullReloadWhenNotIncremental() throws Exception {
+        tableCache.setIncremental(false);
+        write("row1", 10, false);
+        assertTrue(tableCache.call());
+
+        // an entry older than the cached entries is still picked up
+        write("row1", 20, true);
+        write("row2", 5, false);
+        assertTrue(tableCache.call());
+        assertEquals(List.of("row2"), cachedRows());
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void testCachedTableIsFrozen() throws Exception {
+        write("row1", 10, false);
+        assertTrue(tableCache.call());
+
+        try (BatchWriter writer = cache.createBatchWriter(TABLE, new BatchWriterConfig())) {
+            Mutation m = new Mutation("row2");
+            m.put("cf", "cq", new Value("row2"));
+            writer.addMutation(m);
+        }
+    }
+
+    private void write(String row, long timestamp, boolean delete) throws Exception {
+        Mutation m = new Mutation(row);
+        if (delete) {
+            m.putDelete("cf", "cq", timestamp);
+        } else {
+            m.put("cf", "cq", timestamp, new Value(row));
+        }
+        try (BatchWriter writer = source.createBatchWriter(TABLE, new BatchWriterConfig())) {
+            writer.addMutation(m);
+        }
+    }
+
+    private List<String> cachedRows() throws Exception {
+        return rows(cache.createScanner(TABLE, new Authorizations()));
+    }
+
+    private static List<String> rows(Scanner scanner) {
+        List<String> rows = new ArrayList<>();
+        for (Map.Entry<Key,Value> entry : scanner) {
+            rows.add(entry.getKey().getRow().toString());
+        }
+        return rows;
+    }
+}
@@ -21,6 +21,7 @@ import java.util.Collections;
 import java.util.EnumSet;
 import java.util.HashMap;
 import java.util.Map;
+import java.util.Set;
 import java.util.SortedSet;
 import java.util.concurrent.atomic.AtomicInteger;
 
@@ -117,6 +118,27 @@ public class InMemoryAccumulo {
         tables.put(tableName, t);
     }
 
+    public void cloneTable(String username, String srcTableName, String newTableName, Map<String,String> propertiesToSet, Set<String> propertiesToExclude) {
+        String namespace = TableNameUtil.qualify(newTableName).getFirst();
+
+        if (!namespaceExists(namespace)) {
+            return;
+        }
+
+        InMemoryTable source = tables.get(srcTableName);
+        InMemoryNamespace n = namespaces.get(namespace);
+        InMemoryTable t = new InMemoryTable(n, source.getTimeType(), Integer.toString(tableIdCounter.incrementAndGet()), new HashMap<>());
+        t.settings.putAll(source.settings);
+        t.settings.keySet().removeAll(propertiesToExclude);
+        t.settings.putAll(propertiesToSet);
+        t.userPermissions.put(username, EnumSet.allOf(TablePermission.class));
+        t.setNamespaceName(namespace);
+        t.setNamespace(n);
+        // the clone is only visible once it holds all of the source entries
+        t.copyFrom(source);
+        tables.put(newTableName, t);
+    }
+
     public void createNamespace(String username, String namespace) {
         if (!namespaceExists(namespace)) {
             InMemoryNamespace n = new InMemoryNamespace();
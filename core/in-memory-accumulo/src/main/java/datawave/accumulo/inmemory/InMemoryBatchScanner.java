@@ -29,7 +29,6 @@ import org.apache.accumulo.core.data.Key;
 import org.apache.accumulo.core.data.Range;
 import org.apache.accumulo.core.data.Value;
 import org.apache.accumulo.core.iterators.SortedKeyValueIterator;
-import org.apache.accumulo.core.iteratorsImpl.system.SortedMapIterator;
 import org.apache.accumulo.core.security.Authorizations;
 import org.apache.commons.collections.iterators.IteratorChain;
 
@@ -69,7 +68,7 @@ public class InMemoryBatchScanner extends InMemoryScannerBase implements BatchSc
 
         IteratorChain chain = new IteratorChain();
         for (Range range : ranges) {
-            SortedKeyValueIterator<Key,Value> i = new SortedMapIterator(table.table);
+            SortedKeyValueIterator<Key,Value> i = table.iterator();
             try {
                 i = createFilter(i);
                 i.seek(range, createColumnBSS(fetchedColumns), !fetchedColumns.isEmpty());
@@ -27,7 +27,6 @@ import org.apache.accumulo.core.data.Range;
 import org.apache.accumulo.core.data.Value;
 import org.apache.accumulo.core.iterators.Filter;
 import org.apache.accumulo.core.iterators.SortedKeyValueIterator;
-import org.apache.accumulo.core.iteratorsImpl.system.SortedMapIterator;
 import org.apache.accumulo.core.security.Authorizations;
 
 public class InMemoryScanner extends InMemoryScannerBase implements Scanner, ScannerRebuilder, Cloneable {
@@ -97,7 +96,7 @@ public class InMemoryScanner extends InMemoryScannerBase implements Scanner, Sca
 
     @Override
     public Iterator<Entry<Key,Value>> iterator() {
-        SortedKeyValueIterator<Key,Value> i = new SortedMapIterator(table.table);
+        SortedKeyValueIterator<Key,Value> i = table.iterator();
         try {
             i = new RangeFilter(createFilter(i), range);
             i.seek(range, createColumnBSS(fetchedColumns), !fetchedColumns.isEmpty());
@@ -0,0 +1,132 @@
+package datawave.accumulo.inmemory;
+
+import java.io.IOException;
+import java.util.Collection;
+import java.util.Map;
+import java.util.SortedMap;
+
+import org.apache.accumulo.core.data.ByteSequence;
+import org.apache.accumulo.core.data.Key;
+import org.apache.accumulo.core.data.Range;
+import org.apache.accumulo.core.data.Value;
+import org.apache.accumulo.core.iterators.IteratorEnvironment;
+import org.apache.accumulo.core.iterators.SortedKeyValueIterator;
+
+/**
+ * The immutable contents of a frozen {@link InMemoryTable}, held in sorted parallel arrays of keys and values. Compared to the skip list of a writable table
+ * this needs no node or index objects per entry, and a seek is a binary search over the keys.
+ */
+class InMemorySnapshot {
+
+    private final Key[] keys;
+    private final Value[] values;
+
+    /**
+     * @param entries
+     *            the entries of the snapshot, which are shared rather than copied and must not be written to while the snapshot is built
+     */
+    InMemorySnapshot(SortedMap<Key,Value> entries) {
+        keys = new Key[entries.size()];
+        values = new Value[keys.length];
+        int i = 0;
+        for (Map.Entry<Key,Value> entry : entries.entrySet()) {
+            keys[i] = entry.getKey();
+            values[i] = entry.getValue();
+            i++;
+        }
+    }
+
+    /**
+     * Copy the entries into a map
+     *
+     * @param target
+     *            the map
+     */
+    void copyTo(SortedMap<Key,Value> target) {
+        for (int i = 0; i < keys.length; i++) {
+            target.put(keys[i], values[i]);
+        }
+    }
+
+    SortedKeyValueIterator<Key,Value> iterator() {
+        return new SnapshotIterator();
+    }
+
+    /**
+     * @return the index of the first key which is not before the given key, or the number of keys if there is none
+     */
+    private int lowerBound(Key key) {
+        int low = 0;
+        int high = keys.length;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (keys[mid].compareTo(key) < 0) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    /**
+     * Iterates over the snapshot in the same way as a {@link org.apache.accumulo.core.iteratorsImpl.system.SortedMapIterator} over the table
+     */
+    private class SnapshotIterator implements SortedKeyValueIterator<Key,Value> {
+        private Range range = new Range();
+        private int index = keys.length;
+
+        @Override
+        public void init(SortedKeyValueIterator<Key,Value> source, Map<String,String> options, IteratorEnvironment env) throws IOException {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public boolean hasTop() {
+            return index < keys.length;
+        }
+
+        @Override
+        public void next() throws IOException {
+            if (index >= keys.length) {
+                throw new IllegalStateException();
+            }
+            index++;
+            checkEnd();
+        }
+
+        @Override
+        public void seek(Range range, Collection<ByteSequence> columnFamilies, boolean inclusive) throws IOException {
+            if (!columnFamilies.isEmpty() || inclusive) {
+                throw new IllegalArgumentException("I do not know how to filter column families");
+            }
+            this.range = range;
+            index = range.getStartKey() == null ? 0 : lowerBound(range.getStartKey());
+            while (index < keys.length && range.beforeStartKey(keys[index])) {
+                index++;
+            }
+            checkEnd();
+        }
+
+        @Override
+        public Key getTopKey() {
+            return keys[index];
+        }
+
+        @Override
+        public Value getTopValue() {
+            return values[index];
+        }
+
+        @Override
+        public SortedKeyValueIterator<Key,Value> deepCopy(IteratorEnvironment env) {
+            return new SnapshotIterator();
+        }
+
+        private void checkEnd() {
+            if (index < keys.length && range.afterEndKey(keys[index])) {
+                index = keys.length;
+            }
+        }
+    }
+}
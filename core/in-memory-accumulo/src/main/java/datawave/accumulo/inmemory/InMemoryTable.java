@@ -36,7 +36,9 @@ import org.apache.accumulo.core.data.ColumnUpdate;
 import org.apache.accumulo.core.data.Key;
 import org.apache.accumulo.core.data.Mutation;
 import org.apache.accumulo.core.data.Value;
+import org.apache.accumulo.core.iterators.SortedKeyValueIterator;
 import org.apache.accumulo.core.iteratorsImpl.IteratorConfigUtil;
+import org.apache.accumulo.core.iteratorsImpl.system.SortedMapIterator;
 import org.apache.accumulo.core.security.TablePermission;
 import org.apache.hadoop.io.Text;
 
@@ -82,6 +84,8 @@ public class InMemoryTable {
     }
 
     final SortedMap<Key,Value> table = new ConcurrentSkipListMap<>();
+    /** the contents of the table once frozen, when the map above is left empty */
+    private volatile InMemorySnapshot snapshot = null;
     int mutationCount = 0;
     final Map<String,String> settings;
     Map<String,EnumSet<TablePermission>> userPermissions = new HashMap<>();
@@ -142,6 +146,7 @@ public class InMemoryTable {
     synchronized void addMutation(Mutation m) {
         if (m.size() == 0)
             throw new IllegalArgumentException("Can not add empty mutations");
+        checkNotFrozen();
         long now = System.currentTimeMillis();
         mutationCount++;
         for (ColumnUpdate u : m.getUpdates()) {
@@ -159,6 +164,56 @@ public class InMemoryTable {
         }
     }
 
+    /**
+     * Copy the entries, splits and locality groups of another table into this one. The entries keep the order of their versions and are shared with the
+     * source table, as stored entries are never modified.
+     *
+     * @param source
+     *            the table to copy
+     */
+    synchronized void copyFrom(InMemoryTable source) {
+        checkNotFrozen();
+        synchronized (source) {
+            if (source.snapshot != null) {
+                source.snapshot.copyTo(table);
+            } else {
+                table.putAll(source.table);
+            }
+            mutationCount = Math.max(mutationCount, source.mutationCount);
+        }
+        splits.addAll(source.splits);
+        localityGroups = new TreeMap<>(source.localityGroups);
+    }
+
+    /**
+     * Replace the contents of the table with an immutable snapshot held in sorted arrays, which takes less memory and is faster to scan. This suits a table
+     * which is loaded once and then only read, e.g. a cache or a test fixture. A frozen table can not be written to, but it may be cloned into a new writable
+     * table. Scans already reading the table when it is frozen may stop short, so it should be frozen before it is shared with readers.
+     */
+    synchronized void freeze() {
+        if (snapshot == null) {
+            snapshot = new InMemorySnapshot(table);
+            table.clear();
+        }
+    }
+
+    public boolean isFrozen() {
+        return snapshot != null;
+    }
+
+    void checkNotFrozen() {
+        if (snapshot != null)
+            throw new IllegalStateException("Can not modify a frozen table");
+    }
+
+    /**
+     * @return an iterator over the entries of the table, for the bottom of a scan
+     */
+    SortedKeyValueIterator<Key,Value> iterator() {
+        InMemorySnapshot s = snapshot;
+        return s != null ? s.iterator() : new SortedMapIterator(table);
+    }
+
     public void addSplits(SortedSet<Text> partitionKeys) {
         splits.addAll(partitionKeys);
     }
@@ -203,4 +258,8 @@ public class InMemoryTable {
     public String getTableId() {
         return this.tableId;
     }
+
+    public TimeType getTimeType() {
+        return this.timeType;
+    }
 }
@@ -208,6 +208,21 @@ public class InMemoryTableOperations extends TableOperationsHelper {
         acu.tables.put(newTableName, t);
     }
 
+    /**
+     * Freeze a table, replacing its contents with an immutable snapshot held in sorted arrays which takes less memory and is faster to scan. This suits tables
+     * which are loaded once and then only read. The table can not be written to afterwards, but it may still be cloned, renamed or deleted.
+     *
+     * @param tableName
+     *            The table to freeze
+     * @throws TableNotFoundException
+     *             Thrown if the table does not exist
+     */
+    public void freeze(String tableName) throws TableNotFoundException {
+        if (!exists(tableName))
+            throw new TableNotFoundException(tableName, tableName, "");
+        acu.tables.get(tableName).freeze();
+    }
+
     @Override
     public void flush(String tableName) throws AccumuloException, AccumuloSecurityException {}
 
@@ -436,6 +451,7 @@ public class InMemoryTableOperations extends TableOperationsHelper {
         if (!exists(tableName))
             throw new TableNotFoundException(tableName, tableName, "");
         InMemoryTable t = acu.tables.get(tableName);
+        t.checkNotFrozen();
         Text startText = start != null ? new Text(start) : new Text();
         if (startText.getLength() == 0 && end == null) {
             t.table.clear();
@@ -483,13 +499,22 @@ public class InMemoryTableOperations extends TableOperationsHelper {
     @Override
     public void clone(String srcTableName, String newTableName, boolean flush, Map<String,String> propertiesToSet, Set<String> propertiesToExclude)
                     throws AccumuloException, AccumuloSecurityException, TableNotFoundException, TableExistsException {
-        throw new UnsupportedOperationException();
+        String namespace = TableNameUtil.qualify(newTableName).getFirst();
+        Validators.NEW_TABLE_NAME.validate(newTableName);
+        if (!exists(srcTableName))
+            throw new TableNotFoundException(srcTableName, srcTableName, "");
+        if (exists(newTableName))
+            throw new TableExistsException(newTableName, newTableName, "");
+        checkArgument(namespaceExists(namespace), "Namespace (" + namespace + ") does not exist, create it first");
+        acu.cloneTable(username, srcTableName, newTableName, propertiesToSet == null ? Collections.emptyMap() : propertiesToSet,
+                        propertiesToExclude == null ? Collections.emptySet() : propertiesToExclude);
     }
 
     @Override
-    public void clone(String s, String s1, CloneConfiguration cloneConfiguration)
+    public void clone(String srcTableName, String newTableName, CloneConfiguration cloneConfiguration)
                     throws AccumuloException, AccumuloSecurityException, TableNotFoundException, TableExistsException {
-        throw new UnsupportedOperationException();
+        clone(srcTableName, newTableName, cloneConfiguration.isFlush(), cloneConfiguration.getPropertiesToSet(),
+                        cloneConfiguration.getPropertiesToExclude());
     }
 
     @Override
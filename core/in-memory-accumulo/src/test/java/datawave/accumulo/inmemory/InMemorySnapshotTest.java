@@ -0,0 +1,260 @@
+package datawave.accumulo.inmemory;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+import org.apache.accumulo.core.client.AccumuloClient;
+import org.apache.accumulo.core.client.BatchScanner;
+import org.apache.accumulo.core.client.BatchWriter;
+import org.apache.accumulo.core.client.BatchWriterConfig;
+import org.apache.accumulo.core.client.Scanner;
+import org.apache.accumulo.core.client.admin.TimeType;
+import org.apache.accumulo.core.data.ByteSequence;
+import org.apache.accumulo.core.data.Key;
+import org.apache.accumulo.core.data.Mutation;
+import org.apache.accumulo.core.data.Range;
+import org.apache.accumulo.core.data.Value;
+import org.apache.accumulo.core.iterators.SortedKeyValueIterator;
+import org.apache.accumulo.core.security.Authorizations;
+import org.apache.hadoop.io.Text;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Checks that a frozen table reads the same as the writable table it was frozen from
+ */
+public class InMemorySnapshotTest {
+
+    private static final String WRITABLE = "writable";
+    private static final String FROZEN = "frozen";
+
+    private static final List<Range> RANGES = List.of(new Range(), new Range("r2", true, "r5", true), new Range("r2", false, "r5", false),
+                    new Range("r2", true, "r5", false), new Range("r2", false, "r5", true), new Range(null, "r3"), new Range("r7", null),
+                    new Range(new Key("r3", "cf1", "cq0"), true, new Key("r6", "cf0", "cq1"), true),
+                    new Range(new Key("r3", "cf1", "cq0"), false, new Key("r6", "cf0", "cq1"), false), Range.exact("r4", "cf2", "cq1"),
+                    // no entries
+                    new Range("r45", "r46"), new Range(null, "a"), new Range("s", null), Range.exact("r4", "cf3"));
+
+    private InMemoryInstance instance;
+    private AccumuloClient client;
+
+    @BeforeEach
+    public void setup() throws Exception {
+        instance = new InMemoryInstance();
+        client = new InMemoryAccumuloClient("root", instance);
+        for (String table : List.of(WRITABLE, FROZEN)) {
+            client.tableOperations().create(table);
+            try (BatchWriter writer = client.createBatchWriter(table, new BatchWriterConfig())) {
+                for (Mutation m : mutations()) {
+                    writer.addMutation(m);
+                }
+            }
+        }
+        ((InMemoryTableOperations) client.tableOperations()).freeze(FROZEN);
+    }
+
+    @Test
+    public void testScanner() throws Exception {
+        for (Range range : RANGES) {
+            assertEquals(scan(WRITABLE, range), scan(FROZEN, range), range.toString());
+        }
+        assertEquals(57, scan(FROZEN, new Range()).size());
+        assertEquals(21, scan(FROZEN, new Range("r2", true, "r5", true)).size());
+        assertEquals(9, scan(FROZEN, new Range("r2", false, "r5", false)).size());
+        assertTrue(scan(FROZEN, new Range("r45", "r46")).isEmpty());
+        assertTrue(scan(FROZEN, new Range("s", null)).isEmpty());
+    }
+
+    @Test
+    public void testScannerFetchedColumnFamilies() throws Exception {
+        for (Range range : RANGES) {
+            assertEquals(scan(WRITABLE, range, "cf1"), scan(FROZEN, range, "cf1"), range.toString());
+            assertEquals(scan(WRITABLE, range, "cf0", "cf2"), scan(FROZEN, range, "cf0", "cf2"), range.toString());
+        }
+        List<Map.Entry<Key,Value>> entries = scan(FROZEN, new Range(), "cf1");
+        assertEquals(19, entries.size());
+        for (Map.Entry<Key,Value> entry : entries) {
+            assertEquals(new Text("cf1"), entry.getKey().getColumnFamily());
+        }
+    }
+
+    @Test
+    public void testBatchScanner() throws Exception {
+        for (Range range : RANGES) {
+            assertEquals(batchScan(WRITABLE, List.of(range)), batchScan(FROZEN, List.of(range)), range.toString());
+            assertEquals(batchScan(WRITABLE, List.of(range), "cf2"), batchScan(FROZEN, List.of(range), "cf2"), range.toString());
+        }
+        assertEquals(batchScan(WRITABLE, RANGES), batchScan(FROZEN, RANGES));
+        assertEquals(batchScan(WRITABLE, RANGES, "cf0"), batchScan(FROZEN, RANGES, "cf0"));
+    }
+
+    @Test
+    public void testIterator() throws Exception {
+        InMemoryTable writable = new InMemoryTable(false, TimeType.LOGICAL, "1");
+        InMemoryTable frozen = new InMemoryTable(false, TimeType.LOGICAL, "2");
+        for (Mutation m : mutations()) {
+            writable.addMutation(m);
+            frozen.addMutation(m);
+        }
+        frozen.freeze();
+
+        // the iterators see the delete markers, which the scanners remove
+        for (Range range : RANGES) {
+            assertEquals(read(writable.iterator(), range), read(frozen.iterator(), range), range.toString());
+        }
+        assertEquals(93, read(frozen.iterator(), new Range()).size());
+    }
+
+    @Test
+    public void testDeepCopy() throws Exception {
+        InMemoryTable table = new InMemoryTable(false, TimeType.LOGICAL, "1");
+        for (Mutation m : mutations()) {
+            table.addMutation(m);
+        }
+        table.freeze();
+
+        SortedKeyValueIterator<Key,Value> iterator = table.iterator();
+        Range range = new Range("r2", true, "r5", false);
+        iterator.seek(range, Collections.emptyList(), false);
+        Key first = iterator.getTopKey();
+        iterator.next();
+
+        // a copy is positioned independently of the iterator it was copied from
+        SortedKeyValueIterator<Key,Value> copy = iterator.deepCopy(null);
+        Range copyRange = new Range("r7", null);
+        assertEquals(read(table.iterator(), copyRange), read(copy, copyRange));
+        assertTrue(iterator.hasTop());
+        assertTrue(range.contains(iterator.getTopKey()));
+        assertTrue(first.compareTo(iterator.getTopKey()) < 0);
+
+        List<Map.Entry<Key,Value>> expected = read(table.iterator(), range);
+        List<Map.Entry<Key,Value>> rest = new ArrayList<>();
+        while (iterator.hasTop()) {
+            rest.add(Map.entry(new Key(iterator.getTopKey()), iterator.getTopValue()));
+            iterator.next();
+        }
+        assertEquals(expected.subList(1, expected.size()), rest);
+    }
+
+    @Test
+    public void testIteratorRejectsColumnFamilies() {
+        InMemoryTable table = new InMemoryTable(false, TimeType.LOGICAL, "1");
+        table.freeze();
+        SortedKeyValueIterator<Key,Value> iterator = table.iterator();
+        assertThrows(IllegalArgumentException.class, () -> iterator.seek(new Range(), Collections.emptyList(), true));
+    }
+
+    @Test
+    public void testEmptyTable() throws Exception {
+        client.tableOperations().create("empty");
+        ((InMemoryTableOperations) client.tableOperations()).freeze("empty");
+        for (Range range : RANGES) {
+            assertTrue(scan("empty", range).isEmpty());
+            assertTrue(batchScan("empty", List.of(range), "cf1").isEmpty());
+        }
+    }
+
+    @Test
+    public void testCloneOfFrozenTable() throws Exception {
+        client.tableOperations().clone(FROZEN, "clone", false, Collections.emptyMap(), Collections.emptySet());
+        assertFalse(instance.acu.tables.get("clone").isFrozen());
+        assertEquals(scan(WRITABLE, new Range()), scan("clone", new Range()));
+
+        // the clone can be written to without changing the frozen table
+        try (BatchWriter writer = client.createBatchWriter("clone", new BatchWriterConfig())) {
+            Mutation m = new Mutation("r9");
+            m.put("cf9", "cq9", new Value("new"));
+            writer.addMutation(m);
+        }
+        assertEquals(58, scan("clone", new Range()).size());
+        assertEquals(57, scan(FROZEN, new Range()).size());
+
+        ((InMemoryTableOperations) client.tableOperations()).freeze("clone");
+        assertEquals(58, scan("clone", new Range()).size());
+    }
+
+    @Test
+    public void testFrozenTableRejectsWrites() throws Exception {
+        assertThrows(IllegalStateException.class, () -> client.tableOperations().deleteRows(FROZEN, new Text("r2"), new Text("r4")));
+        assertThrows(IllegalStateException.class, () -> client.tableOperations().deleteRows(FROZEN, null, null));
+        assertThrows(IllegalStateException.class, () -> {
+            try (BatchWriter writer = client.createBatchWriter(FROZEN, new BatchWriterConfig())) {
+                Mutation m = new Mutation("r9");
+                m.put("cf9", "cq9", new Value("new"));
+                writer.addMutation(m);
+            }
+        });
+        assertEquals(scan(WRITABLE, new Range()), scan(FROZEN, new Range()));
+    }
+
+    /**
+     * @return ten rows of three column families with two qualifiers each and two versions of the first qualifier, of which the scanners only
+     *         return the latest, with a few of the entries deleted
+     */
+    private static List<Mutation> mutations() {
+        List<Mutation> mutations = new ArrayList<>();
+        for (int row = 0; row < 10; row++) {
+            Mutation m = new Mutation("r" + row);
+            for (int cf = 0; cf < 3; cf++) {
+                m.put("cf" + cf, "cq0", 1, new Value("old"));
+                m.put("cf" + cf, "cq0", 2, new Value("r" + row + "cf" + cf + "cq0"));
+                m.put("cf" + cf, "cq1", 2, new Value("r" + row + "cf" + cf + "cq1"));
+            }
+            mutations.add(m);
+        }
+        Mutation delete = new Mutation("r3");
+        delete.putDelete("cf0", "cq1", 3);
+        delete.putDelete("cf1", "cq0", 3);
+        delete.putDelete("cf2", "cq1", 3);
+        mutations.add(delete);
+        return mutations;
+    }
+
+    private List<Map.Entry<Key,Value>> scan(String table, Range range, String... columnFamilies) throws Exception {
+        try (Scanner scanner = client.createScanner(table, new Authorizations())) {
+            scanner.setRange(range);
+            for (String columnFamily : columnFamilies) {
+                scanner.fetchColumnFamily(new Text(columnFamily));
+            }
+            List<Map.Entry<Key,Value>> entries = new ArrayList<>();
+            for (Map.Entry<Key,Value> entry : scanner) {
+                entries.add(Map.entry(new Key(entry.getKey()), entry.getValue()));
+            }
+            return entries;
+        }
+    }
+
+    private TreeMap<Key,Value> batchScan(String table, Collection<Range> ranges, String... columnFamilies) throws Exception {
+        try (BatchScanner scanner = client.createBatchScanner(table, new Authorizations(), 2)) {
+            scanner.setRanges(ranges);
+            for (String columnFamily : columnFamilies) {
+                scanner.fetchColumnFamily(new Text(columnFamily));
+            }
+            TreeMap<Key,Value> entries = new TreeMap<>();
+            for (Map.Entry<Key,Value> entry : scanner) {
+                entries.put(new Key(entry.getKey()), entry.getValue());
+            }
+            return entries;
+        }
+    }
+
+    private static List<Map.Entry<Key,Value>> read(SortedKeyValueIterator<Key,Value> iterator, Range range) throws IOException {
+        iterator.seek(range, Collections.<ByteSequence> emptyList(), false);
+        List<Map.Entry<Key,Value>> entries = new ArrayList<>();
+        while (iterator.hasTop()) {
+            entries.add(Map.entry(new Key(iterator.getTopKey()), iterator.getTopValue()));
+            iterator.next();
+        }
+        return entries;
+    }
+}
@@ -322,26 +322,39 @@ public abstract class ExecutorTask implements Runnable {
         RESULTS_ACTION running = shouldGenerateMoreResults(exhaustIterator, taskKey, pageSize, maxResults);
         int count = 0;
         QueryStatusMetrics metrics = new QueryStatusMetrics();
-        while (running == RESULTS_ACTION.GENERATE && iter.hasNext()) {
-            count++;
-            try {
-                Object result = iter.next();
-                if (log.isTraceEnabled()) {
-                    log.trace("Generated result for " + taskKey + ": " + result);
-                }
-                if (result != null) {
-                    publisher.publish(new Result(UUID.randomUUID().toString(), result));
-                    queryTaskUpdater.resultPublished();
-                    metrics.incrementNumResultsGenerated();
-                    updateMetrics(queryId, query, metrics, iter);
-                    updateQueryStatusMetrics(metrics);
-                }
-            } catch (EmptyObjectException eoe) {
-                if (log.isTraceEnabled()) {
-                    log.trace("Generated empty object exception for " + taskKey);
+        // results may be held back in a batch, so the checkpoint updater has to send them before it checkpoints the task past them
+        queryTaskUpdater.setPublisher(publisher);
+        try {
+            while (running == RESULTS_ACTION.GENERATE && iter.hasNext()) {
+                count++;
+                try {
+                    Object result = iter.next();
+                    if (log.isTraceEnabled()) {
+                        log.trace("Generated result for " + taskKey + ": " + result);
+                    }
+                    if (result != null) {
+                        if (!publisher.publish(new Result(UUID.randomUUID().toString(), result))) {
+                            throw new IOException("Failed to publish a result for " + taskKey);
+                        }
+                        queryTaskUpdater.resultPublished();
+                        metrics.incrementNumResultsGenerated();
+                        updateMetrics(queryId, query, metrics, iter);
+                        updateQueryStatusMetrics(metrics);
+                    }
+                } catch (EmptyObjectException eoe) {
+                    if (log.isTraceEnabled()) {
+                        log.trace("Generated empty object exception for " + taskKey);
+                    }
                 }
+                running = shouldGenerateMoreResults(exhaustIterator, taskKey, pageSize, maxResults);
+            }
+            // send any results still held back in a batch
+            if (!publisher.flush()) {
+                throw new IOException("Failed to publish the remaining results for " + taskKey);
             }
-            running = shouldGenerateMoreResults(exhaustIterator, taskKey, pageSize, maxResults);
+        } finally {
+            queryTaskUpdater.setPublisher(null);
+            publisher.close();
         }
         log.debug("Generated " + count + " results for " + taskKey);
 
@@ -448,6 +461,7 @@ public abstract class ExecutorTask implements Runnable {
         protected final Object refresh = new Object();
         protected Thread workThread;
         protected CheckpointableQueryLogic queryLogic;
+        protected QueryResultsPublisher publisher;
 
         public QueryTaskUpdater() {
             resultsThreshold = executorProperties.getCheckpointFlushResults();
@@ -491,13 +505,21 @@ public abstract class ExecutorTask implements Runnable {
             this.queryLogic = queryLogic;
         }
 
+        public synchronized void setPublisher(QueryResultsPublisher publisher) {
+            this.publisher = publisher;
+        }
+
         protected boolean isRefreshTime() {
             return (resultsCount >= resultsThreshold || lastRefresh + executorProperties.getCheckpointFlushMs() < System.currentTimeMillis());
         }
 
-        protected void refreshTask() {
+        protected synchronized void refreshTask() {
             try {
-                if (queryLogic != null) {
+                if (queryLogic != null && publisher != null && !publisher.flush()) {
+                    // the results generated so far could not be sent, so do not checkpoint past them
+                    log.warn("Could not send the held back results for " + task.getTaskKey() + ", skipping the checkpoint");
+                    task = cache.updateTask(task);
+                } else if (queryLogic != null) {
                     // update the task checkpoint and its last update millis
                     task = cache.checkpointTask(task.getTaskKey(), queryLogic.updateCheckpoint(task.getQueryCheckpoint()));
                 } else {
@@ -38,69 +38,67 @@ public class FindWorkTask implements Callable<Void> {
     @Override
     public Void call() throws Exception {
         statusLogger.logStatus(executor);
-        for (QueryStatus queryStatus : queryStorageCache.getQueryStatus()) {
-            // only process the queries that match this pool!!!
-            if (queryStatus.getQueryKey().getQueryPool().equalsIgnoreCase(executor.getExecutorProperties().getPool())) {
-                String queryId = queryStatus.getQueryKey().getQueryId();
-                switch (queryStatus.getQueryState()) {
-                    case CLOSE:
-                        if (executor.isWorkingOn(queryId)) {
-                            log.debug("Closing " + queryId);
-                            executor.handleRemoteRequest(QueryRequest.close(queryId), originService, destinationService);
-                        }
-                        break;
-                    case CANCEL:
-                        if (executor.isWorkingOn(queryId)) {
-                            log.debug("Cancelling " + queryId);
-                            executor.handleRemoteRequest(QueryRequest.cancel(queryId), originService, destinationService);
-                        }
-                        break;
-                    case CREATE:
-                        // Should we create a new thread to handle the remote request instead so that we can return immediately?
-                        // even if the next task is to plan, this will take care of it
-                        switch (queryStatus.getCreateStage()) {
-                            case CREATE:
-                            case PLAN:
-                                // recover orphaned tasks
-                                recoverOrphanedTasks(queryId, TaskStates.TASK_STATE.READY);
-                                log.debug("Creating " + queryId);
-                                executor.handleRemoteRequest(QueryRequest.create(queryId), originService, destinationService);
-                                break;
-                            case TASK:
-                                // recover orphaned tasks, however create tasks should be failed as we were already creating tasks
-                                recoverOrphanedTasks(queryId, TaskStates.TASK_STATE.READY,
-                                                Collections.singletonMap(QueryRequest.Method.CREATE, TaskStates.TASK_STATE.FAILED));
-                                log.debug("Nexting " + queryId);
-                                executor.handleRemoteRequest(QueryRequest.next(queryId), originService, destinationService);
-                                break;
-                            case RESULTS:
-                                // recover orphaned tasks, however create tasks should be completed as all tasks have already been created
-                                recoverOrphanedTasks(queryId, TaskStates.TASK_STATE.READY,
-                                                Collections.singletonMap(QueryRequest.Method.CREATE, TaskStates.TASK_STATE.COMPLETED));
-                                log.debug("Nexting " + queryId);
-                                executor.handleRemoteRequest(QueryRequest.next(queryId), originService, destinationService);
-                                break;
-                        }
-                        break;
-                    case PLAN:
-                        log.debug("Planning " + queryId);
-                        recoverOrphanedTasks(queryId, TaskStates.TASK_STATE.READY);
-                        // Should we create a new thread to handle the remote request instead so that we can return immediately?
-                        // even if the next task is to plan, this will take care of it
-                        executor.handleRemoteRequest(QueryRequest.plan(queryId), originService, destinationService);
-                        break;
-                    case PREDICT:
-                        log.debug("Predicting " + queryId);
-                        recoverOrphanedTasks(queryId, TaskStates.TASK_STATE.READY);
-                        // Should we create a new thread to handle the remote request instead so that we can return immediately?
-                        // even if the next task is to plan, this will take care of it
-                        executor.handleRemoteRequest(QueryRequest.predict(queryId), originService, destinationService);
-                        break;
-                    case DEFINE:
-                    case FAIL:
-                        // noop
-                        break;
-                }
+        // only process the queries that match this pool!!!
+        for (QueryStatus queryStatus : queryStorageCache.getQueryStatusForPool(executor.getExecutorProperties().getPool())) {
+            String queryId = queryStatus.getQueryKey().getQueryId();
+            switch (queryStatus.getQueryState()) {
+                case CLOSE:
+                    if (executor.isWorkingOn(queryId)) {
+                        log.debug("Closing " + queryId);
+                        executor.handleRemoteRequest(QueryRequest.close(queryId), originService, destinationService);
+                    }
+                    break;
+                case CANCEL:
+                    if (executor.isWorkingOn(queryId)) {
+                        log.debug("Cancelling " + queryId);
+                        executor.handleRemoteRequest(QueryRequest.cancel(queryId), originService, destinationService);
+                    }
+                    break;
+                case CREATE:
+                    // Should we create a new thread to handle the remote request instead so that we can return immediately?
+                    // even if the next task is to plan, this will take care of it
+                    switch (queryStatus.getCreateStage()) {
+                        case CREATE:
+                        case PLAN:
+                            // recover orphaned tasks
+                            recoverOrphanedTasks(queryId, TaskStates.TASK_STATE.READY);
+                            log.debug("Creating " + queryId);
+                            executor.handleRemoteRequest(QueryRequest.create(queryId), originService, destinationService);
+                            break;
+                        case TASK:
+                            // recover orphaned tasks, however create tasks should be failed as we were already creating tasks
+                            recoverOrphanedTasks(queryId, TaskStates.TASK_STATE.READY,
+                                            Collections.singletonMap(QueryRequest.Method.CREATE, TaskStates.TASK_STATE.FAILED));
+                            log.debug("Nexting " + queryId);
+                            executor.handleRemoteRequest(QueryRequest.next(queryId), originService, destinationService);
+                            break;
+                        case RESULTS:
+                            // recover orphaned tasks, however create tasks should be completed as all tasks have already been created
+                            recoverOrphanedTasks(queryId, TaskStates.TASK_STATE.READY,
+                                            Collections.singletonMap(QueryRequest.Method.CREATE, TaskStates.TASK_STATE.COMPLETED));
+                            log.debug("Nexting " + queryId);
+                            executor.handleRemoteRequest(QueryRequest.next(queryId), originService, destinationService);
+                            break;
+                    }
+                    break;
+                case PLAN:
+                    log.debug("Planning " + queryId);
+                    recoverOrphanedTasks(queryId, TaskStates.TASK_STATE.READY);
+                    // Should we create a new thread to handle the remote request instead so that we can return immediately?
+                    // even if the next task is to plan, this will take care of it
+                    executor.handleRemoteRequest(QueryRequest.plan(queryId), originService, destinationService);
+                    break;
+                case PREDICT:
+                    log.debug("Predicting " + queryId);
+                    recoverOrphanedTasks(queryId, TaskStates.TASK_STATE.READY);
+                    // Should we create a new thread to handle the remote request instead so that we can return immediately?
+                    // even if the next task is to plan, this will take care of it
+                    executor.handleRemoteRequest(QueryRequest.predict(queryId), originService, destinationService);
+                    break;
+                case DEFINE:
+                case FAIL:
+                    // noop
+                    break;
             }
         }
         return null;
@@ -159,6 +157,11 @@ public class FindWorkTask implements Callable<Void> {
      *            If true then all of the running tasks will be addressed instead of maxOrphanedTasksToCheck
      */
     public void recoverOrphanedTasks(String queryId, TaskStates.TASK_STATE state, Map<QueryRequest.Method,TaskStates.TASK_STATE> overrides, boolean all) {
+        // look for orphans before locking so that an idle pass does not serialize with the executors updating the task states
+        if (!hasOrphanedTasks(queryStorageCache.getTaskStates(queryId), all)) {
+            return;
+        }
+
         QueryStorageLock lock = queryStorageCache.getTaskStatesLock(queryId);
         lock.lock();
         try {
@@ -168,10 +171,11 @@ public class FindWorkTask implements Callable<Void> {
             if (taskStates != null) {
                 log.debug("Searching for orphaned tasks for " + queryId);
 
+                boolean recovered = false;
                 for (TaskKey taskKey : taskStates.getTasksForState(TaskStates.TASK_STATE.RUNNING,
                                 all ? -1 : executor.getExecutorProperties().getMaxOrphanedTasksToCheck())) {
                     QueryTask task = queryStorageCache.getTask(taskKey);
-                    if ((System.currentTimeMillis() - task.getLastUpdatedMillis()) > executor.getExecutorProperties().getOrphanThresholdMs()) {
+                    if (isOrphaned(task)) {
                         if (overrides.containsKey(task.getAction())) {
                             log.info("Resetting orphaned task " + taskKey.getTaskId() + " for " + queryId + " to " + overrides.get(task.getAction()));
                             taskStates.setState(taskKey.getTaskId(), overrides.get(task.getAction()));
@@ -179,11 +183,31 @@ public class FindWorkTask implements Callable<Void> {
                             log.info("Resetting orphaned task " + taskKey.getTaskId() + " for " + queryId + " to " + state);
                             taskStates.setState(taskKey.getTaskId(), state);
                         }
+                        recovered = true;
                     }
                 }
+                if (recovered) {
+                    queryStorageCache.updateTaskStates(taskStates);
+                }
             }
         } finally {
             lock.unlock();
         }
     }
+
+    private boolean hasOrphanedTasks(TaskStates taskStates, boolean all) {
+        if (taskStates != null) {
+            for (TaskKey taskKey : taskStates.getTasksForState(TaskStates.TASK_STATE.RUNNING,
+                            all ? -1 : executor.getExecutorProperties().getMaxOrphanedTasksToCheck())) {
+                if (isOrphaned(queryStorageCache.getTask(taskKey))) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    private boolean isOrphaned(QueryTask task) {
+        return task != null && (System.currentTimeMillis() - task.getLastUpdatedMillis()) > executor.getExecutorProperties().getOrphanThresholdMs();
+    }
 }
@@ -0,0 +1,145 @@
+package datawave.microservice.query.messaging;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+
+import datawave.microservice.query.messaging.config.MessagingProperties;
+
+/**
+ * A publisher which packs results into batches using the {@link ResultBatchCodec}. A batch is sent once it holds the maximum number of results, once its
+ * oldest result has waited for the maximum latency, or when the publisher is flushed or closed.
+ */
+public class BatchingQueryResultsPublisher implements QueryResultsPublisher {
+    private static final Logger log = LoggerFactory.getLogger(BatchingQueryResultsPublisher.class);
+
+    private static final ScheduledExecutorService flusher = Executors
+                    .newSingleThreadScheduledExecutor(new ThreadFactoryBuilder().setNameFormat("result-batch-flusher-%d").setDaemon(true).build());
+
+    private final MessagingProperties.BatchProperties batchProperties;
+    private final ObjectMapper objectMapper;
+    private final MessageSender sender;
+    // guards the batch, the flusher only tries it so that a publisher blocked in a send does not hold up the batches of other queries
+    private final ReentrantLock lock = new ReentrantLock();
+
+    private List<Result> batch;
+    private ScheduledFuture<?> scheduledFlush;
+    // set once a batch could not be encoded, as its results are lost
+    private boolean failed = false;
+
+    /**
+     * Sends an encoded message to the queue of a query
+     */
+    public interface MessageSender extends Closeable {
+        boolean send(String message, long interval, TimeUnit timeUnit);
+
+        /**
+         * Send a message holding a number of results, for senders which track the results rather than the messages in the queue
+         */
+        default boolean send(String message, int numResults, long interval, TimeUnit timeUnit) {
+            return send(message, interval, timeUnit);
+        }
+    }
+
+    public BatchingQueryResultsPublisher(MessagingProperties.BatchProperties batchProperties, ObjectMapper objectMapper, MessageSender sender) {
+        this.batchProperties = batchProperties;
+        this.objectMapper = objectMapper;
+        this.sender = sender;
+        this.batch = new ArrayList<>(batchProperties.getMaxResults());
+    }
+
+    @Override
+    public boolean publish(Result result, long interval, TimeUnit timeUnit) {
+        lock.lock();
+        try {
+            batch.add(result);
+            if (batch.size() >= batchProperties.getMaxResults()) {
+                return send(interval, timeUnit);
+            }
+            if (scheduledFlush == null) {
+                scheduledFlush = flusher.schedule(this::flushOnLatency, batchProperties.getMaxLatencyMillis(), TimeUnit.MILLISECONDS);
+            }
+            // report a lost batch to the next caller, a latency flush which timed out kept its results for the next batch
+            return !failed;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public boolean flush() {
+        lock.lock();
+        try {
+            return send(Long.MAX_VALUE, TimeUnit.MILLISECONDS);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void flushOnLatency() {
+        if (!lock.tryLock()) {
+            // a publish or flush is sending this batch, check back later rather than wait on it. The scheduled flush is left alone as it belongs to the
+            // lock holder, and an extra flush of an empty batch does nothing.
+            flusher.schedule(this::flushOnLatency, batchProperties.getMaxLatencyMillis(), TimeUnit.MILLISECONDS);
+            return;
+        }
+        try {
+            scheduledFlush = null;
+            // do not hold up the batches of other queries when this queue is full, the batch is retried with the next result or flush
+            send(Math.max(1, batchProperties.getMaxLatencyMillis()), TimeUnit.MILLISECONDS);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private boolean send(long interval, TimeUnit timeUnit) {
+        if (scheduledFlush != null) {
+            scheduledFlush.cancel(false);
+            scheduledFlush = null;
+        }
+        if (batch.isEmpty()) {
+            return !failed;
+        }
+
+        List<Result> results = batch;
+        batch = new ArrayList<>(batchProperties.getMaxResults());
+        if (log.isDebugEnabled()) {
+            log.debug("Publishing batch of " + results.size() + " results");
+        }
+
+        String message;
+        try {
+            message = ResultBatchCodec.encode(results, objectMapper);
+        } catch (IOException e) {
+            log.error("Unable to serialize result batch", e);
+            failed = true;
+            return false;
+        }
+
+        boolean success = sender.send(message, results.size(), interval, timeUnit);
+        if (!success) {
+            // keep the results so that they go out with the next batch
+            results.addAll(batch);
+            batch = results;
+        }
+        return success && !failed;
+    }
+
+    @Override
+    public void close() throws IOException {
+        flush();
+        sender.close();
+    }
+}
@@ -42,7 +42,8 @@ public interface QueryResultsManager {
     void emptyQuery(String queryId);
 
     /**
-     * Get the number of results left to be consumed for a query
+     * Get the number of results left to be consumed for a query. When results are published in batches, a backend which can only count its messages returns
+     * an upper bound, counting each message as a full batch.
      *
      * @param queryId
      *            The query Id
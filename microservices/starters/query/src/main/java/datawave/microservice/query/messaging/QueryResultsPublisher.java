@@ -28,4 +28,13 @@ public interface QueryResultsPublisher extends Closeable {
      * @return true if successful, false otherwise
      */
     boolean publish(Result result, long interval, TimeUnit timeUnit);
+
+    /**
+     * Sends any results held back by this publisher, waiting as long as needed
+     *
+     * @return true if successful, false otherwise
+     */
+    default boolean flush() {
+        return true;
+    }
 }
@@ -0,0 +1,76 @@
+package datawave.microservice.query.messaging;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Base64;
+import java.util.Collections;
+import java.util.List;
+import java.util.zip.Deflater;
+import java.util.zip.DeflaterOutputStream;
+import java.util.zip.InflaterInputStream;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+/**
+ * Packs several results into a single queue message. A batch is the JSON list of its results, deflated and base64 encoded behind a {@link #BATCH_PREFIX} so
+ * that it can travel over the same string queues as single results. Since a single result is always a JSON object, {@link #decode(String, ObjectMapper)}
+ * accepts either form.
+ */
+public class ResultBatchCodec {
+    public static final String BATCH_PREFIX = "batch:";
+
+    private static final TypeReference<List<Result>> RESULT_LIST = new TypeReference<List<Result>>() {};
+
+    private ResultBatchCodec() {}
+
+    /**
+     * Encode a batch of results
+     *
+     * @param results
+     *            the results
+     * @param objectMapper
+     *            the object mapper used for single results
+     * @return the message
+     * @throws IOException
+     *             if a result could not be serialized
+     */
+    public static String encode(List<Result> results, ObjectMapper objectMapper) throws IOException {
+        byte[] json = objectMapper.writerFor(RESULT_LIST).writeValueAsBytes(results);
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(json.length / 4 + 64);
+        Deflater deflater = new Deflater(Deflater.BEST_SPEED);
+        try (DeflaterOutputStream out = new DeflaterOutputStream(bytes, deflater)) {
+            out.write(json);
+        } finally {
+            deflater.end();
+        }
+        return BATCH_PREFIX + Base64.getEncoder().encodeToString(bytes.toByteArray());
+    }
+
+    /**
+     * Decode a message holding either a single result or a batch of results
+     *
+     * @param message
+     *            the message
+     * @param objectMapper
+     *            the object mapper used for single results
+     * @return the results in the order they were published
+     * @throws IOException
+     *             if the message could not be deserialized
+     */
+    public static List<Result> decode(String message, ObjectMapper objectMapper) throws IOException {
+        if (isBatch(message)) {
+            byte[] deflated = Base64.getDecoder().decode(message.substring(BATCH_PREFIX.length()));
+            try (InputStream in = new InflaterInputStream(new ByteArrayInputStream(deflated))) {
+                return objectMapper.readerFor(RESULT_LIST).readValue(in);
+            }
+        }
+        return Collections.singletonList(objectMapper.readerFor(Result.class).readValue(message));
+    }
+
+    public static boolean isBatch(String message) {
+        return message.startsWith(BATCH_PREFIX);
+    }
+}
@@ -36,6 +36,9 @@ public class MessagingProperties {
 
     private ClaimCheckProperties claimCheck = new ClaimCheckProperties();
 
+    @Valid
+    private BatchProperties batch = new BatchProperties();
+
     public String getBackend() {
         return backend;
     }
@@ -84,6 +87,14 @@ public class MessagingProperties {
         this.claimCheck = claimCheck;
     }
 
+    public BatchProperties getBatch() {
+        return batch;
+    }
+
+    public void setBatch(BatchProperties batch) {
+        this.batch = batch;
+    }
+
     public static final class KafkaProperties {
         // max time to block in the consumer waiting for records
         @PositiveOrZero
@@ -349,4 +360,41 @@ public class MessagingProperties {
             this.backend = backend;
         }
     }
+
+    public final static class BatchProperties {
+        // whether results should be packed into batches (applicable to kafka and hazelcast only)
+        private boolean enabled = false;
+
+        // the maximum number of results to pack into one message
+        @Positive
+        private int maxResults = 100;
+
+        // the maximum time a result may wait for its batch to fill before the batch is sent
+        @PositiveOrZero
+        private long maxLatencyMillis = 50L;
+
+        public boolean isEnabled() {
+            return enabled;
+        }
+
+        public void setEnabled(boolean enabled) {
+            this.enabled = enabled;
+        }
+
+        public int getMaxResults() {
+            return maxResults;
+        }
+
+        public void setMaxResults(int maxResults) {
+            this.maxResults = maxResults;
+        }
+
+        public long getMaxLatencyMillis() {
+            return maxLatencyMillis;
+        }
+
+        public void setMaxLatencyMillis(long maxLatencyMillis) {
+            this.maxLatencyMillis = maxLatencyMillis;
+        }
+    }
 }
@@ -1,18 +1,23 @@
 package datawave.microservice.query.messaging.hazelcast;
 
 import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.concurrent.ConcurrentLinkedDeque;
 import java.util.concurrent.TimeUnit;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
-import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.hazelcast.collection.IQueue;
+import com.hazelcast.crdt.pncounter.PNCounter;
 import com.hazelcast.spi.exception.DistributedObjectDestroyedException;
 
 import datawave.microservice.query.messaging.QueryResultsListener;
 import datawave.microservice.query.messaging.Result;
+import datawave.microservice.query.messaging.ResultBatchCodec;
 
 public class HazelcastQueryResultsListener implements QueryResultsListener {
     private final Logger log = LoggerFactory.getLogger(this.getClass());
@@ -20,13 +25,32 @@ public class HazelcastQueryResultsListener implements QueryResultsListener {
     private final IQueue<String> queue;
     private final ObjectMapper objectMapper;
     private final String listenerId;
+    private final PNCounter resultCount;
 
-    private boolean stopped = false;
+    // the rest of the last batch polled from the queue
+    private final Deque<Result> pending = new ConcurrentLinkedDeque<>();
+
+    private volatile boolean stopped = false;
 
     public HazelcastQueryResultsListener(IQueue<String> queue, ObjectMapper objectMapper, String listenerId) {
+        this(queue, objectMapper, listenerId, null);
+    }
+
+    /**
+     * @param queue
+     *            the queue of the query
+     * @param objectMapper
+     *            the object mapper
+     * @param listenerId
+     *            the listener id
+     * @param resultCount
+     *            the count of results in the queue, which is taken from as messages are received, or null if only the messages are counted
+     */
+    public HazelcastQueryResultsListener(IQueue<String> queue, ObjectMapper objectMapper, String listenerId, PNCounter resultCount) {
         this.queue = queue;
         this.objectMapper = objectMapper;
         this.listenerId = listenerId;
+        this.resultCount = resultCount;
     }
 
     @Override
@@ -38,17 +62,28 @@ public class HazelcastQueryResultsListener implements QueryResultsListener {
     public Result receive(long interval, TimeUnit timeUnit) {
         Result result = null;
         if (!stopped) {
-            try {
-                String data = queue.poll(interval, timeUnit);
-                if (data != null) {
-                    result = objectMapper.readerFor(Result.class).readValue(data);
+            result = pending.poll();
+            if (result == null) {
+                try {
+                    String data = queue.poll(interval, timeUnit);
+                    if (data != null) {
+                        List<Result> results = ResultBatchCodec.decode(data, objectMapper);
+                        if (resultCount != null) {
+                            resultCount.addAndGet(-results.size());
+                        }
+                        pending.addAll(results);
+                        result = pending.poll();
+                        if (stopped) {
+                            returnPending();
+                        }
+                    }
+                } catch (InterruptedException e) {
+                    log.debug("Interrupted while waiting for query results");
+                } catch (IOException e) {
+                    log.debug("Unable to deserialize result");
+                } catch (DistributedObjectDestroyedException e) {
+                    log.debug("Unable to poll results from destroyed queue");
                 }
-            } catch (InterruptedException e) {
-                log.debug("Interrupted while waiting for query results");
-            } catch (JsonProcessingException e) {
-                log.debug("Unable to deserialize result");
-            } catch (DistributedObjectDestroyedException e) {
-                log.debug("Unable to poll results from destroyed queue");
             }
         }
         return result;
@@ -56,11 +91,36 @@ public class HazelcastQueryResultsListener implements QueryResultsListener {
 
     @Override
     public boolean hasResults() {
-        return !queue.isEmpty();
+        return !pending.isEmpty() || !queue.isEmpty();
     }
 
     @Override
     public void close() throws IOException {
         stopped = true;
+        returnPending();
+    }
+
+    /**
+     * Return the rest of a partially received batch to the queue for the next listener
+     */
+    private void returnPending() {
+        List<Result> results = new ArrayList<>();
+        Result result;
+        while ((result = pending.poll()) != null) {
+            results.add(result);
+        }
+        if (!results.isEmpty()) {
+            try {
+                if (!queue.offer(ResultBatchCodec.encode(results, objectMapper))) {
+                    log.error("Unable to return " + results.size() + " results to " + queue.getName());
+                } else if (resultCount != null) {
+                    resultCount.addAndGet(results.size());
+                }
+            } catch (IOException e) {
+                log.error("Unable to serialize " + results.size() + " results for " + queue.getName(), e);
+            } catch (DistributedObjectDestroyedException e) {
+                log.debug("Unable to return results to destroyed queue");
+            }
+        }
     }
 }
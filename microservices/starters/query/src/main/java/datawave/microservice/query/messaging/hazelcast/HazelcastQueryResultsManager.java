@@ -9,7 +9,9 @@ import org.springframework.stereotype.Component;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.hazelcast.core.HazelcastInstance;
+import com.hazelcast.crdt.pncounter.PNCounter;
 
+import datawave.microservice.query.messaging.BatchingQueryResultsPublisher;
 import datawave.microservice.query.messaging.QueryResultsListener;
 import datawave.microservice.query.messaging.QueryResultsManager;
 import datawave.microservice.query.messaging.QueryResultsPublisher;
@@ -24,6 +26,8 @@ public class HazelcastQueryResultsManager implements QueryResultsManager {
 
     static final String QUEUE_PREFIX = "queryResults.";
 
+    static final String RESULT_COUNT_PREFIX = "queryResultsCount.";
+
     static final String SPLIT_BRAIN_PROTECTION_NAME = "splitBrainDefault";
 
     private final MessagingProperties messagingProperties;
@@ -38,13 +42,28 @@ public class HazelcastQueryResultsManager implements QueryResultsManager {
     @Override
     public QueryResultsListener createListener(String listenerId, String queryId) {
         return new HazelcastQueryResultsListener(HazelcastMessagingUtils.getOrCreateQueue(hazelcastInstance,
-                        messagingProperties.getHazelcast().getBackupCount(), QUEUE_PREFIX + queryId), objectMapper, listenerId);
+                        messagingProperties.getHazelcast().getBackupCount(), QUEUE_PREFIX + queryId), objectMapper, listenerId, getResultCount(queryId));
     }
 
     @Override
     public QueryResultsPublisher createPublisher(String queryId) {
-        return new HazelcastQueryResultsPublisher(HazelcastMessagingUtils.getOrCreateQueue(hazelcastInstance,
-                        messagingProperties.getHazelcast().getBackupCount(), QUEUE_PREFIX + queryId), objectMapper);
+        HazelcastQueryResultsPublisher publisher = new HazelcastQueryResultsPublisher(HazelcastMessagingUtils.getOrCreateQueue(hazelcastInstance,
+                        messagingProperties.getHazelcast().getBackupCount(), QUEUE_PREFIX + queryId), objectMapper, getResultCount(queryId));
+        if (messagingProperties.getBatch().isEnabled()) {
+            return new BatchingQueryResultsPublisher(messagingProperties.getBatch(), objectMapper, publisher);
+        }
+        return publisher;
+    }
+
+    /**
+     * A batch may hold any number of results, so with batching the results in a queue are counted as they are sent and received
+     *
+     * @param queryId
+     *            the query id
+     * @return the count of results in the queue of the query, or null if the messages are single results
+     */
+    private PNCounter getResultCount(String queryId) {
+        return messagingProperties.getBatch().isEnabled() ? hazelcastInstance.getPNCounter(RESULT_COUNT_PREFIX + queryId) : null;
     }
 
     @Override
@@ -54,6 +73,7 @@ public class HazelcastQueryResultsManager implements QueryResultsManager {
         } catch (Exception e) {
             log.error("Failed to delete queue {}", queryId, e);
         }
+        deleteResultCount(queryId);
     }
 
     @Override
@@ -63,10 +83,28 @@ public class HazelcastQueryResultsManager implements QueryResultsManager {
         } catch (Exception e) {
             log.error("Unable to empty queue {}", queryId, e);
         }
+        deleteResultCount(queryId);
+    }
+
+    private void deleteResultCount(String queryId) {
+        if (messagingProperties.getBatch().isEnabled()) {
+            try {
+                hazelcastInstance.getPNCounter(RESULT_COUNT_PREFIX + queryId).destroy();
+            } catch (Exception e) {
+                log.error("Failed to delete result count {}", queryId, e);
+            }
+        }
     }
 
     @Override
     public int getNumResultsRemaining(String queryId) {
-        return hazelcastInstance.getQueue(QUEUE_PREFIX + queryId).size();
+        int numMessages = hazelcastInstance.getQueue(QUEUE_PREFIX + queryId).size();
+        if (numMessages > 0 && messagingProperties.getBatch().isEnabled()) {
+            // the count is updated after the queue, and without the split brain protection of the queue, so keep it within what the messages can hold
+            long numResults = hazelcastInstance.getPNCounter(RESULT_COUNT_PREFIX + queryId).get();
+            long maxResults = (long) numMessages * messagingProperties.getBatch().getMaxResults();
+            return (int) Math.min(Integer.MAX_VALUE, Math.max(numMessages, Math.min(numResults, maxResults)));
+        }
+        return numMessages;
     }
 }
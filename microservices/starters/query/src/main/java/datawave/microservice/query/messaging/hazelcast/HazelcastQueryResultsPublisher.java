@@ -9,32 +9,64 @@ import org.slf4j.LoggerFactory;
 import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.hazelcast.collection.IQueue;
+import com.hazelcast.crdt.pncounter.PNCounter;
 
+import datawave.microservice.query.messaging.BatchingQueryResultsPublisher;
 import datawave.microservice.query.messaging.QueryResultsPublisher;
 import datawave.microservice.query.messaging.Result;
 
-public class HazelcastQueryResultsPublisher implements QueryResultsPublisher {
+public class HazelcastQueryResultsPublisher implements QueryResultsPublisher, BatchingQueryResultsPublisher.MessageSender {
     private final Logger log = LoggerFactory.getLogger(this.getClass());
 
     private final IQueue<String> queue;
     private final ObjectMapper objectMapper;
+    private final PNCounter resultCount;
 
     public HazelcastQueryResultsPublisher(IQueue<String> queue, ObjectMapper objectMapper) {
+        this(queue, objectMapper, null);
+    }
+
+    /**
+     * @param queue
+     *            the queue of the query
+     * @param objectMapper
+     *            the object mapper
+     * @param resultCount
+     *            the count of results in the queue, which is added to as messages are sent, or null if only the messages are counted
+     */
+    public HazelcastQueryResultsPublisher(IQueue<String> queue, ObjectMapper objectMapper, PNCounter resultCount) {
         this.queue = queue;
         this.objectMapper = objectMapper;
+        this.resultCount = resultCount;
     }
 
     @Override
     public boolean publish(Result result, long interval, TimeUnit timeUnit) {
+        try {
+            return send(objectMapper.writeValueAsString(result), 1, interval, timeUnit);
+        } catch (JsonProcessingException e) {
+            log.error("Unable to serialize result", e);
+        }
+        return false;
+    }
+
+    @Override
+    public boolean send(String message, long interval, TimeUnit timeUnit) {
+        return send(message, 1, interval, timeUnit);
+    }
+
+    @Override
+    public boolean send(String message, int numResults, long interval, TimeUnit timeUnit) {
         if (log.isDebugEnabled()) {
             log.debug("Publishing message to " + queue.getName());
         }
 
         boolean success = false;
         try {
-            success = queue.offer(objectMapper.writeValueAsString(result), interval, timeUnit);
-        } catch (JsonProcessingException e) {
-            log.error("Unable to serialize result", e);
+            success = queue.offer(message, interval, timeUnit);
+            if (success && resultCount != null) {
+                resultCount.addAndGet(numResults);
+            }
         } catch (InterruptedException e) {
             log.error("Interrupted waiting for hazelcast offer", e);
         }
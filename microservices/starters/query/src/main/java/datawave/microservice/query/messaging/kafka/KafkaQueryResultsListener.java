@@ -1,13 +1,17 @@
 package datawave.microservice.query.messaging.kafka;
 
-import static datawave.microservice.query.messaging.AcknowledgementCallback.Status.ACK;
 import static datawave.microservice.query.messaging.AcknowledgementCallback.Status.NACK;
 import static datawave.microservice.query.messaging.kafka.KafkaQueryResultsManager.TOPIC_PREFIX;
 
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.concurrent.CountDownLatch;
 import java.util.concurrent.LinkedBlockingQueue;
 import java.util.concurrent.TimeUnit;
-import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
 
 import org.apache.kafka.clients.consumer.ConsumerRecord;
 import org.slf4j.Logger;
@@ -20,12 +24,13 @@ import org.springframework.kafka.listener.ContainerProperties;
 import org.springframework.kafka.listener.KafkaMessageListenerContainer;
 import org.springframework.kafka.support.Acknowledgment;
 
-import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.databind.ObjectMapper;
 
 import datawave.microservice.query.messaging.AcknowledgementCallback;
 import datawave.microservice.query.messaging.QueryResultsListener;
+import datawave.microservice.query.messaging.QueryResultsPublisher;
 import datawave.microservice.query.messaging.Result;
+import datawave.microservice.query.messaging.ResultBatchCodec;
 import datawave.microservice.query.messaging.config.MessagingProperties;
 
 /**
@@ -38,14 +43,16 @@ class KafkaQueryResultsListener implements QueryResultsListener, AcknowledgingMe
     private final AbstractMessageListenerContainer<String,String> container;
     private final ObjectMapper objectMapper = new ObjectMapper();
     private final String queryId;
+    private final Supplier<QueryResultsPublisher> returnPublisherSupplier;
     private boolean stopped = false;
 
     public KafkaQueryResultsListener(MessagingProperties messagingProperties, ConsumerFactory<String,String> kafkaConsumerFactory, String listenerId,
-                    String queryId) {
+                    String queryId, Supplier<QueryResultsPublisher> returnPublisherSupplier) {
         if (log.isTraceEnabled()) {
             log.trace("Creating kafka query results listener for " + queryId + " with listenerId " + listenerId);
         }
         this.queryId = queryId;
+        this.returnPublisherSupplier = returnPublisherSupplier;
         ContainerProperties containerProps = new ContainerProperties(TOPIC_PREFIX + queryId);
         containerProps.setClientId(listenerId);
 
@@ -136,24 +143,10 @@ class KafkaQueryResultsListener implements QueryResultsListener, AcknowledgingMe
                 log.trace("Query " + queryId + " Listener " + getListenerId() + " got message " + data.key());
             }
 
-            Result result;
-            final CountDownLatch latch = new CountDownLatch(1);
-            final AtomicReference<AcknowledgementCallback.Status> ackStatus = new AtomicReference<>();
-            String resultId = null;
+            List<Result> results;
             try {
-                result = objectMapper.readerFor(Result.class).readValue(data.value());
-                resultId = result.getId();
-
-                if (log.isTraceEnabled()) {
-                    log.trace("Query {} Received record {} from topic {} and partition {} at offset {}", queryId, resultId, data.topic(), data.partition(),
-                                    data.offset());
-                }
-
-                result.setAcknowledgementCallback(status -> {
-                    ackStatus.set(status);
-                    latch.countDown();
-                });
-            } catch (JsonProcessingException e) {
+                results = ResultBatchCodec.decode(data.value(), objectMapper);
+            } catch (IOException e) {
                 acknowledgment.nack(0);
                 if (log.isTraceEnabled()) {
                     log.trace("Query {} Nacking record from topic {} and partition {} at offset {} because the result could not be deserialized", queryId,
@@ -162,36 +155,72 @@ class KafkaQueryResultsListener implements QueryResultsListener, AcknowledgingMe
                 throw new RuntimeException("Unable to deserialize results for " + queryId, e);
             }
 
-            // add the result if we're still running, otherwise nack it right away
+            // a record may hold a batch of results, each of which is acked or nacked on its own
+            final CountDownLatch latch = new CountDownLatch(results.size());
+            final AtomicReferenceArray<AcknowledgementCallback.Status> ackStatus = new AtomicReferenceArray<>(results.size());
+            for (int i = 0; i < results.size(); i++) {
+                final int index = i;
+                Result result = results.get(i);
+
+                if (log.isTraceEnabled()) {
+                    log.trace("Query {} Received record {} from topic {} and partition {} at offset {}", queryId, result.getId(), data.topic(),
+                                    data.partition(), data.offset());
+                }
+
+                result.setAcknowledgementCallback(status -> {
+                    if (ackStatus.compareAndSet(index, null, status)) {
+                        latch.countDown();
+                    }
+                });
+            }
+
+            // add the results if we're still running, otherwise nack them right away
             synchronized (resultQueue) {
                 if (!stopped) {
                     // synchronize on resultQueue to ensure we don't add any results if in the close call.
-                    resultQueue.add(result);
+                    resultQueue.addAll(results);
                 } else {
-                    result.acknowledge(NACK);
+                    for (Result result : results) {
+                        result.acknowledge(NACK);
+                    }
                 }
             }
 
             try {
                 latch.await();
-                if (ackStatus.get() == ACK) {
+
+                List<Result> rejected = new ArrayList<>();
+                for (int i = 0; i < results.size(); i++) {
+                    if (ackStatus.get(i) == NACK) {
+                        rejected.add(results.get(i));
+                    }
+                }
+
+                if (rejected.isEmpty()) {
                     acknowledgment.acknowledge();
                     if (log.isTraceEnabled()) {
-                        log.trace("Query {} Acking record {} from topic {} and partition {} at offset {}", queryId, resultId, data.topic(), data.partition(),
-                                        data.offset());
+                        log.trace("Query {} Acking record {} from topic {} and partition {} at offset {}", queryId, resultIds(results), data.topic(),
+                                        data.partition(), data.offset());
                     }
-                } else if (ackStatus.get() == NACK) {
+                } else if (rejected.size() == results.size() || !returnResults(rejected)) {
                     acknowledgment.nack(0);
                     if (log.isTraceEnabled()) {
-                        log.trace("Query {} Nacking record {} from topic {} and partition {} at offset {} because the record was rejected", queryId, resultId,
-                                        data.topic(), data.partition(), data.offset());
+                        log.trace("Query {} Nacking record {} from topic {} and partition {} at offset {} because the record was rejected", queryId,
+                                        resultIds(results), data.topic(), data.partition(), data.offset());
+                    }
+                } else {
+                    // part of the batch was consumed, so only the rejected results were sent back to the topic
+                    acknowledgment.acknowledge();
+                    if (log.isTraceEnabled()) {
+                        log.trace("Query {} Acking record {} from topic {} and partition {} at offset {} after returning {} rejected results", queryId,
+                                        resultIds(results), data.topic(), data.partition(), data.offset(), rejected.size());
                     }
                 }
             } catch (InterruptedException ie) {
                 acknowledgment.nack(0);
                 if (log.isTraceEnabled()) {
-                    log.trace("Query {} Nacking record {} from topic {} and partition {} at offset {} because the latch was interrupted", queryId, resultId,
-                                    data.topic(), data.partition(), data.offset());
+                    log.trace("Query {} Nacking record {} from topic {} and partition {} at offset {} because the latch was interrupted", queryId,
+                                    resultIds(results), data.topic(), data.partition(), data.offset());
                 }
             }
         } else {
@@ -202,4 +231,29 @@ class KafkaQueryResultsListener implements QueryResultsListener, AcknowledgingMe
             }
         }
     }
+
+    /**
+     * Publish rejected results from a partially consumed batch back to the topic for the next listener
+     *
+     * @param rejected
+     *            the rejected results
+     * @return true if all of the results were published
+     */
+    private boolean returnResults(List<Result> rejected) {
+        try (QueryResultsPublisher publisher = returnPublisherSupplier.get()) {
+            for (Result result : rejected) {
+                if (!publisher.publish(new Result(result.getId(), result.getPayload()))) {
+                    return false;
+                }
+            }
+            return true;
+        } catch (Exception e) {
+            log.error("Unable to return rejected results for " + queryId, e);
+            return false;
+        }
+    }
+
+    private static String resultIds(List<Result> results) {
+        return results.stream().map(Result::getId).collect(Collectors.joining(","));
+    }
 }
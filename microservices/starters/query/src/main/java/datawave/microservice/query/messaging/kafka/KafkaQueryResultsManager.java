@@ -19,6 +19,9 @@ import org.springframework.kafka.core.ConsumerFactory;
 import org.springframework.kafka.core.KafkaTemplate;
 import org.springframework.kafka.core.ProducerFactory;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import datawave.microservice.query.messaging.BatchingQueryResultsPublisher;
 import datawave.microservice.query.messaging.QueryResultsListener;
 import datawave.microservice.query.messaging.QueryResultsManager;
 import datawave.microservice.query.messaging.QueryResultsPublisher;
@@ -35,6 +38,7 @@ public class KafkaQueryResultsManager implements QueryResultsManager {
     private final AdminClient adminClient;
     private final ProducerFactory<String,String> kafkaProducerFactory;
     private final ConsumerFactory<String,String> kafkaConsumerFactory;
+    private final ObjectMapper objectMapper = new ObjectMapper();
 
     public KafkaQueryResultsManager(MessagingProperties messagingProperties, AdminClient queryKafkaAdminClient,
                     ProducerFactory<String,String> queryKafkaProducerFactory, ConsumerFactory<String,String> queryKafkaConsumerFactory) {
@@ -54,7 +58,7 @@ public class KafkaQueryResultsManager implements QueryResultsManager {
     @Override
     public QueryResultsListener createListener(String listenerId, String queryId) {
         createTopic(TOPIC_PREFIX + queryId);
-        return new KafkaQueryResultsListener(messagingProperties, kafkaConsumerFactory, listenerId, queryId);
+        return new KafkaQueryResultsListener(messagingProperties, kafkaConsumerFactory, listenerId, queryId, () -> createKafkaPublisher(queryId));
     }
 
     /**
@@ -66,6 +70,14 @@ public class KafkaQueryResultsManager implements QueryResultsManager {
      */
     @Override
     public QueryResultsPublisher createPublisher(String queryId) {
+        KafkaQueryResultsPublisher publisher = createKafkaPublisher(queryId);
+        if (messagingProperties.getBatch().isEnabled()) {
+            return new BatchingQueryResultsPublisher(messagingProperties.getBatch(), objectMapper, publisher);
+        }
+        return publisher;
+    }
+
+    private KafkaQueryResultsPublisher createKafkaPublisher(String queryId) {
         createTopic(TOPIC_PREFIX + queryId);
         KafkaTemplate<String,String> kafkaTemplate = new KafkaTemplate<>(kafkaProducerFactory);
         kafkaTemplate.setDefaultTopic(TOPIC_PREFIX + queryId);
@@ -145,7 +157,12 @@ public class KafkaQueryResultsManager implements QueryResultsManager {
 
     @Override
     public int getNumResultsRemaining(final String queryId) {
-        return getNumResultsRemainingFromTopic(TOPIC_PREFIX + queryId);
+        int numMessages = getNumResultsRemainingFromTopic(TOPIC_PREFIX + queryId);
+        if (messagingProperties.getBatch().isEnabled()) {
+            // a message may hold a full batch, so err on the high side
+            return (int) Math.min(Integer.MAX_VALUE, (long) numMessages * messagingProperties.getBatch().getMaxResults());
+        }
+        return numMessages;
     }
 
     private int getNumResultsRemainingFromTopic(final String topic) {
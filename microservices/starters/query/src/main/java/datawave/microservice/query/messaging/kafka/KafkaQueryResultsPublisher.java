@@ -14,10 +14,11 @@ import org.springframework.kafka.support.SendResult;
 import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.databind.ObjectMapper;
 
+import datawave.microservice.query.messaging.BatchingQueryResultsPublisher;
 import datawave.microservice.query.messaging.QueryResultsPublisher;
 import datawave.microservice.query.messaging.Result;
 
-class KafkaQueryResultsPublisher implements QueryResultsPublisher {
+class KafkaQueryResultsPublisher implements QueryResultsPublisher, BatchingQueryResultsPublisher.MessageSender {
     private final Logger log = LoggerFactory.getLogger(this.getClass());
 
     private final KafkaTemplate<String,String> kafkaTemplate;
@@ -30,6 +31,16 @@ class KafkaQueryResultsPublisher implements QueryResultsPublisher {
 
     @Override
     public boolean publish(Result result, long interval, TimeUnit timeUnit) {
+        try {
+            return send(objectMapper.writeValueAsString(result), interval, timeUnit);
+        } catch (JsonProcessingException e) {
+            log.error("Unable to serialize result", e);
+        }
+        return false;
+    }
+
+    @Override
+    public boolean send(String message, long interval, TimeUnit timeUnit) {
         if (log.isDebugEnabled()) {
             log.debug("Publishing message to " + kafkaTemplate.getDefaultTopic());
         }
@@ -38,15 +49,13 @@ class KafkaQueryResultsPublisher implements QueryResultsPublisher {
         try {
             // @formatter:off
             SendResult<String,String> sendResult = kafkaTemplate
-                    .send(MessageBuilder.withPayload(objectMapper.writeValueAsString(result)).build())
+                    .send(MessageBuilder.withPayload(message).build())
                     .get(interval, timeUnit);
             if (log.isTraceEnabled()) {
                 log.trace("Send result: " + sendResult);
             }
             // @formatter:on
             success = true;
-        } catch (JsonProcessingException e) {
-            log.error("Unable to serialize result", e);
         } catch (TimeoutException e) {
             log.error("Timed out waiting for kafka send result", e);
         } catch (InterruptedException e) {
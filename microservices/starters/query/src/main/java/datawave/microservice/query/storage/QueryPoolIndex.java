@@ -0,0 +1,94 @@
+package datawave.microservice.query.storage;
+
+import java.io.Serializable;
+import java.util.Set;
+import java.util.TreeSet;
+
+import org.apache.commons.lang3.builder.EqualsBuilder;
+import org.apache.commons.lang3.builder.HashCodeBuilder;
+import org.apache.commons.lang3.builder.ToStringBuilder;
+
+/**
+ * The ids of the queries stored for one bucket of a query pool. This lets the executors of a pool look up their own queries instead of listing every query
+ * status in the cluster. The queries of a pool are spread over {@link QueryPoolIndexCache#NUM_BUCKETS} buckets by query id, so that storing queries does not
+ * serialize on a single cache entry. Queries stored before the index existed are added by a one time scan of the query statuses, after which the index is
+ * marked as backfilled.
+ * <p>
+ * A stored index is never modified. Updates store a modified copy, so that readers of a local cache never see an index change under them.
+ */
+public class QueryPoolIndex implements Serializable {
+    private static final long serialVersionUID = 4076295834219385812L;
+
+    private String queryPool;
+    private int bucket;
+    private Set<String> queryIds = new TreeSet<>();
+    private boolean backfilled = false;
+
+    public QueryPoolIndex() {}
+
+    public QueryPoolIndex(String queryPool, int bucket) {
+        this.queryPool = queryPool;
+        this.bucket = bucket;
+    }
+
+    public QueryPoolIndex(QueryPoolIndex other) {
+        this.queryPool = other.getQueryPool();
+        this.bucket = other.getBucket();
+        this.queryIds = new TreeSet<>(other.getQueryIds());
+        this.backfilled = other.isBackfilled();
+    }
+
+    public String getQueryPool() {
+        return queryPool;
+    }
+
+    public void setQueryPool(String queryPool) {
+        this.queryPool = queryPool;
+    }
+
+    public int getBucket() {
+        return bucket;
+    }
+
+    public void setBucket(int bucket) {
+        this.bucket = bucket;
+    }
+
+    public Set<String> getQueryIds() {
+        return queryIds;
+    }
+
+    public void setQueryIds(Set<String> queryIds) {
+        this.queryIds = queryIds;
+    }
+
+    public boolean isBackfilled() {
+        return backfilled;
+    }
+
+    public void setBackfilled(boolean backfilled) {
+        this.backfilled = backfilled;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (o instanceof QueryPoolIndex) {
+            QueryPoolIndex other = (QueryPoolIndex) o;
+            return new EqualsBuilder().append(getQueryPool(), other.getQueryPool()).append(getBucket(), other.getBucket())
+                            .append(getQueryIds(), other.getQueryIds())
+                            .append(isBackfilled(), other.isBackfilled()).isEquals();
+        }
+        return false;
+    }
+
+    @Override
+    public int hashCode() {
+        return new HashCodeBuilder().append(getQueryPool()).append(getBucket()).append(getQueryIds()).append(isBackfilled()).toHashCode();
+    }
+
+    @Override
+    public String toString() {
+        return new ToStringBuilder(this).append("queryPool", getQueryPool()).append("bucket", getBucket()).append("queryIds", getQueryIds())
+                        .append("backfilled", isBackfilled()).build();
+    }
+}
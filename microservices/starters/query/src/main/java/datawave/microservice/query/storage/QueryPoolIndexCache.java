@@ -0,0 +1,100 @@
+package datawave.microservice.query.storage;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.cache.annotation.CacheConfig;
+import org.springframework.cache.annotation.CacheEvict;
+import org.springframework.cache.annotation.CachePut;
+
+import datawave.microservice.cached.LockableCacheInspector;
+
+@CacheConfig(cacheNames = QueryPoolIndexCache.CACHE_NAME)
+public class QueryPoolIndexCache {
+    private final Logger log = LoggerFactory.getLogger(this.getClass());
+
+    public static final String CACHE_NAME = "QueryPoolIndexCache";
+
+    // the number of entries the index of a query pool is spread over
+    public static final int NUM_BUCKETS = 16;
+
+    private final LockableCacheInspector cacheInspector;
+
+    public QueryPoolIndexCache(LockableCacheInspector cacheInspector) {
+        this.cacheInspector = cacheInspector;
+    }
+
+    /**
+     * Get the bucket of a query pool index which holds a query
+     *
+     * @param queryId
+     *            the query id
+     * @return the bucket
+     */
+    public static int getBucket(String queryId) {
+        return Math.floorMod(queryId.hashCode(), NUM_BUCKETS);
+    }
+
+    private static String getKey(String queryPool, int bucket) {
+        return queryPool.toLowerCase() + ':' + bucket;
+    }
+
+    /**
+     * Store a bucket of the index for a query pool.
+     *
+     * @param queryPoolIndex
+     *            the query pool index
+     * @return the stored query pool index
+     */
+    @CachePut(key = "#queryPoolIndex.getQueryPool().toLowerCase() + ':' + #queryPoolIndex.getBucket()")
+    public QueryPoolIndex updateQueryPoolIndex(QueryPoolIndex queryPoolIndex) {
+        if (log.isDebugEnabled()) {
+            log.debug("Storing " + queryPoolIndex.getQueryIds().size() + " query ids for pool " + queryPoolIndex.getQueryPool());
+        }
+        return queryPoolIndex;
+    }
+
+    /**
+     * Return a bucket of the index for a query pool. Pool names are compared ignoring case.
+     *
+     * @param queryPool
+     *            The query pool
+     * @param bucket
+     *            The bucket
+     * @return The query pool index, or null if no queries were stored in the bucket
+     */
+    public QueryPoolIndex getQueryPoolIndex(String queryPool, int bucket) {
+        return cacheInspector.list(CACHE_NAME, QueryPoolIndex.class, getKey(queryPool, bucket));
+    }
+
+    /**
+     * Clear out the cache
+     *
+     * @return a clear message
+     */
+    @CacheEvict(allEntries = true, beforeInvocation = true)
+    public String clear() {
+        return "Cleared " + CACHE_NAME + " cache";
+    }
+
+    /**
+     * Get a query pool index lock for a given bucket of a query pool
+     *
+     * @param queryPool
+     *            the query pool
+     * @param bucket
+     *            the bucket
+     * @return a query pool index lock
+     */
+    public QueryStorageLock getQueryPoolIndexLock(String queryPool, int bucket) {
+        return new QueryPoolIndexLock(queryPool, bucket);
+    }
+
+    /**
+     * A lock object for a bucket of a query pool index
+     */
+    public class QueryPoolIndexLock extends QueryStorageLockImpl {
+        public QueryPoolIndexLock(String queryPool, int bucket) {
+            super(CACHE_NAME, getKey(queryPool, bucket), cacheInspector);
+        }
+    }
+}
@@ -3,6 +3,7 @@ package datawave.microservice.query.storage;
 import java.io.IOException;
 import java.util.List;
 import java.util.Set;
+import java.util.stream.Collectors;
 
 import org.apache.accumulo.core.security.Authorizations;
 
@@ -112,6 +113,18 @@ public interface QueryStorageCache {
      */
     List<QueryStatus> getQueryStatus();
 
+    /**
+     * Get the query status of the queries stored for a query pool
+     *
+     * @param queryPool
+     *            the query pool
+     * @return a list of query status
+     */
+    default List<QueryStatus> getQueryStatusForPool(String queryPool) {
+        return getQueryStatus().stream().filter(queryStatus -> queryStatus.getQueryKey().getQueryPool().equalsIgnoreCase(queryPool))
+                        .collect(Collectors.toList());
+    }
+
     /**
      * update the query status
      *
@@ -1,6 +1,9 @@
 package datawave.microservice.query.storage;
 
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Set;
 import java.util.UUID;
@@ -29,13 +32,15 @@ public class QueryStorageCacheImpl implements QueryStorageCache {
     private final QueryStatusCache queryStatusCache;
     private final TaskStatesCache taskStatesCache;
     private final TaskCache taskCache;
+    private final QueryPoolIndexCache queryPoolIndexCache;
     private final QueryResultsManager queue;
 
     public QueryStorageCacheImpl(QueryStatusCache queryStatusCache, TaskStatesCache taskStatesCache, TaskCache taskCache,
-                    @Autowired(required = false) QueryResultsManager queue) {
+                    QueryPoolIndexCache queryPoolIndexCache, @Autowired(required = false) QueryResultsManager queue) {
         this.queryStatusCache = queryStatusCache;
         this.taskStatesCache = taskStatesCache;
         this.taskCache = taskCache;
+        this.queryPoolIndexCache = queryPoolIndexCache;
         this.queue = queue;
     }
 
@@ -139,6 +144,7 @@ public class QueryStorageCacheImpl implements QueryStorageCache {
         queryStatus.setLastUsedMillis(System.currentTimeMillis());
         queryStatus.setLastUpdatedMillis(queryStatus.getLastUsedMillis());
         queryStatusCache.updateQueryStatus(queryStatus);
+        updateQueryPoolIndex(queryPool, queryId, true);
 
         // only create tasks if we are creating a query
         if (queryState == QueryStatus.QUERY_STATE.CREATE || queryState == QueryStatus.QUERY_STATE.PLAN || queryState == QueryStatus.QUERY_STATE.PREDICT) {
@@ -198,6 +204,128 @@ public class QueryStorageCacheImpl implements QueryStorageCache {
         return queryStatusCache.getQueryStatus();
     }
 
+    /**
+     * Get the query properties of the queries stored for a query pool. The first lookup for a pool backfills its index from all of the query statuses, so
+     * that queries stored before the index existed are found as well.
+     *
+     * @param queryPool
+     *            the query pool
+     * @return the query properties
+     */
+    @Override
+    public List<QueryStatus> getQueryStatusForPool(String queryPool) {
+        List<QueryStatus> queryStatuses = new ArrayList<>();
+        boolean backfilled = true;
+        QueryPoolIndex[] indices = new QueryPoolIndex[QueryPoolIndexCache.NUM_BUCKETS];
+        for (int bucket = 0; bucket < indices.length; bucket++) {
+            indices[bucket] = queryPoolIndexCache.getQueryPoolIndex(queryPool, bucket);
+            backfilled &= (indices[bucket] != null && indices[bucket].isBackfilled());
+        }
+        if (!backfilled) {
+            indices = backfillQueryPoolIndex(queryPool);
+        }
+        for (int bucket = 0; bucket < indices.length; bucket++) {
+            // a stored index is never modified, so it can be read without the lock
+            Set<String> evictedQueryIds = new HashSet<>();
+            for (String queryId : indices[bucket].getQueryIds()) {
+                QueryStatus queryStatus = queryStatusCache.getQueryStatus(queryId);
+                if (queryStatus != null) {
+                    queryStatuses.add(queryStatus);
+                } else {
+                    evictedQueryIds.add(queryId);
+                }
+            }
+            if (!evictedQueryIds.isEmpty()) {
+                // the query statuses have been evicted, so drop them from the index
+                updateQueryPoolIndex(queryPool, bucket, evictedQueryIds, false);
+            }
+        }
+        return queryStatuses;
+    }
+
+    /**
+     * Add the queries of a query pool which are missing from its index, found by scanning all of the query statuses
+     *
+     * @param queryPool
+     *            the query pool
+     * @return the backfilled query pool index, by bucket
+     */
+    private QueryPoolIndex[] backfillQueryPoolIndex(String queryPool) {
+        List<Set<String>> queryIds = new ArrayList<>();
+        for (int bucket = 0; bucket < QueryPoolIndexCache.NUM_BUCKETS; bucket++) {
+            queryIds.add(new HashSet<>());
+        }
+        for (QueryStatus queryStatus : queryStatusCache.getQueryStatus()) {
+            if (queryPool.equalsIgnoreCase(queryStatus.getQueryKey().getQueryPool())) {
+                String queryId = queryStatus.getQueryKey().getQueryId();
+                queryIds.get(QueryPoolIndexCache.getBucket(queryId)).add(queryId);
+            }
+        }
+
+        QueryPoolIndex[] indices = new QueryPoolIndex[QueryPoolIndexCache.NUM_BUCKETS];
+        int count = 0;
+        for (int bucket = 0; bucket < indices.length; bucket++) {
+            QueryStorageLock lock = queryPoolIndexCache.getQueryPoolIndexLock(queryPool, bucket);
+            lock.lock();
+            try {
+                QueryPoolIndex index = queryPoolIndexCache.getQueryPoolIndex(queryPool, bucket);
+                if (index == null || !index.isBackfilled()) {
+                    index = (index == null ? new QueryPoolIndex(queryPool, bucket) : new QueryPoolIndex(index));
+                    index.getQueryIds().addAll(queryIds.get(bucket));
+                    index.setBackfilled(true);
+                    queryPoolIndexCache.updateQueryPoolIndex(index);
+                    count += queryIds.get(bucket).size();
+                }
+                indices[bucket] = index;
+            } finally {
+                lock.unlock();
+            }
+        }
+        log.info("Backfilled the index of query pool " + queryPool + " with " + count + " queries");
+        return indices;
+    }
+
+    /**
+     * Add a query to, or remove a query from, the index of its query pool
+     *
+     * @param queryPool
+     *            the query pool
+     * @param queryId
+     *            the query id
+     * @param add
+     *            true to add the query, false to remove it
+     */
+    private void updateQueryPoolIndex(String queryPool, String queryId, boolean add) {
+        updateQueryPoolIndex(queryPool, QueryPoolIndexCache.getBucket(queryId), Collections.singleton(queryId), add);
+    }
+
+    /**
+     * Add queries to, or remove queries from, a bucket of the index of their query pool in a single update
+     *
+     * @param queryPool
+     *            the query pool
+     * @param bucket
+     *            the bucket holding the queries
+     * @param queryIds
+     *            the query ids
+     * @param add
+     *            true to add the queries, false to remove them
+     */
+    private void updateQueryPoolIndex(String queryPool, int bucket, Collection<String> queryIds, boolean add) {
+        QueryStorageLock lock = queryPoolIndexCache.getQueryPoolIndexLock(queryPool, bucket);
+        lock.lock();
+        try {
+            QueryPoolIndex index = queryPoolIndexCache.getQueryPoolIndex(queryPool, bucket);
+            // update a copy, as readers do not take the lock
+            index = (index == null ? new QueryPoolIndex(queryPool, bucket) : new QueryPoolIndex(index));
+            if (add ? index.getQueryIds().addAll(queryIds) : index.getQueryIds().removeAll(queryIds)) {
+                queryPoolIndexCache.updateQueryPoolIndex(index);
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
     /**
      * update the query properties
      *
@@ -442,8 +570,12 @@ public class QueryStorageCacheImpl implements QueryStorageCache {
         QueryStorageLock lock = queryStatusCache.getQueryStatusLock(queryId);
         lock.lock();
         try {
-            boolean existed = (queryStatusCache.getQueryStatus(queryId) != null);
+            QueryStatus queryStatus = queryStatusCache.getQueryStatus(queryId);
+            boolean existed = (queryStatus != null);
             queryStatusCache.deleteQueryStatus(queryId);
+            if (existed) {
+                updateQueryPoolIndex(queryStatus.getQueryKey().getQueryPool(), queryId, false);
+            }
             taskStatesCache.deleteTaskStates(queryId);
             taskCache.deleteTasks(queryId);
 
@@ -470,6 +602,7 @@ public class QueryStorageCacheImpl implements QueryStorageCache {
         queryStatusCache.clear();
         taskStatesCache.clear();
         taskCache.clear();
+        queryPoolIndexCache.clear();
     }
 
     /**
@@ -17,6 +17,7 @@ import datawave.microservice.cached.CacheInspector;
 import datawave.microservice.cached.LockableCacheInspector;
 import datawave.microservice.cached.LockableHazelcastCacheInspector;
 import datawave.microservice.cached.UniversalLockableCacheInspector;
+import datawave.microservice.query.storage.QueryPoolIndexCache;
 import datawave.microservice.query.storage.QueryStatusCache;
 import datawave.microservice.query.storage.TaskCache;
 import datawave.microservice.query.storage.TaskStatesCache;
@@ -53,6 +54,19 @@ public class QueryStorageConfiguration {
         return new TaskStatesCache(lockableCacheInspector);
     }
 
+    @Bean
+    public QueryPoolIndexCache queryPoolIndexCache(@Qualifier("cacheInspectorFactory") Function<CacheManager,CacheInspector> cacheInspectorFactory,
+                    CacheManager cacheManager) {
+        log.debug("Using " + cacheManager.getClass() + " for caching");
+        LockableCacheInspector lockableCacheInspector;
+        if (cacheManager instanceof HazelcastCacheManager) {
+            lockableCacheInspector = new LockableHazelcastCacheInspector(cacheManager);
+        } else {
+            lockableCacheInspector = new UniversalLockableCacheInspector(cacheInspectorFactory.apply(cacheManager));
+        }
+        return new QueryPoolIndexCache(lockableCacheInspector);
+    }
+
     @Bean
     public TaskCache taskCache(@Qualifier("cacheInspectorFactory") Function<CacheManager,CacheInspector> cacheInspectorFactory, CacheManager cacheManager) {
         log.debug("Using " + cacheManager.getClass() + " for caching");
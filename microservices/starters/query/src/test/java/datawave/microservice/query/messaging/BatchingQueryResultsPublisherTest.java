@@ -0,0 +1,129 @@
+package datawave.microservice.query.messaging;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import datawave.microservice.query.messaging.config.MessagingProperties;
+
+public class BatchingQueryResultsPublisherTest {
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final LinkedBlockingQueue<String> messages = new LinkedBlockingQueue<>();
+    private final List<Integer> sentCounts = new ArrayList<>();
+    private MessagingProperties.BatchProperties batchProperties;
+    private boolean accept;
+
+    private final BatchingQueryResultsPublisher.MessageSender sender = new BatchingQueryResultsPublisher.MessageSender() {
+        @Override
+        public boolean send(String message, long interval, TimeUnit timeUnit) {
+            return accept && messages.add(message);
+        }
+
+        @Override
+        public boolean send(String message, int numResults, long interval, TimeUnit timeUnit) {
+            boolean sent = send(message, interval, timeUnit);
+            if (sent) {
+                sentCounts.add(numResults);
+            }
+            return sent;
+        }
+
+        @Override
+        public void close() {}
+    };
+
+    @BeforeEach
+    public void setup() {
+        messages.clear();
+        sentCounts.clear();
+        accept = true;
+        batchProperties = new MessagingProperties.BatchProperties();
+        batchProperties.setEnabled(true);
+        batchProperties.setMaxResults(3);
+        batchProperties.setMaxLatencyMillis(60000L);
+    }
+
+    private List<String> received() throws Exception {
+        List<String> payloads = new ArrayList<>();
+        for (String message : messages) {
+            for (Result result : ResultBatchCodec.decode(message, objectMapper)) {
+                payloads.add(result.getId() + "=" + result.getPayload());
+            }
+        }
+        return payloads;
+    }
+
+    @Test
+    public void testCodec() throws Exception {
+        List<Result> results = new ArrayList<>();
+        results.add(new Result("1", "one"));
+        results.add(new Result("2", 2L));
+        String batch = ResultBatchCodec.encode(results, objectMapper);
+        assertTrue(ResultBatchCodec.isBatch(batch));
+
+        List<Result> decoded = ResultBatchCodec.decode(batch, objectMapper);
+        assertEquals(2, decoded.size());
+        assertEquals("1", decoded.get(0).getId());
+        assertEquals("one", decoded.get(0).getPayload());
+        assertEquals(2L, decoded.get(1).getPayload());
+
+        // single results are still understood
+        String single = objectMapper.writeValueAsString(new Result("3", "three"));
+        assertFalse(ResultBatchCodec.isBatch(single));
+        decoded = ResultBatchCodec.decode(single, objectMapper);
+        assertEquals(1, decoded.size());
+        assertEquals("three", decoded.get(0).getPayload());
+    }
+
+    @Test
+    public void testFlushOnSizeAndClose() throws Exception {
+        BatchingQueryResultsPublisher publisher = new BatchingQueryResultsPublisher(batchProperties, objectMapper, sender);
+        for (int i = 0; i < 4; i++) {
+            assertTrue(publisher.publish(new Result(Integer.toString(i), "r" + i)));
+        }
+        assertEquals(1, messages.size());
+        assertEquals(Arrays.asList("0=r0", "1=r1", "2=r2"), received());
+
+        publisher.close();
+        assertEquals(2, messages.size());
+        assertEquals(Arrays.asList("0=r0", "1=r1", "2=r2", "3=r3"), received());
+        assertEquals(Arrays.asList(3, 1), sentCounts);
+    }
+
+    @Test
+    public void testFlushOnLatency() throws Exception {
+        batchProperties.setMaxLatencyMillis(10L);
+        BatchingQueryResultsPublisher publisher = new BatchingQueryResultsPublisher(batchProperties, objectMapper, sender);
+        publisher.publish(new Result("0", "r0"));
+        String message = messages.poll(10, TimeUnit.SECONDS);
+        assertEquals("r0", ResultBatchCodec.decode(message, objectMapper).get(0).getPayload());
+    }
+
+    @Test
+    public void testFailedSendKeepsResults() throws Exception {
+        BatchingQueryResultsPublisher publisher = new BatchingQueryResultsPublisher(batchProperties, objectMapper, sender);
+        accept = false;
+        publisher.publish(new Result("0", "r0"));
+        assertFalse(publisher.flush());
+        assertTrue(messages.isEmpty());
+
+        // the results were kept, so the publisher has not failed
+        accept = true;
+        assertTrue(publisher.publish(new Result("1", "r1")));
+        assertTrue(publisher.flush());
+        assertEquals(Arrays.asList("0=r0", "1=r1"), received());
+        assertEquals(Arrays.asList(2), sentCounts);
+    }
+}
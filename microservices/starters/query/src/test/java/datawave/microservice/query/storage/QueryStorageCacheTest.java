@@ -10,6 +10,8 @@ import static org.junit.jupiter.api.Assertions.fail;
 import java.io.IOException;
 import java.text.ParseException;
 import java.text.SimpleDateFormat;
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.HashSet;
 import java.util.LinkedList;
 import java.util.List;
@@ -125,6 +127,9 @@ public abstract class QueryStorageCacheTest {
     @Autowired
     protected TaskCache taskCache;
 
+    @Autowired
+    protected QueryPoolIndexCache queryPoolIndexCache;
+
     @Autowired
     protected QueryStorageCache storageService;
 
@@ -490,6 +495,111 @@ public abstract class QueryStorageCacheTest {
         assertEquals(QueryStatus.QUERY_STATE.CANCEL, storageService.getQueryStatus(queryId).getQueryState());
     }
 
+    @DirtiesContext
+    @Test
+    public void testGetQueryStatusForPool() throws ParseException, IOException {
+        Query query = new QueryImpl();
+        query.setQueryLogicName("EventQuery");
+        query.setQuery("foo == bar");
+        query.setBeginDate(new SimpleDateFormat("yyyyMMdd").parse("20200101"));
+        query.setEndDate(new SimpleDateFormat("yyyMMdd").parse("20210101"));
+        Set<Authorizations> auths = new HashSet<>();
+        auths.add(new Authorizations("FOO", "BAR"));
+        String queryId = storageService.createQuery(TEST_POOL, query, null, auths, 2).getQueryId();
+        createdQueries.add(queryId);
+        String otherQueryId = storageService.defineQuery("OtherPool", query, null, auths, 2).getQueryId();
+        createdQueries.add(otherQueryId);
+
+        // only the queries of the requested pool are returned, regardless of case
+        List<QueryStatus> queries = storageService.getQueryStatusForPool(TEST_POOL.toUpperCase());
+        assertEquals(1, queries.size());
+        assertEquals(queryId, queries.get(0).getQueryKey().getQueryId());
+
+        // deleted queries are dropped from the pool
+        storageService.deleteQuery(queryId);
+        createdQueries.remove(queryId);
+        assertTrue(storageService.getQueryStatusForPool(TEST_POOL).isEmpty());
+        assertEquals(1, storageService.getQueryStatusForPool("OtherPool").size());
+    }
+
+    @DirtiesContext
+    @Test
+    public void testGetQueryStatusForPoolWithoutIndexEntry() throws ParseException, IOException {
+        Query query = new QueryImpl();
+        query.setQueryLogicName("EventQuery");
+        query.setQuery("foo == bar");
+        query.setBeginDate(new SimpleDateFormat("yyyyMMdd").parse("20200101"));
+        query.setEndDate(new SimpleDateFormat("yyyMMdd").parse("20210101"));
+        Set<Authorizations> auths = new HashSet<>();
+        auths.add(new Authorizations("FOO", "BAR"));
+
+        // a query stored before the pool index existed has a status but no index entry
+        String unindexedQueryId = UUID.randomUUID().toString();
+        queryStatusCache.updateQueryStatus(new QueryStatus(new QueryKey(TEST_POOL, unindexedQueryId, query.getQueryLogicName())));
+        createdQueries.add(unindexedQueryId);
+
+        // a query stored since then creates the index for the pool
+        String queryId = storageService.createQuery(TEST_POOL, query, null, auths, 2).getQueryId();
+        createdQueries.add(queryId);
+
+        Set<String> queryIds = new HashSet<>();
+        for (QueryStatus queryStatus : storageService.getQueryStatusForPool(TEST_POOL)) {
+            queryIds.add(queryStatus.getQueryKey().getQueryId());
+        }
+        assertEquals(Set.of(unindexedQueryId, queryId), queryIds);
+
+        // the unindexed query is now in the index, so it is dropped once deleted
+        storageService.deleteQuery(unindexedQueryId);
+        createdQueries.remove(unindexedQueryId);
+        assertEquals(1, storageService.getQueryStatusForPool(TEST_POOL).size());
+        assertTrue(storageService.getQueryStatusForPool("OtherPool").isEmpty());
+    }
+
+    @DirtiesContext
+    @Test
+    public void testGetQueryStatusForPoolWithEvictedQueries() throws ParseException, IOException {
+        Query query = new QueryImpl();
+        query.setQueryLogicName("EventQuery");
+        query.setQuery("foo == bar");
+        query.setBeginDate(new SimpleDateFormat("yyyyMMdd").parse("20200101"));
+        query.setEndDate(new SimpleDateFormat("yyyMMdd").parse("20210101"));
+        Set<Authorizations> auths = new HashSet<>();
+        auths.add(new Authorizations("FOO", "BAR"));
+
+        List<String> queryIds = new ArrayList<>();
+        for (int i = 0; i < 20; i++) {
+            String queryId = storageService.defineQuery(TEST_POOL, query, null, auths, 2).getQueryId();
+            createdQueries.add(queryId);
+            queryIds.add(queryId);
+        }
+        assertEquals(20, storageService.getQueryStatusForPool(TEST_POOL).size());
+
+        // evict the status of every other query without going through the storage service
+        Set<String> evictedQueryIds = new HashSet<>();
+        for (int i = 0; i < queryIds.size(); i += 2) {
+            queryStatusCache.deleteQueryStatus(queryIds.get(i));
+            evictedQueryIds.add(queryIds.get(i));
+        }
+
+        Set<String> foundQueryIds = new HashSet<>();
+        for (QueryStatus queryStatus : storageService.getQueryStatusForPool(TEST_POOL)) {
+            foundQueryIds.add(queryStatus.getQueryKey().getQueryId());
+        }
+        assertEquals(10, foundQueryIds.size());
+        assertTrue(Collections.disjoint(evictedQueryIds, foundQueryIds));
+
+        // the evicted queries were dropped from the index
+        Set<String> indexedQueryIds = new HashSet<>();
+        for (int bucket = 0; bucket < QueryPoolIndexCache.NUM_BUCKETS; bucket++) {
+            QueryPoolIndex index = queryPoolIndexCache.getQueryPoolIndex(TEST_POOL, bucket);
+            if (index != null) {
+                indexedQueryIds.addAll(index.getQueryIds());
+            }
+        }
+        assertEquals(foundQueryIds, indexedQueryIds);
+        assertEquals(10, storageService.getQueryStatusForPool(TEST_POOL).size());
+    }
+
     @DirtiesContext
     @Test
     public void testResultsQueue() throws Exception {
@@ -0,0 +1,205 @@
+package datawave.iterators.filter;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.regex.Pattern;
+import java.util.regex.PatternSyntaxException;
+
+import org.apache.accumulo.core.data.ArrayByteSequence;
+import org.apache.accumulo.core.data.ByteSequence;
+import org.apache.accumulo.core.data.Key;
+import org.apache.accumulo.core.data.Value;
+import org.apache.log4j.Logger;
+
+import datawave.iterators.filter.ageoff.AppliedRule;
+
+/**
+ * A compiled form of the rules of a {@link ConfigurableAgeOffFilter}, evaluated in the same order with the same first-match semantics as walking the rule list.
+ * <p>
+ * Consecutive {@link ColumnFamilyRegexFilter}, {@link ColumnQualifierRegexFilter} or {@link ColumnVisibilityRegexFilter} rules are grouped together, so that
+ * the key field is extracted once for the group and the patterns are first tested together as a single alternation, which rejects keys matching none of them
+ * with one regex. For column family groups the index of the first matching rule is also remembered per column family, as the column families of a table are
+ * few compared to its keys. Any other rule, including subclasses of the regex rules, is evaluated on its own as before.
+ * <p>
+ * An index is built per filter instance and is not thread safe, which matches how filters are used within a scan or compaction.
+ */
+class AgeOffRuleIndex {
+    private static final Logger log = Logger.getLogger(AgeOffRuleIndex.class);
+
+    /** the memo is cleared when it reaches this size, e.g. for tables whose column families hold uids */
+    static final int MAX_MEMO_SIZE = 10000;
+
+    /** marks a pattern which can not be safely combined with others, i.e. backreferences and quoting which depend on the pattern boundaries */
+    private static final Pattern UNCOMBINABLE = Pattern.compile("\\\\(\\d|k<|Q)");
+
+    private final Collection<AppliedRule> rules;
+    private final List<Step> steps = new ArrayList<>();
+
+    AgeOffRuleIndex(Collection<AppliedRule> rules) {
+        this.rules = rules;
+
+        List<RegexFilterBase> group = new ArrayList<>();
+        for (AppliedRule rule : rules) {
+            if (!group.isEmpty() && !isGroupable(rule, group.get(0).getClass())) {
+                steps.add(new RegexGroupStep(group));
+                group = new ArrayList<>();
+            }
+            if (isGroupable(rule, rule.getClass())) {
+                group.add((RegexFilterBase) rule);
+            } else {
+                steps.add(new RuleStep(rule));
+            }
+        }
+        if (!group.isEmpty()) {
+            steps.add(new RegexGroupStep(group));
+        }
+
+        if (log.isTraceEnabled()) {
+            log.trace("Compiled " + rules.size() + " age off rules into " + steps.size() + " steps");
+        }
+    }
+
+    /**
+     * @param rules
+     *            a rule list
+     * @return true if this index was built from the given rule list
+     */
+    boolean isIndexOf(Collection<AppliedRule> rules) {
+        return this.rules == rules;
+    }
+
+    /**
+     * Apply the first rule which matches the key
+     *
+     * @param k
+     *            the key
+     * @param v
+     *            the value
+     * @param timeStamp
+     *            the age off date of the key
+     * @return whether the first matching rule accepts the key, or null if no rule matched
+     */
+    Boolean accept(Key k, Value v, long timeStamp) {
+        for (Step step : steps) {
+            Boolean accept = step.accept(k, v, timeStamp);
+            if (accept != null) {
+                return accept;
+            }
+        }
+        return null;
+    }
+
+    private static boolean isGroupable(AppliedRule rule, Class<?> groupClass) {
+        Class<?> ruleClass = rule.getClass();
+        if (ruleClass != groupClass) {
+            return false;
+        }
+        if (ruleClass != ColumnFamilyRegexFilter.class && ruleClass != ColumnQualifierRegexFilter.class && ruleClass != ColumnVisibilityRegexFilter.class) {
+            return false;
+        }
+        return ((RegexFilterBase) rule).getPattern() != null;
+    }
+
+    private interface Step {
+        Boolean accept(Key k, Value v, long timeStamp);
+    }
+
+    /**
+     * A rule evaluated on its own
+     */
+    private static class RuleStep implements Step {
+        private final AppliedRule rule;
+
+        RuleStep(AppliedRule rule) {
+            this.rule = rule;
+        }
+
+        @Override
+        public Boolean accept(Key k, Value v, long timeStamp) {
+            boolean accept = rule.accept(k, v);
+            return rule.isFilterRuleApplied() ? accept : null;
+        }
+    }
+
+    /**
+     * Consecutive regex rules over the same key field
+     */
+    private static class RegexGroupStep implements Step {
+        private final RegexFilterBase[] rules;
+        private final Pattern[] patterns;
+        private final Pattern combined;
+        private final Map<ByteSequence,Integer> memo;
+
+        RegexGroupStep(List<RegexFilterBase> group) {
+            rules = group.toArray(new RegexFilterBase[0]);
+            patterns = new Pattern[rules.length];
+            for (int i = 0; i < rules.length; i++) {
+                patterns[i] = rules[i].getPattern();
+            }
+            combined = combine(patterns);
+            memo = rules[0].getClass() == ColumnFamilyRegexFilter.class ? new HashMap<>() : null;
+        }
+
+        @Override
+        public Boolean accept(Key k, Value v, long timeStamp) {
+            int index;
+            if (memo != null) {
+                ByteSequence cf = k.getColumnFamilyData();
+                Integer memoized = memo.get(cf);
+                if (memoized == null) {
+                    index = firstMatch(rules[0].getKeyField(k, v));
+                    if (memo.size() >= MAX_MEMO_SIZE) {
+                        memo.clear();
+                    }
+                    memo.put(new ArrayByteSequence(cf.toArray()), index);
+                } else {
+                    index = memoized;
+                }
+            } else {
+                index = firstMatch(rules[0].getKeyField(k, v));
+            }
+
+            if (index < 0) {
+                return null;
+            }
+            return timeStamp > rules[index].getCutOffMilliseconds();
+        }
+
+        private int firstMatch(String keyField) {
+            if (combined != null && !combined.matcher(keyField).find()) {
+                return -1;
+            }
+            for (int i = 0; i < patterns.length; i++) {
+                if (patterns[i].matcher(keyField).find()) {
+                    return i;
+                }
+            }
+            return -1;
+        }
+
+        private static Pattern combine(Pattern[] patterns) {
+            if (patterns.length < 2) {
+                return null;
+            }
+            StringBuilder sb = new StringBuilder();
+            for (Pattern pattern : patterns) {
+                if (pattern.flags() != 0 || UNCOMBINABLE.matcher(pattern.pattern()).find()) {
+                    return null;
+                }
+                if (sb.length() > 0) {
+                    sb.append('|');
+                }
+                sb.append("(?:").append(pattern.pattern()).append(')');
+            }
+            try {
+                return Pattern.compile(sb.toString());
+            } catch (PatternSyntaxException e) {
+                log.debug("Unable to combine age off patterns, they will be tested individually", e);
+                return null;
+            }
+        }
+    }
+}
@@ -4,7 +4,6 @@ import java.io.IOException;
 import java.util.Arrays;
 import java.util.Collection;
 import java.util.Date;
-import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
 import java.util.TreeMap;
@@ -121,6 +120,9 @@ public class ConfigurableAgeOffFilter extends Filter implements OptionDescriber
 
     protected Collection<AppliedRule> filterList;
 
+    // the compiled form of the filterList, rebuilt by accept whenever the filterList is replaced
+    private AgeOffRuleIndex ruleIndex;
+
     protected long cutOffDateMillis;
     protected long scanStart;
 
@@ -172,21 +174,17 @@ public class ConfigurableAgeOffFilter extends Filter implements OptionDescriber
         if (timeStamp > this.shortCircuitDateMillis)
             return true;
 
-        boolean acceptFlag = false;
-        boolean filterRuleApplied = false;
-
-        Iterator<AppliedRule> iter = this.filterList.iterator();
-
-        while ((!filterRuleApplied) && iter.hasNext()) {
-            AppliedRule filter = iter.next();
-            acceptFlag = filter.accept(k, v);
-            filterRuleApplied = filter.isFilterRuleApplied();
+        // compile the rules on first use, or if the rule list was replaced
+        if (this.ruleIndex == null || !this.ruleIndex.isIndexOf(this.filterList)) {
+            this.ruleIndex = new AgeOffRuleIndex(this.filterList);
         }
 
+        Boolean acceptFlag = this.ruleIndex.accept(k, v, timeStamp);
+
         // We went through all of the defined filter rules
         // and none were used, let's apply the default TTL
-        if (!filterRuleApplied) {
-            acceptFlag = timeStamp > this.cutOffDateMillis;
+        if (acceptFlag == null) {
+            return timeStamp > this.cutOffDateMillis;
         }
 
         return acceptFlag;
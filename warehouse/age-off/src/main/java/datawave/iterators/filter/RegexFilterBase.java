@@ -135,6 +135,20 @@ public abstract class RegexFilterBase extends AppliedRule {
         return ruleApplied;
     }
 
+    /**
+     * @return the compiled match pattern, used by the {@link AgeOffRuleIndex} to evaluate this rule along with its neighbours
+     */
+    Pattern getPattern() {
+        return pattern;
+    }
+
+    /**
+     * @return the cut off for keys matching this rule
+     */
+    long getCutOffMilliseconds() {
+        return getPeriod().getCutOffMilliseconds();
+    }
+
     @Override
     public String toString() {
         return this.getClass().getSimpleName() + " [patternStr=" + patternStr + ", cutOffDateMillis=" + getPeriod().getCutOffMilliseconds() + "]";
@@ -56,6 +56,12 @@ public class DataTypeAgeOffFilter extends AppliedRule {
      */
     private static final Text TF_COLUMN = new Text("tf");
     private static final byte[] TF_COLUMN_BYTES = TF_COLUMN.getBytes();
+
+    /**
+     * Term offset column.
+     */
+    private static final Text TO_COLUMN = new Text("to");
+    private static final byte[] TO_COLUMN_BYTES = TO_COLUMN.getBytes();
     /**
      * Fi column
      */
@@ -146,14 +152,14 @@ public class DataTypeAgeOffFilter extends AppliedRule {
             byte[] column = null;
             if (cf.length >= 3 && cf[0] == FI_COLUMN_BYTES[0] && cf[1] == FI_COLUMN_BYTES[1] && cf[2] == NULL) {
                 column = FI_COLUMN_BYTES;
-            } else if (cf.length == 2 && cf[0] == TF_COLUMN_BYTES[0]) {
-                // no need to check second character as we cannot have a datatype of 't' with an empty UID
+            } else if (cf.length == 2 && cf[0] == TF_COLUMN_BYTES[0] && (cf[1] == TF_COLUMN_BYTES[1] || cf[1] == TO_COLUMN_BYTES[1])) {
+                // the term offset column starts with the data type as well, so it is parsed as a tf column
                 column = TF_COLUMN_BYTES;
             } else if (cf.length == 1 && cf[0] == DOCUMENT_COLUMN_BYTES[0]) {
                 column = DOCUMENT_COLUMN_BYTES;
             }
 
-            // if a document or tf column family, then we parse the shard entry differently
+            // if a document, tf or to column family, then we parse the shard entry differently
             if (column == DOCUMENT_COLUMN_BYTES || column == TF_COLUMN_BYTES) {
 
                 // don't need to check the last byte as we expect more than one null if formatted correctly
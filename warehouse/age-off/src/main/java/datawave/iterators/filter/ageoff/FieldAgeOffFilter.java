@@ -64,6 +64,15 @@ public class FieldAgeOffFilter extends AppliedRule {
      */
     private static final byte[] TF_COLUMN_BYTES = TF_COLUMN.getBytes();
 
+    /**
+     * Term offset column.
+     */
+    private static final Text TO_COLUMN = new Text("to");
+    /**
+     * to column bytes.
+     */
+    private static final byte[] TO_COLUMN_BYTES = TO_COLUMN.getBytes();
+
     /**
      * Fi column
      */
@@ -141,9 +150,10 @@ public class FieldAgeOffFilter extends AppliedRule {
             byte[] column = null;
             if (cf.length >= 3 && cf[0] == FI_COLUMN_BYTES[0] && cf[1] == FI_COLUMN_BYTES[1] && cf[2] == NULL) {
                 column = FI_COLUMN_BYTES;
-            } else if (cf.length == 2 && cf[0] == TF_COLUMN_BYTES[0]) {
-                // no need to check second character as we cannot have a datatype of 't' with an empty UID
+            } else if (cf.length == 2 && cf[0] == TF_COLUMN_BYTES[0] && cf[1] == TF_COLUMN_BYTES[1]) {
                 column = TF_COLUMN_BYTES;
+            } else if (cf.length == 2 && cf[0] == TO_COLUMN_BYTES[0] && cf[1] == TO_COLUMN_BYTES[1]) {
+                column = TO_COLUMN_BYTES;
             } else if (cf.length == 1 && cf[0] == DOCUMENT_COLUMN_BYTES[0]) {
                 // if the document column family is encountered, do not attempt to filter its field
                 return true;
@@ -165,6 +175,24 @@ public class FieldAgeOffFilter extends AppliedRule {
                     field = new ArrayByteSequence(cq, start, length);
                 }
 
+            } else if (column == TO_COLUMN_BYTES) {
+                // CASE 1a
+                // The field is the third part of the term offset cq (datatype\0uid\0field\0offset\0term). Use the region between the second and third
+                // null characters, as the term itself may contain null characters
+                int start = -1;
+                int nulls = 0;
+                for (int i = 0; i < cq.length; i++) {
+                    if (cq[i] == NULL) {
+                        nulls++;
+                        if (nulls == 2) {
+                            start = i + 1;
+                        } else if (nulls == 3) {
+                            field = new ArrayByteSequence(cq, start, i - start);
+                            break;
+                        }
+                    }
+                }
+
             } else if (column == FI_COLUMN_BYTES) {
 
                 // CASE 2
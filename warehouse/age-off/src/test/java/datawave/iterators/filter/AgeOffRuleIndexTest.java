@@ -0,0 +1,138 @@
+package datawave.iterators.filter;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import org.apache.accumulo.core.data.Key;
+import org.apache.accumulo.core.data.Value;
+import org.junit.Test;
+
+import datawave.iterators.filter.ageoff.AppliedRule;
+import datawave.iterators.filter.ageoff.FilterOptions;
+
+public class AgeOffRuleIndexTest {
+
+    private static final long MILLIS_IN_DAY = 1000L * 60 * 60 * 24L;
+    private static final Value VALUE = new Value();
+    private static final long NOW = System.currentTimeMillis();
+
+    private final List<AppliedRule> rules = new ArrayList<>();
+
+    @Test
+    public void testFirstMatchWithinGroup() {
+        givenRule(new ColumnFamilyRegexFilter(), "ba", 10);
+        givenRule(new ColumnFamilyRegexFilter(), "bar", 100);
+        AgeOffRuleIndex index = new AgeOffRuleIndex(rules);
+
+        // "ba" comes first, so its 10 day ttl applies even though "bar" also matches
+        assertEquals(Boolean.FALSE, accept(index, "row", "bar", "cq", 50));
+        assertEquals(Boolean.TRUE, accept(index, "row", "bar", "cq", 5));
+        // memoized column family gives the same answer
+        assertEquals(Boolean.FALSE, accept(index, "row2", "bar", "cq2", 50));
+        assertNull(accept(index, "row", "foo", "cq", 50));
+    }
+
+    @Test
+    public void testOrderAcrossGroups() {
+        givenRule(new ColumnQualifierRegexFilter(), "^edge", 100);
+        givenRule(new ColumnFamilyRegexFilter(), "fi", 10);
+        givenRule(new ColumnQualifierRegexFilter(), "value", 10);
+        AgeOffRuleIndex index = new AgeOffRuleIndex(rules);
+
+        // the column qualifier rule comes first
+        assertEquals(Boolean.TRUE, accept(index, "row", "fi\0FIELD", "edge", 50));
+        assertEquals(Boolean.FALSE, accept(index, "row", "fi\0FIELD", "other", 50));
+        assertEquals(Boolean.FALSE, accept(index, "row", "tf", "value", 50));
+        assertNull(accept(index, "row", "tf", "other", 50));
+    }
+
+    @Test
+    public void testUncombinablePatterns() {
+        givenRule(new ColumnFamilyRegexFilter(), "(a)\\1", 10);
+        givenRule(new ColumnFamilyRegexFilter(), "\\Qb.c", 10);
+        AgeOffRuleIndex index = new AgeOffRuleIndex(rules);
+
+        assertEquals(Boolean.FALSE, accept(index, "row", "xaax", "cq", 50));
+        assertEquals(Boolean.FALSE, accept(index, "row", "b.c", "cq", 50));
+        assertNull(accept(index, "row", "bxc", "cq", 50));
+    }
+
+    @Test
+    public void testOtherRulesAppliedInPlace() {
+        givenRule(new ColumnFamilyRegexFilter(), "a", 10);
+        givenRule(new ConfigurableAgeOffFilterTest.TestRowFilter(), "row", 100);
+        givenRule(new ColumnFamilyRegexFilter(), "b", 10);
+        AgeOffRuleIndex index = new AgeOffRuleIndex(rules);
+
+        assertEquals(Boolean.FALSE, accept(index, "row", "a", "cq", 50));
+        assertEquals(Boolean.TRUE, accept(index, "row", "b", "cq", 50));
+        assertEquals(Boolean.FALSE, accept(index, "other", "b", "cq", 50));
+    }
+
+    @Test
+    public void testMatchesRuleList() {
+        Random random = new Random(7);
+        String[] patterns = {"a", "^b", "c$", "ab", "[cd]", "e.f", "^$"};
+        for (int i = 0; i < 20; i++) {
+            givenRule(random.nextBoolean() ? new ColumnFamilyRegexFilter() : new ColumnQualifierRegexFilter(), patterns[random.nextInt(patterns.length)],
+                            1 + random.nextInt(100));
+        }
+        AgeOffRuleIndex index = new AgeOffRuleIndex(rules);
+
+        for (int i = 0; i < 2000; i++) {
+            String cf = randomString(random);
+            String cq = randomString(random);
+            int daysAgo = random.nextInt(120);
+            Key key = new Key("row", cf, cq, NOW - daysAgo * MILLIS_IN_DAY);
+            assertEquals(key.toString(), walkRules(key), index.accept(key, VALUE, key.getTimestamp()));
+        }
+    }
+
+    @Test
+    public void testIsIndexOf() {
+        AgeOffRuleIndex index = new AgeOffRuleIndex(rules);
+        assertTrue(index.isIndexOf(rules));
+        assertFalse(index.isIndexOf(new ArrayList<>(rules)));
+    }
+
+    private void givenRule(AppliedRule rule, String pattern, int ttlDays) {
+        FilterOptions filterOpts = new FilterOptions();
+        filterOpts.setOption(AgeOffConfigParams.MATCHPATTERN, pattern);
+        filterOpts.setTTL(ttlDays);
+        filterOpts.setTTLUnits(AgeOffTtlUnits.DAYS);
+        rule.init(filterOpts);
+        // anchor the ttl at the current time
+        rules.add((AppliedRule) rule.deepCopy(NOW, null));
+    }
+
+    private static Boolean accept(AgeOffRuleIndex index, String row, String cf, String cq, int daysAgo) {
+        Key key = new Key(row, cf, cq, NOW - daysAgo * MILLIS_IN_DAY);
+        return index.accept(key, VALUE, key.getTimestamp());
+    }
+
+    // the original evaluation of the rule list
+    private Boolean walkRules(Key key) {
+        for (AppliedRule rule : rules) {
+            boolean accept = rule.accept(key, VALUE);
+            if (rule.isFilterRuleApplied()) {
+                return accept;
+            }
+        }
+        return null;
+    }
+
+    private static String randomString(Random random) {
+        StringBuilder sb = new StringBuilder();
+        int length = random.nextInt(4);
+        for (int i = 0; i < length; i++) {
+            sb.append((char) ('a' + random.nextInt(6)));
+        }
+        return sb.toString();
+    }
+}
@@ -488,6 +488,72 @@ public class FieldAgeOffFilterTest {
         Assert.assertTrue(ageOffFilter.isFilterRuleApplied());
     }
 
+    @Test
+    public void testTermFrequencyUsesLastField() {
+        long tenSecondsAgo = System.currentTimeMillis() - (10 * ONE_SEC);
+
+        FieldAgeOffFilter ageOffFilter = new FieldAgeOffFilter();
+        FilterOptions filterOptions = createFilterOptionsWithPattern();
+        // set the default to 5 minutes
+        filterOptions.setTTL(5);
+        filterOptions.setTTLUnits(AgeOffTtlUnits.MINUTES);
+        filterOptions.setOption("fields", "field_y");
+        filterOptions.setOption("field_y.ttl", "2"); // 2 seconds
+        ageOffFilter.init(filterOptions, iterEnv);
+
+        Key key = new Key("1234", "tf", "myDataType\u0000my-uuid\u0000value\u0000field_y", VISIBILITY_PATTERN, tenSecondsAgo);
+        Assert.assertFalse(ageOffFilter.accept(filterOptions.getAgeOffPeriod(System.currentTimeMillis()), key, new Value()));
+        Assert.assertTrue(ageOffFilter.isFilterRuleApplied());
+    }
+
+    @Test
+    public void testTermOffsetUsesThirdField() {
+        long tenSecondsAgo = System.currentTimeMillis() - (10 * ONE_SEC);
+
+        FieldAgeOffFilter ageOffFilter = new FieldAgeOffFilter();
+        FilterOptions filterOptions = createFilterOptionsWithPattern();
+        // set the default to 5 minutes
+        filterOptions.setTTL(5);
+        filterOptions.setTTLUnits(AgeOffTtlUnits.MINUTES);
+        filterOptions.setOption("fields", "field_y,value");
+        filterOptions.setOption("field_y.ttl", "2"); // 2 seconds
+        filterOptions.setOption("value.ttl", "2"); // 2 seconds
+        ageOffFilter.init(filterOptions, iterEnv);
+
+        // field_y is the field of the term offset, so it ages off
+        Key key = new Key("1234", "to", "myDataType\u0000my-uuid\u0000field_y\u00000000000012\u0000term", VISIBILITY_PATTERN, tenSecondsAgo);
+        Assert.assertFalse(ageOffFilter.accept(filterOptions.getAgeOffPeriod(System.currentTimeMillis()), key, new Value()));
+        Assert.assertTrue(ageOffFilter.isFilterRuleApplied());
+
+        // the term is not mistaken for the field, even when it matches a configured field
+        key = new Key("1234", "to", "myDataType\u0000my-uuid\u0000field_a\u00000000000012\u0000value", VISIBILITY_PATTERN, tenSecondsAgo);
+        Assert.assertTrue(ageOffFilter.accept(filterOptions.getAgeOffPeriod(System.currentTimeMillis()), key, new Value()));
+        Assert.assertFalse(ageOffFilter.isFilterRuleApplied());
+
+        // a term containing null bytes does not change the field
+        key = new Key("1234", "to", "myDataType\u0000my-uuid\u0000field_y\u00000000000012\u0000te\u0000rm", VISIBILITY_PATTERN, tenSecondsAgo);
+        Assert.assertFalse(ageOffFilter.accept(filterOptions.getAgeOffPeriod(System.currentTimeMillis()), key, new Value()));
+        Assert.assertTrue(ageOffFilter.isFilterRuleApplied());
+    }
+
+    @Test
+    public void testTermOffsetIsNotEventData() {
+        long tenSecondsAgo = System.currentTimeMillis() - (10 * ONE_SEC);
+
+        FieldAgeOffFilter ageOffFilter = new FieldAgeOffFilter();
+        FilterOptions filterOptions = createFilterOptionsWithPattern();
+        filterOptions.setTTL(5);
+        filterOptions.setTTLUnits(AgeOffTtlUnits.MINUTES);
+        filterOptions.setOption("fields", "field_y");
+        filterOptions.setOption("excludeData", "event");
+        filterOptions.setOption("field_y.ttl", "2"); // 2 seconds
+        ageOffFilter.init(filterOptions, iterEnv);
+
+        Key key = new Key("1234", "to", "myDataType\u0000my-uuid\u0000field_y\u00000000000012\u0000term", VISIBILITY_PATTERN, tenSecondsAgo);
+        Assert.assertFalse(ageOffFilter.accept(filterOptions.getAgeOffPeriod(System.currentTimeMillis()), key, new Value()));
+        Assert.assertTrue(ageOffFilter.isFilterRuleApplied());
+    }
+
     private FilterOptions createFilterOptionsWithPattern() {
         FilterOptions filterOptions = new FilterOptions();
         filterOptions.setOption(AgeOffConfigParams.MATCHPATTERN, VISIBILITY_PATTERN);
@@ -2,7 +2,6 @@ package datawave.edge.util;
 
 import java.nio.charset.CharacterCodingException;
 import java.util.AbstractList;
-import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
 
@@ -699,11 +698,23 @@ public class EdgeKey {
         }
 
         public static EDGE_VERSION getEdgeVersion(List<String> pieces) {
-            int nPieces = pieces.size();
+            return getEdgeVersion(!pieces.isEmpty() && pieces.get(0).equals(STATS_COLF), pieces.size());
+        }
+
+        /**
+         * Determine the version from the shape of the column family and qualifier
+         *
+         * @param stats
+         *            whether the first piece is the stats column family
+         * @param nPieces
+         *            the number of pieces across the column family and qualifier
+         * @return the edge version
+         */
+        public static EDGE_VERSION getEdgeVersion(boolean stats, int nPieces) {
             if (nPieces < 4) {
                 return UNKNOWN;
             }
-            if (pieces.get(0).equals(STATS_COLF)) {
+            if (stats) {
                 if (nPieces == 6) {
                     return STATS_BASE;
                 } else if (nPieces == 7) {
@@ -838,75 +849,7 @@ public class EdgeKey {
     }
 
     private Key encode(EDGE_VERSION version) {
-        Text rowid = null;
-        Text colf = null;
-        Text colq = null;
-        Text colvis = null;
-        boolean deleted = false;
-        long timestamp = Long.MAX_VALUE;
-
-        List<String> parts = new ArrayList<>(version.getTotalColPieces());
-        for (int ii = 0; ii < version.getTotalColPieces(); ii++) {
-            parts.add("null");
-        }
-
-        // row id
-        StringBuilder rowsb = new StringBuilder();
-        if (this.format == EDGE_FORMAT.STATS) {
-            rowsb.append(this.getSourceData());
-            parts.set(0, STATS_COLF);
-            parts.set(version.getStatsTypeIndex(), this.getStatsType().name());
-        } else if (this.format == EDGE_FORMAT.STANDARD) {
-            rowsb.append(this.getSourceData()).append("\0").append(this.getSinkData());
-        } else {
-            throw new IllegalStateException("Invalid Edge Type encountered: " + this.format);
-        }
-        rowid = new Text(rowsb.toString());
-
-        // populate the parts array according to the version
-        parts.set(version.getTypeIndex(), this.getType());
-        parts.set(version.getRelationshipIndex(), this.getRelationship());
-        parts.set(version.getCategoryIndex(), this.getAttribute1());
-        parts.set(version.getYMDIndex(), this.getYyyymmdd());
-        if (version.hasAttribute2()) {
-            parts.set(version.getAttribute2Index(), this.getAttribute2());
-        }
-        ;
-        if (version.hasAttribute3()) {
-            parts.set(version.getAttribute3Index(), this.getAttribute3());
-        }
-        ;
-        if (version.getDateTypeIndex() >= 0) {
-            parts.set(version.getDateTypeIndex(), this.getDateType().toString());
-        }
-
-        // serialize the colf
-        StringBuilder colsb = new StringBuilder(parts.get(0));
-        for (int ii = 1; ii < version.getNumColfPieces(); ii++) {
-            colsb.append(COL_SEPARATOR).append(parts.get(ii));
-        }
-        colf = new Text(colsb.toString());
-
-        // serialize the colq
-        colsb = new StringBuilder(parts.get(version.getNumColfPieces()));
-        for (int ii = version.getNumColfPieces() + 1; ii < version.getTotalColPieces(); ii++) {
-            colsb.append(COL_SEPARATOR).append(parts.get(ii));
-        }
-        colq = new Text(colsb.toString());
-
-        // colvis
-        colvis = new Text(this.getColvis());
-
-        // timestamp
-        timestamp = this.getTimestamp();
-
-        // deleted
-        deleted = this.isDeleted();
-
-        Key key = new Key(rowid, colf, colq, colvis, timestamp);
-        key.setDeleted(deleted);
-
-        return key;
+        return new EdgeKeyEncoder().encode(this, version);
     }
 
     /**
@@ -915,26 +858,47 @@ public class EdgeKey {
      * @return a key for the Datawave edge table
      */
     public Key encode() {
+        return encode(getEncodingVersion());
+    }
+
+    /**
+     * Creates an edge table key from the various EdgeKey fields, reusing the buffers of the given encoder.
+     *
+     * @param encoder
+     *            the encoder to use
+     * @return a key for the Datawave edge table
+     */
+    public Key encode(EdgeKeyEncoder encoder) {
+        return encoder.encode(this, getEncodingVersion());
+    }
+
+    /**
+     * @return the edge version written by {@link #encode()}
+     */
+    EDGE_VERSION getEncodingVersion() {
         if (this.getDateType() == DATE_TYPE.OLD_EVENT) {
-            return encodeLegacyProtobufKey();
+            return getLegacyProtobufVersion();
         } else {
             if (this.getFormat() == EDGE_FORMAT.STATS) {
-                return encode(EDGE_VERSION.DATE_STATS_PROTOBUF);
+                return EDGE_VERSION.DATE_STATS_PROTOBUF;
             } else if (this.getFormat() == EDGE_FORMAT.STANDARD) {
-                return encode(EDGE_VERSION.DATE_PROTOBUF);
+                return EDGE_VERSION.DATE_PROTOBUF;
             } else {
                 // EDGE_FORMAT.UNKNOWN
                 throw new IllegalStateException(UNKNOWN_EDGE_KEY_FORMAT_MSG + this);
             }
         }
-
     }
 
     public Key encodeLegacyProtobufKey() {
+        return encode(getLegacyProtobufVersion());
+    }
+
+    private EDGE_VERSION getLegacyProtobufVersion() {
         if (this.getFormat() == EDGE_FORMAT.STATS) {
-            return encode(EDGE_VERSION.STATS_PROTOBUF);
+            return EDGE_VERSION.STATS_PROTOBUF;
         } else if (this.getFormat() == EDGE_FORMAT.STANDARD) {
-            return encode(EDGE_VERSION.PROTOBUF);
+            return EDGE_VERSION.PROTOBUF;
         } else {
             // EDGE_FORMAT.UNKNOWN
             throw new IllegalStateException(UNKNOWN_EDGE_KEY_FORMAT_MSG + this);
@@ -1203,17 +1167,6 @@ public class EdgeKey {
      * @return the date type of this accumulo edge key
      */
     public static DATE_TYPE getDateType(Key key) {
-
-        EdgeColumnParts parts = new EdgeColumnParts(key);
-
-        EDGE_VERSION version = EDGE_VERSION.getEdgeVersion(parts);
-
-        if (version == EDGE_VERSION.DATE_STATS_PROTOBUF) {
-            return DATE_TYPE.parse(parts.get(8));
-        } else if (version == EDGE_VERSION.DATE_PROTOBUF) {
-            return DATE_TYPE.parse(parts.get(6));
-        } else {
-            return DATE_TYPE.OLD_EVENT;
-        }
+        return new EdgeKeyView().set(key).getDateType();
     }
 }
@@ -0,0 +1,122 @@
+package datawave.edge.util;
+
+import static datawave.edge.util.EdgeKey.COL_SEPARATOR_BYTE;
+import static datawave.edge.util.EdgeKey.EDGE_FORMAT;
+import static datawave.edge.util.EdgeKey.EDGE_VERSION;
+import static datawave.edge.util.EdgeKey.STATS_BYTES;
+
+import java.nio.charset.StandardCharsets;
+
+import org.apache.accumulo.core.data.Key;
+import org.apache.hadoop.io.Text;
+
+/**
+ * Encodes EdgeKeys into edge table keys. The row, column family and column qualifier are written directly into Text buffers which are reused from one key to
+ * the next, instead of joining the parts into Strings first, so a single encoder should be kept by callers which encode many keys, e.g. ingest handlers.
+ * <p>
+ * An encoder is not thread safe. The returned keys do not share the encoder's buffers.
+ */
+public class EdgeKeyEncoder {
+    private static final byte[] NULL_BYTE = {0};
+    private static final byte[] SEPARATOR_BYTE = {COL_SEPARATOR_BYTE};
+
+    private final Text textRow;
+    private final Text textCf;
+    private final Text textCq;
+
+    // scratch space used to convert ascii strings without allocating
+    private byte[] scratch = new byte[64];
+
+    public EdgeKeyEncoder() {
+        textRow = new Text();
+        textCf = new Text();
+        textCq = new Text();
+    }
+
+    /**
+     * Creates an edge table key using the current edge version, see {@link EdgeKey#encode()}
+     *
+     * @param edgeKey
+     *            the edge key
+     * @return a key for the Datawave edge table
+     */
+    public Key encode(EdgeKey edgeKey) {
+        return encode(edgeKey, edgeKey.getEncodingVersion());
+    }
+
+    Key encode(EdgeKey edgeKey, EDGE_VERSION version) {
+        // row id
+        textRow.clear();
+        if (edgeKey.getFormat() == EDGE_FORMAT.STATS) {
+            append(textRow, edgeKey.getSourceData());
+        } else if (edgeKey.getFormat() == EDGE_FORMAT.STANDARD) {
+            append(textRow, edgeKey.getSourceData());
+            textRow.append(NULL_BYTE, 0, 1);
+            append(textRow, edgeKey.getSinkData());
+        } else {
+            throw new IllegalStateException("Invalid Edge Type encountered: " + edgeKey.getFormat());
+        }
+
+        textCf.clear();
+        textCq.clear();
+        for (int ii = 0; ii < version.getTotalColPieces(); ii++) {
+            Text column = textCf;
+            if (ii >= version.getNumColfPieces()) {
+                column = textCq;
+            }
+            if (ii != 0 && ii != version.getNumColfPieces()) {
+                column.append(SEPARATOR_BYTE, 0, 1);
+            }
+            appendPart(column, edgeKey, version, ii);
+        }
+
+        Key key = new Key(textRow, textCf, textCq, edgeKey.getColvis(), edgeKey.getTimestamp());
+        key.setDeleted(edgeKey.isDeleted());
+        return key;
+    }
+
+    private void appendPart(Text column, EdgeKey edgeKey, EDGE_VERSION version, int index) {
+        if (index == 0 && version.getFormat() == EDGE_FORMAT.STATS) {
+            column.append(STATS_BYTES, 0, STATS_BYTES.length);
+        } else if (index == version.getStatsTypeIndex() && version.getFormat() == EDGE_FORMAT.STATS) {
+            append(column, edgeKey.getStatsType().name());
+        } else if (index == version.getTypeIndex()) {
+            append(column, edgeKey.getType());
+        } else if (index == version.getRelationshipIndex()) {
+            append(column, edgeKey.getRelationship());
+        } else if (index == version.getCategoryIndex()) {
+            append(column, edgeKey.getAttribute1());
+        } else if (index == version.getYMDIndex()) {
+            append(column, edgeKey.getYyyymmdd());
+        } else if (version.hasAttribute2() && index == version.getAttribute2Index()) {
+            append(column, edgeKey.getAttribute2());
+        } else if (version.hasAttribute3() && index == version.getAttribute3Index()) {
+            append(column, edgeKey.getAttribute3());
+        } else if (index == version.getDateTypeIndex()) {
+            append(column, edgeKey.getDateType().toString());
+        } else {
+            append(column, "null");
+        }
+    }
+
+    private void append(Text text, String value) {
+        // matches the String concatenation this replaces
+        if (value == null) {
+            value = "null";
+        }
+        int length = value.length();
+        if (scratch.length < length) {
+            scratch = new byte[Math.max(length, scratch.length * 2)];
+        }
+        for (int i = 0; i < length; i++) {
+            char c = value.charAt(i);
+            if (c >= 0x80) {
+                byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+                text.append(bytes, 0, bytes.length);
+                return;
+            }
+            scratch[i] = (byte) c;
+        }
+        text.append(scratch, 0, length);
+    }
+}
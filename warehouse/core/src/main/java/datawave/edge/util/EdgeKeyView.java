@@ -0,0 +1,288 @@
+package datawave.edge.util;
+
+import static datawave.edge.util.EdgeKey.COL_SEPARATOR_BYTE;
+import static datawave.edge.util.EdgeKey.DATE_TYPE;
+import static datawave.edge.util.EdgeKey.EDGE_FORMAT;
+import static datawave.edge.util.EdgeKey.EDGE_VERSION;
+import static datawave.edge.util.EdgeKey.STATS_BYTES;
+import static datawave.edge.util.EdgeKey.STATS_TYPE;
+
+import java.nio.charset.CharacterCodingException;
+import java.nio.charset.StandardCharsets;
+
+import org.apache.accumulo.core.data.ArrayByteSequence;
+import org.apache.accumulo.core.data.ByteSequence;
+import org.apache.accumulo.core.data.Key;
+import org.apache.hadoop.io.Text;
+
+/**
+ * A reusable, read-only view of an edge table key. Unlike {@link EdgeKey#decode(Key)}, which builds a String for every field, this view keeps a reference to
+ * the row, column family and column qualifier bytes of the key and only records the offsets of the '/' separated parts, the first time a field is asked for.
+ * Fields are returned as {@link ByteSequence}s over the key's own bytes, so filters and iterators can inspect an edge without allocating per key.
+ * <p>
+ * A view is not thread safe and is only valid until it is {@link #set(Key) set} to another key. The source and sink are returned exactly as they appear in the
+ * row, i.e. still escaped.
+ */
+public class EdgeKeyView {
+    private static final int MAX_PARTS = 9;
+    private static final int UNPARSED = -2;
+
+    private static final byte[][] DATE_TYPE_BYTES = new byte[DATE_TYPE.values().length][];
+    private static final byte[][] STATS_TYPE_BYTES = new byte[STATS_TYPE.values().length][];
+
+    static {
+        for (DATE_TYPE dateType : DATE_TYPE.values()) {
+            DATE_TYPE_BYTES[dateType.ordinal()] = dateType.toString().getBytes(StandardCharsets.UTF_8);
+        }
+        for (STATS_TYPE statsType : STATS_TYPE.values()) {
+            STATS_TYPE_BYTES[statsType.ordinal()] = statsType.name().getBytes(StandardCharsets.UTF_8);
+        }
+    }
+
+    private ByteSequence row;
+    private ByteSequence colf;
+    private ByteSequence colq;
+
+    // start (inclusive) and end (exclusive) of each part within the backing array of the colf (parts below numColfParts) or the colq
+    private final int[] partStart = new int[MAX_PARTS];
+    private final int[] partEnd = new int[MAX_PARTS];
+    private int numColfParts;
+    private int numParts;
+    private EDGE_VERSION version;
+
+    // position of the null separating source and sink within the backing array of the row, or -1 if there is none
+    private int rowSeparator;
+
+    public EdgeKeyView() {
+        clear();
+    }
+
+    /**
+     * Point this view at a new edge key. No parsing is done until a field is requested.
+     *
+     * @param key
+     *            a key from the Datawave edge table
+     * @return this view
+     */
+    public EdgeKeyView set(Key key) {
+        this.row = key.getRowData();
+        this.colf = key.getColumnFamilyData();
+        this.colq = key.getColumnQualifierData();
+        clear();
+        return this;
+    }
+
+    private void clear() {
+        numColfParts = UNPARSED;
+        numParts = UNPARSED;
+        version = null;
+        rowSeparator = UNPARSED;
+    }
+
+    public EDGE_VERSION getVersion() {
+        if (version == null) {
+            parseColumns();
+            version = EDGE_VERSION.getEdgeVersion(partEquals(0, STATS_BYTES), numParts);
+        }
+        return version;
+    }
+
+    public EDGE_FORMAT getFormat() {
+        return getVersion().getFormat();
+    }
+
+    public boolean isStatsKey() {
+        return getFormat() == EDGE_FORMAT.STATS;
+    }
+
+    /**
+     * @return the stats type of a stats edge, or null if this is not a stats edge
+     */
+    public STATS_TYPE getStatsType() {
+        if (!isStatsKey()) {
+            return null;
+        }
+        int index = version.getStatsTypeIndex();
+        for (STATS_TYPE statsType : STATS_TYPE.values()) {
+            if (partEquals(index, STATS_TYPE_BYTES[statsType.ordinal()])) {
+                return statsType;
+            }
+        }
+        throw new EnumConstantNotPresentException(STATS_TYPE.class, getPartString(index));
+    }
+
+    /**
+     * Determine the date type of the edge by comparing the date type part of the key against each type's abbreviation, without decoding it.
+     *
+     * @return the date type, {@link DATE_TYPE#OLD_EVENT} for edge versions which predate the date type, or null if the date type is not recognized
+     */
+    public DATE_TYPE getDateType() {
+        int index = getVersion().getDateTypeIndex();
+        if (index < 0) {
+            return DATE_TYPE.OLD_EVENT;
+        }
+        for (DATE_TYPE dateType : DATE_TYPE.values()) {
+            if (partEquals(index, DATE_TYPE_BYTES[dateType.ordinal()])) {
+                return dateType;
+            }
+        }
+        return null;
+    }
+
+    public ByteSequence getSource() {
+        int separator = getRowSeparator();
+        if (separator < 0) {
+            return row;
+        }
+        return new ArrayByteSequence(row.getBackingArray(), row.offset(), separator - row.offset());
+    }
+
+    /**
+     * @return the sink, or null for stats edges and rows without a sink
+     */
+    public ByteSequence getSink() {
+        int separator = getRowSeparator();
+        if (separator < 0) {
+            return null;
+        }
+        return new ArrayByteSequence(row.getBackingArray(), separator + 1, row.offset() + row.length() - separator - 1);
+    }
+
+    public ByteSequence getType() {
+        return getPart(getVersion().getTypeIndex());
+    }
+
+    public ByteSequence getRelationship() {
+        return getPart(getVersion().getRelationshipIndex());
+    }
+
+    public ByteSequence getAttribute1() {
+        return getPart(getVersion().getCategoryIndex());
+    }
+
+    public ByteSequence getYyyymmdd() {
+        return getPart(getVersion().getYMDIndex());
+    }
+
+    public ByteSequence getAttribute2() {
+        return getVersion().hasAttribute2() ? getPart(version.getAttribute2Index()) : null;
+    }
+
+    public ByteSequence getAttribute3() {
+        return getVersion().hasAttribute3() ? getPart(version.getAttribute3Index()) : null;
+    }
+
+    /**
+     * @return the number of '/' separated parts across the column family and qualifier
+     */
+    public int getNumParts() {
+        parseColumns();
+        return numParts;
+    }
+
+    /**
+     * Get a part of the column family and qualifier, numbered as in {@link EDGE_VERSION}.
+     *
+     * @param index
+     *            the part index
+     * @return the part, backed by the bytes of the key
+     */
+    public ByteSequence getPart(int index) {
+        checkPartIndex(index);
+        return new ArrayByteSequence(partBytes(index), partStart[index], partEnd[index] - partStart[index]);
+    }
+
+    public String getPartString(int index) {
+        checkPartIndex(index);
+        try {
+            return Text.decode(partBytes(index), partStart[index], partEnd[index] - partStart[index]);
+        } catch (CharacterCodingException e) {
+            // same behavior as EdgeKey.EdgeColumnParts
+            throw new RuntimeException("Edge key column encoding exception", e);
+        }
+    }
+
+    /**
+     * Compare a part of the column family and qualifier against some bytes without copying it.
+     *
+     * @param index
+     *            the part index
+     * @param bytes
+     *            the bytes to compare against
+     * @return true if the part exists and matches the bytes
+     */
+    public boolean partEquals(int index, byte[] bytes) {
+        parseColumns();
+        if (index < 0 || index >= numParts || partEnd[index] - partStart[index] != bytes.length) {
+            return false;
+        }
+        byte[] backing = partBytes(index);
+        for (int i = 0, j = partStart[index]; i < bytes.length; i++, j++) {
+            if (backing[j] != bytes[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private void checkPartIndex(int index) {
+        parseColumns();
+        if (index < 0 || index >= numParts) {
+            throw new IndexOutOfBoundsException("Edge key part " + index + " requested but the key has " + numParts + " parts");
+        }
+    }
+
+    private byte[] partBytes(int index) {
+        return index < numColfParts ? colf.getBackingArray() : colq.getBackingArray();
+    }
+
+    private int getRowSeparator() {
+        if (rowSeparator == UNPARSED) {
+            rowSeparator = -1;
+            // stats edges have no sink, so the whole row is the source
+            if (!isStatsKey()) {
+                byte[] bytes = row.getBackingArray();
+                int end = row.offset() + row.length();
+                for (int i = row.offset(); i < end; i++) {
+                    if (bytes[i] == 0) {
+                        // a leading null means an invalid row, which is treated as all source like EdgeKeyDecoder does
+                        rowSeparator = i > row.offset() ? i : -1;
+                        break;
+                    }
+                }
+            }
+        }
+        return rowSeparator;
+    }
+
+    private void parseColumns() {
+        if (numParts == UNPARSED) {
+            numParts = 0;
+            parseParts(colf);
+            numColfParts = numParts;
+            parseParts(colq);
+        }
+    }
+
+    private void parseParts(ByteSequence column) {
+        byte[] bytes = column.getBackingArray();
+        int start = column.offset();
+        int end = start + column.length();
+        for (int i = start; i < end; i++) {
+            if (bytes[i] == COL_SEPARATOR_BYTE) {
+                addPart(start, i);
+                start = i + 1;
+            }
+        }
+        addPart(start, end);
+    }
+
+    private void addPart(int start, int end) {
+        if (numParts >= MAX_PARTS) {
+            throw new RuntimeException("Exceeded number of possible number of parts (" + MAX_PARTS + ").  colf: " + colf + " colq: " + colq);
+        }
+        partStart[numParts] = start;
+        partEnd[numParts] = end;
+        numParts++;
+    }
+}
@@ -0,0 +1,122 @@
+package datawave.ingest.mapreduce.handler.tokenize;
+
+/**
+ * The term offset column is an optional forward index of the tokens of a document, written to the shard table next to the term frequency column. Where a term
+ * frequency key holds every offset of one term, a term offset key holds one term at one offset, sorted by field and offset, so that the terms in a window of
+ * offsets can be read with a single seek.
+ * <p>
+ * Shard Table Structure
+ * <ul>
+ * <li>Row: shard id</li>
+ * <li>Colf: to</li>
+ * <li>Colq: datatype\0uid\0field\0zero padded offset\0term</li>
+ * <li>Value: empty</li>
+ * </ul>
+ */
+public class TermOffsetIndexUtil {
+
+    public static final String TERM_OFFSET_LOCALITY_NAME = "termoffset";
+    public static final String TERM_OFFSET_COLUMN_FAMILY = "to";
+
+    /** enough digits for any non-negative int, so that offsets sort numerically */
+    public static final int OFFSET_WIDTH = 10;
+
+    private static final char NULL = '\u0000';
+
+    private TermOffsetIndexUtil() {}
+
+    /**
+     * Get the column qualifier prefix shared by all term offset keys of a field within a document
+     *
+     * @param dtUid
+     *            the datatype and uid, separated by a null
+     * @param field
+     *            the field name
+     * @return dt\0uid\0field\0
+     */
+    public static String getColumnQualifierPrefix(String dtUid, String field) {
+        return dtUid + NULL + field + NULL;
+    }
+
+    /**
+     * Get the column qualifier prefix which sorts before all terms of a field at the given offset
+     *
+     * @param dtUid
+     *            the datatype and uid, separated by a null
+     * @param field
+     *            the field name
+     * @param offset
+     *            the offset
+     * @return dt\0uid\0field\0offset
+     */
+    public static String getColumnQualifierPrefix(String dtUid, String field, int offset) {
+        StringBuilder sb = new StringBuilder(dtUid.length() + field.length() + OFFSET_WIDTH + 2);
+        sb.append(dtUid).append(NULL).append(field).append(NULL);
+        appendOffset(sb, offset);
+        return sb.toString();
+    }
+
+    /**
+     * Get the column qualifier for a term at an offset
+     *
+     * @param dataType
+     *            the datatype
+     * @param uid
+     *            the uid
+     * @param field
+     *            the field name
+     * @param offset
+     *            the offset of the term
+     * @param term
+     *            the term
+     * @return dt\0uid\0field\0offset\0term
+     */
+    public static String getColumnQualifier(String dataType, String uid, String field, int offset, String term) {
+        StringBuilder sb = new StringBuilder(dataType.length() + uid.length() + field.length() + OFFSET_WIDTH + term.length() + 4);
+        sb.append(dataType).append(NULL).append(uid).append(NULL).append(field).append(NULL);
+        appendOffset(sb, offset);
+        sb.append(NULL).append(term);
+        return sb.toString();
+    }
+
+    /**
+     * Parse the offset out of a term offset column qualifier
+     *
+     * @param cq
+     *            the column qualifier
+     * @param prefixLength
+     *            the length of the dt\0uid\0field\0 prefix
+     * @return the offset
+     */
+    public static int getOffset(String cq, int prefixLength) {
+        int offset = 0;
+        for (int i = prefixLength; i < prefixLength + OFFSET_WIDTH; i++) {
+            offset = offset * 10 + (cq.charAt(i) - '0');
+        }
+        return offset;
+    }
+
+    /**
+     * Parse the term out of a term offset column qualifier
+     *
+     * @param cq
+     *            the column qualifier
+     * @param prefixLength
+     *            the length of the dt\0uid\0field\0 prefix
+     * @return the term
+     */
+    public static String getTerm(String cq, int prefixLength) {
+        return cq.substring(prefixLength + OFFSET_WIDTH + 1);
+    }
+
+    private static void appendOffset(StringBuilder sb, int offset) {
+        if (offset < 0) {
+            throw new IllegalArgumentException("Term offsets must not be negative: " + offset);
+        }
+        String digits = Integer.toString(offset);
+        for (int i = digits.length(); i < OFFSET_WIDTH; i++) {
+            sb.append('0');
+        }
+        sb.append(digits);
+    }
+}
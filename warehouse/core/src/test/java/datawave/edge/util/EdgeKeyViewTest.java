@@ -0,0 +1,100 @@
+package datawave.edge.util;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import org.apache.accumulo.core.data.ByteSequence;
+import org.apache.accumulo.core.data.Key;
+import org.apache.hadoop.io.Text;
+import org.junit.Before;
+import org.junit.Test;
+
+public class EdgeKeyViewTest {
+    private EdgeTableTestKeyHelper testKeyHelper;
+    private EdgeKeyView view;
+
+    @Before
+    public void before() {
+        testKeyHelper = new EdgeTableTestKeyHelper();
+        view = new EdgeKeyView();
+    }
+
+    @Test
+    public void testViewMatchesDecode() {
+        // reuse the same view for every key to verify that no state leaks between keys
+        for (Key key : new Key[] {testKeyHelper.refBase, testKeyHelper.refBaseAttribute2, testKeyHelper.refProtobuf, testKeyHelper.refDateProtobuf,
+                testKeyHelper.refStatsBase, testKeyHelper.refStatsAttribute2, testKeyHelper.refStatsProtobuf, testKeyHelper.refStatsDateProtobuf}) {
+            EdgeKey edgeKey = EdgeKey.decodeForInternal(key);
+            view.set(key);
+
+            assertEquals(key.toString(), edgeKey.getFormat(), view.getFormat());
+            assertEquals(key.toString(), edgeKey.getDateType(), view.getDateType());
+            assertEquals(key.toString(), EdgeKey.getDateType(key), view.getDateType());
+            assertEquals(key.toString(), edgeKey.getSourceData(), toString(view.getSource()));
+            if (view.isStatsKey()) {
+                assertEquals(key.toString(), edgeKey.getStatsType(), view.getStatsType());
+                assertNull(key.toString(), view.getSink());
+            } else {
+                assertNull(key.toString(), view.getStatsType());
+                assertEquals(key.toString(), edgeKey.getSinkData(), toString(view.getSink()));
+            }
+            assertEquals(key.toString(), edgeKey.getType(), toString(view.getType()));
+            assertEquals(key.toString(), edgeKey.getRelationship(), toString(view.getRelationship()));
+            assertEquals(key.toString(), edgeKey.getAttribute1(), toString(view.getAttribute1()));
+            assertEquals(key.toString(), edgeKey.getYyyymmdd(), toString(view.getYyyymmdd()));
+            if (edgeKey.hasAttribute2()) {
+                assertEquals(key.toString(), edgeKey.getAttribute2(), toString(view.getAttribute2()));
+            }
+            if (edgeKey.hasAttribute3()) {
+                assertEquals(key.toString(), edgeKey.getAttribute3(), toString(view.getAttribute3()));
+            }
+        }
+    }
+
+    @Test
+    public void testPartAccess() {
+        view.set(testKeyHelper.refDateProtobuf);
+
+        assertEquals(EdgeKey.EDGE_VERSION.DATE_PROTOBUF, view.getVersion());
+        assertEquals(7, view.getNumParts());
+        assertEquals(EdgeTableTestKeyHelper.TYPE, view.getPartString(0));
+        assertTrue(view.partEquals(6, "A".getBytes()));
+        assertFalse(view.partEquals(6, "C".getBytes()));
+        assertFalse(view.partEquals(7, "A".getBytes()));
+        assertFalse(view.isStatsKey());
+    }
+
+    @Test
+    public void testUnknownDateType() {
+        Key key = new Key(new Text("SOURCE\0SINK"), new Text("TYPE/SOURCEREL-SINKREL"), new Text("YYYYMMDD/SOURCE-SINK/ATTRIBUTE2/ATTRIBUTE3/Z"));
+        assertNull(view.set(key).getDateType());
+    }
+
+    @Test
+    public void testEncoderMatchesEncode() {
+        EdgeKeyEncoder encoder = new EdgeKeyEncoder();
+        for (Key key : new Key[] {testKeyHelper.refDateProtobuf, testKeyHelper.refStatsDateProtobuf, testKeyHelper.refProtobuf,
+                testKeyHelper.refStatsProtobuf}) {
+            EdgeKey edgeKey = EdgeKey.decodeForInternal(key);
+            Key encoded = edgeKey.encode(encoder);
+            assertEquals(edgeKey.encode(), encoded);
+            assertEquals(key, encoded);
+        }
+
+        EdgeKey.EdgeKeyBuilder builder = EdgeKey.newBuilder(EdgeKey.EDGE_FORMAT.STANDARD).setSourceData("s\u00f6urce").setSinkData("sink").setType("TYPE")
+                        .setSourceRelationship("REL1").setSinkRelationship("REL2").setSourceAttribute1("CAT1").setSinkAttribute1("CAT2")
+                        .setYyyymmdd("20240101").setColvis(new Text("ALL")).setDeleted(true);
+        builder.setDateType(EdgeKey.DATE_TYPE.ACTIVITY_ONLY);
+        EdgeKey edgeKey = builder.build();
+        Key encoded = edgeKey.encode(encoder);
+        assertEquals(edgeKey.encode(), encoded);
+        assertTrue(encoded.isDeleted());
+        assertEquals(edgeKey, EdgeKey.decodeForInternal(encoded));
+    }
+
+    private static String toString(ByteSequence bytes) {
+        return bytes == null ? null : new String(bytes.toArray());
+    }
+}
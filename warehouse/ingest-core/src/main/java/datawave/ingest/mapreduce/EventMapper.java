@@ -49,6 +49,7 @@ import datawave.ingest.data.config.ingest.VirtualIngest;
 import datawave.ingest.input.reader.event.EventErrorSummary;
 import datawave.ingest.mapreduce.handler.DataTypeHandler;
 import datawave.ingest.mapreduce.handler.ExtendedDataTypeHandler;
+import datawave.ingest.mapreduce.handler.StreamingDataTypeHandler;
 import datawave.ingest.mapreduce.handler.error.ErrorDataTypeHandler;
 import datawave.ingest.mapreduce.job.BulkIngestKey;
 import datawave.ingest.mapreduce.job.ConstraintChecker;
@@ -60,6 +61,7 @@ import datawave.ingest.mapreduce.job.metrics.ReusableMetricsLabels;
 import datawave.ingest.mapreduce.job.statsd.StatsDEnabledMapper;
 import datawave.ingest.mapreduce.job.writer.BulkContextWriter;
 import datawave.ingest.mapreduce.job.writer.ContextWriter;
+import datawave.ingest.mapreduce.job.writer.KeyValueBuffer;
 import datawave.ingest.mapreduce.job.writer.LiveContextWriter;
 import datawave.ingest.mapreduce.partition.MultiTableRangePartitioner;
 import datawave.ingest.metric.IngestInput;
@@ -118,6 +120,12 @@ public class EventMapper<K1,V1 extends RawRecordContainer,K2,V2> extends StatsDE
 
     protected boolean createRawFileName = true;
 
+    protected boolean streamingHandlers = true;
+
+    private final KeyValueBuffer keyValueBuffer = new KeyValueBuffer();
+
+    private final Map<Class<?>,Boolean> streamingHandlerTypes = new HashMap<>();
+
     public static final String LOAD_DATE_FIELDNAME = "LOAD_DATE";
 
     public static final String SEQUENCE_FILE_FIELDNAME = "ORIG_FILE";
@@ -132,6 +140,12 @@ public class EventMapper<K1,V1 extends RawRecordContainer,K2,V2> extends StatsDE
 
     public static final String ID_FILTER_FSTS = "ingest.event.mapper.id.filter.fsts";
 
+    /**
+     * Whether handlers implementing {@link StreamingDataTypeHandler} write into a buffer reused across events instead of returning a multimap per event. A
+     * handler which overrides only the multimap form of processBulk returns a multimap either way.
+     */
+    public static final String STREAMING_HANDLERS = "ingest.event.mapper.streaming.handlers";
+
     protected Map<String,List<DataTypeHandler<K1>>> typeMap = new HashMap<>();
 
     // Predicates are used to filter out events if needed. If predicates exist
@@ -204,6 +218,8 @@ public class EventMapper<K1,V1 extends RawRecordContainer,K2,V2> extends StatsDE
 
         createRawFileName = context.getConfiguration().getBoolean(LOAD_RAW_FILE_NAME, true);
 
+        streamingHandlers = context.getConfiguration().getBoolean(STREAMING_HANDLERS, true);
+
         Class<? extends KeyValueFilter<K2,V2>> firstFilter = null;
 
         // Use the filter class as the context writer if any
@@ -873,10 +889,24 @@ public class EventMapper<K1,V1 extends RawRecordContainer,K2,V2> extends StatsDE
 
         // In the setup we determined whether or not we were performing bulk ingest. This tells us which
         // method to call on the DataTypeHandler interface.
-        Multimap<BulkIngestKey,Value> r;
-
-        if (!(handler instanceof ExtendedDataTypeHandler)) {
-            r = handler.processBulk(key, event, fields, new ContextWrappedStatusReporter(getContext(context)));
+        if (handler instanceof ExtendedDataTypeHandler) {
+            count = ((ExtendedDataTypeHandler<K1,K2,V2>) handler).process(key, event, fields, context, contextWriter);
+            if (count == -1) {
+                getCounter(context, IngestInput.EVENT_FATAL_ERROR).increment(1);
+                getCounter(context, IngestInput.EVENT_FATAL_ERROR.name(), "NegOneCount").increment(1);
+            }
+        } else if (streamingHandlers && streamingHandlerTypes.computeIfAbsent(handler.getClass(), type -> StreamingDataTypeHandler.canStream(handler))) {
+            // the buffer may still hold the keys of an event which failed part way through
+            keyValueBuffer.clear();
+            if (((StreamingDataTypeHandler<K1>) handler).processBulk(key, event, fields, new ContextWrappedStatusReporter(getContext(context)),
+                            keyValueBuffer)) {
+                count = keyValueBuffer.writeTo(contextWriter, context);
+            } else {
+                getCounter(context, IngestInput.EVENT_FATAL_ERROR).increment(1);
+                getCounter(context, IngestInput.EVENT_FATAL_ERROR.name(), "NullMultiMap").increment(1);
+            }
+        } else {
+            Multimap<BulkIngestKey,Value> r = handler.processBulk(key, event, fields, new ContextWrappedStatusReporter(getContext(context)));
             if (r == null) {
                 getCounter(context, IngestInput.EVENT_FATAL_ERROR).increment(1);
                 getCounter(context, IngestInput.EVENT_FATAL_ERROR.name(), "NullMultiMap").increment(1);
@@ -884,12 +914,6 @@ public class EventMapper<K1,V1 extends RawRecordContainer,K2,V2> extends StatsDE
                 contextWriter.write(r, context);
                 count = r.size();
             }
-        } else {
-            count = ((ExtendedDataTypeHandler<K1,K2,V2>) handler).process(key, event, fields, context, contextWriter);
-            if (count == -1) {
-                getCounter(context, IngestInput.EVENT_FATAL_ERROR).increment(1);
-                getCounter(context, IngestInput.EVENT_FATAL_ERROR.name(), "NegOneCount").increment(1);
-            }
         }
 
         // Update the counters
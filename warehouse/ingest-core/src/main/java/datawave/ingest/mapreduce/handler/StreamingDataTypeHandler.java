@@ -0,0 +1,62 @@
+package datawave.ingest.mapreduce.handler;
+
+import org.apache.hadoop.mapreduce.StatusReporter;
+
+import com.google.common.collect.Multimap;
+
+import datawave.ingest.data.RawRecordContainer;
+import datawave.ingest.data.config.NormalizedContentInterface;
+import datawave.ingest.mapreduce.job.writer.KeyValueSink;
+
+/**
+ * A {@link DataTypeHandler} which can put the key/value pairs for an event straight into a sink, such as the reusable buffer held by the EventMapper, instead
+ * of returning a new multimap per event.
+ *
+ * @param <KEYIN>
+ *            type for the input key
+ */
+public interface StreamingDataTypeHandler<KEYIN> extends DataTypeHandler<KEYIN> {
+
+    /**
+     * The streaming form of {@link #processBulk(Object, RawRecordContainer, Multimap, StatusReporter)}, which must put the same pairs into the sink as that
+     * method would return.
+     *
+     * @param key
+     *            the event key
+     * @param event
+     *            the event
+     * @param fields
+     *            the normalized event fields
+     * @param reporter
+     *            the status reporter
+     * @param sink
+     *            the destination for the key/value pairs
+     * @return false if the event could not be processed, in which case processBulk would have returned null
+     */
+    boolean processBulk(KEYIN key, RawRecordContainer event, Multimap<String,NormalizedContentInterface> fields, StatusReporter reporter, KeyValueSink sink);
+
+    /**
+     * Whether the streaming form of processBulk may be used for a handler. It may not when a subclass overrides the multimap form below the class which
+     * implements the streaming form, as the streaming form would skip the override.
+     *
+     * @param handler
+     *            the handler
+     * @return true if the handler is a StreamingDataTypeHandler whose streaming form is at least as specific as its multimap form
+     */
+    static boolean canStream(DataTypeHandler<?> handler) {
+        if (!(handler instanceof StreamingDataTypeHandler)) {
+            return false;
+        }
+        try {
+            Class<?> type = handler.getClass();
+            Class<?> multimapForm = type.getMethod("processBulk", Object.class, RawRecordContainer.class, Multimap.class, StatusReporter.class)
+                            .getDeclaringClass();
+            Class<?> streamingForm = type
+                            .getMethod("processBulk", Object.class, RawRecordContainer.class, Multimap.class, StatusReporter.class, KeyValueSink.class)
+                            .getDeclaringClass();
+            return multimapForm == streamingForm || !streamingForm.isAssignableFrom(multimapForm);
+        } catch (NoSuchMethodException e) {
+            return false;
+        }
+    }
+}
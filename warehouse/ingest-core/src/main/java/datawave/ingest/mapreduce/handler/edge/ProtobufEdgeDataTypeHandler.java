@@ -48,6 +48,7 @@ import datawave.data.normalizer.DateNormalizer;
 import datawave.edge.util.EdgeKey;
 import datawave.edge.util.EdgeKey.EDGE_FORMAT;
 import datawave.edge.util.EdgeKey.STATS_TYPE;
+import datawave.edge.util.EdgeKeyEncoder;
 import datawave.ingest.data.RawRecordContainer;
 import datawave.ingest.data.Type;
 import datawave.ingest.data.TypeRegistry;
@@ -136,6 +137,7 @@ public class ProtobufEdgeDataTypeHandler<KEYIN,KEYOUT,VALUEOUT> implements Exten
     private EdgePreconditionCacheHelper edgePreconditionCacheHelper;
     private EdgePreconditionArithmetic arithmetic = new EdgePreconditionArithmetic();
     private Map<String,JexlScript> scriptCache;
+    private final EdgeKeyEncoder edgeKeyEncoder = new EdgeKeyEncoder();
 
     protected String edgeTableName = null;
     protected String metadataTableName = null;
@@ -1181,7 +1183,7 @@ public class ProtobufEdgeDataTypeHandler<KEYIN,KEYOUT,VALUEOUT> implements Exten
                         .setDateType(date_type);
         builder.setDeleted(edgeValue.isDeleting());
 
-        return builder.build().encode();
+        return builder.build().encode(edgeKeyEncoder);
     }
 
     protected Key createStatsKey(STATS_TYPE statsType, EdgeDataBundle edgeValue, VertexValue vertex, String value, Text visibility,
@@ -1193,7 +1195,7 @@ public class ProtobufEdgeDataTypeHandler<KEYIN,KEYOUT,VALUEOUT> implements Exten
                         .setAttribute3(edgeValue.getEdgeAttribute3()).setAttribute2(edgeValue.getEdgeAttribute2()).setColvis(visibility)
                         .setTimestamp(edgeValue.getEvent().getTimestamp()).setDateType(date_type);
         builder.setDeleted(edgeValue.isDeleting());
-        Key key = builder.build().encode();
+        Key key = builder.build().encode(edgeKeyEncoder);
         boolean isNewKey = false;
 
         /**
@@ -1,13 +1,16 @@
 package datawave.ingest.mapreduce.handler.shard;
 
+import java.lang.reflect.Method;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.BitSet;
 import java.util.Calendar;
 import java.util.Collection;
 import java.util.List;
+import java.util.Map;
 import java.util.Map.Entry;
 import java.util.TimeZone;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.TimeUnit;
 
 import org.apache.accumulo.core.data.Key;
@@ -41,8 +44,10 @@ import datawave.ingest.data.config.NormalizedContentInterface;
 import datawave.ingest.data.config.ingest.IngestHelperInterface;
 import datawave.ingest.mapreduce.MemberShipTest;
 import datawave.ingest.mapreduce.handler.DataTypeHandler;
+import datawave.ingest.mapreduce.handler.StreamingDataTypeHandler;
 import datawave.ingest.mapreduce.job.BulkIngestKey;
 import datawave.ingest.mapreduce.job.statsd.StatsDEnabledDataTypeHandler;
+import datawave.ingest.mapreduce.job.writer.KeyValueSink;
 import datawave.ingest.metadata.RawRecordMetadata;
 import datawave.ingest.protobuf.Uid;
 import datawave.ingest.table.config.LoadDateTableConfigHelper;
@@ -59,7 +64,11 @@ import datawave.util.time.DateHelper;
 /**
  * <p>
  * When the processBulk method is called on this DataTypeHandler it creates Key/Values for the shard, shardIndex, and ShardReverseIndex tables formats. The
- * names of these tables need to be specified in the configuration and are checked upon the call to setup().
+ * names of these tables need to be specified in the configuration and are checked upon the call to setup(). The EventMapper calls the
+ * {@link StreamingDataTypeHandler} form of processBulk, which puts the Key/Values into a buffer reused across events rather than into a new Multimap. The
+ * methods creating the columns have a Multimap form and a {@link KeyValueSink} form, and processBulk calls the KeyValueSink forms. When a subclass overrides
+ * the Multimap form of one of these methods, processBulk calls that Multimap form in its place and puts its Key/Values into the sink, so the override is not
+ * skipped.
  *
  * <p>
  * This class creates the following Mutations or Key/Values: <br>
@@ -125,7 +134,7 @@ import datawave.util.time.DateHelper;
  * @param <KEYIN>
  *            the data type of the data type handler
  */
-public abstract class ShardedDataTypeHandler<KEYIN> extends StatsDEnabledDataTypeHandler<KEYIN> implements DataTypeHandler<KEYIN> {
+public abstract class ShardedDataTypeHandler<KEYIN> extends StatsDEnabledDataTypeHandler<KEYIN> implements StreamingDataTypeHandler<KEYIN> {
 
     private static final Logger log = ThreadConfigurableLogger.getLogger(ShardedDataTypeHandler.class);
 
@@ -198,6 +207,42 @@ public abstract class ShardedDataTypeHandler<KEYIN> extends StatsDEnabledDataTyp
 
     private static final long MS_PER_DAY = TimeUnit.DAYS.toMillis(1);
 
+    // the Multimap forms of the column methods called by processBulk, which are called in place of their KeyValueSink forms when a subclass overrides them
+    private static final Method CREATE_COLUMNS = getMultimapForm(ShardedDataTypeHandler.class, "createColumns", RawRecordContainer.class, Multimap.class,
+                    StatusReporter.class);
+    private static final Method CREATE_SHARD_EVENT_COLUMN = getMultimapForm(ShardedDataTypeHandler.class, "createShardEventColumn", RawRecordContainer.class,
+                    Text.class, NormalizedContentInterface.class, byte[].class, byte[].class, MaskedFieldHelper.class, byte[].class);
+    private static final Method CREATE_MASKED_SHARD_EVENT_COLUMN = getMultimapForm(ShardedDataTypeHandler.class, "createMaskedShardEventColumn",
+                    RawRecordContainer.class, Text.class, byte[].class, byte[].class, Multimap.class, boolean.class, boolean.class, String.class, String.class);
+    private static final Method CREATE_FORWARD_INDICES = getMultimapForm(ShardedDataTypeHandler.class, "createForwardIndices", IngestHelperInterface.class,
+                    RawRecordContainer.class, Multimap.class, NormalizedContentInterface.class, byte[].class, byte[].class, MaskedFieldHelper.class,
+                    byte[].class, Value.class, StatusReporter.class);
+    private static final Method CREATE_REVERSE_INDICES = getMultimapForm(ShardedDataTypeHandler.class, "createReverseIndices", IngestHelperInterface.class,
+                    RawRecordContainer.class, Multimap.class, NormalizedContentInterface.class, byte[].class, byte[].class, MaskedFieldHelper.class,
+                    byte[].class, Value.class, StatusReporter.class);
+    private static final Method CREATE_STATS = getMultimapForm(ShardedDataTypeHandler.class, "createStats", IngestHelperInterface.class,
+                    RawRecordContainer.class, Multimap.class, NormalizedContentInterface.class, byte[].class, byte[].class, MaskedFieldHelper.class,
+                    byte[].class, Value.class, StatusReporter.class);
+    private static final Method CREATE_SHARD_FIELD_INDEX_COLUMN = getMultimapForm(ShardedDataTypeHandler.class, "createShardFieldIndexColumn",
+                    RawRecordContainer.class, String.class, String.class, byte[].class, byte[].class, MaskedFieldHelper.class, byte[].class, Value.class);
+    private static final Method CREATE_TERM_INDEX_COLUMN = getMultimapForm(ShardedDataTypeHandler.class, "createTermIndexColumn", RawRecordContainer.class,
+                    String.class, String.class, byte[].class, byte[].class, MaskedFieldHelper.class, byte[].class, Text.class, Value.class, Direction.class);
+    private static final Method WRITE_SHARD_DAY_INDEX_KEY = getMultimapForm(ShardedDataTypeHandler.class, "writeShardDayIndexKey", Multimap.class,
+                    RawRecordContainer.class, String.class, String.class, byte[].class, byte[].class, MaskedFieldHelper.class, byte[].class, Direction.class);
+    private static final Method WRITE_SHARD_YEAR_INDEX_KEY_BIT_SET = getMultimapForm(ShardedDataTypeHandler.class, "writeShardYearIndexKeyBitSet",
+                    Multimap.class, RawRecordContainer.class, String.class, String.class, byte[].class, byte[].class, MaskedFieldHelper.class, byte[].class,
+                    Direction.class);
+    private static final Method CREATE_DICTIONARY_COLUMN = getMultimapForm(ShardedDataTypeHandler.class, "createDictionaryColumn", RawRecordContainer.class,
+                    Multimap.class, String.class, String.class, byte[].class, byte[].class, MaskedFieldHelper.class, Text.class, Text.class);
+
+    // whether a handler class overrides the Multimap form of a column method, found on first use
+    private static final ClassValue<Map<Method,Boolean>> multimapOverrides = new ClassValue<Map<Method,Boolean>>() {
+        @Override
+        protected Map<Method,Boolean> computeValue(Class<?> type) {
+            return new ConcurrentHashMap<>();
+        }
+    };
+
     private float bloomFilteringDiskThreshold;
     private String bloomFilteringDiskThresholdPath;
     private float bloomFilteringMemoryThreshold;
@@ -462,8 +507,19 @@ public abstract class ShardedDataTypeHandler<KEYIN> extends StatsDEnabledDataTyp
     @Override
     public Multimap<BulkIngestKey,Value> processBulk(KEYIN key, RawRecordContainer event, Multimap<String,NormalizedContentInterface> eventFields,
                     StatusReporter reporter) {
+        Multimap<BulkIngestKey,Value> values = HashMultimap.create();
+        return processBulk(key, event, eventFields, reporter, values::put) ? values : null;
+    }
+
+    /**
+     * Creates the same entries as {@link #processBulk(Object, RawRecordContainer, Multimap, StatusReporter)}, putting them into the sink. Entries may be put
+     * more than once, so the sink is expected to drop duplicates as the Multimap does.
+     */
+    @Override
+    public boolean processBulk(KEYIN key, RawRecordContainer event, Multimap<String,NormalizedContentInterface> eventFields, StatusReporter reporter,
+                    KeyValueSink sink) {
         if (event.fatalError()) {
-            return null;
+            return false;
         } else {
             // create an event that returns its timestamp date
             IngestHelperInterface helper = getHelper(event.getDataType());
@@ -471,7 +527,7 @@ public abstract class ShardedDataTypeHandler<KEYIN> extends StatsDEnabledDataTyp
             if (isReindexEnabled) {
                 Multimap<String,NormalizedContentInterface> filteredEventFields = filterByRequestedFields(eventFields);
                 if (filteredEventFields.isEmpty()) {
-                    return HashMultimap.create(); // nothing to do (none of the reindex fields were found)
+                    return true; // nothing to do (none of the reindex fields were found)
                 }
                 eventFields = filteredEventFields;
             }
@@ -479,7 +535,12 @@ public abstract class ShardedDataTypeHandler<KEYIN> extends StatsDEnabledDataTyp
             Multimap<String,NormalizedContentInterface> fields = getShardNamesAndValues(event, eventFields, (null != getShardIndexTableName()),
                             (null != getShardReverseIndexTableName()), reporter);
 
-            return createColumns(event, fields, reporter);
+            if (isMultimapFormOverridden(CREATE_COLUMNS)) {
+                putAll(sink, createColumns(event, fields, reporter));
+            } else {
+                createColumns(event, fields, reporter, sink);
+            }
+            return true;
         }
     }
 
@@ -494,9 +555,23 @@ public abstract class ShardedDataTypeHandler<KEYIN> extends StatsDEnabledDataTyp
      */
     protected Multimap<BulkIngestKey,Value> createColumns(RawRecordContainer event, Multimap<String,NormalizedContentInterface> fields,
                     StatusReporter reporter) {
-        IngestHelperInterface helper = this.getHelper(event.getDataType());
-
         Multimap<BulkIngestKey,Value> values = HashMultimap.create();
+        createColumns(event, fields, reporter, values::put);
+        return values;
+    }
+
+    /**
+     * @param event
+     *            the event container
+     * @param fields
+     *            the event fields
+     * @param reporter
+     *            the status reporter
+     * @param values
+     *            the sink for the column mappings
+     */
+    protected void createColumns(RawRecordContainer event, Multimap<String,NormalizedContentInterface> fields, StatusReporter reporter, KeyValueSink values) {
+        IngestHelperInterface helper = this.getHelper(event.getDataType());
 
         byte[] maskedVisibility = computeMaskedVisibility(event);
         MaskedFieldHelper maskedFieldHelper = createMaskedFieldHelper(helper, event);
@@ -519,7 +594,11 @@ public abstract class ShardedDataTypeHandler<KEYIN> extends StatsDEnabledDataTyp
                     NormalizedContentInterface value = e.getValue();
                     byte[] visibility = getVisibility(event, value);
 
-                    values.putAll(createShardEventColumn(event, colf, value, visibility, maskedVisibility, maskedFieldHelper, shardId));
+                    if (isMultimapFormOverridden(CREATE_SHARD_EVENT_COLUMN)) {
+                        putAll(values, createShardEventColumn(event, colf, value, visibility, maskedVisibility, maskedFieldHelper, shardId));
+                    } else {
+                        createShardEventColumn(event, values, colf, value, visibility, maskedVisibility, maskedFieldHelper, shardId);
+                    }
 
                 }
             }
@@ -531,20 +610,40 @@ public abstract class ShardedDataTypeHandler<KEYIN> extends StatsDEnabledDataTyp
                     log.trace("Is " + e.getKey() + " indexed? " + hasIndexTerm(e.getKey()) + " " + helper.isIndexedField(e.getKey()));
                 }
 
-                values.putAll(createForwardIndices(helper, event, fields, value, visibility, maskedVisibility, maskedFieldHelper, shardId, indexedValue,
-                                reporter));
+                if (isMultimapFormOverridden(CREATE_FORWARD_INDICES)) {
+                    putAll(values, createForwardIndices(helper, event, fields, value, visibility, maskedVisibility, maskedFieldHelper, shardId, indexedValue,
+                                    reporter));
+                } else {
+                    createForwardIndices(helper, event, values, fields, value, visibility, maskedVisibility, maskedFieldHelper, shardId, indexedValue,
+                                    reporter);
+                }
 
-                if (getProduceStats())
-                    values.putAll(createStats(helper, event, fields, value, visibility, maskedVisibility, maskedFieldHelper, shardId, indexedValue, reporter));
+                if (getProduceStats()) {
+                    if (isMultimapFormOverridden(CREATE_STATS)) {
+                        putAll(values, createStats(helper, event, fields, value, visibility, maskedVisibility, maskedFieldHelper, shardId, indexedValue,
+                                        reporter));
+                    } else {
+                        createStats(helper, event, values, fields, value, visibility, maskedVisibility, maskedFieldHelper, shardId, indexedValue, reporter);
+                    }
+                }
 
                 if (getShardDictionaryIndexTableName() != null) {
                     final String cacheKey = value.getIndexedFieldName() + value.getIndexedFieldValue() + Arrays.toString(visibility)
                                     + Arrays.toString(maskedVisibility);
                     if (dCache.getIfPresent(cacheKey) == null) {
-                        createDictionaryColumn(event, values, value.getIndexedFieldName(), value.getIndexedFieldValue(), visibility, maskedVisibility,
-                                        maskedFieldHelper, this.SHARD_DINDX_FLABEL, this.getShardDictionaryIndexTableName());
-                        createDictionaryColumn(event, values, value.getIndexedFieldName(), StringUtils.reverse(value.getIndexedFieldValue()), visibility,
-                                        maskedVisibility, maskedFieldHelper, this.SHARD_DINDX_RLABEL, this.getShardDictionaryIndexTableName());
+                        if (isMultimapFormOverridden(CREATE_DICTIONARY_COLUMN)) {
+                            Multimap<BulkIngestKey,Value> dictionary = HashMultimap.create();
+                            createDictionaryColumn(event, dictionary, value.getIndexedFieldName(), value.getIndexedFieldValue(), visibility, maskedVisibility,
+                                            maskedFieldHelper, this.SHARD_DINDX_FLABEL, this.getShardDictionaryIndexTableName());
+                            createDictionaryColumn(event, dictionary, value.getIndexedFieldName(), StringUtils.reverse(value.getIndexedFieldValue()),
+                                            visibility, maskedVisibility, maskedFieldHelper, this.SHARD_DINDX_RLABEL, this.getShardDictionaryIndexTableName());
+                            putAll(values, dictionary);
+                        } else {
+                            createDictionaryColumn(event, values, value.getIndexedFieldName(), value.getIndexedFieldValue(), visibility, maskedVisibility,
+                                            maskedFieldHelper, this.SHARD_DINDX_FLABEL, this.getShardDictionaryIndexTableName());
+                            createDictionaryColumn(event, values, value.getIndexedFieldName(), StringUtils.reverse(value.getIndexedFieldValue()), visibility,
+                                            maskedVisibility, maskedFieldHelper, this.SHARD_DINDX_RLABEL, this.getShardDictionaryIndexTableName());
+                        }
                     }
                     dCache.put(cacheKey, e.getValue().getIndexedFieldValue());
                 }
@@ -554,14 +653,17 @@ public abstract class ShardedDataTypeHandler<KEYIN> extends StatsDEnabledDataTyp
             for (Entry<String,NormalizedContentInterface> e : getGlobalReverseIndexTerms().entries()) {
                 NormalizedContentInterface value = e.getValue();
                 byte[] visibility = getVisibility(event, value);
-                values.putAll(createReverseIndices(helper, event, fields, value, visibility, maskedVisibility, maskedFieldHelper, shardId, indexedValue,
-                                reporter));
+                if (isMultimapFormOverridden(CREATE_REVERSE_INDICES)) {
+                    putAll(values, createReverseIndices(helper, event, fields, value, visibility, maskedVisibility, maskedFieldHelper, shardId, indexedValue,
+                                    reporter));
+                } else {
+                    createReverseIndices(helper, event, values, fields, value, visibility, maskedVisibility, maskedFieldHelper, shardId, indexedValue,
+                                    reporter);
+                }
 
             }
 
         }
-
-        return values;
     }
 
     protected MaskedFieldHelper createMaskedFieldHelper(IngestHelperInterface helper, RawRecordContainer event) {
@@ -572,21 +674,83 @@ public abstract class ShardedDataTypeHandler<KEYIN> extends StatsDEnabledDataTyp
         return null;
     }
 
+    /**
+     * Get the Multimap form of a column method, declared by the given class
+     *
+     * @param type
+     *            the class declaring the method
+     * @param name
+     *            the method name
+     * @param parameterTypes
+     *            the method parameter types
+     * @return the method
+     */
+    protected static Method getMultimapForm(Class<?> type, String name, Class<?>... parameterTypes) {
+        try {
+            return type.getDeclaredMethod(name, parameterTypes);
+        } catch (NoSuchMethodException e) {
+            throw new IllegalStateException("Missing the Multimap form of " + type.getSimpleName() + "." + name, e);
+        }
+    }
+
+    /**
+     * Whether this handler overrides the Multimap form of a column method below the class declaring it, in the way that
+     * {@link StreamingDataTypeHandler#canStream(DataTypeHandler)} looks for an override of processBulk. The KeyValueSink forms call such an override in place
+     * of their own KeyValueSink form.
+     *
+     * @param multimapForm
+     *            the Multimap form of the column method
+     * @return true if a subclass overrides the method
+     */
+    protected boolean isMultimapFormOverridden(Method multimapForm) {
+        return multimapOverrides.get(getClass()).computeIfAbsent(multimapForm, method -> {
+            for (Class<?> type = getClass(); type != null && type != method.getDeclaringClass(); type = type.getSuperclass()) {
+                try {
+                    type.getDeclaredMethod(method.getName(), method.getParameterTypes());
+                    return true;
+                } catch (NoSuchMethodException e) {
+                    // not overridden at this level
+                }
+            }
+            return false;
+        });
+    }
+
+    /**
+     * Put the Key/Values returned by the Multimap form of a column method into a sink
+     *
+     * @param sink
+     *            the sink
+     * @param values
+     *            the Key/Values, may be null
+     */
+    protected static void putAll(KeyValueSink sink, Multimap<BulkIngestKey,Value> values) {
+        if (values != null) {
+            for (Entry<BulkIngestKey,Value> entry : values.entries()) {
+                sink.put(entry.getKey(), entry.getValue());
+            }
+        }
+    }
+
     protected Multimap<BulkIngestKey,Value> createStats(IngestHelperInterface helper, RawRecordContainer event,
                     Multimap<String,NormalizedContentInterface> fields, NormalizedContentInterface value, byte[] visibility, byte[] maskedVisibility,
                     MaskedFieldHelper maskedFieldHelper, byte[] shardId, Value indexValue, StatusReporter reporter) {
         Multimap<BulkIngestKey,Value> values = HashMultimap.create();
+        createStats(helper, event, values::put, fields, value, visibility, maskedVisibility, maskedFieldHelper, shardId, indexValue, reporter);
+        return values;
+    }
 
+    protected void createStats(IngestHelperInterface helper, RawRecordContainer event, KeyValueSink values,
+                    Multimap<String,NormalizedContentInterface> fields, NormalizedContentInterface value, byte[] visibility, byte[] maskedVisibility,
+                    MaskedFieldHelper maskedFieldHelper, byte[] shardId, Value indexValue, StatusReporter reporter) {
         // produce cardinality of terms
-        values.putAll(createTermIndexColumn(event, value.getIndexedFieldName(), value.getIndexedFieldValue(), visibility, maskedVisibility, maskedFieldHelper,
-                        shardId, this.getIndexStatsTableName(), indexValue, Direction.FORWARD));
+        termIndexColumn(event, values, value.getIndexedFieldName(), value.getIndexedFieldValue(), visibility, maskedVisibility, maskedFieldHelper, shardId,
+                        this.getIndexStatsTableName(), indexValue, Direction.FORWARD);
 
         String reverse = new StringBuilder(value.getIndexedFieldValue()).reverse().toString();
 
-        values.putAll(createTermIndexColumn(event, value.getIndexedFieldName(), reverse, visibility, maskedVisibility, maskedFieldHelper, shardId,
-                        this.getIndexStatsTableName(), indexValue, Direction.REVERSE));
-
-        return values;
+        termIndexColumn(event, values, value.getIndexedFieldName(), reverse, visibility, maskedVisibility, maskedFieldHelper, shardId,
+                        this.getIndexStatsTableName(), indexValue, Direction.REVERSE);
     }
 
     /**
@@ -615,35 +779,60 @@ public abstract class ShardedDataTypeHandler<KEYIN> extends StatsDEnabledDataTyp
     protected Multimap<BulkIngestKey,Value> createForwardIndices(IngestHelperInterface helper, RawRecordContainer event,
                     Multimap<String,NormalizedContentInterface> fields, NormalizedContentInterface value, byte[] visibility, byte[] maskedVisibility,
                     MaskedFieldHelper maskedFieldHelper, byte[] shardId, Value indexValue, StatusReporter reporter) {
-
         Multimap<BulkIngestKey,Value> values = HashMultimap.create();
+        createForwardIndices(helper, event, values::put, fields, value, visibility, maskedVisibility, maskedFieldHelper, shardId, indexValue, reporter);
+        return values;
+    }
 
+    protected void createForwardIndices(IngestHelperInterface helper, RawRecordContainer event, KeyValueSink values,
+                    Multimap<String,NormalizedContentInterface> fields, NormalizedContentInterface value, byte[] visibility, byte[] maskedVisibility,
+                    MaskedFieldHelper maskedFieldHelper, byte[] shardId, Value indexValue, StatusReporter reporter) {
         String fieldName = value.getIndexedFieldName();
         String fieldValue = value.getIndexedFieldValue();
         // produce field index.
-        values.putAll(createShardFieldIndexColumn(event, fieldName, fieldValue, visibility, maskedVisibility, maskedFieldHelper, shardId,
-                        createBloomFilter(event, fields, reporter)));
+        if (isMultimapFormOverridden(CREATE_SHARD_FIELD_INDEX_COLUMN)) {
+            putAll(values, createShardFieldIndexColumn(event, fieldName, fieldValue, visibility, maskedVisibility, maskedFieldHelper, shardId,
+                            createBloomFilter(event, fields, reporter)));
+        } else {
+            createShardFieldIndexColumn(event, values, fieldName, fieldValue, visibility, maskedVisibility, maskedFieldHelper, shardId,
+                            createBloomFilter(event, fields, reporter));
+        }
 
         // produce index column
-        values.putAll(createTermIndexColumn(event, fieldName, fieldValue, visibility, maskedVisibility, maskedFieldHelper, shardId,
-                        this.getShardIndexTableName(), indexValue, Direction.FORWARD));
-
-        return values;
+        termIndexColumn(event, values, fieldName, fieldValue, visibility, maskedVisibility, maskedFieldHelper, shardId, this.getShardIndexTableName(),
+                        indexValue, Direction.FORWARD);
     }
 
     protected Multimap<BulkIngestKey,Value> createReverseIndices(IngestHelperInterface helper, RawRecordContainer event,
                     Multimap<String,NormalizedContentInterface> fields, NormalizedContentInterface value, byte[] visibility, byte[] maskedVisibility,
                     MaskedFieldHelper maskedFieldHelper, byte[] shardId, Value indexValue, StatusReporter reporter) {
-
         Multimap<BulkIngestKey,Value> values = HashMultimap.create();
+        createReverseIndices(helper, event, values::put, fields, value, visibility, maskedVisibility, maskedFieldHelper, shardId, indexValue, reporter);
+        return values;
+    }
 
+    protected void createReverseIndices(IngestHelperInterface helper, RawRecordContainer event, KeyValueSink values,
+                    Multimap<String,NormalizedContentInterface> fields, NormalizedContentInterface value, byte[] visibility, byte[] maskedVisibility,
+                    MaskedFieldHelper maskedFieldHelper, byte[] shardId, Value indexValue, StatusReporter reporter) {
         String fieldName = value.getIndexedFieldName();
         String fieldValue = value.getIndexedFieldValue();
         // produce index column
-        values.putAll(createTermIndexColumn(event, fieldName, fieldValue, visibility, maskedVisibility, maskedFieldHelper, shardId,
-                        this.getShardReverseIndexTableName(), indexValue, Direction.REVERSE));
+        termIndexColumn(event, values, fieldName, fieldValue, visibility, maskedVisibility, maskedFieldHelper, shardId, this.getShardReverseIndexTableName(),
+                        indexValue, Direction.REVERSE);
+    }
 
-        return values;
+    /**
+     * Calls the Multimap form of createTermIndexColumn when a subclass overrides it, and the KeyValueSink form otherwise
+     */
+    private void termIndexColumn(RawRecordContainer event, KeyValueSink values, String column, String fieldValue, byte[] visibility, byte[] maskedVisibility,
+                    MaskedFieldHelper maskedFieldHelper, byte[] shardId, Text tableName, Value indexValue, Direction direction) {
+        if (isMultimapFormOverridden(CREATE_TERM_INDEX_COLUMN)) {
+            putAll(values, createTermIndexColumn(event, column, fieldValue, visibility, maskedVisibility, maskedFieldHelper, shardId, tableName, indexValue,
+                            direction));
+        } else {
+            createTermIndexColumn(event, values, column, fieldValue, visibility, maskedVisibility, maskedFieldHelper, shardId, tableName, indexValue,
+                            direction);
+        }
     }
 
     private Multimap<String,NormalizedContentInterface> filterByRequestedFields(Multimap<String,NormalizedContentInterface> eventFields) {
@@ -765,19 +954,51 @@ public abstract class ShardedDataTypeHandler<KEYIN> extends StatsDEnabledDataTyp
      */
     protected Multimap<BulkIngestKey,Value> createTermIndexColumn(RawRecordContainer event, String column, String fieldValue, byte[] visibility,
                     byte[] maskedVisibility, MaskedFieldHelper maskedFieldHelper, byte[] shardId, Text tableName, Value indexValue, Direction direction) {
+        Multimap<BulkIngestKey,Value> values = ArrayListMultimap.create();
+        createTermIndexColumn(event, values::put, column, fieldValue, visibility, maskedVisibility, maskedFieldHelper, shardId, tableName, indexValue,
+                        direction);
+        return values;
+    }
+
+    /**
+     * Creates a global index BulkIngestKey and Value and does apply masking logic
+     *
+     * @param event
+     *            the event
+     * @param values
+     *            the sink for the term index
+     * @param column
+     *            the column
+     * @param fieldValue
+     *            the field value
+     * @param visibility
+     *            the event visibility
+     * @param maskedVisibility
+     *            the masked visibility
+     * @param maskedFieldHelper
+     *            the masked field helper
+     * @param shardId
+     *            the shard id
+     * @param tableName
+     *            the table name
+     * @param indexValue
+     *            the index value
+     * @param direction
+     *            the direction
+     */
+    protected void createTermIndexColumn(RawRecordContainer event, KeyValueSink values, String column, String fieldValue, byte[] visibility,
+                    byte[] maskedVisibility, MaskedFieldHelper maskedFieldHelper, byte[] shardId, Text tableName, Value indexValue, Direction direction) {
         // Shard Global Index Table Structure
         // Row: Field Value
         // Colf: Field Name
         // Colq: Shard Id : DataType
         // Value: UID
 
-        Multimap<BulkIngestKey,Value> values = ArrayListMultimap.create();
-
         if (log.isTraceEnabled()) {
             log.trace("Create index column " + tableName);
         }
         if (null == tableName) {
-            return values;
+            return;
         }
 
         // hold on to the helper
@@ -835,14 +1056,24 @@ public abstract class ShardedDataTypeHandler<KEYIN> extends StatsDEnabledDataTyp
         }
 
         if (dayIndexEnabled) {
-            writeShardDayIndexKey(values, event, column, fieldValue, visibility, maskedVisibility, maskedFieldHelper, shardId, direction);
+            if (isMultimapFormOverridden(WRITE_SHARD_DAY_INDEX_KEY)) {
+                Multimap<BulkIngestKey,Value> dayIndex = ArrayListMultimap.create();
+                writeShardDayIndexKey(dayIndex, event, column, fieldValue, visibility, maskedVisibility, maskedFieldHelper, shardId, direction);
+                putAll(values, dayIndex);
+            } else {
+                writeShardDayIndexKey(values, event, column, fieldValue, visibility, maskedVisibility, maskedFieldHelper, shardId, direction);
+            }
         }
 
         if (yearIndexEnabled) {
-            writeShardYearIndexKeyBitSet(values, event, column, fieldValue, visibility, maskedVisibility, maskedFieldHelper, shardId, direction);
+            if (isMultimapFormOverridden(WRITE_SHARD_YEAR_INDEX_KEY_BIT_SET)) {
+                Multimap<BulkIngestKey,Value> yearIndex = ArrayListMultimap.create();
+                writeShardYearIndexKeyBitSet(yearIndex, event, column, fieldValue, visibility, maskedVisibility, maskedFieldHelper, shardId, direction);
+                putAll(values, yearIndex);
+            } else {
+                writeShardYearIndexKeyBitSet(values, event, column, fieldValue, visibility, maskedVisibility, maskedFieldHelper, shardId, direction);
+            }
         }
-
-        return values;
     }
 
     /**
@@ -873,6 +1104,14 @@ public abstract class ShardedDataTypeHandler<KEYIN> extends StatsDEnabledDataTyp
      */
     public void writeShardDayIndexKey(Multimap<BulkIngestKey,Value> values, RawRecordContainer event, String field, String value, byte[] visibility,
                     byte[] maskedVisibility, MaskedFieldHelper maskedFieldHelper, byte[] shardId, Direction direction) {
+        writeShardDayIndexKey(values::put, event, field, value, visibility, maskedVisibility, maskedFieldHelper, shardId, direction);
+    }
+
+    /**
+     * Write index key for the {@link TableName#SHARD_DAY_INDEX} to a {@link KeyValueSink}
+     */
+    public void writeShardDayIndexKey(KeyValueSink values, RawRecordContainer event, String field, String value, byte[] visibility, byte[] maskedVisibility,
+                    MaskedFieldHelper maskedFieldHelper, byte[] shardId, Direction direction) {
         if (shardId != null && value != null && field != null && visibility != null) {
             String fullShard = new String(shardId);
             String row = fullShard.substring(0, 8) + '\u0000' + value;
@@ -950,6 +1189,14 @@ public abstract class ShardedDataTypeHandler<KEYIN> extends StatsDEnabledDataTyp
      */
     public void writeShardYearIndexKeyBitSet(Multimap<BulkIngestKey,Value> values, RawRecordContainer event, String field, String value, byte[] visibility,
                     byte[] maskedVisibility, MaskedFieldHelper maskedFieldHelper, byte[] shardId, Direction direction) {
+        writeShardYearIndexKeyBitSet(values::put, event, field, value, visibility, maskedVisibility, maskedFieldHelper, shardId, direction);
+    }
+
+    /**
+     * Write index key for the {@link TableName#SHARD_YEAR_INDEX} to a {@link KeyValueSink}
+     */
+    public void writeShardYearIndexKeyBitSet(KeyValueSink values, RawRecordContainer event, String field, String value, byte[] visibility,
+                    byte[] maskedVisibility, MaskedFieldHelper maskedFieldHelper, byte[] shardId, Direction direction) {
 
         if (shardId != null && value != null && field != null && visibility != null) {
             String fullShard = new String(shardId);
@@ -1150,8 +1397,33 @@ public abstract class ShardedDataTypeHandler<KEYIN> extends StatsDEnabledDataTyp
      */
     protected Multimap<BulkIngestKey,Value> createShardEventColumn(RawRecordContainer event, Text colf, NormalizedContentInterface nFV, byte[] visibility,
                     byte[] maskedVisibility, MaskedFieldHelper maskedFieldHelper, byte[] shardId) {
-
         Multimap<BulkIngestKey,Value> values = ArrayListMultimap.create();
+        createShardEventColumn(event, values::put, colf, nFV, visibility, maskedVisibility, maskedFieldHelper, shardId);
+        return values;
+    }
+
+    /**
+     * Creates a shard column key and does apply masking logic
+     *
+     * @param event
+     *            the event container
+     * @param values
+     *            the sink for the shard event column
+     * @param colf
+     *            the column family
+     * @param nFV
+     *            the normalized pair of the field and value
+     * @param visibility
+     *            the event visibility
+     * @param maskedVisibility
+     *            the masked visibility
+     * @param maskedFieldHelper
+     *            the masked field helper
+     * @param shardId
+     *            the shard id
+     */
+    protected void createShardEventColumn(RawRecordContainer event, KeyValueSink values, Text colf, NormalizedContentInterface nFV, byte[] visibility,
+                    byte[] maskedVisibility, MaskedFieldHelper maskedFieldHelper, byte[] shardId) {
         // hold on to the helper
         IngestHelperInterface helper = this.getHelper(event.getDataType());
         boolean replaceMalformedUTF8 = helper.getReplaceMalformedUTF8();
@@ -1162,12 +1434,12 @@ public abstract class ShardedDataTypeHandler<KEYIN> extends StatsDEnabledDataTyp
         String indexedFieldName = nFV.getIndexedFieldName();
 
         if (helper.isIndexOnlyField(indexedFieldName) || null == fieldValue) {
-            return values;
+            return;
         }
 
         // don't put composite fields into the event table, unless it is an overloaded composite field
         if (helper.isCompositeField(indexedFieldName) && !helper.isOverloadedCompositeField(indexedFieldName)) {
-            return values;
+            return;
         }
 
         // Create unmasked colq
@@ -1190,7 +1462,13 @@ public abstract class ShardedDataTypeHandler<KEYIN> extends StatsDEnabledDataTyp
             }
 
             // Now generate a key for the masked field value
-            createMaskedShardEventColumn(event, colf, maskedVisibility, shardId, values, replaceMalformedUTF8, deleteMode, fieldName, maskedFieldValue);
+            if (isMultimapFormOverridden(CREATE_MASKED_SHARD_EVENT_COLUMN)) {
+                Multimap<BulkIngestKey,Value> masked = ArrayListMultimap.create();
+                createMaskedShardEventColumn(event, colf, maskedVisibility, shardId, masked, replaceMalformedUTF8, deleteMode, fieldName, maskedFieldValue);
+                putAll(values, masked);
+            } else {
+                createMaskedShardEventColumn(event, colf, maskedVisibility, shardId, values, replaceMalformedUTF8, deleteMode, fieldName, maskedFieldValue);
+            }
 
         } else if (!StringUtils.isEmpty(fieldValue)) {
 
@@ -1211,13 +1489,15 @@ public abstract class ShardedDataTypeHandler<KEYIN> extends StatsDEnabledDataTyp
                 log.trace("Creating bulk ingest Key " + bKey);
             values.put(bKey, NULL_VALUE);
         }
-
-        return values;
-
     }
 
     protected void createMaskedShardEventColumn(RawRecordContainer event, Text colf, byte[] maskedVisibility, byte[] shardId,
                     Multimap<BulkIngestKey,Value> values, boolean replaceMalformedUTF8, boolean deleteMode, String fieldName, String maskedFieldValue) {
+        createMaskedShardEventColumn(event, colf, maskedVisibility, shardId, values::put, replaceMalformedUTF8, deleteMode, fieldName, maskedFieldValue);
+    }
+
+    protected void createMaskedShardEventColumn(RawRecordContainer event, Text colf, byte[] maskedVisibility, byte[] shardId, KeyValueSink values,
+                    boolean replaceMalformedUTF8, boolean deleteMode, String fieldName, String maskedFieldValue) {
         if (!StringUtils.isEmpty(maskedFieldValue)) {
             // Create masked colq
             Text maskedColq = new Text(fieldName);
@@ -1259,62 +1539,8 @@ public abstract class ShardedDataTypeHandler<KEYIN> extends StatsDEnabledDataTyp
      */
     protected Multimap<BulkIngestKey,Value> createShardFieldIndexColumn(RawRecordContainer event, String fieldName, String fieldValue, byte[] visibility,
                     byte[] maskedVisibility, MaskedFieldHelper maskedFieldHelper, byte[] shardId, Value value) {
-        if (log.isTraceEnabled())
-            log.trace("Field value is " + fieldValue);
-
-        // hold on to the helper
-        IngestHelperInterface helper = this.getHelper(event.getDataType());
-        boolean replaceMalformedUTF8 = helper.getReplaceMalformedUTF8();
-        boolean deleteMode = helper.getDeleteMode();
-
         Multimap<BulkIngestKey,Value> values = HashMultimap.create();
-
-        if (!StringUtils.isEmpty(fieldValue)) {
-            Text colf = new Text("fi");
-            TextUtil.textAppend(colf, fieldName, replaceMalformedUTF8);
-            Text unmaskedColq = new Text(fieldValue);
-            TextUtil.textAppend(unmaskedColq, event.getDataType().outputName(), replaceMalformedUTF8);
-            TextUtil.textAppend(unmaskedColq, event.getId().toString(), replaceMalformedUTF8);
-
-            if (value == null) {
-                value = NULL_VALUE;
-            }
-
-            if (null != maskedFieldHelper && maskedFieldHelper.contains(fieldName)) {
-                // Put unmasked colq with original visibility
-                Key k = createKey(shardId, colf, unmaskedColq, visibility, event.getTimestamp(), deleteMode);
-                BulkIngestKey bKey = new BulkIngestKey(this.getShardTableName(), k);
-                values.put(bKey, value);
-
-                // We need to use the normalized masked values
-                final String normalizedMaskedValue = helper.getNormalizedMaskedValue(fieldName);
-                if (!StringUtils.isEmpty(normalizedMaskedValue)) {
-                    Text maskedColq = new Text(normalizedMaskedValue);
-                    TextUtil.textAppend(maskedColq, event.getDataType().outputName(), replaceMalformedUTF8);
-                    TextUtil.textAppend(maskedColq, event.getId().toString(), replaceMalformedUTF8);
-
-                    // Put masked colq with masked visibility
-                    Key key = createKey(shardId, colf, maskedColq, maskedVisibility, event.getTimestamp(), deleteMode);
-                    BulkIngestKey bulkIngestKey = new BulkIngestKey(this.getShardTableName(), key);
-                    values.put(bulkIngestKey, value);
-                }
-            } else if (!StringUtils.isEmpty(fieldValue)) {
-                /**
-                 * For values that are not being masked, we use the "unmaskedValue" and the masked visibility e.g. release the value as it was in the event at
-                 * the lower visibility
-                 */
-                byte[] refVisibility = visibility;
-
-                if (null != maskedFieldHelper) {
-                    refVisibility = maskedVisibility;
-                }
-
-                Key k = createKey(shardId, colf, unmaskedColq, refVisibility, event.getTimestamp(), deleteMode);
-                BulkIngestKey bKey = new BulkIngestKey(this.getShardTableName(), k);
-                values.put(bKey, value);
-            }
-        }
-
+        createShardFieldIndexColumn(event, values::put, fieldName, fieldValue, visibility, maskedVisibility, maskedFieldHelper, shardId, value);
         return values;
     }
 
@@ -1342,6 +1568,36 @@ public abstract class ShardedDataTypeHandler<KEYIN> extends StatsDEnabledDataTyp
      */
     protected void createShardFieldIndexColumn(RawRecordContainer event, Multimap<BulkIngestKey,Value> values, String fieldName, String fieldValue,
                     byte[] visibility, byte[] maskedVisibility, MaskedFieldHelper maskedFieldHelper, byte[] shardId, Value value) {
+        createShardFieldIndexColumn(event, values::put, fieldName, fieldValue, visibility, maskedVisibility, maskedFieldHelper, shardId, value);
+    }
+
+    /**
+     * Creates a shard field index column Key and applies masking logic
+     *
+     * @param event
+     *            the event
+     * @param values
+     *            the sink for the shard field index column
+     * @param fieldName
+     *            the field name
+     * @param fieldValue
+     *            the field value
+     * @param visibility
+     *            the visibility
+     * @param maskedVisibility
+     *            the masked visibility
+     * @param maskedFieldHelper
+     *            the masked field helper
+     * @param shardId
+     *            the shard id
+     * @param value
+     *            the value
+     */
+    protected void createShardFieldIndexColumn(RawRecordContainer event, KeyValueSink values, String fieldName, String fieldValue, byte[] visibility,
+                    byte[] maskedVisibility, MaskedFieldHelper maskedFieldHelper, byte[] shardId, Value value) {
+        if (log.isTraceEnabled())
+            log.trace("Field value is " + fieldValue);
+
         // hold on to the helper
         IngestHelperInterface helper = this.getHelper(event.getDataType());
         boolean replaceMalformedUTF8 = helper.getReplaceMalformedUTF8();
@@ -1587,6 +1843,34 @@ public abstract class ShardedDataTypeHandler<KEYIN> extends StatsDEnabledDataTyp
      */
     protected void createDictionaryColumn(RawRecordContainer event, Multimap<BulkIngestKey,Value> values, String fieldName, String fieldValue,
                     byte[] visibility, byte[] maskedVisibility, MaskedFieldHelper maskedFieldHelper, Text directionColFam, Text tableName) {
+        createDictionaryColumn(event, values::put, fieldName, fieldValue, visibility, maskedVisibility, maskedFieldHelper, directionColFam,
+                        tableName);
+    }
+
+    /**
+     * Creates a dictionary index BulkIngestKey and Value and does apply masking logic
+     *
+     * @param event
+     *            the event
+     * @param values
+     *            the sink for the dictionary index
+     * @param fieldName
+     *            the field name
+     * @param fieldValue
+     *            the field value
+     * @param visibility
+     *            the visibility
+     * @param maskedVisibility
+     *            the masked visibility
+     * @param maskedFieldHelper
+     *            the masked field helper
+     * @param directionColFam
+     *            the column family direction
+     * @param tableName
+     *            the table name
+     */
+    protected void createDictionaryColumn(RawRecordContainer event, KeyValueSink values, String fieldName, String fieldValue, byte[] visibility,
+                    byte[] maskedVisibility, MaskedFieldHelper maskedFieldHelper, Text directionColFam, Text tableName) {
         // Shard Global Index Table Structure
         // Row: Field Value
         // Colf: Field Name
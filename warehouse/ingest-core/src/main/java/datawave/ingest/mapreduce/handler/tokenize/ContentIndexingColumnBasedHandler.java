@@ -2,6 +2,7 @@ package datawave.ingest.mapreduce.handler.tokenize;
 
 import java.io.IOException;
 import java.io.StringReader;
+import java.lang.reflect.Method;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.List;
@@ -47,6 +48,7 @@ import datawave.ingest.mapreduce.handler.shard.content.ContentIndexCounters;
 import datawave.ingest.mapreduce.handler.shard.content.OffsetQueue;
 import datawave.ingest.mapreduce.handler.shard.content.TermAndZone;
 import datawave.ingest.mapreduce.job.BulkIngestKey;
+import datawave.ingest.mapreduce.job.writer.KeyValueSink;
 import datawave.ingest.protobuf.TermWeight;
 import datawave.ingest.util.BloomFilterUtil;
 import datawave.ingest.util.BloomFilterWrapper;
@@ -64,6 +66,14 @@ public abstract class ContentIndexingColumnBasedHandler<KEYIN> extends AbstractC
 
     private static final Logger log = Logger.getLogger(ContentIndexingColumnBasedHandler.class);
 
+    // the Multimap forms of the column methods called by processBulk, which are called in place of their KeyValueSink forms when a subclass overrides them
+    private static final Method FLUSH_TOKEN_OFFSET_CACHE = getMultimapForm(ContentIndexingColumnBasedHandler.class, "flushTokenOffsetCache",
+                    RawRecordContainer.class, Multimap.class);
+    private static final Method CREATE_EVENT_COLUMN = getMultimapForm(ContentIndexingColumnBasedHandler.class, "createEventColumn", RawRecordContainer.class,
+                    Multimap.class, Multimap.class, byte[].class, byte[].class, NormalizedContentInterface.class);
+    private static final Method CREATE_TERM_FREQUENCY_INDEX = getMultimapForm(ContentIndexingColumnBasedHandler.class, "createTermFrequencyIndex",
+                    RawRecordContainer.class, Multimap.class, byte[].class, NormalizedFieldAndValue.class, List.class, byte[].class);
+
     public abstract AbstractContentIngestHelper getContentIndexingDataTypeHelper();
 
     // helper
@@ -143,29 +153,38 @@ public abstract class ContentIndexingColumnBasedHandler<KEYIN> extends AbstractC
     }
 
     @Override
-    public Multimap<BulkIngestKey,Value> processBulk(KEYIN key, RawRecordContainer event, Multimap<String,NormalizedContentInterface> eventFields,
-                    StatusReporter reporter) {
+    public boolean processBulk(KEYIN key, RawRecordContainer event, Multimap<String,NormalizedContentInterface> eventFields, StatusReporter reporter,
+                    KeyValueSink sink) {
 
         if (event.fatalError()) {
-            return null;
+            return false;
         }
 
         this.shardId = getShardId(event);
         this.eventDataTypeName = event.getDataType().outputName();
         this.eventUid = event.getId().toString();
 
-        Multimap<BulkIngestKey,Value> values = HashMultimap.create();
         // get the typical shard/index information
-        values.putAll(super.processBulk(key, event, eventFields, reporter));
+        super.processBulk(key, event, eventFields, reporter, sink);
 
-        flushTokenOffsetCache(event, values);
+        if (isMultimapFormOverridden(FLUSH_TOKEN_OFFSET_CACHE)) {
+            Multimap<BulkIngestKey,Value> values = HashMultimap.create();
+            flushTokenOffsetCache(event, values);
+            putAll(sink, values);
+        } else {
+            flushTokenOffsetCache(event, sink);
+        }
 
         counters.flush(reporter);
 
-        return values;
+        return true;
     }
 
     protected void flushTokenOffsetCache(RawRecordContainer event, Multimap<BulkIngestKey,Value> values) {
+        flushTokenOffsetCache(event, values::put);
+    }
+
+    protected void flushTokenOffsetCache(RawRecordContainer event, KeyValueSink values) {
 
         // now flush out the offset queue
         if (tokenOffsetCache != null) {
@@ -178,7 +197,13 @@ public abstract class ContentIndexingColumnBasedHandler<KEYIN> extends AbstractC
 
                     byte[] fieldVisibility = getVisibility(event, nfv);
 
-                    createTermFrequencyIndex(event, values, this.shardId, nfv, offsets.offsets, fieldVisibility);
+                    if (isMultimapFormOverridden(CREATE_TERM_FREQUENCY_INDEX)) {
+                        Multimap<BulkIngestKey,Value> termFrequencies = HashMultimap.create();
+                        createTermFrequencyIndex(event, termFrequencies, this.shardId, nfv, offsets.offsets, fieldVisibility);
+                        putAll(values, termFrequencies);
+                    } else {
+                        createTermFrequencyIndex(event, values, this.shardId, nfv, offsets.offsets, fieldVisibility);
+                    }
                     termCount++;
                 }
 
@@ -189,7 +214,13 @@ public abstract class ContentIndexingColumnBasedHandler<KEYIN> extends AbstractC
                     nfav.setEventFieldValue(Long.toString(termCount));
                     tokenMap.put(nfav.getEventFieldName(), nfav);
                     byte[] fieldVisibility = getVisibility(event, nfav);
-                    createEventColumn(event, tokenMap, values, this.shardId, fieldVisibility, nfav);
+                    if (isMultimapFormOverridden(CREATE_EVENT_COLUMN)) {
+                        Multimap<BulkIngestKey,Value> termCountColumn = HashMultimap.create();
+                        createEventColumn(event, tokenMap, termCountColumn, this.shardId, fieldVisibility, nfav);
+                        putAll(values, termCountColumn);
+                    } else {
+                        createEventColumn(event, tokenMap, values, this.shardId, fieldVisibility, nfav);
+                    }
                 }
             } catch (IOException ex) {
                 log.fatal("IOException", ex);
@@ -226,6 +257,11 @@ public abstract class ContentIndexingColumnBasedHandler<KEYIN> extends AbstractC
      */
     protected void createEventColumn(RawRecordContainer event, Multimap<String,NormalizedContentInterface> eventFields, Multimap<BulkIngestKey,Value> values,
                     byte[] shardId, byte[] fieldVisibility, NormalizedContentInterface nFV) throws IOException, InterruptedException {
+        createEventColumn(event, eventFields, values::put, shardId, fieldVisibility, nFV);
+    }
+
+    protected void createEventColumn(RawRecordContainer event, Multimap<String,NormalizedContentInterface> eventFields, KeyValueSink values, byte[] shardId,
+                    byte[] fieldVisibility, NormalizedContentInterface nFV) throws IOException, InterruptedException {
 
         String fieldName = nFV.getEventFieldName();
         String fieldValue = nFV.getEventFieldValue();
@@ -587,6 +623,11 @@ public abstract class ContentIndexingColumnBasedHandler<KEYIN> extends AbstractC
      */
     protected void createTermFrequencyIndex(RawRecordContainer event, Multimap<BulkIngestKey,Value> values, byte[] shardId, NormalizedFieldAndValue nfv,
                     List<Integer> offsets, byte[] visibility) throws IOException, InterruptedException {
+        createTermFrequencyIndex(event, values::put, shardId, nfv, offsets, visibility);
+    }
+
+    protected void createTermFrequencyIndex(RawRecordContainer event, KeyValueSink values, byte[] shardId, NormalizedFieldAndValue nfv, List<Integer> offsets,
+                    byte[] visibility) throws IOException, InterruptedException {
 
         TermWeight.Info.Builder builder = TermWeight.Info.newBuilder();
         for (Integer offset : offsets) {
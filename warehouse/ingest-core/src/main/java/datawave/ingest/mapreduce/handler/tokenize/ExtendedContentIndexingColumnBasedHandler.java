@@ -47,6 +47,7 @@ import datawave.ingest.data.tokenize.TokenizationHelper;
 import datawave.ingest.mapreduce.ContextWrappedStatusReporter;
 import datawave.ingest.mapreduce.handler.DataTypeHandler;
 import datawave.ingest.mapreduce.handler.ExtendedDataTypeHandler;
+import datawave.ingest.mapreduce.handler.StreamingDataTypeHandler;
 import datawave.ingest.mapreduce.handler.shard.AbstractColumnBasedHandler;
 import datawave.ingest.mapreduce.handler.shard.ShardedDataTypeHandler;
 import datawave.ingest.mapreduce.handler.shard.content.BoundedOffsetQueue;
@@ -56,6 +57,7 @@ import datawave.ingest.mapreduce.handler.shard.content.OffsetQueue;
 import datawave.ingest.mapreduce.handler.shard.content.TermAndZone;
 import datawave.ingest.mapreduce.job.BulkIngestKey;
 import datawave.ingest.mapreduce.job.writer.ContextWriter;
+import datawave.ingest.mapreduce.job.writer.KeyValueBuffer;
 import datawave.ingest.protobuf.TermWeight;
 import datawave.util.TextUtil;
 
@@ -123,6 +125,11 @@ public abstract class ExtendedContentIndexingColumnBasedHandler<KEYIN,KEYOUT,VAL
      * base64.dcolumn allows you to turn off base64 gzipped content and store gzipped bytes. If not set, base64 encoding is on by default.
      */
     public static final String OPT_BASE64 = "content.ingest.base64.dcolumn";
+    /*
+     * term.offsets writes a forward index of each document's tokens, see TermOffsetIndexUtil, which lets excerpts be read from a window of offsets. Off by
+     * default.
+     */
+    public static final String OPT_TERM_OFFSETS = "content.ingest.term.offsets";
 
     private static final Logger log = LoggerFactory.getLogger(ExtendedContentIndexingColumnBasedHandler.class);
 
@@ -148,6 +155,8 @@ public abstract class ExtendedContentIndexingColumnBasedHandler<KEYIN,KEYOUT,VAL
 
     protected boolean useBase64Encoding = true;
 
+    protected boolean writeTermOffsets = false;
+
     protected Set<String> termTypeDisallowlist = Collections.emptySet();
 
     protected TokenSearch searchUtil;
@@ -156,6 +165,12 @@ public abstract class ExtendedContentIndexingColumnBasedHandler<KEYIN,KEYOUT,VAL
 
     protected TokenizationHelper tokenHelper = null;
 
+    // holds the standard set of keys for an event, reused from one event to the next
+    protected final KeyValueBuffer keyValueBuffer = new KeyValueBuffer();
+
+    // whether the standard set of keys may be streamed into the buffer, found on first use
+    private Boolean streamStandardKeys = null;
+
     @Override
     public void setup(TaskAttemptContext context) {
         super.setup(context);
@@ -170,6 +185,7 @@ public abstract class ExtendedContentIndexingColumnBasedHandler<KEYIN,KEYOUT,VAL
         offlineDocProcessing = conf.getBoolean(OPT_OFFLINE, true);
         useBase64Encoding = conf.getBoolean(OPT_BASE64, true);
         disableDCol = conf.getBoolean(OPT_NO_D_COL, false);
+        writeTermOffsets = conf.getBoolean(OPT_TERM_OFFSETS, false);
 
         if (disableDCol) {
             // set this to true so we don't spin up a thread we don't need...
@@ -254,15 +270,10 @@ public abstract class ExtendedContentIndexingColumnBasedHandler<KEYIN,KEYOUT,VAL
         this.eventDataTypeName = event.getDataType().outputName();
         this.eventUid = event.getId().toString();
 
-        // write the standard set of keys
-        Multimap<BulkIngestKey,Value> keys = super.processBulk(key, event, eventFields, new ContextWrappedStatusReporter(context));
-        long count = keys.size();
-        contextWriter.write(keys, context);
-
         StatusReporter reporter = new ContextWrappedStatusReporter(context);
 
-        // gc before we get into the tokenization piece
-        keys = null;
+        // write the standard set of keys
+        long count = writeStandardKeys(key, event, eventFields, reporter, context, contextWriter);
 
         // stream the tokens to the context writer here
         count += tokenizeEvent(event, context, contextWriter, reporter);
@@ -271,6 +282,48 @@ public abstract class ExtendedContentIndexingColumnBasedHandler<KEYIN,KEYOUT,VAL
         return count;
     }
 
+    /**
+     * Write the standard set of keys for an event. They are streamed through the reusable buffer, unless a subclass overrides the Multimap form of processBulk
+     * which the streaming form would skip, as checked by {@link StreamingDataTypeHandler#canStream(DataTypeHandler)}. The Multimap form is used then.
+     *
+     * @param key
+     *            the event key
+     * @param event
+     *            the event
+     * @param eventFields
+     *            the normalized event fields
+     * @param reporter
+     *            the status reporter
+     * @param context
+     *            the context
+     * @param contextWriter
+     *            the context writer
+     * @return the number of keys written
+     * @throws IOException
+     *             if the keys could not be written
+     * @throws InterruptedException
+     *             if the thread is interrupted
+     */
+    protected long writeStandardKeys(KEYIN key, RawRecordContainer event, Multimap<String,NormalizedContentInterface> eventFields, StatusReporter reporter,
+                    TaskInputOutputContext<KEYIN,? extends RawRecordContainer,KEYOUT,VALUEOUT> context, ContextWriter<KEYOUT,VALUEOUT> contextWriter)
+                    throws IOException, InterruptedException {
+        if (streamStandardKeys == null) {
+            streamStandardKeys = StreamingDataTypeHandler.canStream(this);
+        }
+        if (streamStandardKeys) {
+            keyValueBuffer.clear();
+            super.processBulk(key, event, eventFields, reporter, keyValueBuffer);
+            return keyValueBuffer.writeTo(contextWriter, context);
+        }
+
+        Multimap<BulkIngestKey,Value> keys = super.processBulk(key, event, eventFields, reporter);
+        if (keys == null) {
+            return 0;
+        }
+        contextWriter.write(keys, context);
+        return keys.size();
+    }
+
     public boolean isTokenizerTimeWarned() {
         return tokenizerTimeWarned;
     }
@@ -810,6 +863,48 @@ public abstract class ExtendedContentIndexingColumnBasedHandler<KEYIN,KEYOUT,VAL
                                         event.getTimestamp(), deleteMode));
 
         contextWriter.write(bKey, value, context);
+
+        if (writeTermOffsets) {
+            createTermOffsetColumns(event, contextWriter, context, shardId, nfv, offsets, visibility, deleteMode);
+        }
+    }
+
+    /**
+     * Creates a term offset key in the "to" column family for each offset of the term. Together these form a forward index of the document's tokens, see
+     * {@link TermOffsetIndexUtil}.
+     *
+     * @param event
+     *            the event
+     * @param contextWriter
+     *            the context writer
+     * @param context
+     *            the context
+     * @param shardId
+     *            the shard id
+     * @param nfv
+     *            the normalized content interface
+     * @param offsets
+     *            the term offsets
+     * @param visibility
+     *            the visibility
+     * @param deleteMode
+     *            the deletion flag
+     * @throws IOException
+     *             if there is an issue reading the event
+     * @throws InterruptedException
+     *             if the thread is interrupted
+     */
+    protected void createTermOffsetColumns(RawRecordContainer event, ContextWriter<KEYOUT,VALUEOUT> contextWriter,
+                    TaskInputOutputContext<KEYIN,? extends RawRecordContainer,KEYOUT,VALUEOUT> context, byte[] shardId, NormalizedFieldAndValue nfv,
+                    List<Integer> offsets, byte[] visibility, boolean deleteMode) throws IOException, InterruptedException {
+        Text tableName = new Text(this.getShardTableName());
+        byte[] colf = TermOffsetIndexUtil.TERM_OFFSET_COLUMN_FAMILY.getBytes();
+        for (Integer offset : offsets) {
+            String colq = TermOffsetIndexUtil.getColumnQualifier(this.eventDataTypeName, this.eventUid, nfv.getIndexedFieldName(), offset,
+                            nfv.getIndexedFieldValue());
+            BulkIngestKey bKey = new BulkIngestKey(tableName, new Key(shardId, colf, colq.getBytes(), visibility, event.getTimestamp(), deleteMode));
+            contextWriter.write(bKey, DataTypeHandler.NULL_VALUE, context);
+        }
     }
 
     /**
@@ -0,0 +1,166 @@
+package datawave.ingest.mapreduce.job.writer;
+
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.Comparator;
+
+import org.apache.accumulo.core.data.Value;
+import org.apache.hadoop.mapreduce.TaskInputOutputContext;
+
+import datawave.ingest.mapreduce.job.BulkIngestKey;
+
+/**
+ * A reusable buffer of the key/value pairs for one event, used in place of building a new multimap per event. The pairs are held in an array of entries which
+ * are kept from one event to the next, so that filling the buffer does not allocate once it has grown to the size of a typical event.
+ * <p>
+ * When written to a {@link ContextWriter} the pairs are sorted in place and identical pairs are dropped, which matches the set semantics of the HashMultimap
+ * the shard handlers have always returned. The buffer is not thread safe.
+ */
+public class KeyValueBuffer implements KeyValueSink {
+
+    public static final int DEFAULT_CAPACITY = 256;
+
+    /** the capacity the buffer shrinks back to when cleared after an unusually large event */
+    public static final int MAX_RETAINED_CAPACITY = 64 * 1024;
+
+    private static final Comparator<Entry> ENTRY_COMPARATOR = (e1, e2) -> {
+        int result = e1.key.compareTo(e2.key);
+        if (result == 0) {
+            result = e1.value.compareTo(e2.value);
+        }
+        return result;
+    };
+
+    private Entry[] entries;
+    private int size = 0;
+
+    public KeyValueBuffer() {
+        this(DEFAULT_CAPACITY);
+    }
+
+    public KeyValueBuffer(int initialCapacity) {
+        entries = new Entry[Math.max(1, initialCapacity)];
+    }
+
+    @Override
+    public void put(BulkIngestKey key, Value value) {
+        if (size == entries.length) {
+            entries = Arrays.copyOf(entries, entries.length * 2);
+        }
+        Entry entry = entries[size];
+        if (entry == null) {
+            entry = entries[size] = new Entry();
+        }
+        entry.key = key;
+        entry.value = value;
+        size++;
+    }
+
+    /**
+     * @return the number of pairs in the buffer, including any duplicates not yet removed by {@link #sort()}
+     */
+    public int size() {
+        return size;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    public BulkIngestKey getKey(int index) {
+        checkIndex(index);
+        return entries[index].key;
+    }
+
+    public Value getValue(int index) {
+        checkIndex(index);
+        return entries[index].value;
+    }
+
+    /**
+     * Sort the pairs by key and then value, and remove identical pairs
+     */
+    public void sort() {
+        if (size < 2) {
+            return;
+        }
+        Arrays.sort(entries, 0, size, ENTRY_COMPARATOR);
+
+        int last = 0;
+        for (int i = 1; i < size; i++) {
+            if (ENTRY_COMPARATOR.compare(entries[last], entries[i]) != 0) {
+                last++;
+                if (last != i) {
+                    // swap rather than copy so that every slot keeps its own entry for reuse
+                    Entry tmp = entries[last];
+                    entries[last] = entries[i];
+                    entries[i] = tmp;
+                }
+            }
+        }
+        for (int i = last + 1; i < size; i++) {
+            entries[i].clear();
+        }
+        size = last + 1;
+    }
+
+    /**
+     * Sort the buffer, write its pairs to the context writer, and clear it
+     *
+     * @param contextWriter
+     *            the context writer
+     * @param context
+     *            the context to write to
+     * @param <OK>
+     *            the output key type
+     * @param <OV>
+     *            the output value type
+     * @return the number of pairs written
+     * @throws IOException
+     *             if there is an issue
+     * @throws InterruptedException
+     *             if the process is interrupted
+     */
+    public <OK,OV> int writeTo(ContextWriter<OK,OV> contextWriter, TaskInputOutputContext<?,?,OK,OV> context) throws IOException, InterruptedException {
+        sort();
+        int written = size;
+        try {
+            for (int i = 0; i < size; i++) {
+                contextWriter.write(entries[i].key, entries[i].value, context);
+            }
+        } finally {
+            clear();
+        }
+        return written;
+    }
+
+    /**
+     * Empty the buffer, keeping its entries for reuse unless it has grown beyond {@link #MAX_RETAINED_CAPACITY}
+     */
+    public void clear() {
+        if (entries.length > MAX_RETAINED_CAPACITY) {
+            entries = new Entry[MAX_RETAINED_CAPACITY];
+        } else {
+            for (int i = 0; i < size; i++) {
+                entries[i].clear();
+            }
+        }
+        size = 0;
+    }
+
+    private void checkIndex(int index) {
+        if (index < 0 || index >= size) {
+            throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + size);
+        }
+    }
+
+    private static class Entry {
+        private BulkIngestKey key;
+        private Value value;
+
+        private void clear() {
+            key = null;
+            value = null;
+        }
+    }
+}
@@ -0,0 +1,22 @@
+package datawave.ingest.mapreduce.job.writer;
+
+import org.apache.accumulo.core.data.Value;
+
+import datawave.ingest.mapreduce.job.BulkIngestKey;
+
+/**
+ * A destination for the key/value pairs produced by a data type handler, e.g. a {@link KeyValueBuffer} or the {@code put} method of a multimap.
+ */
+@FunctionalInterface
+public interface KeyValueSink {
+
+    /**
+     * Add a key/value pair
+     *
+     * @param key
+     *            the key
+     * @param value
+     *            the value
+     */
+    void put(BulkIngestKey key, Value value);
+}
@@ -20,6 +20,7 @@ import org.apache.log4j.Logger;
 
 import datawave.ingest.mapreduce.handler.ExtendedDataTypeHandler;
 import datawave.ingest.mapreduce.handler.shard.ShardedDataTypeHandler;
+import datawave.ingest.mapreduce.handler.tokenize.TermOffsetIndexUtil;
 import datawave.ingest.table.aggregator.BitSetCombiner;
 import datawave.ingest.table.aggregator.CombinerConfiguration;
 import datawave.ingest.table.aggregator.GlobalIndexUidAggregator;
@@ -106,7 +107,8 @@ public class ShardTableConfigHelper extends AbstractTableConfigHelper {
             localityGroupsConf = conf.get(shardTableName + LOCALITY_GROUPS,
                             ExtendedDataTypeHandler.FULL_CONTENT_LOCALITY_NAME + ':' + ExtendedDataTypeHandler.FULL_CONTENT_COLUMN_FAMILY + ','
                                             + ExtendedDataTypeHandler.TERM_FREQUENCY_LOCALITY_NAME + ':'
-                                            + ExtendedDataTypeHandler.TERM_FREQUENCY_COLUMN_FAMILY);
+                                            + ExtendedDataTypeHandler.TERM_FREQUENCY_COLUMN_FAMILY + ',' + TermOffsetIndexUtil.TERM_OFFSET_LOCALITY_NAME + ':'
+                                            + TermOffsetIndexUtil.TERM_OFFSET_COLUMN_FAMILY);
             for (String localityGroupDefConf : StringUtils.split(localityGroupsConf)) {
                 String[] localityGroupDef = StringUtils.split(localityGroupDefConf, '\\', ':');
                 Set<Text> families = localityGroups.get(localityGroupDef[0]);
@@ -2,6 +2,7 @@ package datawave.ingest.mapreduce.handler.shard;
 
 import static org.junit.Assert.assertArrayEquals;
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertTrue;
 
 import java.nio.charset.StandardCharsets;
@@ -15,6 +16,7 @@ import org.apache.accumulo.core.data.Value;
 import org.apache.accumulo.core.security.ColumnVisibility;
 import org.apache.hadoop.conf.Configuration;
 import org.apache.hadoop.io.Text;
+import org.apache.hadoop.mapreduce.StatusReporter;
 import org.apache.hadoop.mapreduce.TaskAttemptID;
 import org.apache.hadoop.mapreduce.task.TaskAttemptContextImpl;
 import org.junit.Before;
@@ -33,7 +35,9 @@ import datawave.ingest.data.config.MaskedFieldHelper;
 import datawave.ingest.data.config.NormalizedContentInterface;
 import datawave.ingest.data.config.NormalizedFieldAndValue;
 import datawave.ingest.data.config.ingest.ContentBaseIngestHelper;
+import datawave.ingest.mapreduce.handler.StreamingDataTypeHandler;
 import datawave.ingest.mapreduce.job.BulkIngestKey;
+import datawave.ingest.mapreduce.job.reindex.SimpleContentIndexingColumnBasedHandler;
 import datawave.ingest.protobuf.Uid;
 import datawave.ingest.table.config.ShardTableConfigHelper;
 import datawave.ingest.table.config.TableConfigHelper;
@@ -501,6 +505,52 @@ public class ShardedDataTypeHandlerTest {
 
     }
 
+    @Test
+    public void testStreamingUnlessMultimapFormOverridden() {
+        assertTrue(StreamingDataTypeHandler.canStream(new AbstractColumnBasedHandler<Text>()));
+        assertTrue(StreamingDataTypeHandler.canStream(new SimpleContentIndexingColumnBasedHandler()));
+
+        // the streaming form would skip this override
+        assertFalse(StreamingDataTypeHandler.canStream(new AbstractColumnBasedHandler<Text>() {
+            @Override
+            public Multimap<BulkIngestKey,Value> processBulk(Text key, RawRecordContainer event, Multimap<String,NormalizedContentInterface> eventFields,
+                            StatusReporter reporter) {
+                return super.processBulk(key, event, eventFields, reporter);
+            }
+        }));
+    }
+
+    @Test
+    public void testSinkFormCallsMultimapOverrides() {
+        BulkIngestKey marker = new BulkIngestKey(new Text(TableName.SHARD), new Key("marker"));
+        AbstractColumnBasedHandler<Text> overriding = new AbstractColumnBasedHandler<Text>() {
+            @Override
+            protected Multimap<BulkIngestKey,Value> createShardEventColumn(RawRecordContainer event, Text colf, NormalizedContentInterface nFV,
+                            byte[] visibility, byte[] maskedVisibility, MaskedFieldHelper maskedFieldHelper, byte[] shardId) {
+                Multimap<BulkIngestKey,Value> values = super.createShardEventColumn(event, colf, nFV, visibility, maskedVisibility, maskedFieldHelper,
+                                shardId);
+                values.put(marker, NULL_VALUE);
+                return values;
+            }
+        };
+        overriding.setup(new TaskAttemptContextImpl(configuration, new TaskAttemptID()));
+
+        RawRecordContainer record = createRawRecordContainer();
+        record.setId(HashUID.builder().newId(record.getRawData()));
+        record.setVisibility(new ColumnVisibility("PUBLIC"));
+        Multimap<String,NormalizedContentInterface> fields = ingestHelper.getEventFields(record);
+
+        Multimap<BulkIngestKey,Value> expected = dataTypeHandler.processBulk(null, record, fields, null);
+        assertFalse(expected.containsKey(marker));
+
+        // the streaming form calls the override in place of its own form of createShardEventColumn
+        Multimap<BulkIngestKey,Value> values = HashMultimap.create();
+        assertTrue(overriding.processBulk(null, record, fields, null, values::put));
+        assertTrue(values.containsKey(marker));
+        values.removeAll(marker);
+        assertEquals(expected, values);
+    }
+
     @Test
     public void testSimpleReverseIndexWithDayAndYearIndex() {
         // there is no 'overkill', only 'open fire' and 'reload'
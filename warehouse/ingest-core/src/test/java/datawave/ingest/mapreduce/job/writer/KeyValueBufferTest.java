@@ -0,0 +1,143 @@
+package datawave.ingest.mapreduce.job.writer;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import org.apache.accumulo.core.data.Key;
+import org.apache.accumulo.core.data.Value;
+import org.apache.hadoop.conf.Configuration;
+import org.apache.hadoop.io.Text;
+import org.apache.hadoop.mapreduce.TaskInputOutputContext;
+import org.junit.Test;
+
+import com.google.common.collect.HashMultimap;
+import com.google.common.collect.Multimap;
+
+import datawave.ingest.mapreduce.job.BulkIngestKey;
+
+public class KeyValueBufferTest {
+
+    private static final Text SHARD = new Text("shard");
+    private static final Text SHARD_INDEX = new Text("shardIndex");
+
+    @Test
+    public void testSortAndDedupe() {
+        KeyValueBuffer buffer = new KeyValueBuffer(2);
+        buffer.put(key(SHARD_INDEX, "b"), value("1"));
+        buffer.put(key(SHARD, "b"), value("1"));
+        buffer.put(key(SHARD, "a"), value("2"));
+        buffer.put(key(SHARD, "b"), value("1"));
+        buffer.put(key(SHARD, "a"), value("1"));
+        assertEquals(5, buffer.size());
+
+        buffer.sort();
+
+        assertEquals(4, buffer.size());
+        assertEntry(buffer, 0, key(SHARD, "a"), value("1"));
+        assertEntry(buffer, 1, key(SHARD, "a"), value("2"));
+        assertEntry(buffer, 2, key(SHARD, "b"), value("1"));
+        assertEntry(buffer, 3, key(SHARD_INDEX, "b"), value("1"));
+    }
+
+    @Test
+    public void testMatchesMultimap() throws Exception {
+        Random random = new Random(11);
+        KeyValueBuffer buffer = new KeyValueBuffer(4);
+        RecordingContextWriter writer = new RecordingContextWriter();
+
+        // the same buffer is reused for each event
+        for (int event = 0; event < 50; event++) {
+            Multimap<BulkIngestKey,Value> expected = HashMultimap.create();
+            int pairs = random.nextInt(200);
+            for (int i = 0; i < pairs; i++) {
+                BulkIngestKey key = key(random.nextBoolean() ? SHARD : SHARD_INDEX, Integer.toString(random.nextInt(20)));
+                Value value = value(Integer.toString(random.nextInt(3)));
+                buffer.put(key, value);
+                expected.put(key, value);
+            }
+
+            writer.keys.clear();
+            writer.values.clear();
+            int written = buffer.writeTo(writer, null);
+
+            assertEquals(expected.size(), written);
+            assertEquals(expected.size(), writer.keys.size());
+            Multimap<BulkIngestKey,Value> actual = HashMultimap.create();
+            for (int i = 0; i < writer.keys.size(); i++) {
+                actual.put(writer.keys.get(i), writer.values.get(i));
+                if (i > 0) {
+                    // written in sorted order
+                    assertTrue(writer.keys.get(i - 1).compareTo(writer.keys.get(i)) <= 0);
+                }
+            }
+            assertEquals(expected, actual);
+            assertTrue(buffer.isEmpty());
+        }
+    }
+
+    @Test
+    public void testClearAfterLargeEvent() {
+        KeyValueBuffer buffer = new KeyValueBuffer();
+        for (int i = 0; i <= KeyValueBuffer.MAX_RETAINED_CAPACITY; i++) {
+            buffer.put(key(SHARD, Integer.toString(i)), value("1"));
+        }
+        buffer.clear();
+        assertEquals(0, buffer.size());
+
+        buffer.put(key(SHARD, "a"), value("1"));
+        assertEntry(buffer, 0, key(SHARD, "a"), value("1"));
+    }
+
+    @Test(expected = IndexOutOfBoundsException.class)
+    public void testGetAfterClear() {
+        KeyValueBuffer buffer = new KeyValueBuffer();
+        buffer.put(key(SHARD, "a"), value("1"));
+        buffer.clear();
+        buffer.getKey(0);
+    }
+
+    private static BulkIngestKey key(Text table, String row) {
+        return new BulkIngestKey(table, new Key(row, "cf", "cq", 1L));
+    }
+
+    private static Value value(String value) {
+        return new Value(value.getBytes());
+    }
+
+    private static void assertEntry(KeyValueBuffer buffer, int index, BulkIngestKey key, Value value) {
+        assertEquals(key, buffer.getKey(index));
+        assertEquals(value, buffer.getValue(index));
+    }
+
+    private static class RecordingContextWriter implements ContextWriter<BulkIngestKey,Value> {
+        private final List<BulkIngestKey> keys = new ArrayList<>();
+        private final List<Value> values = new ArrayList<>();
+
+        @Override
+        public void setup(Configuration conf, boolean outputTableCounters) {}
+
+        @Override
+        public void write(BulkIngestKey key, Value value, TaskInputOutputContext<?,?,BulkIngestKey,Value> context) {
+            keys.add(key);
+            values.add(value);
+        }
+
+        @Override
+        public void write(Multimap<BulkIngestKey,Value> entries, TaskInputOutputContext<?,?,BulkIngestKey,Value> context) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public void commit(TaskInputOutputContext<?,?,BulkIngestKey,Value> context) {}
+
+        @Override
+        public void rollback() {}
+
+        @Override
+        public void cleanup(TaskInputOutputContext<?,?,BulkIngestKey,Value> context) {}
+    }
+}
@@ -2,8 +2,10 @@ package datawave.ingest.json.mr.input;
 
 import java.io.IOException;
 
+import org.apache.hadoop.conf.Configuration;
 import org.apache.hadoop.fs.Path;
 import org.apache.hadoop.io.LongWritable;
+import org.apache.hadoop.io.compress.CompressionCodecFactory;
 import org.apache.hadoop.mapreduce.InputSplit;
 import org.apache.hadoop.mapreduce.JobContext;
 import org.apache.hadoop.mapreduce.RecordReader;
@@ -11,12 +13,23 @@ import org.apache.hadoop.mapreduce.TaskAttemptContext;
 import org.apache.hadoop.mapreduce.lib.input.SequenceFileInputFormat;
 
 import datawave.ingest.data.RawRecordContainer;
+import datawave.ingest.data.config.DataTypeHelper;
+import datawave.ingest.json.config.helper.JsonDataTypeHelper;
 
 public class JsonInputFormat extends SequenceFileInputFormat<LongWritable,RawRecordContainer> {
 
+    /**
+     * Only uncompressed files of newline delimited json may be split, see {@link JsonDataTypeHelper#isNewlineDelimited()}
+     */
     @Override
     protected boolean isSplitable(JobContext context, Path filename) {
-        return false;
+        Configuration conf = context.getConfiguration();
+        if (conf.get(DataTypeHelper.Properties.DATA_NAME) == null || new CompressionCodecFactory(conf).getCodec(filename) != null) {
+            return false;
+        }
+        JsonDataTypeHelper helper = new JsonDataTypeHelper();
+        helper.setup(conf);
+        return helper.isNewlineDelimited();
     }
 
     @Override
@@ -6,16 +6,19 @@ import java.io.InputStreamReader;
 import java.net.URI;
 import java.util.Iterator;
 import java.util.Map;
+import java.util.NoSuchElementException;
 
 import org.apache.accumulo.core.security.ColumnVisibility;
 import org.apache.commons.collections4.IteratorUtils;
 import org.apache.commons.io.input.CountingInputStream;
 import org.apache.commons.lang.StringUtils;
 import org.apache.hadoop.conf.Configuration;
+import org.apache.hadoop.fs.FSDataInputStream;
 import org.apache.hadoop.fs.FileSystem;
 import org.apache.hadoop.fs.Path;
 import org.apache.hadoop.io.BytesWritable;
 import org.apache.hadoop.io.LongWritable;
+import org.apache.hadoop.io.Text;
 import org.apache.hadoop.mapreduce.InputSplit;
 import org.apache.hadoop.mapreduce.TaskAttemptContext;
 import org.apache.hadoop.mapreduce.lib.input.FileSplit;
@@ -24,6 +27,7 @@ import org.apache.log4j.Logger;
 import com.google.common.collect.HashMultimap;
 import com.google.common.collect.Multimap;
 import com.google.gson.JsonElement;
+import com.google.gson.JsonIOException;
 import com.google.gson.JsonObject;
 import com.google.gson.JsonParser;
 import com.google.gson.stream.JsonReader;
@@ -33,6 +37,7 @@ import datawave.data.hash.UID;
 import datawave.ingest.data.RawRecordContainer;
 import datawave.ingest.data.config.DataTypeHelper;
 import datawave.ingest.input.reader.AbstractEventRecordReader;
+import datawave.ingest.input.reader.LfLineReader;
 import datawave.ingest.json.config.helper.JsonDataTypeHelper;
 import datawave.ingest.json.config.helper.JsonIngestFlattener;
 import datawave.ingest.json.util.JsonObjectFlattener;
@@ -51,6 +56,11 @@ import datawave.ingest.json.util.JsonObjectFlattener;
  * </blockquote>
  *
  * <p>
+ * Objects are read from the stream one at a time, including the elements of a top-level array, so only the current object is held in memory. If the
+ * {@link JsonDataTypeHelper#isNewlineDelimited()} option is enabled, the input is read as one object per line, and splits of the file are read from the
+ * first line starting within the split through the last line starting within it.
+ *
+ * <p>
  * For custom parsing requirements, extend this class and override the 'parseCurrentValue' method to suit your needs.
  */
 public class JsonRecordReader extends AbstractEventRecordReader<BytesWritable> {
@@ -72,6 +82,8 @@ public class JsonRecordReader extends AbstractEventRecordReader<BytesWritable> {
     protected Multimap<String,String> currentValue = HashMultimap.create();
     protected Iterator<JsonElement> jsonIterator;
     protected JsonReader reader;
+    protected LfLineReader lineReader;
+    protected final Text line = new Text();
     protected JsonElement currentJsonObj;
     protected boolean parseHeaderOnly = true;
     protected JsonDataTypeHelper jsonHelper = null;
@@ -79,8 +91,15 @@ public class JsonRecordReader extends AbstractEventRecordReader<BytesWritable> {
 
     @Override
     public synchronized void close() throws IOException {
-        reader.close();
-        countingInputStream.close();
+        if (reader != null) {
+            reader.close();
+        }
+        if (lineReader != null) {
+            lineReader.close();
+        }
+        if (countingInputStream != null) {
+            countingInputStream.close();
+        }
     }
 
     @Override
@@ -125,23 +144,30 @@ public class JsonRecordReader extends AbstractEventRecordReader<BytesWritable> {
         rawFileName = file.getName();
         fileURI = file.toUri();
         FileSystem fs = file.getFileSystem(context.getConfiguration());
-        InputStream is = fs.open(file);
+        FSDataInputStream is = fs.open(file);
         start = fsplit.getStart();
         end = start + fsplit.getLength();
         pos = start;
 
         String normURI = fileURI.getScheme() + "://" + fileURI.getPath();
 
-        setupReader(is);
+        jsonHelper = (JsonDataTypeHelper) createHelper(context.getConfiguration());
+        this.parseHeaderOnly = !jsonHelper.processExtraFields();
+        jsonFlattener = jsonHelper.newFlattener();
+
+        if (jsonHelper.isNewlineDelimited()) {
+            setupLineReader(is, context.getConfiguration());
+        } else if (start != 0) {
+            is.close();
+            throw new IOException("Only newline delimited json may be split, cannot read " + normURI + " from " + start);
+        } else {
+            setupReader(is);
+        }
 
         if (logger.isInfoEnabled()) {
             logger.info("Reading Json records from " + normURI + " via " + is.getClass().getName());
         }
 
-        jsonHelper = (JsonDataTypeHelper) createHelper(context.getConfiguration());
-        this.parseHeaderOnly = !jsonHelper.processExtraFields();
-        jsonFlattener = jsonHelper.newFlattener();
-
         if (logger.isInfoEnabled()) {
             logger.info("Json flattener mode: " + jsonFlattener.getFlattenMode().name());
         }
@@ -155,15 +181,67 @@ public class JsonRecordReader extends AbstractEventRecordReader<BytesWritable> {
     }
 
     protected void setupIterator(JsonReader reader) {
-        JsonElement root = JsonParser.parseReader(reader);
+        try {
+            if (reader.peek() == JsonToken.BEGIN_ARRAY) {
+                // Currently positioned to read a set of objects, which are parsed one at a time rather than as a single tree
+                reader.beginArray();
+                jsonIterator = new ArrayElementIterator(reader);
+            } else {
+                // Currently positioned to read a single object
+                jsonIterator = IteratorUtils.singletonIterator(JsonParser.parseReader(reader));
+            }
+        } catch (IOException e) {
+            throw new JsonIOException(e);
+        }
+    }
 
-        if (root.isJsonArray()) {
-            // Currently positioned to read a set of objects
-            jsonIterator = root.getAsJsonArray().iterator();
-        } else {
-            // Currently positioned to read a single object
-            jsonIterator = IteratorUtils.singletonIterator(root);
+    /**
+     * Prepare to read newline delimited json from the split. As with a LineRecordReader, a split other than the first starts reading after the first newline
+     * at or after its start, as the line before belongs to the previous split.
+     *
+     * @param is
+     *            the file stream, not yet positioned at the split
+     * @param conf
+     *            the configuration
+     * @throws IOException
+     *             if the stream cannot be read
+     */
+    protected void setupLineReader(FSDataInputStream is, Configuration conf) throws IOException {
+        boolean skipFirstLine = false;
+        if (start != 0) {
+            // back up one byte so that a line starting exactly at the split start is kept
+            skipFirstLine = true;
+            --start;
+            is.seek(start);
+        }
+        lineReader = new LfLineReader(is, conf);
+        if (skipFirstLine) {
+            start += lineReader.readLine(new Text(), 0, (int) Math.min(Integer.MAX_VALUE, end - start));
         }
+        pos = start;
+    }
+
+    /**
+     * Read the next non-blank line starting within the split. The line is read in full even if it runs past the end of the split.
+     *
+     * @return the json on the line, or null if there are no more lines in the split
+     * @throws IOException
+     *             if the stream cannot be read
+     */
+    protected JsonElement nextLine() throws IOException {
+        while (pos < end) {
+            int bytesRead = lineReader.readLine(line);
+            if (bytesRead == 0) {
+                break;
+            }
+            pos += bytesRead;
+
+            String text = line.toString();
+            if (!StringUtils.isBlank(text)) {
+                return JsonParser.parseString(text);
+            }
+        }
+        return null;
     }
 
     protected void parseCurrentValue(JsonObject jsonObject) {
@@ -178,6 +256,16 @@ public class JsonRecordReader extends AbstractEventRecordReader<BytesWritable> {
         currentValue.clear();
         counter++;
 
+        if (lineReader != null) {
+            JsonElement jsonElement = nextLine();
+            if (jsonElement == null) {
+                return false;
+            }
+            parseCurrentValue(jsonElement.getAsJsonObject());
+            currentJsonObj = jsonElement;
+            return true;
+        }
+
         if (!jsonIterator.hasNext()) {
             /*
              * Note that for streaming purposes we support files containing multiple distinct json objects concatenated together, where each object will
@@ -302,4 +390,41 @@ public class JsonRecordReader extends AbstractEventRecordReader<BytesWritable> {
     public boolean isParseHeaderOnly() {
         return parseHeaderOnly;
     }
+
+    /**
+     * Iterates over the remaining elements of an array the reader has begun, parsing each element as it is reached
+     */
+    private static class ArrayElementIterator implements Iterator<JsonElement> {
+        private final JsonReader reader;
+        private boolean open = true;
+
+        ArrayElementIterator(JsonReader reader) {
+            this.reader = reader;
+        }
+
+        @Override
+        public boolean hasNext() {
+            if (!open) {
+                return false;
+            }
+            try {
+                if (reader.hasNext()) {
+                    return true;
+                }
+                reader.endArray();
+                open = false;
+                return false;
+            } catch (IOException e) {
+                throw new JsonIOException(e);
+            }
+        }
+
+        @Override
+        public JsonElement next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            return JsonParser.parseReader(reader);
+        }
+    }
 }
@@ -1,7 +1,10 @@
 package datawave.ingest.json.mr.input;
 
 import java.io.File;
+import java.io.IOException;
 import java.net.URL;
+import java.util.ArrayList;
+import java.util.List;
 
 import org.apache.hadoop.conf.Configuration;
 import org.apache.hadoop.fs.Path;
@@ -20,6 +23,11 @@ import datawave.ingest.json.util.JsonObjectFlattener.FlattenMode;
 public class JsonRecordReaderTest {
 
     protected JsonRecordReader init(boolean parseHeaderOnly, FlattenMode mode) throws Exception {
+        return init(parseHeaderOnly, mode, "/input/my.json", false, 0, -1);
+    }
+
+    protected JsonRecordReader init(boolean parseHeaderOnly, FlattenMode mode, String resource, boolean newlineDelimited, long start, long length)
+                    throws Exception {
 
         Configuration conf = null;
         TaskAttemptContext ctx = null;
@@ -32,8 +40,9 @@ public class JsonRecordReaderTest {
 
         conf.set("myjson.data.json.flattener.mode", mode.name());
         conf.set("myjson.data.process.extra.fields", String.valueOf(!parseHeaderOnly));
+        conf.set("myjson.data.json.newline.delimited", String.valueOf(newlineDelimited));
 
-        URL data = JsonRecordReaderTest.class.getResource("/input/my.json");
+        URL data = JsonRecordReaderTest.class.getResource(resource);
         Assert.assertNotNull(data);
 
         TypeRegistry.reset();
@@ -41,7 +50,7 @@ public class JsonRecordReaderTest {
 
         dataFile = new File(data.toURI());
         Path p = new Path(dataFile.toURI().toString());
-        split = new FileSplit(p, 0, dataFile.length(), null);
+        split = new FileSplit(p, start, length < 0 ? dataFile.length() : length, null);
         ctx = new TaskAttemptContextImpl(conf, new TaskAttemptID());
 
         JsonRecordReader reader = new JsonRecordReader();
@@ -228,4 +237,67 @@ public class JsonRecordReaderTest {
 
         reader.close();
     }
+
+    @Test
+    public void testGetAllRecordsFromArray() throws Exception {
+        // the records of my.json within a single top-level array
+        JsonRecordReader reader = init(false, FlattenMode.NORMAL, "/input/my-array.json", false, 0, -1);
+        reader.setInputDate(System.currentTimeMillis());
+        assertRecordsNORMAL(reader);
+        reader.close();
+    }
+
+    @Test
+    public void testGetAllRecordsNewlineDelimited() throws Exception {
+        // the records of my.json, one per line
+        JsonRecordReader reader = init(false, FlattenMode.NORMAL, "/input/my-lines.json", true, 0, -1);
+        reader.setInputDate(System.currentTimeMillis());
+        assertRecordsNORMAL(reader);
+        reader.close();
+    }
+
+    @Test
+    public void testNewlineDelimitedSplits() throws Exception {
+        List<String> expected = readRecords(init(false, FlattenMode.NORMAL, "/input/my-lines.json", true, 0, -1));
+        Assert.assertEquals(5, expected.size());
+
+        long fileLength = new File(JsonRecordReaderTest.class.getResource("/input/my-lines.json").toURI()).length();
+        // 779 is the start of the second line
+        for (long splitLength : new long[] {1, 7, 100, 778, 779, 1000, fileLength}) {
+            List<String> records = new ArrayList<>();
+            for (long start = 0; start < fileLength; start += splitLength) {
+                records.addAll(readRecords(init(false, FlattenMode.NORMAL, "/input/my-lines.json", true, start, Math.min(splitLength, fileLength - start))));
+            }
+            // every line is read exactly once, by the split in which it starts
+            Assert.assertEquals("split length " + splitLength, expected, records);
+        }
+    }
+
+    @Test(expected = IOException.class)
+    public void testSplitRequiresNewlineDelimited() throws Exception {
+        init(false, FlattenMode.NORMAL, "/input/my.json", false, 10, 100);
+    }
+
+    private List<String> readRecords(JsonRecordReader reader) throws Exception {
+        reader.setInputDate(System.currentTimeMillis());
+        List<String> records = new ArrayList<>();
+        while (reader.nextKeyValue()) {
+            records.add(new String(reader.getEvent().getRawData()));
+        }
+        reader.close();
+        return records;
+    }
+
+    private void assertRecordsNORMAL(JsonRecordReader reader) throws Exception {
+        int[] keys = {14, 18, 9, 10, 10};
+        int[] values = {27, 29, 9, 14, 11};
+        for (int i = 0; i < keys.length; i++) {
+            Assert.assertTrue(reader.nextKeyValue());
+            Assert.assertNotNull(reader.getEvent());
+            Assert.assertEquals(keys[i], reader.getCurrentFields().keySet().size());
+            Assert.assertEquals(values[i], reader.getCurrentFields().values().size());
+        }
+        // EOF
+        Assert.assertFalse(reader.nextKeyValue());
+    }
 }
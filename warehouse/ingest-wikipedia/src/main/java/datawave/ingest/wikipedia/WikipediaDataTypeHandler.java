@@ -2,22 +2,19 @@ package datawave.ingest.wikipedia;
 
 import java.io.ByteArrayInputStream;
 import java.io.IOException;
-import java.io.StringReader;
 import java.util.Arrays;
 import java.util.Set;
 import java.util.concurrent.Executors;
 import java.util.concurrent.TimeUnit;
 
-import javax.xml.parsers.DocumentBuilder;
-import javax.xml.parsers.DocumentBuilderFactory;
-import javax.xml.parsers.ParserConfigurationException;
+import javax.xml.stream.XMLStreamException;
 
 import org.apache.accumulo.core.client.BatchWriter;
 import org.apache.accumulo.core.client.BatchWriterConfig;
 import org.apache.accumulo.core.client.MutationsRejectedException;
 import org.apache.accumulo.core.data.Key;
 import org.apache.accumulo.core.data.Mutation;
-import org.apache.accumulo.core.data.Value;
+import org.apache.commons.io.input.CharSequenceReader;
 import org.apache.commons.lang.StringUtils;
 import org.apache.hadoop.conf.Configuration;
 import org.apache.hadoop.io.Text;
@@ -28,10 +25,6 @@ import org.apache.hadoop.util.bloom.BloomFilter;
 import org.apache.log4j.Logger;
 import org.apache.lucene.analysis.tokenattributes.CharTermAttribute;
 import org.apache.lucene.analysis.wikipedia.WikipediaTokenizer;
-import org.w3c.dom.Document;
-import org.w3c.dom.Node;
-import org.w3c.dom.NodeList;
-import org.xml.sax.SAXException;
 
 import com.google.common.collect.HashMultimap;
 import com.google.common.collect.Multimap;
@@ -59,17 +52,12 @@ public class WikipediaDataTypeHandler<KEYIN,KEYOUT,VALUEOUT> extends ExtendedCon
     private static final String REVISION_COMMENT_FIELD_NAME = "REVISION_COMMENT";
     private static final String REVISION_COMMENT_TOKEN = "REVISION_COMMENT_TOKEN";
 
-    private static final String REVISION_COMMENT = "comment";
-    private static final String REVISION_TEXT = "text";
-
     /*
      * Disabling D column output will prevent document content from being written out in the context or to accumulo.
      */
     public static final String OPT_NO_D_COL = "wikipedia.ingest.documents.disable";
 
-    private static DocumentBuilderFactory factory = DocumentBuilderFactory.newInstance();
-
-    private DocumentBuilder parser = null;
+    private final WikipediaPageExtractor extractor = new WikipediaPageExtractor();
     private WikipediaIngestHelper ingestHelper = null;
     private WikipediaHelper helper = null;
 
@@ -80,12 +68,6 @@ public class WikipediaDataTypeHandler<KEYIN,KEYOUT,VALUEOUT> extends ExtendedCon
         this.ingestHelper = (WikipediaIngestHelper) this.getHelper(null);
         this.helper = this.ingestHelper.getDataTypeHelper();
 
-        try {
-            this.parser = factory.newDocumentBuilder();
-        } catch (ParserConfigurationException e) {
-            throw new RuntimeException("Error instantiating DocumentBuilder", e);
-        }
-
         Configuration conf = context.getConfiguration();
 
         this.counters = new ContentIndexCounters();
@@ -130,16 +112,12 @@ public class WikipediaDataTypeHandler<KEYIN,KEYOUT,VALUEOUT> extends ExtendedCon
         this.eventDataTypeName = event.getDataType().outputName();
         this.eventUid = event.getId().toString();
 
-        // write the standard set of keys
-        Multimap<BulkIngestKey,Value> keys = super.processBulk(key, event, eventFields, new ContextWrappedStatusReporter(context));
-        long count = keys.size();
-        contextWriter.write(keys, context);
+        StatusReporter reporter = new ContextWrappedStatusReporter(context);
 
-        // gc before we get into the tokenization piece
-        keys = null;
+        // write the standard set of keys
+        long count = writeStandardKeys(key, event, eventFields, reporter, context, contextWriter);
 
         // stream the tokens to the context writer here
-        StatusReporter reporter = new ContextWrappedStatusReporter(context);
         count += tokenizeEvent(event, context, contextWriter, reporter);
 
         // return the number of records written
@@ -170,40 +148,34 @@ public class WikipediaDataTypeHandler<KEYIN,KEYOUT,VALUEOUT> extends ExtendedCon
         final byte[] visibility = flatten(event.getVisibility());
         final byte[] rawData = event.getRawData();
 
-        Document root;
+        // For each revision, stream through the page to the stuff we want to tokenize
         try {
-            root = this.parser.parse(new ByteArrayInputStream(rawData));
-        } catch (SAXException e) {
-            throw new RuntimeException(e);
-        }
-
-        NodeList revisions = root.getElementsByTagName("revision");
-
-        // For each revision, try to find the stuff we want to tokenize
-        for (int i = 0; i < revisions.getLength(); i++) {
-            Node revision = revisions.item(i);
-            NodeList children = revision.getChildNodes();
-            for (int j = 0; j < children.getLength(); j++) {
-                Node revChild = children.item(j);
-
-                if (REVISION_COMMENT.equals(revChild.getNodeName())) {
-                    count += tokenizeTextNode(revChild.getTextContent(), event, visibility, context, contextWriter, REVISION_COMMENT_FIELD_NAME,
+            extractor.open(new ByteArrayInputStream(rawData));
+            String revisionField;
+            while ((revisionField = extractor.nextRevisionField()) != null) {
+                if (WikipediaPageExtractor.COMMENT_ELEMENT.equals(revisionField)) {
+                    count += tokenizeTextNode(extractor.getFieldText(), event, visibility, context, contextWriter, REVISION_COMMENT_FIELD_NAME,
                                     REVISION_COMMENT_TOKEN, reporter);
-                } else if (REVISION_TEXT.equals(revChild.getNodeName())) {
-                    count += tokenizeTextNode(revChild.getTextContent(), event, visibility, context, contextWriter, REVISION_TEXT_FIELD_NAME,
+                } else {
+                    count += tokenizeTextNode(extractor.getFieldText(), event, visibility, context, contextWriter, REVISION_TEXT_FIELD_NAME,
                                     REVISION_TEXT_TOKEN, reporter);
                 }
             }
+        } catch (XMLStreamException e) {
+            throw new RuntimeException(e);
+        } finally {
+            extractor.close();
         }
 
         return count;
     }
 
-    protected long tokenizeTextNode(String content, RawRecordContainer event, byte[] visibility,
+    protected long tokenizeTextNode(CharSequence content, RawRecordContainer event, byte[] visibility,
                     TaskInputOutputContext<KEYIN,? extends RawRecordContainer,KEYOUT,VALUEOUT> context, ContextWriter<KEYOUT,VALUEOUT> contextWriter,
                     String fieldName, String fieldNameToken, StatusReporter reporter) throws IOException, InterruptedException {
 
-        StringReader contentReader = new StringReader(content);
+        // the content is read in place, it may be a buffer reused for the next revision
+        CharSequenceReader contentReader = new CharSequenceReader(content);
 
         int position = 0;
         try {
@@ -223,8 +195,8 @@ public class WikipediaDataTypeHandler<KEYIN,KEYOUT,VALUEOUT> extends ExtendedCon
                 TextUtil.textAppend(colf, norm.getEventFieldName());
 
                 // Create the full content record
-                if (!content.isEmpty()) {
-                    createContentRecord(event, contextWriter, context, reporter, colf, visibility, this.shardId, content.getBytes());
+                if (content.length() > 0) {
+                    createContentRecord(event, contextWriter, context, reporter, colf, visibility, this.shardId, content.toString().getBytes());
 
                     norm = new NormalizedFieldAndValue(contentPresenceFieldName, "true");
                     byte[] fieldVisibility = getVisibility(event, norm);
@@ -1,18 +1,21 @@
 package datawave.ingest.wikipedia;
 
+import java.io.InputStream;
 import java.io.Reader;
 import java.text.ParseException;
 import java.text.SimpleDateFormat;
-import java.util.HashMap;
-import java.util.Map;
 
-import javax.xml.namespace.QName;
 import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLStreamConstants;
 import javax.xml.stream.XMLStreamException;
 import javax.xml.stream.XMLStreamReader;
 
 /**
- *
+ * Reads a wikipedia page in a single forward pass over an {@link XMLStreamReader}. The buffers holding element text are kept and reused from one page to the
+ * next, so an instance should be reused across pages by a single thread.
+ * <p>
+ * The page may be read whole with {@link #extract(Reader)}, or one revision comment or text at a time with {@link #open(InputStream)} and
+ * {@link #nextRevisionField()}, which leaves the text in a buffer that may be read directly without creating a String.
  */
 public class WikipediaPageExtractor {
 
@@ -36,79 +39,218 @@ public class WikipediaPageExtractor {
 
     static {
         xmlif.setProperty(XMLInputFactory.IS_REPLACING_ENTITY_REFERENCES, Boolean.TRUE);
+        xmlif.setProperty(XMLInputFactory.IS_SUPPORTING_EXTERNAL_ENTITIES, Boolean.FALSE);
     }
 
-    public WikipediaPage extract(Reader reader) {
+    private final StringBuilder titleText = new StringBuilder();
+    private final StringBuilder idText = new StringBuilder();
+    private final StringBuilder timestampText = new StringBuilder();
+    private final StringBuilder commentText = new StringBuilder();
+    private final StringBuilder articleText = new StringBuilder();
+    private final StringBuilder fieldText = new StringBuilder();
 
-        XMLStreamReader xmlr = null;
+    private XMLStreamReader xmlr = null;
+    // the depth of the current element, and of the revision being read or -1 if outside of a revision
+    private int depth = 0;
+    private int revisionDepth = -1;
 
+    /**
+     * Read the page, taking the title and id of the page and the timestamp, comment and text of its first revision
+     *
+     * @param reader
+     *            the page xml
+     * @return the page, or null if the page has no revision text or its timestamp could not be parsed
+     */
+    public WikipediaPage extract(Reader reader) {
         try {
-            xmlr = xmlif.createXMLStreamReader(reader);
-        } catch (XMLStreamException e1) {
-            throw new RuntimeException(e1);
+            open(xmlif.createXMLStreamReader(reader));
+            return extractPage();
+        } catch (XMLStreamException e) {
+            throw new RuntimeException(e);
+        } finally {
+            close();
         }
+    }
+
+    /**
+     * Start reading a page
+     *
+     * @param in
+     *            the page xml
+     * @throws XMLStreamException
+     *             if the xml cannot be read
+     */
+    public void open(InputStream in) throws XMLStreamException {
+        open(xmlif.createXMLStreamReader(in));
+    }
+
+    /**
+     * Start reading a page
+     *
+     * @param reader
+     *            the page xml
+     * @throws XMLStreamException
+     *             if the xml cannot be read
+     */
+    public void open(Reader reader) throws XMLStreamException {
+        open(xmlif.createXMLStreamReader(reader));
+    }
 
-        QName titleName = QName.valueOf("title");
-        QName textName = QName.valueOf("text");
-        QName revisionName = QName.valueOf("revision");
-        QName timestampName = QName.valueOf("timestamp");
-        QName commentName = QName.valueOf("comment");
-        QName idName = QName.valueOf("id");
+    private void open(XMLStreamReader xmlr) {
+        close();
+        this.xmlr = xmlr;
+        this.depth = 0;
+        this.revisionDepth = -1;
+    }
 
-        Map<QName,StringBuilder> tags = new HashMap<>();
-        for (QName tag : new QName[] {titleName, textName, timestampName, commentName, idName}) {
-            tags.put(tag, new StringBuilder());
+    /**
+     * Advance to the next comment or text element which is a child of a revision, reading its text into the buffer returned by {@link #getFieldText()}
+     *
+     * @return {@link #COMMENT_ELEMENT} or {@link #TEXT_ELEMENT}, or null if the end of the page was reached
+     * @throws XMLStreamException
+     *             if the xml is not well formed
+     */
+    public String nextRevisionField() throws XMLStreamException {
+        while (xmlr.hasNext()) {
+            int event = xmlr.next();
+            if (event == XMLStreamConstants.START_ELEMENT) {
+                depth++;
+                String name = xmlr.getLocalName();
+                if (revisionDepth < 0) {
+                    if (REVISION_ELEMENT.equals(name)) {
+                        revisionDepth = depth;
+                    }
+                } else if (depth == revisionDepth + 1 && (COMMENT_ELEMENT.equals(name) || TEXT_ELEMENT.equals(name))) {
+                    readText(fieldText);
+                    return name;
+                }
+            } else if (event == XMLStreamConstants.END_ELEMENT) {
+                endElement();
+            }
         }
+        return null;
+    }
 
-        StringBuilder articleText = tags.get(textName);
-        StringBuilder titleText = tags.get(titleName);
-        StringBuilder timestampText = tags.get(timestampName);
-        StringBuilder commentText = tags.get(commentName);
-        StringBuilder idText = tags.get(idName);
+    /**
+     * @return the text of the element last returned by {@link #nextRevisionField()}, valid until the next call
+     */
+    public CharSequence getFieldText() {
+        return fieldText;
+    }
 
-        StringBuilder current = null;
-        boolean inRevision = false;
-        while (true) {
+    /**
+     * Read through to the end of the page, which verifies that the remainder of the page is well formed
+     *
+     * @throws XMLStreamException
+     *             if the xml is not well formed
+     */
+    public void skipPage() throws XMLStreamException {
+        while (xmlr.hasNext()) {
+            xmlr.next();
+        }
+    }
+
+    /**
+     * Release the page being read. The buffers are kept for the next page.
+     */
+    public void close() {
+        if (xmlr != null) {
             try {
-                if (!xmlr.hasNext())
-                    break;
-                xmlr.next();
+                xmlr.close();
             } catch (XMLStreamException e) {
-                throw new RuntimeException(e);
-            }
-            QName currentName = null;
-            if (xmlr.hasName()) {
-                currentName = xmlr.getName();
+                // nothing more will be read from it
             }
-            if (null != currentName && xmlr.isStartElement() && tags.containsKey(currentName)) {
-                if (!inRevision || (!currentName.equals(revisionName) && !currentName.equals(idName))) {
-                    current = tags.get(currentName);
-                    current.setLength(0);
-                }
-            } else if (null != currentName && xmlr.isStartElement() && currentName.equals(revisionName)) {
-                inRevision = true;
-            } else if (null != currentName && xmlr.isEndElement() && currentName.equals(revisionName)) {
-                inRevision = false;
-            } else if (xmlr.isEndElement() && current != null) {
-                if (textName.equals(currentName)) {
-
-                    String title = titleText.toString();
-                    String text = articleText.toString();
-                    String comment = commentText.toString();
-                    int id = Integer.parseInt(idText.toString());
-                    long timestamp;
-                    try {
-                        timestamp = TIMESTAMP_DATE_FORMAT.get().parse(timestampText.append("+0000").toString()).getTime();
-                        return new WikipediaPage(id, title, timestamp, comment, text);
-                    } catch (ParseException e) {
-                        return null;
+            xmlr = null;
+        }
+    }
+
+    private WikipediaPage extractPage() throws XMLStreamException {
+        for (StringBuilder sb : new StringBuilder[] {titleText, idText, timestampText, commentText, articleText}) {
+            sb.setLength(0);
+        }
+
+        int revisions = 0;
+        boolean hasText = false;
+        while (xmlr.hasNext()) {
+            int event = xmlr.next();
+            if (event == XMLStreamConstants.START_ELEMENT) {
+                depth++;
+                String name = xmlr.getLocalName();
+                if (revisionDepth < 0) {
+                    if (REVISION_ELEMENT.equals(name)) {
+                        revisionDepth = depth;
+                        revisions++;
+                    } else if (TITLE_ELEMENT.equals(name)) {
+                        readText(titleText);
+                    } else if (ID_ELEMENT.equals(name)) {
+                        readText(idText);
+                    }
+                } else if (revisions == 1 && depth == revisionDepth + 1) {
+                    if (TIMESTAMP_ELEMENT.equals(name)) {
+                        readText(timestampText);
+                    } else if (COMMENT_ELEMENT.equals(name)) {
+                        readText(commentText);
+                    } else if (TEXT_ELEMENT.equals(name)) {
+                        readText(articleText);
+                        hasText = true;
                     }
                 }
-                current = null;
-            } else if (current != null && xmlr.hasText()) {
-                current.append(xmlr.getText());
+            } else if (event == XMLStreamConstants.END_ELEMENT) {
+                endElement();
+            }
+        }
+
+        if (!hasText) {
+            return null;
+        }
+
+        int id = Integer.parseInt(idText.toString());
+        try {
+            long timestamp = TIMESTAMP_DATE_FORMAT.get().parse(timestampText.append("+0000").toString()).getTime();
+            return new WikipediaPage(id, titleText.toString(), timestamp, commentText.toString(), articleText.toString());
+        } catch (ParseException e) {
+            return null;
+        }
+    }
+
+    private void endElement() {
+        if (depth == revisionDepth) {
+            revisionDepth = -1;
+        }
+        depth--;
+    }
+
+    /**
+     * Read the text of the current element through its end tag, including the text of any nested elements, copying characters straight from the parser
+     */
+    private void readText(StringBuilder target) throws XMLStreamException {
+        target.setLength(0);
+        int nested = 0;
+        while (true) {
+            int event = xmlr.next();
+            switch (event) {
+                case XMLStreamConstants.CHARACTERS:
+                case XMLStreamConstants.CDATA:
+                case XMLStreamConstants.SPACE:
+                    target.append(xmlr.getTextCharacters(), xmlr.getTextStart(), xmlr.getTextLength());
+                    break;
+                case XMLStreamConstants.ENTITY_REFERENCE:
+                    target.append(xmlr.getText());
+                    break;
+                case XMLStreamConstants.START_ELEMENT:
+                    nested++;
+                    break;
+                case XMLStreamConstants.END_ELEMENT:
+                    if (nested == 0) {
+                        depth--;
+                        return;
+                    }
+                    nested--;
+                    break;
+                default:
+                    // comments and processing instructions hold no text
+                    break;
             }
         }
-        return null;
     }
 }
@@ -9,10 +9,6 @@ import java.util.Arrays;
 import java.util.Date;
 import java.util.HashMap;
 
-import javax.xml.parsers.DocumentBuilder;
-import javax.xml.parsers.DocumentBuilderFactory;
-import javax.xml.parsers.ParserConfigurationException;
-
 import org.apache.accumulo.core.security.ColumnVisibility;
 import org.apache.commons.lang.StringUtils;
 import org.apache.hadoop.conf.Configurable;
@@ -27,7 +23,6 @@ import org.apache.log4j.Logger;
 import org.apache.lucene.analysis.tokenattributes.CharTermAttribute;
 import org.apache.lucene.analysis.tokenattributes.TypeAttribute;
 import org.apache.lucene.analysis.wikipedia.WikipediaTokenizer;
-import org.xml.sax.InputSource;
 
 import com.google.common.base.Preconditions;
 import com.google.common.collect.Maps;
@@ -139,14 +134,12 @@ public class WikipediaRecordReader extends AggregatingRecordReader {
         protected static final String WIKI = "wiki-", WIKTIONARY = "wiktionary-";
         protected static final String[] FILE_NAME_PREFIXES = new String[] {WIKI, WIKTIONARY};
 
-        protected static final DocumentBuilderFactory FACTORY = configureFactory();
-
         protected WikipediaHelper wikiHelper = new WikipediaHelper();
         protected WikipediaTokenizer wikiTokenizer = null;
         protected CharTermAttribute termAttr = null;
         protected TypeAttribute typeAttr = null;
         protected HashMap<String,Type> wikipediaTypeRegistry = Maps.newHashMap();
-        protected DocumentBuilder parser = null;
+        protected WikipediaPageExtractor extractor = null;
 
         private RawRecordContainer event = null;
         private EventInitializer eventInitializer;
@@ -155,22 +148,6 @@ public class WikipediaRecordReader extends AggregatingRecordReader {
         private ValueReader currentValueReader;
         private EventFixer eventFixer = null;
 
-        private static DocumentBuilderFactory configureFactory() {
-            DocumentBuilderFactory factory = DocumentBuilderFactory.newInstance();
-            try {
-                factory.setFeature("http://apache.org/xml/features/disallow-doctype-decl", false);
-                factory.setFeature("http://xml.org/sax/features/external-general-entities", false);
-                factory.setFeature("http://xml.org/sax/features/external-parameter-entities", false);
-                factory.setFeature("http://apache.org/xml/features/nonvalidating/load-external-dtd", false);
-                factory.setXIncludeAware(false);
-                factory.setExpandEntityReferences(false);
-                return factory;
-            } catch (ParserConfigurationException ex) {
-                log.error("Unable to configure FACTORY", ex);
-                return null;
-            }
-        }
-
         public void setEvent(RawRecordContainer event) {
             this.event = event;
         }
@@ -214,18 +191,14 @@ public class WikipediaRecordReader extends AggregatingRecordReader {
         public void initializeEvent(Configuration conf) throws IOException {
             Preconditions.checkNotNull(eventInitializer, "eventInitializer cannot be null");
             eventInitializer.initializeEvent(conf);
-            try {
-                this.parser = FACTORY.newDocumentBuilder();
-            } catch (ParserConfigurationException e) {
-                throw new IOException("Error instantiating DocumentBuilder", e);
-            }
+            this.extractor = new WikipediaPageExtractor();
         }
 
         public RawRecordContainer getEvent(String rawFileName) {
             Preconditions.checkNotNull(currentKeyReader, "currentKeyReader cannot be null");
             Preconditions.checkNotNull(currentValueReader, "currentValueReader cannot be null");
             Preconditions.checkNotNull(event, "event cannot be null");
-            Preconditions.checkNotNull(parser, "parser cannot be null");
+            Preconditions.checkNotNull(extractor, "extractor cannot be null");
 
             event.clear();
             event.setDataType(wikiHelper.getType());
@@ -239,18 +212,19 @@ public class WikipediaRecordReader extends AggregatingRecordReader {
 
             Text rawPageText = currentValueReader.readValue();
 
-            this.parser.reset();
             String data = rawPageText.toString().trim();
 
             event.setRawData(data.getBytes());
 
+            // a single streaming pass over the page is enough to find malformed xml, without building a document
             try {
-                StringReader reader = new StringReader(data);
-                InputSource source = new InputSource(reader);
-                parser.parse(source);
+                extractor.open(new StringReader(data));
+                extractor.skipPage();
             } catch (Exception e) {
                 log.info("Could not parse xml: " + data);
                 event.addError(RawDataErrorNames.INVALID_XML);
+            } finally {
+                extractor.close();
             }
 
             updateEventTypeInformation(event);
@@ -0,0 +1,67 @@
+package datawave.ingest.wikipedia;
+
+import java.io.ByteArrayInputStream;
+import java.io.StringReader;
+import java.nio.charset.StandardCharsets;
+
+import javax.xml.stream.XMLStreamException;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+public class WikipediaPageExtractorTest {
+
+    private static final String PAGE = "<page>\n" + "  <title>AccessibleComputing</title>\n" + "  <ns>0</ns>\n" + "  <id>10</id>\n"
+                    + "  <redirect title=\"Computer accessibility\" />\n" + "  <revision>\n" + "    <id>381202555</id>\n"
+                    + "    <timestamp>2010-08-26T22:38:36Z</timestamp>\n" + "    <contributor>\n" + "      <username>OlEnglish</username>\n"
+                    + "      <id>7181920</id>\n" + "    </contributor>\n" + "    <comment>Reverted &amp; restored</comment>\n"
+                    + "    <text xml:space=\"preserve\">#REDIRECT [[Computer accessibility]] <![CDATA[{{R from CamelCase}}]]></text>\n" + "  </revision>\n"
+                    + "  <revision>\n" + "    <id>381202556</id>\n" + "    <timestamp>2010-08-27T22:38:36Z</timestamp>\n" + "    <comment />\n"
+                    + "    <text>second revision</text>\n" + "  </revision>\n" + "</page>";
+
+    @Test
+    public void testExtract() {
+        WikipediaPage page = new WikipediaPageExtractor().extract(new StringReader(PAGE));
+
+        Assert.assertNotNull(page);
+        Assert.assertEquals(10, page.getId());
+        Assert.assertEquals("AccessibleComputing", page.getTitle());
+        Assert.assertEquals(1282862316000L, page.getTimestamp());
+        Assert.assertEquals("Reverted & restored", page.getComments());
+        Assert.assertEquals("#REDIRECT [[Computer accessibility]] {{R from CamelCase}}", page.getText());
+    }
+
+    @Test
+    public void testExtractWithoutText() {
+        Assert.assertNull(new WikipediaPageExtractor().extract(new StringReader("<page><title>t</title><id>1</id></page>")));
+    }
+
+    @Test
+    public void testRevisionFields() throws XMLStreamException {
+        WikipediaPageExtractor extractor = new WikipediaPageExtractor();
+
+        // the extractor is reused across pages
+        for (int i = 0; i < 2; i++) {
+            extractor.open(new ByteArrayInputStream(PAGE.getBytes(StandardCharsets.UTF_8)));
+
+            Assert.assertEquals(WikipediaPageExtractor.COMMENT_ELEMENT, extractor.nextRevisionField());
+            Assert.assertEquals("Reverted & restored", extractor.getFieldText().toString());
+            Assert.assertEquals(WikipediaPageExtractor.TEXT_ELEMENT, extractor.nextRevisionField());
+            Assert.assertEquals("#REDIRECT [[Computer accessibility]] {{R from CamelCase}}", extractor.getFieldText().toString());
+            Assert.assertEquals(WikipediaPageExtractor.COMMENT_ELEMENT, extractor.nextRevisionField());
+            Assert.assertEquals("", extractor.getFieldText().toString());
+            Assert.assertEquals(WikipediaPageExtractor.TEXT_ELEMENT, extractor.nextRevisionField());
+            Assert.assertEquals("second revision", extractor.getFieldText().toString());
+            Assert.assertNull(extractor.nextRevisionField());
+
+            extractor.close();
+        }
+    }
+
+    @Test(expected = XMLStreamException.class)
+    public void testMalformedPage() throws XMLStreamException {
+        WikipediaPageExtractor extractor = new WikipediaPageExtractor();
+        extractor.open(new StringReader("<page><title>t</title><revision><text>unclosed</revision></page>"));
+        extractor.skipPage();
+    }
+}
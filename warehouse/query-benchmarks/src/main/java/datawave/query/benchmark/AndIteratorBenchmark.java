@@ -0,0 +1,61 @@
+package datawave.query.benchmark;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.apache.accumulo.core.data.Key;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.infra.Blackhole;
+
+import datawave.query.iterator.NestedIterator;
+import datawave.query.iterator.logic.AndIterator;
+import datawave.query.iterator.logic.LeapfrogAndIterator;
+
+/**
+ * Intersections of <code>FIELD_n == 'hit'</code> terms, with and without a negated term
+ */
+public class AndIteratorBenchmark extends NestedIteratorBenchmark {
+
+    public enum Engine {
+        // the multimap based merge join
+        MERGE,
+        // the array based leapfrog join
+        LEAPFROG
+    }
+
+    @Param({"2", "8", "32"})
+    private int terms;
+
+    @Param
+    private Engine engine;
+
+    @Benchmark
+    public int intersection(Blackhole blackhole) throws IOException {
+        return drain(create(includes(), null), blackhole);
+    }
+
+    @Benchmark
+    public int intersectionWithNegation(Blackhole blackhole) throws IOException {
+        List<NestedIterator<Key>> excludes = new ArrayList<>();
+        excludes.add(shard.createLeaf(InMemoryShard.FIELD_PREFIX + (NUM_FIELDS - 1), "miss0"));
+
+        return drain(create(includes(), excludes), blackhole);
+    }
+
+    private NestedIterator<Key> create(List<NestedIterator<Key>> includes, List<NestedIterator<Key>> excludes) {
+        if (engine == Engine.LEAPFROG) {
+            return new LeapfrogAndIterator<>(includes, excludes);
+        }
+        return new AndIterator<>(includes, excludes);
+    }
+
+    private List<NestedIterator<Key>> includes() {
+        List<NestedIterator<Key>> includes = new ArrayList<>(terms);
+        for (int i = 0; i < terms; i++) {
+            includes.add(shard.createLeaf(InMemoryShard.FIELD_PREFIX + i, InMemoryShard.HIT));
+        }
+        return includes;
+    }
+}
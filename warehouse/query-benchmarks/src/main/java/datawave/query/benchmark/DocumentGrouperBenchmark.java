@@ -0,0 +1,95 @@
+package datawave.query.benchmark;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.accumulo.core.data.Key;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.google.common.collect.Maps;
+
+import datawave.query.attributes.Document;
+import datawave.query.common.grouping.DocumentGrouper;
+import datawave.query.common.grouping.GroupFields;
+import datawave.query.common.grouping.Groups;
+
+/**
+ * Group-by and aggregation over the grouped <code>GENDER</code> and <code>AGE</code> fields of the in-memory shard
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class DocumentGrouperBenchmark {
+
+    private static final long SEED = 8675309L;
+
+    public enum Grouping {
+        // group by a single field
+        GENDER,
+        // group by two fields that share grouping contexts
+        GENDER_AGE,
+        // group by a single field and aggregate another
+        GENDER_AGGREGATE_AGE
+    }
+
+    @Param({"10000"})
+    private int numDocs;
+
+    @Param
+    private Grouping grouping;
+
+    private List<Map.Entry<Key,Document>> entries;
+    private GroupFields groupFields;
+
+    @Setup(Level.Trial)
+    public void setup() throws Exception {
+        List<Document> documents = InMemoryShard.create(numDocs, 4, 0.5, SEED).getDocuments();
+        entries = new ArrayList<>(documents.size());
+        for (Document document : documents) {
+            entries.add(Maps.immutableEntry(document.getMetadata(), document));
+        }
+
+        switch (grouping) {
+            case GENDER:
+                groupFields = GroupFields.from(InMemoryShard.GENDER);
+                break;
+            case GENDER_AGE:
+                groupFields = GroupFields.from(InMemoryShard.GENDER + ',' + InMemoryShard.AGE);
+                break;
+            case GENDER_AGGREGATE_AGE:
+                groupFields = GroupFields.from(InMemoryShard.GENDER);
+                groupFields.setSumFields(Collections.singleton(InMemoryShard.AGE));
+                groupFields.setAverageFields(Collections.singleton(InMemoryShard.AGE));
+                groupFields.setMaxFields(Collections.singleton(InMemoryShard.AGE));
+                break;
+            default:
+                throw new IllegalArgumentException("Unknown grouping " + grouping);
+        }
+    }
+
+    @Benchmark
+    public Groups group() {
+        Groups groups = new Groups();
+        for (Map.Entry<Key,Document> entry : entries) {
+            DocumentGrouper.group(entry, groupFields, groups);
+        }
+        return groups;
+    }
+}
@@ -0,0 +1,97 @@
+package datawave.query.benchmark;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import com.esotericsoftware.kryo.Kryo;
+import com.esotericsoftware.kryo.io.Input;
+import com.esotericsoftware.kryo.io.Output;
+
+import datawave.query.attributes.Document;
+import datawave.query.attributes.FieldNameDictionary;
+
+/**
+ * Kryo serialization of a page of documents, as done by the {@link datawave.query.function.serializer.KryoDocumentSerializer} on the tserver and the
+ * {@link datawave.query.function.deserializer.KryoDocumentDeserializer} on the webserver.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class DocumentKryoBenchmark {
+
+    private static final long SEED = 8675309L;
+
+    @Param({"100"})
+    private int pageSize;
+
+    // wide documents are dominated by field names
+    @Param({"8", "64"})
+    private int numFields;
+
+    // send each field name once per page instead of once per document
+    @Param({"false", "true"})
+    private boolean fieldDictionary;
+
+    private final Kryo kryo = new Kryo();
+    private final Output output = new Output(4096, -1);
+    private final Input input = new Input();
+
+    private List<Document> documents;
+    private List<byte[]> serialized;
+
+    @Setup(Level.Trial)
+    public void setup() throws Exception {
+        documents = InMemoryShard.create(pageSize, numFields, 0.5, SEED).getDocuments();
+
+        serialized = new ArrayList<>(documents.size());
+        FieldNameDictionary fieldNames = newFieldNames();
+        for (Document document : documents) {
+            output.clear();
+            document.write(kryo, output, fieldNames);
+            serialized.add(output.toBytes());
+        }
+    }
+
+    private FieldNameDictionary newFieldNames() {
+        return fieldDictionary ? new FieldNameDictionary() : null;
+    }
+
+    @Benchmark
+    public void write(Blackhole blackhole) {
+        FieldNameDictionary fieldNames = newFieldNames();
+        for (Document document : documents) {
+            output.clear();
+            document.write(kryo, output, fieldNames);
+            blackhole.consume(output.position());
+        }
+    }
+
+    @Benchmark
+    public void read(Blackhole blackhole) {
+        FieldNameDictionary fieldNames = newFieldNames();
+        for (byte[] bytes : serialized) {
+            input.setBuffer(bytes);
+            Document document = new Document();
+            document.read(kryo, input, fieldNames);
+            blackhole.consume(document);
+        }
+    }
+}
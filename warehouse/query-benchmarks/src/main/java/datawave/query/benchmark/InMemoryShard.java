@@ -0,0 +1,216 @@
+package datawave.query.benchmark;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.SortedMap;
+import java.util.TreeMap;
+
+import org.apache.accumulo.core.client.AccumuloClient;
+import org.apache.accumulo.core.client.BatchWriter;
+import org.apache.accumulo.core.client.BatchWriterConfig;
+import org.apache.accumulo.core.client.Scanner;
+import org.apache.accumulo.core.data.Key;
+import org.apache.accumulo.core.data.Mutation;
+import org.apache.accumulo.core.data.Range;
+import org.apache.accumulo.core.data.Value;
+import org.apache.accumulo.core.iteratorsImpl.system.SortedMapIterator;
+import org.apache.accumulo.core.security.Authorizations;
+import org.apache.accumulo.core.security.ColumnVisibility;
+import org.apache.hadoop.io.Text;
+
+import datawave.accumulo.inmemory.InMemoryAccumuloClient;
+import datawave.accumulo.inmemory.InMemoryInstance;
+import datawave.data.type.LcNoDiacriticsType;
+import datawave.data.type.NumberType;
+import datawave.data.type.Type;
+import datawave.query.attributes.Document;
+import datawave.query.attributes.DocumentKey;
+import datawave.query.attributes.TypeAttribute;
+import datawave.query.iterator.logic.IndexIterator;
+import datawave.query.iterator.logic.IndexIteratorBridge;
+import datawave.query.jexl.JexlNodeFactory;
+
+/**
+ * A single synthetic shard written to an in-memory accumulo instance. Every document carries the fields <code>FIELD_0..FIELD_n</code>, each of which holds the
+ * value {@link #HIT} with the configured density or one of a handful of filler values otherwise, plus grouped <code>GENDER</code> and <code>AGE</code> fields
+ * for the grouping benchmarks. Data is generated from a fixed seed so that results are comparable from one release to the next.
+ */
+public class InMemoryShard {
+
+    public static final String TABLE_NAME = "shard";
+    public static final String SHARD = "20240101_0";
+    public static final String DATATYPE = "datatype";
+    public static final String VISIBILITY = "PUBLIC";
+
+    public static final String FIELD_PREFIX = "FIELD_";
+    public static final String HIT = "hit";
+    public static final String GENDER = "GENDER";
+    public static final String AGE = "AGE";
+
+    private static final String FI_PREFIX = "fi\0";
+    private static final String NULL = "\0";
+    private static final Value EMPTY_VALUE = new Value();
+    private static final String[] GENDERS = {"male", "female", "unknown"};
+
+    private final AccumuloClient client;
+    private final Authorizations auths = new Authorizations(VISIBILITY);
+    private final int numFields;
+
+    // field index entries are scanned once and cached, benchmarks only pay for the iteration
+    private final Map<String,SortedMap<Key,Value>> fieldIndexCache = new HashMap<>();
+
+    private InMemoryShard(AccumuloClient client, int numFields) {
+        this.client = client;
+        this.numFields = numFields;
+    }
+
+    /**
+     * Write a new shard to a fresh in-memory instance
+     *
+     * @param numDocs
+     *            the number of documents to write
+     * @param numFields
+     *            the number of <code>FIELD_n</code> fields per document
+     * @param density
+     *            the probability that a given field holds the value {@link #HIT}
+     * @param seed
+     *            the random seed
+     * @return the shard
+     * @throws Exception
+     *             if the in-memory table could not be written
+     */
+    public static InMemoryShard create(int numDocs, int numFields, double density, long seed) throws Exception {
+        InMemoryInstance instance = new InMemoryInstance(InMemoryShard.class.getName() + '-' + seed);
+        AccumuloClient client = new InMemoryAccumuloClient("root", instance);
+        client.tableOperations().create(TABLE_NAME);
+        client.securityOperations().changeUserAuthorizations("root", new Authorizations(VISIBILITY));
+
+        Random random = new Random(seed);
+        ColumnVisibility cv = new ColumnVisibility(VISIBILITY);
+        try (BatchWriter writer = client.createBatchWriter(TABLE_NAME, new BatchWriterConfig())) {
+            for (int i = 0; i < numDocs; i++) {
+                String uid = String.format("uid-%08d", i);
+                Mutation m = new Mutation(SHARD);
+
+                for (int f = 0; f < numFields; f++) {
+                    String value = random.nextDouble() < density ? HIT : "miss" + random.nextInt(16);
+                    put(m, FIELD_PREFIX + f, uid, value, cv);
+                }
+
+                int persons = 1 + random.nextInt(3);
+                for (int p = 0; p < persons; p++) {
+                    put(m, GENDER + ".PERSON." + p, uid, GENDERS[random.nextInt(GENDERS.length)], cv);
+                    put(m, AGE + ".PERSON." + p, uid, Integer.toString(18 + random.nextInt(60)), cv);
+                }
+
+                writer.addMutation(m);
+            }
+        }
+
+        return new InMemoryShard(client, numFields);
+    }
+
+    private static void put(Mutation m, String field, String uid, String value, ColumnVisibility cv) {
+        String baseField = field.contains(".") ? field.substring(0, field.indexOf('.')) : field;
+        m.put(DATATYPE + NULL + uid, field + NULL + value, cv, EMPTY_VALUE);
+        m.put(FI_PREFIX + baseField, value + NULL + DATATYPE + NULL + uid, cv, EMPTY_VALUE);
+    }
+
+    public int getNumFields() {
+        return numFields;
+    }
+
+    public List<String> getFields() {
+        List<String> fields = new ArrayList<>(numFields);
+        for (int f = 0; f < numFields; f++) {
+            fields.add(FIELD_PREFIX + f);
+        }
+        return fields;
+    }
+
+    /**
+     * Read the field index entries for a single term
+     *
+     * @param field
+     *            the field
+     * @param value
+     *            the value
+     * @return the sorted field index keys for this term
+     */
+    public SortedMap<Key,Value> getFieldIndex(String field, String value) {
+        return fieldIndexCache.computeIfAbsent(field + NULL + value, k -> {
+            SortedMap<Key,Value> entries = new TreeMap<>();
+            String prefix = value + NULL;
+            try (Scanner scanner = client.createScanner(TABLE_NAME, auths)) {
+                scanner.setRange(new Range(SHARD));
+                scanner.fetchColumnFamily(new Text(FI_PREFIX + field));
+                for (Map.Entry<Key,Value> entry : scanner) {
+                    if (entry.getKey().getColumnQualifier().toString().startsWith(prefix)) {
+                        entries.put(entry.getKey(), entry.getValue());
+                    }
+                }
+            } catch (Exception e) {
+                throw new IllegalStateException("Failed to scan field index for " + field + " == " + value, e);
+            }
+            return Collections.unmodifiableSortedMap(entries);
+        });
+    }
+
+    /**
+     * Build a fresh field index leaf for a term, as would be done by the IteratorBuildingVisitor
+     *
+     * @param field
+     *            the field
+     * @param value
+     *            the value
+     * @return an uninitialized leaf iterator
+     */
+    public IndexIteratorBridge createLeaf(String field, String value) {
+        SortedMapIterator source = new SortedMapIterator(getFieldIndex(field, value));
+        IndexIterator indexIterator = IndexIterator.builder(new Text(field), new Text(value), source).build();
+        return new IndexIteratorBridge(indexIterator, JexlNodeFactory.buildEQNode(field, value), field);
+    }
+
+    /**
+     * Aggregate every event in the shard into a {@link Document}
+     *
+     * @return the documents in key order
+     */
+    public List<Document> getDocuments() {
+        List<Document> documents = new ArrayList<>();
+        try (Scanner scanner = client.createScanner(TABLE_NAME, auths)) {
+            scanner.setRange(new Range(SHARD));
+            Document document = null;
+            Text currentCf = null;
+            for (Map.Entry<Key,Value> entry : scanner) {
+                Key key = entry.getKey();
+                Text cf = key.getColumnFamily();
+                if (cf.toString().startsWith(FI_PREFIX)) {
+                    continue;
+                }
+
+                if (!cf.equals(currentCf)) {
+                    currentCf = new Text(cf);
+                    Key docKey = new Key(key.getRow(), cf, new Text(), key.getColumnVisibility(), key.getTimestamp());
+                    document = new Document(docKey, true);
+                    document.put(Document.DOCKEY_FIELD_NAME, new DocumentKey(docKey, true));
+                    documents.add(document);
+                }
+
+                String cq = key.getColumnQualifier().toString();
+                int index = cq.indexOf(NULL);
+                String field = cq.substring(0, index);
+                String value = cq.substring(index + 1);
+                Type<?> type = field.startsWith(AGE) ? new NumberType(value) : new LcNoDiacriticsType(value);
+                document.put(field, new TypeAttribute<>(type, document.getMetadata(), true), true);
+            }
+        } catch (Exception e) {
+            throw new IllegalStateException("Failed to read documents from shard " + SHARD, e);
+        }
+        return documents;
+    }
+}
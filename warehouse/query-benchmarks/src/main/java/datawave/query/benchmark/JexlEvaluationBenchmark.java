@@ -0,0 +1,92 @@
+package datawave.query.benchmark;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.accumulo.core.data.Key;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import datawave.query.attributes.Document;
+import datawave.query.function.JexlEvaluation;
+import datawave.query.jexl.DatawaveJexlContext;
+import datawave.query.util.Tuple3;
+
+/**
+ * Evaluation of common query shapes against documents aggregated from the in-memory shard. Contexts are populated once per trial, so only
+ * {@link JexlEvaluation#apply(Tuple3)} is measured.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class JexlEvaluationBenchmark {
+
+    private static final long SEED = 8675309L;
+
+    public enum QueryShape {
+        // @formatter:off
+        INTERSECTION("FIELD_0 == 'hit' && FIELD_1 == 'hit' && FIELD_2 == 'hit'"),
+        UNION("FIELD_0 == 'miss1' || FIELD_1 == 'miss2' || FIELD_2 == 'miss3' || FIELD_3 == 'hit'"),
+        REGEX("FIELD_0 =~ 'mis.*3' && GENDER == 'female'"),
+        FILTER("FIELD_0 == 'hit' && filter:includeRegex(GENDER, 'fem.*')");
+        // @formatter:on
+
+        private final String query;
+
+        QueryShape(String query) {
+            this.query = query;
+        }
+    }
+
+    @Param({"1000"})
+    private int numDocs;
+
+    @Param({"16"})
+    private int numFields;
+
+    @Param
+    private QueryShape shape;
+
+    private JexlEvaluation evaluation;
+    private List<Tuple3<Key,Document,DatawaveJexlContext>> inputs;
+
+    @Setup(Level.Trial)
+    public void setup() throws Exception {
+        InMemoryShard shard = InMemoryShard.create(numDocs, numFields, 0.5, SEED);
+
+        List<String> fields = new ArrayList<>(shard.getFields());
+        fields.add(InMemoryShard.GENDER);
+        fields.add(InMemoryShard.AGE);
+
+        inputs = new ArrayList<>(numDocs);
+        for (Document document : shard.getDocuments()) {
+            DatawaveJexlContext context = new DatawaveJexlContext();
+            document.visit(fields, context);
+            inputs.add(new Tuple3<>(document.getMetadata(), document, context));
+        }
+
+        evaluation = new JexlEvaluation(shape.query);
+    }
+
+    @Benchmark
+    public void apply(Blackhole blackhole) {
+        for (Tuple3<Key,Document,DatawaveJexlContext> input : inputs) {
+            blackhole.consume(evaluation.apply(input));
+        }
+    }
+}
@@ -0,0 +1,75 @@
+package datawave.query.benchmark;
+
+import java.io.IOException;
+import java.util.Collections;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.accumulo.core.data.Key;
+import org.apache.accumulo.core.data.Range;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import datawave.query.iterator.NestedIterator;
+
+/**
+ * Common state for the field index logic benchmarks. A single shard is written per trial and every invocation builds a fresh iterator tree over it, the same
+ * way a seek on the tserver would.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public abstract class NestedIteratorBenchmark {
+
+    protected static final int NUM_FIELDS = 32;
+    protected static final long SEED = 8675309L;
+
+    @Param({"20000"})
+    protected int numDocs;
+
+    @Param({"0.2", "0.8"})
+    protected double density;
+
+    protected InMemoryShard shard;
+
+    @Setup(Level.Trial)
+    public void setupShard() throws Exception {
+        shard = InMemoryShard.create(numDocs, NUM_FIELDS, density, SEED);
+    }
+
+    /**
+     * Seek, initialize and exhaust the iterator
+     *
+     * @param itr
+     *            the root of the iterator tree
+     * @param blackhole
+     *            sink for the returned keys
+     * @return the number of keys returned
+     * @throws IOException
+     *             if the seek fails
+     */
+    protected static int drain(NestedIterator<Key> itr, Blackhole blackhole) throws IOException {
+        itr.seek(new Range(), Collections.emptyList(), false);
+        itr.initialize();
+
+        int count = 0;
+        while (itr.hasNext()) {
+            blackhole.consume(itr.next());
+            blackhole.consume(itr.document());
+            count++;
+        }
+        return count;
+    }
+}
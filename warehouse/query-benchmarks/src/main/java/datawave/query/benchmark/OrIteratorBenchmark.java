@@ -0,0 +1,59 @@
+package datawave.query.benchmark;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.apache.accumulo.core.data.Key;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.infra.Blackhole;
+
+import datawave.query.iterator.NestedIterator;
+import datawave.query.iterator.logic.AndIterator;
+import datawave.query.iterator.logic.OrIterator;
+
+/**
+ * Unions of distinct field index terms, approximating the shape of an expanded regex
+ */
+public class OrIteratorBenchmark extends NestedIteratorBenchmark {
+
+    // the filler values miss1..miss15 give 15 x NUM_FIELDS distinct terms
+    @Param({"4", "32", "256"})
+    private int terms;
+
+    @Benchmark
+    public int union(Blackhole blackhole) throws IOException {
+        OrIterator<Key> itr = new OrIterator<>(includes());
+        return drain(itr, blackhole);
+    }
+
+    /**
+     * An expanded regex anchored by an equality term, which drives the union through <code>move</code> rather than <code>next</code>
+     *
+     * @param blackhole
+     *            sink for the returned keys
+     * @return the number of keys returned
+     * @throws IOException
+     *             if the seek fails
+     */
+    @Benchmark
+    public int unionWithinIntersection(Blackhole blackhole) throws IOException {
+        List<NestedIterator<Key>> includes = new ArrayList<>();
+        includes.add(shard.createLeaf(InMemoryShard.FIELD_PREFIX + (NUM_FIELDS - 1), InMemoryShard.HIT));
+        includes.add(new OrIterator<>(includes()));
+
+        AndIterator<Key> itr = new AndIterator<>(includes);
+        return drain(itr, blackhole);
+    }
+
+    private List<NestedIterator<Key>> includes() {
+        List<NestedIterator<Key>> includes = new ArrayList<>(terms);
+        for (int i = 0; i < terms; i++) {
+            String field = InMemoryShard.FIELD_PREFIX + (i % NUM_FIELDS);
+            String value = "miss" + (1 + (i / NUM_FIELDS) % 15);
+            includes.add(shard.createLeaf(field, value));
+        }
+        return includes;
+    }
+}
@@ -0,0 +1,101 @@
+package datawave.query.benchmark;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.accumulo.core.data.Key;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import com.google.common.collect.Maps;
+
+import datawave.query.attributes.Document;
+import datawave.query.attributes.TemporalGranularity;
+import datawave.query.attributes.UniqueFields;
+import datawave.query.transformer.UniqueTransform;
+
+/**
+ * Bloom filter based uniqueness over the documents of the in-memory shard. A new transform is built for each invocation since it is stateful, the build itself
+ * is not measured.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class UniqueTransformBenchmark {
+
+    private static final long SEED = 8675309L;
+
+    public enum Fields {
+        // low cardinality grouped field, most documents are duplicates
+        GENDER(InMemoryShard.GENDER),
+        // higher cardinality combination, most documents are unique
+        GENDER_AGE(InMemoryShard.GENDER, InMemoryShard.AGE),
+        // several ungrouped fields
+        FIELDS(InMemoryShard.FIELD_PREFIX + 0, InMemoryShard.FIELD_PREFIX + 1, InMemoryShard.FIELD_PREFIX + 2);
+
+        private final String[] fields;
+
+        Fields(String... fields) {
+            this.fields = fields;
+        }
+    }
+
+    @Param({"10000"})
+    private int numDocs;
+
+    @Param
+    private Fields fields;
+
+    private List<Map.Entry<Key,Document>> entries;
+    private UniqueTransform transform;
+
+    @Setup(Level.Trial)
+    public void setupShard() throws Exception {
+        List<Document> documents = InMemoryShard.create(numDocs, 4, 0.5, SEED).getDocuments();
+        entries = new ArrayList<>(documents.size());
+        for (Document document : documents) {
+            entries.add(Maps.immutableEntry(document.getMetadata(), document));
+        }
+    }
+
+    @Setup(Level.Invocation)
+    public void setupTransform() throws IOException {
+        UniqueFields uniqueFields = new UniqueFields();
+        for (String field : fields.fields) {
+            uniqueFields.put(field, TemporalGranularity.ALL);
+        }
+        transform = new UniqueTransform.Builder().withUniqueFields(uniqueFields).withQueryExecutionForPageTimeout(Long.MAX_VALUE).build();
+    }
+
+    @Benchmark
+    public int unique(Blackhole blackhole) {
+        int unique = 0;
+        Iterator<Map.Entry<Key,Document>> itr = transform.getIterator(entries.iterator());
+        while (itr.hasNext()) {
+            Map.Entry<Key,Document> entry = itr.next();
+            if (entry != null) {
+                blackhole.consume(entry);
+                unique++;
+            }
+        }
+        return unique;
+    }
+}
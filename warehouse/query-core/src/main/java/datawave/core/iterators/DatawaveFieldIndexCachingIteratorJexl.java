@@ -98,6 +98,7 @@ public abstract class DatawaveFieldIndexCachingIteratorJexl extends WrappingIter
         private long maxResults = -1;
         private long scanThreshold = 10000;
         private int hdfsBackedSetBufferSize = 10000;
+        private boolean offHeapBuffer = false;
         private int maxOpenFiles = 100;
         private int numRetries = 2;
         private FileSortedSet.PersistOptions persistOptions = new FileSortedSet.PersistOptions();
@@ -179,6 +180,11 @@ public abstract class DatawaveFieldIndexCachingIteratorJexl extends WrappingIter
             return self();
         }
 
+        public B withOffHeapBuffer(boolean offHeapBuffer) {
+            this.offHeapBuffer = offHeapBuffer;
+            return self();
+        }
+
         public B withMaxRangeSplit(int maxRangeSplit) {
             this.maxRangeSplit = maxRangeSplit;
             return self();
@@ -324,6 +330,8 @@ public abstract class DatawaveFieldIndexCachingIteratorJexl extends WrappingIter
     private final long scanThreshold;
     // the number of entries to cache in memory before flushing to hdfs
     private final int hdfsBackedSetBufferSize;
+    // are the entries cached in memory held off heap
+    private final boolean offHeapBuffer;
     // the max number of files to open simultaneously during a merge source
     private final int maxOpenFiles;
     // the max number of retries when attempting to persist a sorted set to a filesystem
@@ -416,6 +424,7 @@ public abstract class DatawaveFieldIndexCachingIteratorJexl extends WrappingIter
         this.allowDirReuse = false;
         this.scanThreshold = 10000;
         this.hdfsBackedSetBufferSize = 10000;
+        this.offHeapBuffer = false;
         this.maxOpenFiles = 100;
         this.numRetries = 2;
         this.maxRangeSplit = 11;
@@ -471,6 +480,7 @@ public abstract class DatawaveFieldIndexCachingIteratorJexl extends WrappingIter
         this.scanTimeout = builder.scanTimeout;
         this.maxResults = builder.maxResults;
         this.hdfsBackedSetBufferSize = builder.hdfsBackedSetBufferSize;
+        this.offHeapBuffer = builder.offHeapBuffer;
         this.maxOpenFiles = builder.maxOpenFiles;
         this.numRetries = builder.numRetries;
         this.persistOptions = builder.persistOptions;
@@ -516,6 +526,7 @@ public abstract class DatawaveFieldIndexCachingIteratorJexl extends WrappingIter
         this.scanTimeout = other.scanTimeout;
         this.maxResults = other.maxResults;
         this.hdfsBackedSetBufferSize = other.hdfsBackedSetBufferSize;
+        this.offHeapBuffer = other.offHeapBuffer;
         this.maxOpenFiles = other.maxOpenFiles;
         this.numRetries = other.numRetries;
         this.persistOptions = other.persistOptions;
@@ -1415,7 +1426,7 @@ public abstract class DatawaveFieldIndexCachingIteratorJexl extends WrappingIter
             // noinspection unchecked
             this.set = (HdfsBackedSortedSet<Key>) HdfsBackedSortedSet.builder().withBufferPersistThreshold(hdfsBackedSetBufferSize)
                             .withIvaratorCacheDirs(ivaratorCacheDirs).withUniqueSubPath(row).withMaxOpenFiles(maxOpenFiles).withNumRetries(numRetries)
-                            .withPersistOptions(persistOptions).withSetFactory(new FileKeySortedSet.Factory()).build();
+                            .withPersistOptions(persistOptions).withSetFactory(new FileKeySortedSet.Factory(offHeapBuffer)).build();
 
             this.threadSafeSet = Collections.synchronizedSortedSet(this.set);
             this.currentRow = row;
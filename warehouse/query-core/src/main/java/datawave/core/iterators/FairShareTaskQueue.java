@@ -0,0 +1,440 @@
+package datawave.core.iterators;
+
+import java.util.AbstractQueue;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.TreeMap;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.ToIntFunction;
+
+/**
+ * The work queue of a {@link FairShareThreadPoolExecutor}. The tasks of each query are kept in a queue of their own, and the queries with tasks waiting take
+ * turns in deficit round robin order: on its turn a query may start as many tasks as its weight before the next query gets a turn. A query that already has
+ * the maximum number of tasks running per query is passed over until one of them completes.
+ * <p>
+ * Tasks that are not a {@link FairShareThreadPoolExecutor.QueryTask} are all queued as one query.
+ */
+public class FairShareTaskQueue extends AbstractQueue<Runnable> implements BlockingQueue<Runnable> {
+
+    static final String UNKNOWN_QUERY = "";
+
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition notEmpty = lock.newCondition();
+
+    private final Map<String,QueryQueue> queries = new HashMap<>();
+    // the queries with tasks waiting, in the order of their turns
+    private final ArrayDeque<QueryQueue> turns = new ArrayDeque<>();
+    private int size = 0;
+
+    private volatile int maxRunningPerQuery = 0;
+    private volatile ToIntFunction<String> weights = queryId -> 1;
+
+    /**
+     * @param maxRunningPerQuery
+     *            the maximum number of tasks of a query that may run at once, or 0 for no maximum
+     */
+    public void setMaxRunningPerQuery(int maxRunningPerQuery) {
+        lock.lock();
+        try {
+            this.maxRunningPerQuery = maxRunningPerQuery;
+            // a higher maximum may allow waiting tasks to start
+            notEmpty.signalAll();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public int getMaxRunningPerQuery() {
+        return maxRunningPerQuery;
+    }
+
+    /**
+     * @param weights
+     *            the number of tasks a query may start on each of its turns, by query id. Looked up when a query gets tasks waiting.
+     */
+    public void setWeights(ToIntFunction<String> weights) {
+        this.weights = weights;
+    }
+
+    @Override
+    public boolean offer(Runnable task) {
+        Objects.requireNonNull(task);
+        lock.lock();
+        try {
+            String queryId = getQueryId(task);
+            QueryQueue query = queries.computeIfAbsent(queryId, QueryQueue::new);
+            if (query.tasks.isEmpty()) {
+                query.weight = Math.max(1, weights.applyAsInt(queryId));
+                query.deficit = 0;
+                turns.addLast(query);
+            }
+            query.tasks.addLast(new Node(task, System.nanoTime()));
+            size++;
+            notEmpty.signal();
+            return true;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public boolean offer(Runnable task, long timeout, TimeUnit unit) {
+        return offer(task);
+    }
+
+    @Override
+    public void put(Runnable task) {
+        offer(task);
+    }
+
+    @Override
+    public Runnable poll() {
+        lock.lock();
+        try {
+            return dequeue();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public Runnable poll(long timeout, TimeUnit unit) throws InterruptedException {
+        long nanos = unit.toNanos(timeout);
+        lock.lockInterruptibly();
+        try {
+            Runnable task;
+            while ((task = dequeue()) == null) {
+                if (nanos <= 0) {
+                    return null;
+                }
+                nanos = notEmpty.awaitNanos(nanos);
+            }
+            return task;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public Runnable take() throws InterruptedException {
+        lock.lockInterruptibly();
+        try {
+            Runnable task;
+            while ((task = dequeue()) == null) {
+                notEmpty.await();
+            }
+            return task;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Take the next task of the query whose turn it is, skipping the queries at their maximum number of running tasks. Must be called holding the lock.
+     *
+     * @return the task, or null if no query may start a task
+     */
+    private Runnable dequeue() {
+        int maxRunning = maxRunningPerQuery;
+        for (int i = turns.size(); i > 0; i--) {
+            QueryQueue query = turns.peekFirst();
+            if (maxRunning > 0 && query.running >= maxRunning) {
+                // pass the turn on
+                query.deficit = 0;
+                turns.addLast(turns.pollFirst());
+                continue;
+            }
+
+            if (query.deficit <= 0) {
+                query.deficit += query.weight;
+            }
+            Node node = query.tasks.pollFirst();
+            query.deficit--;
+            query.running++;
+            size--;
+
+            long waitNanos = System.nanoTime() - node.enqueued;
+            query.started++;
+            query.totalWaitNanos += waitNanos;
+            query.maxWaitNanos = Math.max(query.maxWaitNanos, waitNanos);
+
+            if (query.tasks.isEmpty()) {
+                turns.pollFirst();
+                query.deficit = 0;
+            } else if (query.deficit <= 0) {
+                turns.addLast(turns.pollFirst());
+            }
+            return node.task;
+        }
+        return null;
+    }
+
+    /**
+     * Note that a task taken from this queue has completed, allowing another task of its query to start
+     *
+     * @param task
+     *            the task
+     */
+    public void completed(Runnable task) {
+        lock.lock();
+        try {
+            QueryQueue query = queries.get(getQueryId(task));
+            if (query != null) {
+                query.running--;
+                removeIfIdle(query);
+                if (maxRunningPerQuery > 0) {
+                    notEmpty.signal();
+                }
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void removeIfIdle(QueryQueue query) {
+        if (query.running <= 0 && query.tasks.isEmpty()) {
+            queries.remove(query.queryId);
+        }
+    }
+
+    @Override
+    public Runnable peek() {
+        lock.lock();
+        try {
+            int maxRunning = maxRunningPerQuery;
+            for (QueryQueue query : turns) {
+                if (maxRunning <= 0 || query.running < maxRunning) {
+                    return query.tasks.peekFirst().task;
+                }
+            }
+            return null;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public boolean remove(Object o) {
+        lock.lock();
+        try {
+            for (QueryQueue query : turns) {
+                for (Iterator<Node> it = query.tasks.iterator(); it.hasNext();) {
+                    if (it.next().task.equals(o)) {
+                        it.remove();
+                        size--;
+                        if (query.tasks.isEmpty()) {
+                            turns.remove(query);
+                            query.deficit = 0;
+                            removeIfIdle(query);
+                        }
+                        return true;
+                    }
+                }
+            }
+            return false;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public int size() {
+        lock.lock();
+        try {
+            return size;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public int remainingCapacity() {
+        return Integer.MAX_VALUE;
+    }
+
+    @Override
+    public int drainTo(Collection<? super Runnable> c) {
+        return drainTo(c, Integer.MAX_VALUE);
+    }
+
+    @Override
+    public int drainTo(Collection<? super Runnable> c, int maxElements) {
+        lock.lock();
+        try {
+            int drained = 0;
+            while (drained < maxElements && !turns.isEmpty()) {
+                QueryQueue query = turns.peekFirst();
+                c.add(query.tasks.pollFirst().task);
+                size--;
+                drained++;
+                if (query.tasks.isEmpty()) {
+                    turns.pollFirst();
+                    query.deficit = 0;
+                    removeIfIdle(query);
+                }
+            }
+            return drained;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * @return a snapshot of the tasks waiting, query by query in the order of their turns
+     */
+    @Override
+    public Iterator<Runnable> iterator() {
+        List<Runnable> tasks = new ArrayList<>();
+        lock.lock();
+        try {
+            for (QueryQueue query : turns) {
+                for (Node node : query.tasks) {
+                    tasks.add(node.task);
+                }
+            }
+        } finally {
+            lock.unlock();
+        }
+
+        Iterator<Runnable> it = tasks.iterator();
+        return new Iterator<>() {
+            private Runnable last = null;
+
+            @Override
+            public boolean hasNext() {
+                return it.hasNext();
+            }
+
+            @Override
+            public Runnable next() {
+                last = it.next();
+                return last;
+            }
+
+            @Override
+            public void remove() {
+                if (last == null) {
+                    throw new IllegalStateException();
+                }
+                FairShareTaskQueue.this.remove(last);
+                last = null;
+            }
+        };
+    }
+
+    /**
+     * @return the running and waiting tasks of each query with tasks running or waiting, and how long their tasks have waited to start
+     */
+    public Map<String,QueryStats> getStats() {
+        Map<String,QueryStats> stats = new TreeMap<>();
+        lock.lock();
+        try {
+            for (QueryQueue query : queries.values()) {
+                stats.put(query.queryId, new QueryStats(query));
+            }
+        } finally {
+            lock.unlock();
+        }
+        return stats;
+    }
+
+    private static String getQueryId(Runnable task) {
+        String queryId = null;
+        if (task instanceof FairShareThreadPoolExecutor.QueryTask) {
+            queryId = ((FairShareThreadPoolExecutor.QueryTask<?>) task).getQueryId();
+        }
+        return queryId == null ? UNKNOWN_QUERY : queryId;
+    }
+
+    private static class Node {
+        private final Runnable task;
+        private final long enqueued;
+
+        private Node(Runnable task, long enqueued) {
+            this.task = task;
+            this.enqueued = enqueued;
+        }
+    }
+
+    private static class QueryQueue {
+        private final String queryId;
+        private final ArrayDeque<Node> tasks = new ArrayDeque<>();
+        private int weight = 1;
+        private int deficit = 0;
+        private int running = 0;
+        private long started = 0;
+        private long totalWaitNanos = 0;
+        private long maxWaitNanos = 0;
+
+        private QueryQueue(String queryId) {
+            this.queryId = queryId;
+        }
+    }
+
+    /**
+     * The tasks of a query at the time the stats were taken
+     */
+    public static class QueryStats {
+        private final int weight;
+        private final int running;
+        private final int waiting;
+        private final long started;
+        private final long totalWaitMs;
+        private final long maxWaitMs;
+
+        private QueryStats(QueryQueue query) {
+            this.weight = query.weight;
+            this.running = query.running;
+            this.waiting = query.tasks.size();
+            this.started = query.started;
+            this.totalWaitMs = TimeUnit.NANOSECONDS.toMillis(query.totalWaitNanos);
+            this.maxWaitMs = TimeUnit.NANOSECONDS.toMillis(query.maxWaitNanos);
+        }
+
+        public int getWeight() {
+            return weight;
+        }
+
+        public int getRunning() {
+            return running;
+        }
+
+        /**
+         * @return the depth of the queue of the query
+         */
+        public int getWaiting() {
+            return waiting;
+        }
+
+        public long getStarted() {
+            return started;
+        }
+
+        public long getTotalWaitMs() {
+            return totalWaitMs;
+        }
+
+        public long getMaxWaitMs() {
+            return maxWaitMs;
+        }
+
+        public long getAverageWaitMs() {
+            return started == 0 ? 0 : totalWaitMs / started;
+        }
+
+        @Override
+        public String toString() {
+            return "weight:" + weight + " running:" + running + " waiting:" + waiting + " started:" + started + " avgWaitMs:" + getAverageWaitMs()
+                            + " maxWaitMs:" + maxWaitMs;
+        }
+    }
+}
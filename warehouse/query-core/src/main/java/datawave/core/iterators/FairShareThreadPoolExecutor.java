@@ -0,0 +1,89 @@
+package datawave.core.iterators;
+
+import java.util.Map;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.function.ToIntFunction;
+
+/**
+ * A fixed size thread pool that shares its threads fairly between queries instead of running tasks first come first served. Tasks submitted as a
+ * {@link QueryTask} are queued per query in a {@link FairShareTaskQueue}, so one query with many tasks waiting cannot hold back the tasks of the others.
+ */
+public class FairShareThreadPoolExecutor extends ThreadPoolExecutor {
+
+    public FairShareThreadPoolExecutor(int threads, long keepAliveTime, TimeUnit unit, ThreadFactory threadFactory) {
+        super(threads, threads, keepAliveTime, unit, new FairShareTaskQueue(), threadFactory);
+    }
+
+    /**
+     * Queue a task. Unlike a plain ThreadPoolExecutor, a task is never handed directly to a new thread as this would bypass the queue picking the next task.
+     * A thread is started without a task instead, which then takes the next task from the queue.
+     */
+    @Override
+    public void execute(Runnable command) {
+        if (isShutdown()) {
+            getRejectedExecutionHandler().rejectedExecution(command, this);
+            return;
+        }
+        getQueue().offer(command);
+        prestartCoreThread();
+    }
+
+    @Override
+    protected void afterExecute(Runnable r, Throwable t) {
+        super.afterExecute(r, t);
+        getFairShareQueue().completed(r);
+    }
+
+    public FairShareTaskQueue getFairShareQueue() {
+        return (FairShareTaskQueue) getQueue();
+    }
+
+    /**
+     * @param maxThreadsPerQuery
+     *            the maximum number of threads a query may use at once, or 0 for no maximum
+     */
+    public void setMaxThreadsPerQuery(int maxThreadsPerQuery) {
+        getFairShareQueue().setMaxRunningPerQuery(maxThreadsPerQuery);
+    }
+
+    public int getMaxThreadsPerQuery() {
+        return getFairShareQueue().getMaxRunningPerQuery();
+    }
+
+    /**
+     * @param weights
+     *            the relative share of the threads of a query, by query id
+     */
+    public void setWeights(ToIntFunction<String> weights) {
+        getFairShareQueue().setWeights(weights);
+    }
+
+    /**
+     * @return the running and waiting tasks of each active query, and how long their tasks waited for a thread
+     */
+    public Map<String,FairShareTaskQueue.QueryStats> getQueryStats() {
+        return getFairShareQueue().getStats();
+    }
+
+    /**
+     * A task run on behalf of a query
+     *
+     * @param <V>
+     *            the result type
+     */
+    public static class QueryTask<V> extends FutureTask<V> {
+        private final String queryId;
+
+        public QueryTask(Runnable runnable, V result, String queryId) {
+            super(runnable, result);
+            this.queryId = queryId;
+        }
+
+        public String getQueryId() {
+            return queryId;
+        }
+    }
+}
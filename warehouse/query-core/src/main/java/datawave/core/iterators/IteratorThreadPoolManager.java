@@ -3,11 +3,12 @@ package datawave.core.iterators;
 import static datawave.core.iterators.IvaratorRunnable.Status.CREATED;
 import static datawave.core.iterators.IvaratorRunnable.Status.RUNNING;
 
+import java.util.Collections;
+import java.util.HashMap;
 import java.util.Map;
 import java.util.TreeMap;
 import java.util.concurrent.Executors;
 import java.util.concurrent.Future;
-import java.util.concurrent.LinkedBlockingQueue;
 import java.util.concurrent.ThreadFactory;
 import java.util.concurrent.ThreadPoolExecutor;
 import java.util.concurrent.TimeUnit;
@@ -23,23 +24,40 @@ import org.checkerframework.checker.index.qual.NonNegative;
 import com.github.benmanes.caffeine.cache.Cache;
 import com.github.benmanes.caffeine.cache.Caffeine;
 import com.github.benmanes.caffeine.cache.Expiry;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
 import com.google.common.util.concurrent.ThreadFactoryBuilder;
 
+import datawave.query.iterator.QueryOptionsCache;
+import datawave.query.util.sortedset.OffHeapArena;
+
 /**
  *
  */
 public class IteratorThreadPoolManager {
     private static final Logger log = Logger.getLogger(IteratorThreadPoolManager.class);
     private static final String IVARATOR_THREAD_PROP = "tserver.datawave.ivarator.threads";
+    private static final String IVARATOR_MAX_THREADS_PER_QUERY_PROP = "tserver.datawave.ivarator.maxThreadsPerQuery";
     private static final String IVARATOR_THREAD_NAME = "DATAWAVE Ivarator";
     private static final String EVALUATOR_THREAD_PROP = "tserver.datawave.evaluation.threads";
+    private static final String EVALUATOR_MAX_THREADS_PER_QUERY_PROP = "tserver.datawave.evaluation.maxThreadsPerQuery";
     private static final String EVALUATOR_THREAD_NAME = "DATAWAVE Evaluation";
     private static final int DEFAULT_THREAD_POOL_SIZE = 100;
+    // 0 means that a single query may use all the threads of a pool
+    private static final int DEFAULT_MAX_THREADS_PER_QUERY = 0;
+    // the relative share of the threads given to the queries of each pool, e.g. HIGH:4,NORMAL:2,LOW:1. Unlisted pools have a weight of 1.
+    private static final String POOL_WEIGHTS_PROP = "tserver.datawave.poolWeights";
+    private static final long QUERY_POOL_TIMEOUT_MINUTES = 60;
     private static final String IVARATOR_RUNNABLE_TIMEOUT_MINUTES_PROP = "tserver.datawave.ivarator.runnableTimeoutMinutes";
     private static final long DEFAULT_IVARATOR_RUNNABLE_TIMEOUT_MINUTES = 60;
+    // the direct memory shared by the off heap ivarator buffers of this tserver
+    private static final String IVARATOR_OFF_HEAP_BUFFER_BYTES_PROP = "tserver.datawave.ivarator.offHeapBufferBytes";
+    private static final String QUERY_OPTIONS_CACHE_SIZE_PROP = "tserver.datawave.queryOptions.cacheSize";
 
-    private Map<String,ThreadPoolExecutor> threadPools = new TreeMap<>();
+    private Map<String,FairShareThreadPoolExecutor> threadPools = new TreeMap<>();
     private Cache<String,IvaratorFuture> ivaratorFutures;
+    // the pool of each query, which weighs its share of the threads
+    private Cache<String,String> queryPools = Caffeine.newBuilder().expireAfterAccess(QUERY_POOL_TIMEOUT_MINUTES, TimeUnit.MINUTES).build();
+    private volatile Map<String,Integer> poolWeights = Collections.emptyMap();
     // Each Ivarator has a scanTimeout. This is a system-wide limit which could be useful in terminating
     // all Ivarators if necessary. It is also used to ensure that abandoned IvaratorFutures are removed.
     private long ivaratorRunnableTimeoutMinutes = DEFAULT_IVARATOR_RUNNABLE_TIMEOUT_MINUTES;
@@ -58,11 +76,18 @@ public class IteratorThreadPoolManager {
             accumuloConfiguration = DefaultConfiguration.getInstance();
         }
         // create the thread pools
-        createExecutorService(IVARATOR_THREAD_PROP, IVARATOR_THREAD_NAME, env);
-        createExecutorService(EVALUATOR_THREAD_PROP, EVALUATOR_THREAD_NAME, env);
+        createExecutorService(IVARATOR_THREAD_PROP, IVARATOR_MAX_THREADS_PER_QUERY_PROP, IVARATOR_THREAD_NAME, env);
+        createExecutorService(EVALUATOR_THREAD_PROP, EVALUATOR_MAX_THREADS_PER_QUERY_PROP, EVALUATOR_THREAD_NAME, env);
         ivaratorRunnableTimeoutMinutes = getLongPropertyValue(IVARATOR_RUNNABLE_TIMEOUT_MINUTES_PROP, DEFAULT_IVARATOR_RUNNABLE_TIMEOUT_MINUTES, pluginEnv);
         log.info("Using " + ivaratorRunnableTimeoutMinutes + " minutes for " + IVARATOR_RUNNABLE_TIMEOUT_MINUTES_PROP);
-        // This thread will check for changes to ivaratorRunnableTimeoutMinutes
+        poolWeights = getPoolWeights(pluginEnv);
+        long offHeapBufferBytes = getLongPropertyValue(IVARATOR_OFF_HEAP_BUFFER_BYTES_PROP, OffHeapArena.DEFAULT_BUDGET, pluginEnv);
+        OffHeapArena.getInstance().setBudget(offHeapBufferBytes);
+        log.info("Using " + offHeapBufferBytes + " bytes for " + IVARATOR_OFF_HEAP_BUFFER_BYTES_PROP);
+        long queryOptionsCacheSize = getLongPropertyValue(QUERY_OPTIONS_CACHE_SIZE_PROP, QueryOptionsCache.DEFAULT_MAXIMUM_SIZE, pluginEnv);
+        QueryOptionsCache.setMaximumSize(queryOptionsCacheSize);
+        log.info("Using " + queryOptionsCacheSize + " for " + QUERY_OPTIONS_CACHE_SIZE_PROP);
+        // This thread will check for changes to ivaratorRunnableTimeoutMinutes, the pool weights, the off heap buffer budget and the query options cache size
         ThreadPools.getServerThreadPools().createGeneralScheduledExecutorService(accumuloConfiguration).scheduleWithFixedDelay(() -> {
             try {
                 long value = getLongPropertyValue(IVARATOR_RUNNABLE_TIMEOUT_MINUTES_PROP, DEFAULT_IVARATOR_RUNNABLE_TIMEOUT_MINUTES, pluginEnv);
@@ -70,6 +95,21 @@ public class IteratorThreadPoolManager {
                     log.info("Changing " + IVARATOR_RUNNABLE_TIMEOUT_MINUTES_PROP + " to " + value + " minutes");
                     ivaratorRunnableTimeoutMinutes = value;
                 }
+                Map<String,Integer> weights = getPoolWeights(pluginEnv);
+                if (!poolWeights.equals(weights)) {
+                    log.info("Changing " + POOL_WEIGHTS_PROP + " to " + weights);
+                    poolWeights = weights;
+                }
+                long budget = getLongPropertyValue(IVARATOR_OFF_HEAP_BUFFER_BYTES_PROP, OffHeapArena.DEFAULT_BUDGET, pluginEnv);
+                if (OffHeapArena.getInstance().getBudget() != budget) {
+                    log.info("Changing " + IVARATOR_OFF_HEAP_BUFFER_BYTES_PROP + " to " + budget + " bytes");
+                    OffHeapArena.getInstance().setBudget(budget);
+                }
+                long cacheSize = getLongPropertyValue(QUERY_OPTIONS_CACHE_SIZE_PROP, QueryOptionsCache.DEFAULT_MAXIMUM_SIZE, pluginEnv);
+                if (QueryOptionsCache.getMaximumSize() != cacheSize) {
+                    log.info("Changing " + QUERY_OPTIONS_CACHE_SIZE_PROP + " to " + cacheSize);
+                    QueryOptionsCache.setMaximumSize(cacheSize);
+                }
             } catch (Throwable t) {
                 log.error(t, t);
             }
@@ -147,9 +187,29 @@ public class IteratorThreadPoolManager {
             log.info(String.format("Ivarator threadPool max:%d, running:%d, waiting:%d, queryId/numRunning:%s", exec.getMaximumPoolSize(),
                             exec.getActiveCount(), exec.getQueue().size(), queryToTaskMap));
         }, 1, 60, TimeUnit.SECONDS);
+
+        // Log the queue depth and wait times of each query with tasks running or waiting in each thread pool, and the query options cache stats
+        ThreadPools.getServerThreadPools().createGeneralScheduledExecutorService(accumuloConfiguration).scheduleWithFixedDelay(() -> {
+            try {
+                threadPools.forEach((name, exec) -> {
+                    Map<String,FairShareTaskQueue.QueryStats> stats = exec.getQueryStats();
+                    if (!stats.isEmpty()) {
+                        log.info(String.format("%s threadPool maxPerQuery:%d, queryId/stats:%s", name, exec.getMaxThreadsPerQuery(), stats));
+                    }
+                });
+                CacheStats cacheStats = QueryOptionsCache.getStats();
+                if (cacheStats.requestCount() > 0) {
+                    log.info(String.format("QueryOptions cache size:%d, hits:%d, misses:%d, evictions:%d", QueryOptionsCache.size(), cacheStats.hitCount(),
+                                    cacheStats.missCount(), cacheStats.evictionCount()));
+                }
+            } catch (Throwable t) {
+                log.error(t, t);
+            }
+        }, 1, 60, TimeUnit.SECONDS);
     }
 
-    private ThreadPoolExecutor createExecutorService(final String prop, final String name, IteratorEnvironment env) {
+    private FairShareThreadPoolExecutor createExecutorService(final String prop, final String maxThreadsPerQueryProp, final String name,
+                    IteratorEnvironment env) {
         final PluginEnvironment pluginEnv;
         if (env != null) {
             pluginEnv = env.getPluginEnv();
@@ -157,7 +217,9 @@ public class IteratorThreadPoolManager {
             pluginEnv = null;
         }
         int maxThreads = getIntPropertyValue(prop, DEFAULT_THREAD_POOL_SIZE, pluginEnv);
-        final ThreadPoolExecutor service = createExecutorService(maxThreads, name + " (" + instanceId + ')');
+        final FairShareThreadPoolExecutor service = createExecutorService(maxThreads, name + " (" + instanceId + ')');
+        service.setMaxThreadsPerQuery(getIntPropertyValue(maxThreadsPerQueryProp, DEFAULT_MAX_THREADS_PER_QUERY, pluginEnv));
+        service.setWeights(this::getQueryWeight);
         threadPools.put(name, service);
         Executors.newScheduledThreadPool(maxThreads).scheduleWithFixedDelay(() -> {
             try {
@@ -176,6 +238,11 @@ public class IteratorThreadPoolManager {
                         service.setMaximumPoolSize(max);
                     }
                 }
+                int maxPerQuery = getIntPropertyValue(maxThreadsPerQueryProp, DEFAULT_MAX_THREADS_PER_QUERY, pluginEnv);
+                if (service.getMaxThreadsPerQuery() != maxPerQuery) {
+                    log.info("Changing " + maxThreadsPerQueryProp + " to " + maxPerQuery);
+                    service.setMaxThreadsPerQuery(maxPerQuery);
+                }
             } catch (Throwable t) {
                 log.error(t, t);
             }
@@ -183,13 +250,42 @@ public class IteratorThreadPoolManager {
         return service;
     }
 
-    private ThreadPoolExecutor createExecutorService(int maxThreads, String name) {
+    private FairShareThreadPoolExecutor createExecutorService(int maxThreads, String name) {
         ThreadFactory tf = new ThreadFactoryBuilder().setNameFormat(name + "-%d").build();
-        ThreadPoolExecutor pool = new ThreadPoolExecutor(maxThreads, maxThreads, 5, TimeUnit.MINUTES, new LinkedBlockingQueue<>(), tf);
+        FairShareThreadPoolExecutor pool = new FairShareThreadPoolExecutor(maxThreads, 5, TimeUnit.MINUTES, tf);
         pool.allowCoreThreadTimeOut(true);
         return pool;
     }
 
+    private int getQueryWeight(String queryId) {
+        String pool = queryId == null ? null : queryPools.getIfPresent(queryId);
+        if (pool != null) {
+            Integer weight = poolWeights.get(pool);
+            if (weight != null) {
+                return weight;
+            }
+        }
+        return 1;
+    }
+
+    private Map<String,Integer> getPoolWeights(PluginEnvironment pluginEnv) {
+        Map<String,Integer> weights = new HashMap<>();
+        if (pluginEnv != null && pluginEnv.getConfiguration() != null) {
+            String value = pluginEnv.getConfiguration().get(POOL_WEIGHTS_PROP);
+            if (value != null) {
+                for (String poolWeight : value.split(",")) {
+                    String[] parts = poolWeight.trim().split(":");
+                    try {
+                        weights.put(parts[0].trim(), Integer.parseInt(parts[1].trim()));
+                    } catch (Exception e) {
+                        log.error("property:" + POOL_WEIGHTS_PROP + " value:" + value + " failed to parse " + poolWeight, e);
+                    }
+                }
+            }
+        }
+        return weights;
+    }
+
     private int getIntPropertyValue(final String prop, int defaultValue, PluginEnvironment pluginEnv) {
         if (pluginEnv != null && pluginEnv.getConfiguration() != null) {
             String value = pluginEnv.getConfiguration().get(prop);
@@ -229,8 +325,8 @@ public class IteratorThreadPoolManager {
         return instance;
     }
 
-    private Future<?> execute(String name, final Runnable task, final String taskName) {
-        return threadPools.get(name).submit(() -> {
+    private Future<?> execute(String name, final Runnable task, final String taskName, final String queryId) {
+        FairShareThreadPoolExecutor.QueryTask<?> future = new FairShareThreadPoolExecutor.QueryTask<>(() -> {
             String oldName = Thread.currentThread().getName();
             Thread.currentThread().setName(oldName + " -> " + taskName);
             try {
@@ -238,7 +334,41 @@ public class IteratorThreadPoolManager {
             } finally {
                 Thread.currentThread().setName(oldName);
             }
-        });
+        }, null, queryId);
+        threadPools.get(name).execute(future);
+        return future;
+    }
+
+    /**
+     * Record the pool of a query, which weighs the share of the ivarator and evaluation threads given to its tasks against those of other queries
+     *
+     * @param queryId
+     *            the query id
+     * @param pool
+     *            the pool name
+     * @param env
+     *            the iterator environment
+     */
+    public static void setQueryPool(String queryId, String pool, IteratorEnvironment env) {
+        instance(env).queryPools.put(queryId, pool);
+    }
+
+    /**
+     * @param env
+     *            the iterator environment
+     * @return the running and waiting ivarator tasks of each query, and how long they waited for a thread
+     */
+    public static Map<String,FairShareTaskQueue.QueryStats> getIvaratorQueryStats(IteratorEnvironment env) {
+        return instance(env).threadPools.get(IVARATOR_THREAD_NAME).getQueryStats();
+    }
+
+    /**
+     * @param env
+     *            the iterator environment
+     * @return the running and waiting evaluation tasks of each query, and how long they waited for a thread
+     */
+    public static Map<String,FairShareTaskQueue.QueryStats> getEvaluationQueryStats(IteratorEnvironment env) {
+        return instance(env).threadPools.get(EVALUATOR_THREAD_NAME).getQueryStats();
     }
 
     public static IvaratorFuture getIvaratorFuture(String taskName, IteratorEnvironment env) {
@@ -287,13 +417,18 @@ public class IteratorThreadPoolManager {
     public static IvaratorFuture executeIvarator(IvaratorRunnable ivaratorRunnable, String taskName, IteratorEnvironment env) {
         IvaratorFuture future = instance(env).ivaratorFutures.getIfPresent(taskName);
         if (future == null) {
-            future = new IvaratorFuture(instance(env).execute(IVARATOR_THREAD_NAME, ivaratorRunnable, taskName), ivaratorRunnable);
+            future = new IvaratorFuture(instance(env).execute(IVARATOR_THREAD_NAME, ivaratorRunnable, taskName, ivaratorRunnable.getQueryId()),
+                            ivaratorRunnable);
             instance(env).ivaratorFutures.put(taskName, future);
         }
         return future;
     }
 
     public static Future<?> executeEvaluation(Runnable task, String taskName, IteratorEnvironment env) {
-        return instance(env).execute(EVALUATOR_THREAD_NAME, task, taskName);
+        return executeEvaluation(task, taskName, null, env);
+    }
+
+    public static Future<?> executeEvaluation(Runnable task, String taskName, String queryId, IteratorEnvironment env) {
+        return instance(env).execute(EVALUATOR_THREAD_NAME, task, taskName, queryId);
     }
 }
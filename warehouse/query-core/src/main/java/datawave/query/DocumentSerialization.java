@@ -14,9 +14,11 @@ import datawave.microservice.query.Query;
 import datawave.microservice.query.QueryImpl.Parameter;
 import datawave.query.exceptions.InvalidDocumentHeader;
 import datawave.query.exceptions.NoSuchDeserializerException;
+import datawave.query.function.deserializer.ColumnarDocumentDeserializer;
 import datawave.query.function.deserializer.DocumentDeserializer;
 import datawave.query.function.deserializer.KryoDocumentDeserializer;
 import datawave.query.function.deserializer.WritableDocumentDeserializer;
+import datawave.query.function.serializer.ColumnarDocumentSerializer;
 import datawave.query.function.serializer.DocumentSerializer;
 import datawave.query.function.serializer.KryoDocumentSerializer;
 import datawave.query.function.serializer.WritableDocumentSerializer;
@@ -30,8 +32,13 @@ import datawave.webservice.query.exception.QueryException;
  */
 public class DocumentSerialization {
 
+    /**
+     * The serialization used for documents returned by the query iterator. The <code>kryodict</code> type is the kryo serialization with field names sent once
+     * per stream through a {@link datawave.query.attributes.FieldNameDictionary}, which requires the documents of each stream to be deserialized in order. The
+     * <code>columnar</code> type batches documents into a {@link datawave.query.attributes.DocumentBlock}.
+     */
     public enum ReturnType {
-        writable, kryo, tostring, noop
+        writable, kryo, tostring, noop, kryodict, columnar
     }
 
     public static final ReturnType DEFAULT_RETURN_TYPE = ReturnType.kryo;
@@ -66,6 +73,10 @@ public class DocumentSerialization {
     public static DocumentDeserializer getDocumentDeserializer(ReturnType rt) throws NoSuchDeserializerException {
         if (ReturnType.kryo.equals(rt)) {
             return new KryoDocumentDeserializer();
+        } else if (ReturnType.kryodict.equals(rt)) {
+            return new KryoDocumentDeserializer(true);
+        } else if (ReturnType.columnar.equals(rt)) {
+            return new ColumnarDocumentDeserializer();
         } else if (ReturnType.writable.equals(rt)) {
             return new WritableDocumentDeserializer();
         } else {
@@ -81,6 +92,10 @@ public class DocumentSerialization {
     public static DocumentSerializer getDocumentSerializer(ReturnType rt) throws NoSuchDeserializerException {
         if (ReturnType.kryo.equals(rt)) {
             return new KryoDocumentSerializer();
+        } else if (ReturnType.kryodict.equals(rt)) {
+            return new KryoDocumentSerializer(false, false, true);
+        } else if (ReturnType.columnar.equals(rt)) {
+            return new ColumnarDocumentSerializer();
         } else if (ReturnType.writable.equals(rt)) {
             return new WritableDocumentSerializer(false);
         } else {
@@ -181,8 +181,13 @@ public abstract class Attribute<T extends Comparable<T>> implements WritableComp
         output.writeBoolean(isMetadataSet());
         if (isMetadataSet()) {
             byte[] cvBytes = getColumnVisibility().getExpression();
-            output.writeInt(cvBytes.length, true);
-            output.writeBytes(cvBytes);
+            if (kryo instanceof DocumentBlockKryo) {
+                // documents written into a block share a visibility dictionary
+                ((DocumentBlockKryo) kryo).writeVisibility(output, cvBytes);
+            } else {
+                output.writeInt(cvBytes.length, true);
+                output.writeBytes(cvBytes);
+            }
             output.writeLong(getTimestamp());
         }
     }
@@ -203,9 +208,15 @@ public abstract class Attribute<T extends Comparable<T>> implements WritableComp
 
     protected void readMetadata(Kryo kryo, Input input) {
         if (input.readBoolean()) {
-            int size = input.readInt(true);
+            ColumnVisibility cv;
+            if (kryo instanceof DocumentBlockKryo) {
+                cv = ((DocumentBlockKryo) kryo).readVisibility(input);
+            } else {
+                int size = input.readInt(true);
+                cv = new ColumnVisibility(input.readBytes(size));
+            }
 
-            this.setMetadata(new ColumnVisibility(input.readBytes(size)), input.readLong());
+            this.setMetadata(cv, input.readLong());
         } else {
             this.clearMetadata();
         }
@@ -320,16 +320,13 @@ public class Attributes extends AttributeBag<Attributes> implements Serializable
         this.attributes = new LinkedHashSet<>();
         for (int i = 0; i < numAttrs; i++) {
 
-            String clazzName;
+            // create the attribute and populate from the input
             int index = input.readInt(true);
-            if (index == 0) {
-                clazzName = input.readString();
-            } else {
-                clazzName = DatawaveAttributeIndex.getAttributeClassName(index);
+            Attribute<?> attr = DatawaveAttributeIndex.newAttribute(index);
+            if (attr == null) {
+                String clazzName = index == 0 ? input.readString() : DatawaveAttributeIndex.getAttributeClassName(index);
+                attr = createAttributeFromClassName(clazzName);
             }
-
-            // create the attribute and populate from the input
-            Attribute<?> attr = createAttributeFromClassName(clazzName);
             attr.read(kryo, input);
 
             // Add the attribute back to the Set
@@ -2,12 +2,13 @@ package datawave.query.attributes;
 
 import java.util.HashMap;
 import java.util.Map;
+import java.util.function.Supplier;
 import java.util.stream.Collectors;
 
 import datawave.query.common.grouping.GroupingAttribute;
 
 /**
- * A utility class that returns an index for a given Datawave {@link Attribute}
+ * A utility class that returns an index for a given Datawave {@link Attribute}, and creates empty attributes by index without going through reflection
  */
 public class DatawaveAttributeIndex {
 
@@ -43,6 +44,27 @@ public class DatawaveAttributeIndex {
         indexToClassName = classNameIndex.entrySet().stream().collect(Collectors.toMap(Map.Entry::getValue, Map.Entry::getKey));
     }
 
+    // abstract attributes and attributes without an empty constructor have no entry
+    private static final Map<Integer,Supplier<Attribute<?>>> indexToConstructor = new HashMap<>();
+    static {
+        indexToConstructor.put(2, Attributes::new);
+        indexToConstructor.put(3, Cardinality::new);
+        indexToConstructor.put(4, Content::new);
+        indexToConstructor.put(5, DiacriticContent::new);
+        indexToConstructor.put(6, DocumentKey::new);
+        indexToConstructor.put(7, GeoPoint::new);
+        indexToConstructor.put(8, Geometry::new);
+        indexToConstructor.put(10, IpAddress::new);
+        indexToConstructor.put(11, Latitude::new);
+        indexToConstructor.put(12, Longitude::new);
+        indexToConstructor.put(13, Metadata::new);
+        indexToConstructor.put(14, Numeric::new);
+        indexToConstructor.put(15, PreNormalizedAttribute::new);
+        indexToConstructor.put(16, TimingMetadata::new);
+        indexToConstructor.put(17, TypeAttribute::new);
+        indexToConstructor.put(18, WaitWindowExceededMetadata::new);
+    }
+
     /**
      * Get the index of the provided {@link Attribute} class name
      *
@@ -64,4 +86,16 @@ public class DatawaveAttributeIndex {
     public static String getAttributeClassName(int index) {
         return indexToClassName.get(index);
     }
+
+    /**
+     * Create an empty {@link Attribute} for the provided index, ready to be populated via a read method
+     *
+     * @param index
+     *            the index
+     * @return a new attribute, or null if the index has no registered constructor
+     */
+    public static Attribute<?> newAttribute(int index) {
+        Supplier<Attribute<?>> constructor = indexToConstructor.get(index);
+        return constructor == null ? null : constructor.get();
+    }
 }
@@ -792,6 +792,21 @@ public class Document extends AttributeBag<Document> implements Serializable {
 
     @Override
     public void write(Kryo kryo, Output output) {
+        write(kryo, output, null);
+    }
+
+    /**
+     * Write this document, sending the field names through the provided dictionary. The document must be read with a dictionary that has seen the same
+     * documents, in the same order.
+     *
+     * @param kryo
+     *            the kryo instance
+     * @param output
+     *            the output
+     * @param fieldNames
+     *            the field name dictionary of the stream, or null to write every field name inline
+     */
+    public void write(Kryo kryo, Output output, FieldNameDictionary fieldNames) {
         output.writeInt(this._count, true);
         output.writeBoolean(trackSizes);
         output.writeLong(this._bytes, true);
@@ -800,9 +815,13 @@ public class Document extends AttributeBag<Document> implements Serializable {
 
         for (Entry<String,Attribute<? extends Comparable<?>>> entry : this.dict.entrySet()) {
             // Write out the field name
-            // writeAscii fails to be read correctly if the value has only one character
-            // need to use writeString here
-            output.writeString(entry.getKey());
+            if (fieldNames == null) {
+                // writeAscii fails to be read correctly if the value has only one character
+                // need to use writeString here
+                output.writeString(entry.getKey());
+            } else {
+                fieldNames.writeFieldName(output, entry.getKey());
+            }
 
             Attribute<?> attribute = entry.getValue();
             int index = DatawaveAttributeIndex.getAttributeIndex(attribute.getClass().getTypeName());
@@ -820,6 +839,20 @@ public class Document extends AttributeBag<Document> implements Serializable {
 
     @Override
     public void read(Kryo kryo, Input input) {
+        read(kryo, input, null);
+    }
+
+    /**
+     * Read a document written by {@link #write(Kryo, Output, FieldNameDictionary)}
+     *
+     * @param kryo
+     *            the kryo instance
+     * @param input
+     *            the input
+     * @param fieldNames
+     *            the field name dictionary of the stream, or null if every field name was written inline
+     */
+    public void read(Kryo kryo, Input input, FieldNameDictionary fieldNames) {
         this._count = input.readInt(true);
         trackSizes = input.readBoolean();
         this._bytes = input.readLong(true);
@@ -830,18 +863,15 @@ public class Document extends AttributeBag<Document> implements Serializable {
 
         for (int i = 0; i < numAttrs; i++) {
             // Get the fieldName
-            String fieldName = input.readString();
+            String fieldName = fieldNames == null ? input.readString() : fieldNames.readFieldName(input);
 
-            String clazzName;
+            // create the attribute and populate from the input
             int index = input.readInt(true);
-            if (index == 0) {
-                clazzName = input.readString();
-            } else {
-                clazzName = DatawaveAttributeIndex.getAttributeClassName(index);
+            Attribute<?> attr = DatawaveAttributeIndex.newAttribute(index);
+            if (attr == null) {
+                String clazzName = index == 0 ? input.readString() : DatawaveAttributeIndex.getAttributeClassName(index);
+                attr = createAttributeFromClassName(clazzName);
             }
-
-            // create the attribute and populate from the input
-            Attribute<?> attr = createAttributeFromClassName(clazzName);
             attr.read(kryo, input);
 
             // Add the attribute back to the Map
@@ -853,6 +883,46 @@ public class Document extends AttributeBag<Document> implements Serializable {
         this.invalidateMetadata();
     }
 
+    /**
+     * Write everything but the attributes of this document, for a {@link DocumentBlock}
+     *
+     * @param output
+     *            the output
+     */
+    void writeHeader(Output output) {
+        output.writeInt(this._count, true);
+        output.writeBoolean(trackSizes);
+        output.writeLong(this._bytes, true);
+        output.writeLong(this.shardTimestamp);
+    }
+
+    /**
+     * Read a header written by {@link #writeHeader(Output)}, leaving this document without attributes
+     *
+     * @param input
+     *            the input
+     */
+    void readHeader(Input input) {
+        this._count = input.readInt(true);
+        trackSizes = input.readBoolean();
+        this._bytes = input.readLong(true);
+        this.shardTimestamp = input.readLong();
+        this.dict = new TreeMap<>();
+    }
+
+    /**
+     * Skip a header written by {@link #writeHeader(Output)}
+     *
+     * @param input
+     *            the input
+     */
+    static void skipHeader(Input input) {
+        input.readInt(true);
+        input.readBoolean();
+        input.readLong(true);
+        input.readLong();
+    }
+
     /**
      * Create the attribute from the provided class name, using the class cache as appropriate
      *
@@ -0,0 +1,380 @@
+package datawave.query.attributes;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
+
+import org.apache.accumulo.core.data.ByteSequence;
+import org.apache.accumulo.core.data.Key;
+
+import com.esotericsoftware.kryo.KryoException;
+import com.esotericsoftware.kryo.io.Input;
+import com.esotericsoftware.kryo.io.Output;
+
+import datawave.query.util.cache.ClassCache;
+
+/**
+ * A block of documents stored column by column. The block holds a field name dictionary and a visibility dictionary shared by all of its documents, the key
+ * and counts of each document, and then one column per field name with the attributes of every document that has that field.
+ * <p>
+ * Nothing is materialized when a block is read beyond the dictionaries and the keys. {@link #getDocument(int)} only decodes the attributes of the requested
+ * document, and is cheapest when documents are requested in order. {@link #getAttribute(int, String)} decodes a single attribute without building the
+ * document.
+ * <p>
+ * The layout of a block is:
+ *
+ * <pre>
+ * version, number of documents
+ * number of visibilities, visibility expressions
+ * number of fields, field names
+ * for each document: key, document header
+ * for each field: number of entries, length of the column, entries of (document index, attribute length, attribute)
+ * </pre>
+ */
+public class DocumentBlock {
+
+    public static final int VERSION = 1;
+
+    private static final ClassCache classCache = new ClassCache();
+
+    private final Input input;
+    private final DocumentBlockKryo kryo;
+    private final Key[] keys;
+    private final int[] headerOffsets;
+    private final String[] fieldNames;
+    private final Map<String,Integer> columnIndex;
+    private final int[] columnOffsets;
+    private final int[] columnEntries;
+
+    // cursors into each column for documents requested in order
+    private final int[] positions;
+    private final int[] remaining;
+    private int nextDocument;
+
+    /**
+     * Read a block written by {@link #write(List)}
+     *
+     * @param bytes
+     *            the block
+     */
+    public DocumentBlock(byte[] bytes) {
+        this.input = new Input(bytes);
+
+        int version = input.readInt(true);
+        if (version != VERSION) {
+            throw new KryoException("Unsupported document block version " + version);
+        }
+        int size = input.readInt(true);
+
+        int numVisibilities = input.readInt(true);
+        List<byte[]> expressions = new ArrayList<>(numVisibilities);
+        for (int i = 0; i < numVisibilities; i++) {
+            expressions.add(input.readBytes(input.readInt(true)));
+        }
+        this.kryo = new DocumentBlockKryo(expressions);
+
+        int numFields = input.readInt(true);
+        this.fieldNames = new String[numFields];
+        this.columnIndex = new HashMap<>();
+        for (int i = 0; i < numFields; i++) {
+            fieldNames[i] = input.readString();
+            columnIndex.put(fieldNames[i], i);
+        }
+
+        this.keys = new Key[size];
+        this.headerOffsets = new int[size];
+        byte[][] previous = new byte[2][];
+        for (int i = 0; i < size; i++) {
+            keys[i] = readKey(input, previous);
+            headerOffsets[i] = input.position();
+            Document.skipHeader(input);
+        }
+
+        this.columnOffsets = new int[numFields];
+        this.columnEntries = new int[numFields];
+        for (int i = 0; i < numFields; i++) {
+            columnEntries[i] = input.readInt(true);
+            int length = input.readInt(true);
+            columnOffsets[i] = input.position();
+            input.setPosition(columnOffsets[i] + length);
+        }
+
+        this.positions = new int[numFields];
+        this.remaining = new int[numFields];
+        rewind();
+    }
+
+    private void rewind() {
+        System.arraycopy(columnOffsets, 0, positions, 0, positions.length);
+        System.arraycopy(columnEntries, 0, remaining, 0, remaining.length);
+        nextDocument = 0;
+    }
+
+    /**
+     * @return the number of documents in the block
+     */
+    public int size() {
+        return keys.length;
+    }
+
+    /**
+     * @param index
+     *            the document index
+     * @return the key of the document
+     */
+    public Key getKey(int index) {
+        return keys[index];
+    }
+
+    /**
+     * Find a document by key, checking the document after the last one requested first
+     *
+     * @param key
+     *            the key
+     * @return the index of the document, or -1 if it is not in this block
+     */
+    public int indexOf(Key key) {
+        if (nextDocument < keys.length && keys[nextDocument].equals(key)) {
+            return nextDocument;
+        }
+        for (int i = 0; i < keys.length; i++) {
+            if (keys[i].equals(key)) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * @return the names of the fields held by any document in the block
+     */
+    public List<String> getFieldNames() {
+        return List.of(fieldNames);
+    }
+
+    /**
+     * Decode a document. Requesting documents in order only decodes each column once for the whole block.
+     *
+     * @param index
+     *            the document index
+     * @return the document
+     */
+    public Document getDocument(int index) {
+        if (index < 0 || index >= keys.length) {
+            throw new IndexOutOfBoundsException("Document " + index + " of a block with " + keys.length + " documents");
+        }
+        if (index < nextDocument) {
+            rewind();
+        }
+
+        Document document = new Document();
+        input.setPosition(headerOffsets[index]);
+        document.readHeader(input);
+        for (int column = 0; column < fieldNames.length; column++) {
+            if (seek(column, index)) {
+                document.dict.put(fieldNames[column], readAttribute());
+            }
+        }
+        document.invalidateMetadata();
+
+        nextDocument = index + 1;
+        return document;
+    }
+
+    /**
+     * Decode a single attribute without decoding the rest of the document
+     *
+     * @param index
+     *            the document index
+     * @param fieldName
+     *            the field name
+     * @return the attribute, or null if the document does not have the field
+     */
+    public Attribute<?> getAttribute(int index, String fieldName) {
+        Integer column = columnIndex.get(fieldName);
+        if (column == null) {
+            return null;
+        }
+        input.setPosition(columnOffsets[column]);
+        for (int i = 0; i < columnEntries[column]; i++) {
+            int document = input.readInt(true);
+            int length = input.readInt(true);
+            if (document == index) {
+                return readAttribute();
+            } else if (document > index) {
+                return null;
+            }
+            input.setPosition(input.position() + length);
+        }
+        return null;
+    }
+
+    /**
+     * Move the cursor of a column past the entries of earlier documents, leaving the input at the attribute of the requested document if it has one
+     */
+    private boolean seek(int column, int index) {
+        while (remaining[column] > 0) {
+            input.setPosition(positions[column]);
+            int document = input.readInt(true);
+            if (document > index) {
+                return false;
+            }
+            int length = input.readInt(true);
+            positions[column] = input.position() + length;
+            remaining[column]--;
+            if (document == index) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private Attribute<?> readAttribute() {
+        int index = input.readInt(true);
+        Attribute<?> attr = DatawaveAttributeIndex.newAttribute(index);
+        if (attr == null) {
+            String clazzName = index == 0 ? input.readString() : DatawaveAttributeIndex.getAttributeClassName(index);
+            attr = createAttributeFromClassName(clazzName);
+        }
+        attr.read(kryo, input);
+        return attr;
+    }
+
+    private static Attribute<?> createAttributeFromClassName(String clazzName) {
+        Class<?> clz;
+        try {
+            clz = classCache.get(clazzName);
+        } catch (ClassNotFoundException e) {
+            throw new RuntimeException(e);
+        }
+
+        if (Attribute.class.isAssignableFrom(clz)) {
+            try {
+                return (Attribute<?>) clz.getDeclaredConstructor().newInstance();
+            } catch (ReflectiveOperationException e) {
+                throw new RuntimeException(e);
+            }
+        } else {
+            throw new ClassCastException("Found class that was not an instance of Attribute");
+        }
+    }
+
+    /**
+     * Write a block of documents
+     *
+     * @param documents
+     *            the documents and their keys
+     * @return the block
+     */
+    public static byte[] write(List<? extends Entry<Key,Document>> documents) {
+        DocumentBlockKryo kryo = new DocumentBlockKryo();
+        Map<String,Column> columns = new LinkedHashMap<>();
+        Output rows = new Output(4096, -1);
+        Output scratch = new Output(1024, -1);
+
+        ByteSequence[] previous = new ByteSequence[2];
+        for (int i = 0; i < documents.size(); i++) {
+            Entry<Key,Document> entry = documents.get(i);
+            writeKey(rows, entry.getKey() == null ? new Key() : entry.getKey(), previous);
+
+            Document document = entry.getValue();
+            document.writeHeader(rows);
+            for (Entry<String,Attribute<? extends Comparable<?>>> field : document.dict.entrySet()) {
+                Attribute<?> attribute = field.getValue();
+
+                scratch.clear();
+                int index = DatawaveAttributeIndex.getAttributeIndex(attribute.getClass().getTypeName());
+                scratch.writeInt(index, true);
+                if (index == 0) {
+                    scratch.writeString(attribute.getClass().getName());
+                }
+                attribute.write(kryo, scratch);
+
+                Column column = columns.computeIfAbsent(field.getKey(), k -> new Column());
+                column.output.writeInt(i, true);
+                column.output.writeInt(scratch.position(), true);
+                column.output.writeBytes(scratch.getBuffer(), 0, scratch.position());
+                column.entries++;
+            }
+        }
+
+        Output output = new Output(rows.position() * 2 + 1024, -1);
+        output.writeInt(VERSION, true);
+        output.writeInt(documents.size(), true);
+
+        List<byte[]> expressions = kryo.getExpressions();
+        output.writeInt(expressions.size(), true);
+        for (byte[] expression : expressions) {
+            output.writeInt(expression.length, true);
+            output.writeBytes(expression);
+        }
+
+        output.writeInt(columns.size(), true);
+        for (String fieldName : columns.keySet()) {
+            // writeAscii fails to be read correctly if the value has only one character
+            output.writeString(fieldName);
+        }
+
+        output.writeBytes(rows.getBuffer(), 0, rows.position());
+
+        for (Column column : columns.values()) {
+            output.writeInt(column.entries, true);
+            output.writeInt(column.output.position(), true);
+            output.writeBytes(column.output.getBuffer(), 0, column.output.position());
+        }
+
+        return output.toBytes();
+    }
+
+    private static class Column {
+        private final Output output = new Output(1024, -1);
+        private int entries;
+    }
+
+    /**
+     * Write a key. The row and visibility are usually shared by consecutive documents, so a zero length means they are the same as in the previous key.
+     */
+    private static void writeKey(Output output, Key key, ByteSequence[] previous) {
+        writeShared(output, key.getRowData(), previous, 0);
+        writeBytes(output, key.getColumnFamilyData());
+        writeBytes(output, key.getColumnQualifierData());
+        writeShared(output, key.getColumnVisibilityData(), previous, 1);
+        output.writeLong(key.getTimestamp(), true);
+    }
+
+    private static void writeShared(Output output, ByteSequence bytes, ByteSequence[] previous, int index) {
+        if (bytes.equals(previous[index])) {
+            output.writeInt(0, true);
+        } else {
+            output.writeInt(bytes.length() + 1, true);
+            output.writeBytes(bytes.getBackingArray(), bytes.offset(), bytes.length());
+            previous[index] = bytes;
+        }
+    }
+
+    private static void writeBytes(Output output, ByteSequence bytes) {
+        output.writeInt(bytes.length(), true);
+        output.writeBytes(bytes.getBackingArray(), bytes.offset(), bytes.length());
+    }
+
+    private static Key readKey(Input input, byte[][] previous) {
+        byte[] row = readShared(input, previous, 0);
+        byte[] cf = input.readBytes(input.readInt(true));
+        byte[] cq = input.readBytes(input.readInt(true));
+        byte[] cv = readShared(input, previous, 1);
+        return new Key(row, cf, cq, cv, input.readLong(true));
+    }
+
+    private static byte[] readShared(Input input, byte[][] previous, int index) {
+        int length = input.readInt(true);
+        if (length > 0) {
+            previous[index] = input.readBytes(length - 1);
+        } else if (previous[index] == null) {
+            throw new KryoException("Shared key part without a previous key");
+        }
+        return previous[index];
+    }
+}
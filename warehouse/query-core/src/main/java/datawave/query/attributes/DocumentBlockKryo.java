@@ -0,0 +1,73 @@
+package datawave.query.attributes;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.apache.accumulo.core.data.ArrayByteSequence;
+import org.apache.accumulo.core.data.ByteSequence;
+import org.apache.accumulo.core.security.ColumnVisibility;
+
+import com.esotericsoftware.kryo.Kryo;
+import com.esotericsoftware.kryo.KryoException;
+import com.esotericsoftware.kryo.io.Input;
+import com.esotericsoftware.kryo.io.Output;
+
+/**
+ * The kryo instance used to write and read the attributes of a {@link DocumentBlock}. Attributes write their column visibility as an id into the visibility
+ * dictionary of the block instead of writing the expression itself, and each visibility is only parsed once when reading.
+ */
+class DocumentBlockKryo extends Kryo {
+
+    private final Map<ByteSequence,Integer> ids = new HashMap<>();
+    private final List<byte[]> expressions = new ArrayList<>();
+    private final ColumnVisibility[] visibilities;
+
+    /**
+     * Create a kryo instance for writing a block
+     */
+    DocumentBlockKryo() {
+        this.visibilities = new ColumnVisibility[0];
+    }
+
+    /**
+     * Create a kryo instance for reading a block
+     *
+     * @param expressions
+     *            the visibility dictionary of the block
+     */
+    DocumentBlockKryo(List<byte[]> expressions) {
+        this.expressions.addAll(expressions);
+        this.visibilities = new ColumnVisibility[expressions.size()];
+    }
+
+    void writeVisibility(Output output, byte[] expression) {
+        ByteSequence key = new ArrayByteSequence(expression);
+        Integer id = ids.get(key);
+        if (id == null) {
+            id = expressions.size();
+            ids.put(key, id);
+            expressions.add(expression);
+        }
+        output.writeInt(id, true);
+    }
+
+    ColumnVisibility readVisibility(Input input) {
+        int id = input.readInt(true);
+        if (id >= visibilities.length) {
+            throw new KryoException("Unknown visibility id " + id + ", the dictionary only has " + visibilities.length + " entries");
+        }
+        if (visibilities[id] == null) {
+            visibilities[id] = new ColumnVisibility(expressions.get(id));
+        }
+        return visibilities[id];
+    }
+
+    /**
+     * @return the visibility expressions written so far, in id order
+     */
+    List<byte[]> getExpressions() {
+        return expressions;
+    }
+}
@@ -0,0 +1,27 @@
+package datawave.query.attributes;
+
+import org.apache.accumulo.core.data.Value;
+
+/**
+ * The Value shared by the documents split out of a {@link DocumentBlock}. It holds the uncompressed block along with the block already parsed from it, so that
+ * reading the documents does not parse the block again.
+ */
+public class DocumentBlockValue extends Value {
+
+    private final DocumentBlock block;
+
+    /**
+     * @param bytes
+     *            the serialized block, including the document serialization header
+     * @param block
+     *            the block parsed from the bytes
+     */
+    public DocumentBlockValue(byte[] bytes, DocumentBlock block) {
+        super(bytes, false);
+        this.block = block;
+    }
+
+    public DocumentBlock getBlock() {
+        return block;
+    }
+}
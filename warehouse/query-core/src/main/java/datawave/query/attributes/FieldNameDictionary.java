@@ -0,0 +1,96 @@
+package datawave.query.attributes;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import com.esotericsoftware.kryo.KryoException;
+import com.esotericsoftware.kryo.io.Input;
+import com.esotericsoftware.kryo.io.Output;
+
+/**
+ * A field name dictionary shared by every {@link Document} written to, or read from, a single stream. The first time a field name is written it is sent
+ * inline and assigned the next id; every later occurrence is sent as a varint id. The reader assigns ids in the same order, so it must see every document of a
+ * stream, in the order they were written.
+ * <p>
+ * On the wire a field name is a varint code: zero is followed by the field name itself, and any other value is one more than the id of a field name that was
+ * already sent.
+ */
+public class FieldNameDictionary {
+
+    private final Map<String,Integer> ids = new HashMap<>();
+    private final List<String> names = new ArrayList<>();
+    private final Map<String,String> sharedNames;
+
+    public FieldNameDictionary() {
+        this(null);
+    }
+
+    /**
+     * @param sharedNames
+     *            field names shared with other dictionaries, so that a name read by many dictionaries is only held once, or null
+     */
+    public FieldNameDictionary(Map<String,String> sharedNames) {
+        this.sharedNames = sharedNames;
+    }
+
+    /**
+     * Write a field name, sending it inline if this is the first time it has been written
+     *
+     * @param output
+     *            the output
+     * @param fieldName
+     *            the field name
+     */
+    public void writeFieldName(Output output, String fieldName) {
+        Integer id = ids.get(fieldName);
+        if (id == null) {
+            output.writeInt(0, true);
+            // writeAscii fails to be read correctly if the value has only one character
+            output.writeString(fieldName);
+            ids.put(fieldName, names.size());
+            names.add(fieldName);
+        } else {
+            output.writeInt(id + 1, true);
+        }
+    }
+
+    /**
+     * Read a field name written by {@link #writeFieldName(Output, String)}
+     *
+     * @param input
+     *            the input
+     * @return the field name
+     */
+    public String readFieldName(Input input) {
+        int code = input.readInt(true);
+        if (code == 0) {
+            String fieldName = input.readString();
+            if (sharedNames != null) {
+                fieldName = sharedNames.computeIfAbsent(fieldName, name -> name);
+            }
+            names.add(fieldName);
+            return fieldName;
+        } else if (code <= names.size()) {
+            return names.get(code - 1);
+        } else {
+            throw new KryoException("Unknown field name id " + (code - 1) + ", the dictionary only has " + names.size() + " entries");
+        }
+    }
+
+    /**
+     * @return the number of field names in the dictionary
+     */
+    public int size() {
+        return names.size();
+    }
+
+    /**
+     * Forget all of the field names, which must only be done at the start of a new stream
+     */
+    public void clear() {
+        ids.clear();
+        names.clear();
+    }
+}
@@ -65,6 +65,7 @@ import datawave.query.model.QueryModel;
 import datawave.query.tables.ShardQueryLogic;
 import datawave.query.tld.TLDQueryIterator;
 import datawave.query.util.QueryStopwatch;
+import datawave.query.util.sortedset.FileSortedSet;
 import datawave.util.TableName;
 
 /**
@@ -276,6 +277,8 @@ public class ShardQueryConfiguration extends GenericQueryConfiguration implement
     private Set<String> queryTermFrequencyFields = Collections.emptySet();
     // Are we required to get term frequencies (i.e. does the query contain content functions)
     private boolean termFrequenciesRequired = false;
+    // Evaluate the content functions with the primitive array evaluator instead of the set based evaluators
+    private boolean primitiveContentEvaluator = false;
     // Limit count of returned values for arbitrary fields.
     private Set<String> limitFields = Collections.emptySet();
     private Set<String> matchingFieldSets = Collections.emptySet();
@@ -376,12 +379,18 @@ public class ShardQueryConfiguration extends GenericQueryConfiguration implement
     private int ivaratorNumRetries = 2;
     private boolean ivaratorPersistVerify = true;
     private int ivaratorPersistVerifyCount = 100;
+    // the file format of ivarator spills
+    private FileSortedSet.PersistOptions.KeyFormat ivaratorPersistFormat = FileSortedSet.PersistOptions.KeyFormat.RFILE;
+    // hold the ivarator cache buffers in direct memory
+    private boolean ivaratorOffHeapBuffer = false;
     private int maxIvaratorSources = 33;
     private long maxIvaratorSourceWait = 1000L * 60 * 30;
     private long maxIvaratorResults = -1;
     private int maxIvaratorTerms = -1;
     private int maxEvaluationPipelines = 25;
     private int maxPipelineCachedResults = 25;
+    // return results as their evaluations complete instead of in key order, when sorted UIDs, unique and grouping are not required
+    private boolean outOfOrderEvaluationPipeline = false;
     private boolean expandAllTerms = false;
     // Adding the ability to pre-cache the query model for performance sake. If this is null
     // then the query model will be pulled from the MetadataHelper
@@ -571,6 +580,21 @@ public class ShardQueryConfiguration extends GenericQueryConfiguration implement
      */
     private int dayIndexThreshold = -1;
 
+    /**
+     * Flag that controls usage of the array based leapfrog join for intersections instead of the multimap based merge join. Both produce the same results.
+     */
+    private boolean useLeapfrogIntersection = false;
+
+    /**
+     * Flag that enables reuse of the planned query tree of an identical earlier query, see {@link datawave.query.planner.QueryPlanCache}
+     */
+    private boolean queryPlanCacheEnabled = false;
+
+    /**
+     * The maximum age in milliseconds of a cached query plan that may be reused. Bounds how long a plan can miss values newly added to the global index.
+     */
+    private long queryPlanCacheTTL = 15 * 60 * 1000L;
+
     /**
      * Default constructor
      */
@@ -697,6 +721,7 @@ public class ShardQueryConfiguration extends GenericQueryConfiguration implement
         this.setSortedUIDs(other.isSortedUIDs());
         this.setQueryTermFrequencyFields(null == other.getQueryTermFrequencyFields() ? null : Sets.newHashSet(other.getQueryTermFrequencyFields()));
         this.setTermFrequenciesRequired(other.isTermFrequenciesRequired());
+        this.setPrimitiveContentEvaluator(other.isPrimitiveContentEvaluator());
         this.setLimitFields(null == other.getLimitFields() ? null : Sets.newHashSet(other.getLimitFields()));
         this.setMatchingFieldSets(null == other.getMatchingFieldSets() ? null : Sets.newHashSet(other.getMatchingFieldSets()));
         this.setLimitFieldsPreQueryEvaluation(other.isLimitFieldsPreQueryEvaluation());
@@ -759,12 +784,15 @@ public class ShardQueryConfiguration extends GenericQueryConfiguration implement
         this.setIvaratorNumRetries(other.getIvaratorNumRetries());
         this.setIvaratorPersistVerify(other.isIvaratorPersistVerify());
         this.setIvaratorPersistVerifyCount(other.getIvaratorPersistVerifyCount());
+        this.setIvaratorPersistFormat(other.getIvaratorPersistFormat());
+        this.setIvaratorOffHeapBuffer(other.isIvaratorOffHeapBuffer());
         this.setMaxIvaratorSources(other.getMaxIvaratorSources());
         this.setMaxIvaratorSourceWait(other.getMaxIvaratorSourceWait());
         this.setMaxIvaratorResults(other.getMaxIvaratorResults());
         this.setMaxIvaratorTerms(other.getMaxIvaratorTerms());
         this.setMaxEvaluationPipelines(other.getMaxEvaluationPipelines());
         this.setMaxPipelineCachedResults(other.getMaxPipelineCachedResults());
+        this.setOutOfOrderEvaluationPipeline(other.isOutOfOrderEvaluationPipeline());
         this.setExpandAllTerms(other.isExpandAllTerms());
         this.setQueryModel(null == other.getQueryModel() ? null : new QueryModel(other.getQueryModel()));
         this.setModelName(other.getModelName());
@@ -830,6 +858,9 @@ public class ShardQueryConfiguration extends GenericQueryConfiguration implement
         this.setMaxLinesToPrint(other.getMaxLinesToPrint());
         this.setUseShardedIndex(other.isUseShardedIndex());
         this.setDayIndexThreshold(other.getDayIndexThreshold());
+        this.setUseLeapfrogIntersection(other.isUseLeapfrogIntersection());
+        this.setQueryPlanCacheEnabled(other.isQueryPlanCacheEnabled());
+        this.setQueryPlanCacheTTL(other.getQueryPlanCacheTTL());
     }
 
     /**
@@ -1691,6 +1722,22 @@ public class ShardQueryConfiguration extends GenericQueryConfiguration implement
         this.ivaratorPersistVerifyCount = ivaratorPersistVerifyCount;
     }
 
+    public FileSortedSet.PersistOptions.KeyFormat getIvaratorPersistFormat() {
+        return ivaratorPersistFormat;
+    }
+
+    public void setIvaratorPersistFormat(FileSortedSet.PersistOptions.KeyFormat ivaratorPersistFormat) {
+        this.ivaratorPersistFormat = ivaratorPersistFormat;
+    }
+
+    public boolean isIvaratorOffHeapBuffer() {
+        return ivaratorOffHeapBuffer;
+    }
+
+    public void setIvaratorOffHeapBuffer(boolean ivaratorOffHeapBuffer) {
+        this.ivaratorOffHeapBuffer = ivaratorOffHeapBuffer;
+    }
+
     public int getMaxIvaratorSources() {
         return maxIvaratorSources;
     }
@@ -1739,6 +1786,14 @@ public class ShardQueryConfiguration extends GenericQueryConfiguration implement
         this.maxPipelineCachedResults = maxCachedResults;
     }
 
+    public boolean isOutOfOrderEvaluationPipeline() {
+        return outOfOrderEvaluationPipeline;
+    }
+
+    public void setOutOfOrderEvaluationPipeline(boolean outOfOrderEvaluationPipeline) {
+        this.outOfOrderEvaluationPipeline = outOfOrderEvaluationPipeline;
+    }
+
     public boolean isExpandAllTerms() {
         return expandAllTerms;
     }
@@ -2309,6 +2364,14 @@ public class ShardQueryConfiguration extends GenericQueryConfiguration implement
         this.termFrequenciesRequired = termFrequenciesRequired;
     }
 
+    public boolean isPrimitiveContentEvaluator() {
+        return primitiveContentEvaluator;
+    }
+
+    public void setPrimitiveContentEvaluator(boolean primitiveContentEvaluator) {
+        this.primitiveContentEvaluator = primitiveContentEvaluator;
+    }
+
     public void setLimitTermExpansionToModel(boolean shouldLimitTermExpansionToModel) {
         this.shouldLimitTermExpansionToModel = shouldLimitTermExpansionToModel;
     }
@@ -3015,6 +3078,7 @@ public class ShardQueryConfiguration extends GenericQueryConfiguration implement
                 Float.compare(that.getCollapseDatePercentThreshold(), getCollapseDatePercentThreshold()) == 0 &&
                 isSortedUIDs() == that.isSortedUIDs() &&
                 isTermFrequenciesRequired() == that.isTermFrequenciesRequired() &&
+                isPrimitiveContentEvaluator() == that.isPrimitiveContentEvaluator() &&
                 isLimitFieldsPreQueryEvaluation() == that.isLimitFieldsPreQueryEvaluation() &&
                 isHitList() == that.isHitList() &&
                 isDateIndexTimeTravel() == that.isDateIndexTimeTravel() &&
@@ -3064,12 +3128,15 @@ public class ShardQueryConfiguration extends GenericQueryConfiguration implement
                 getIvaratorNumRetries() == that.getIvaratorNumRetries() &&
                 isIvaratorPersistVerify() == that.isIvaratorPersistVerify() &&
                 getIvaratorPersistVerifyCount() == that.getIvaratorPersistVerifyCount() &&
+                getIvaratorPersistFormat() == that.getIvaratorPersistFormat() &&
+                isIvaratorOffHeapBuffer() == that.isIvaratorOffHeapBuffer() &&
                 getMaxIvaratorSources() == that.getMaxIvaratorSources() &&
                 getMaxIvaratorSourceWait() == that.getMaxIvaratorSourceWait() &&
                 getMaxIvaratorResults() == that.getMaxIvaratorResults() &&
                 getMaxIvaratorTerms() == that.getMaxIvaratorTerms() &&
                 getMaxEvaluationPipelines() == that.getMaxEvaluationPipelines() &&
                 getMaxPipelineCachedResults() == that.getMaxPipelineCachedResults() &&
+                isOutOfOrderEvaluationPipeline() == that.isOutOfOrderEvaluationPipeline() &&
                 isExpandAllTerms() == that.isExpandAllTerms() &&
                 shouldLimitTermExpansionToModel == that.shouldLimitTermExpansionToModel &&
                 isCompressServerSideResults() == that.isCompressServerSideResults() &&
@@ -3176,7 +3243,10 @@ public class ShardQueryConfiguration extends GenericQueryConfiguration implement
                 isSortQueryPostIndexWithFieldCounts() == that.isSortQueryPostIndexWithFieldCounts() &&
                 getCardinalityThreshold() == that.getCardinalityThreshold() &&
                 Objects.equals(getNoExpansionIfCurrentDateTypes(), that.getNoExpansionIfCurrentDateTypes()) &&
-                getDayIndexThreshold() == that.getDayIndexThreshold();
+                getDayIndexThreshold() == that.getDayIndexThreshold() &&
+                isUseLeapfrogIntersection() == that.isUseLeapfrogIntersection() &&
+                isQueryPlanCacheEnabled() == that.isQueryPlanCacheEnabled() &&
+                getQueryPlanCacheTTL() == that.getQueryPlanCacheTTL();
         // @formatter:on
     }
 
@@ -3279,6 +3349,7 @@ public class ShardQueryConfiguration extends GenericQueryConfiguration implement
                 isSortedUIDs(),
                 getQueryTermFrequencyFields(),
                 isTermFrequenciesRequired(),
+                isPrimitiveContentEvaluator(),
                 getLimitFields(),
                 getMatchingFieldSets(),
                 isLimitFieldsPreQueryEvaluation(),
@@ -3340,12 +3411,15 @@ public class ShardQueryConfiguration extends GenericQueryConfiguration implement
                 getIvaratorNumRetries(),
                 isIvaratorPersistVerify(),
                 getIvaratorPersistVerifyCount(),
+                getIvaratorPersistFormat(),
+                isIvaratorOffHeapBuffer(),
                 getMaxIvaratorSources(),
                 getMaxIvaratorSourceWait(),
                 getMaxIvaratorResults(),
                 getMaxIvaratorTerms(),
                 getMaxEvaluationPipelines(),
                 getMaxPipelineCachedResults(),
+                isOutOfOrderEvaluationPipeline(),
                 isExpandAllTerms(),
                 getQueryModel(),
                 getModelName(),
@@ -3391,7 +3465,10 @@ public class ShardQueryConfiguration extends GenericQueryConfiguration implement
                 getCardinalityThreshold(),
                 getNoExpansionIfCurrentDateTypes(),
                 isUseShardedIndex(),
-                getDayIndexThreshold());
+                getDayIndexThreshold(),
+                isUseLeapfrogIntersection(),
+                isQueryPlanCacheEnabled(),
+                getQueryPlanCacheTTL());
         // @formatter:on
     }
 
@@ -3489,4 +3566,28 @@ public class ShardQueryConfiguration extends GenericQueryConfiguration implement
     public void setDayIndexThreshold(int dayIndexThreshold) {
         this.dayIndexThreshold = dayIndexThreshold;
     }
+
+    public boolean isUseLeapfrogIntersection() {
+        return useLeapfrogIntersection;
+    }
+
+    public void setUseLeapfrogIntersection(boolean useLeapfrogIntersection) {
+        this.useLeapfrogIntersection = useLeapfrogIntersection;
+    }
+
+    public boolean isQueryPlanCacheEnabled() {
+        return queryPlanCacheEnabled;
+    }
+
+    public void setQueryPlanCacheEnabled(boolean queryPlanCacheEnabled) {
+        this.queryPlanCacheEnabled = queryPlanCacheEnabled;
+    }
+
+    public long getQueryPlanCacheTTL() {
+        return queryPlanCacheTTL;
+    }
+
+    public void setQueryPlanCacheTTL(long queryPlanCacheTTL) {
+        this.queryPlanCacheTTL = queryPlanCacheTTL;
+    }
 }
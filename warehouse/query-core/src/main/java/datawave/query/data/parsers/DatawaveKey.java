@@ -33,6 +33,15 @@ public class DatawaveKey {
      * Term frequency column.
      */
     public static final byte[] TF_COLUMN_BYTES = TF_COLUMN.getBytes();
+    /**
+     * Term offset column.
+     */
+    public static final Text TO_COLUMN = new Text("to");
+
+    /**
+     * Term offset column bytes.
+     */
+    public static final byte[] TO_COLUMN_BYTES = TO_COLUMN.getBytes();
     /**
      * Fi column
      */
@@ -46,7 +55,7 @@ public class DatawaveKey {
     protected KeyType myType;
 
     public enum KeyType {
-        EVENT, INDEX_EVENT, INDEX, TERM_OFFSETS, OTHER;
+        EVENT, INDEX_EVENT, INDEX, TERM_OFFSETS, TERM_OFFSET_INDEX, OTHER;
     }
 
     protected String fieldName = null;
@@ -97,6 +106,9 @@ public class DatawaveKey {
         if (Arrays.equals(cf, TF_COLUMN_BYTES)) {
             this.shardId = currentKey.getRow().toString();
             return parseTermFrequency(cq);
+        } else if (Arrays.equals(cf, TO_COLUMN_BYTES)) {
+            this.shardId = currentKey.getRow().toString();
+            return parseTermOffset(cq);
         } else if (Arrays.equals(cf, DOCUMENT_COLUMN_BYTES)) {
             this.shardId = currentKey.getRow().toString();
             return parseDocumentKey(cq);
@@ -280,6 +292,35 @@ public class DatawaveKey {
         return KeyType.TERM_OFFSETS;
     }
 
+    /**
+     * Parses a term offset column qualifier of the form datatype\0uid\0field\0offset\0term. The term is everything after the fourth null byte, so it may
+     * contain null bytes itself.
+     *
+     * @param cq
+     *            column qualifier
+     * @return a keytype
+     */
+    private KeyType parseTermOffset(byte[] cq) {
+        int[] nullIndices = new int[4];
+        int nulls = 0;
+        for (int i = 0; i < cq.length && nulls < nullIndices.length; i++) {
+            if (cq[i] == NULL) {
+                nullIndices[nulls++] = i;
+            }
+        }
+
+        if (nulls < nullIndices.length) {
+            invalidKey = true;
+        } else {
+            dataType = new String(cq, 0, nullIndices[0]);
+            uid = new String(cq, nullIndices[0] + 1, nullIndices[1] - nullIndices[0] - 1);
+            fieldName = new String(cq, nullIndices[1] + 1, nullIndices[2] - nullIndices[1] - 1);
+            fieldValue = new String(cq, nullIndices[3] + 1, cq.length - nullIndices[3] - 1);
+        }
+
+        return KeyType.TERM_OFFSET_INDEX;
+    }
+
     public String getShardId(boolean ignore) {
         if (!ignore && invalidKey)
             throw new RuntimeException("Attempting to access invalid key part");
@@ -44,6 +44,9 @@ public class JexlEvaluation implements Predicate<Tuple3<Key,Document,DatawaveJex
     // The set of fields for which we should gather phrase offsets for.
     private Set<String> phraseOffsetFields;
 
+    // do we evaluate the content functions with the primitive evaluator
+    private boolean primitiveContentEvaluator = false;
+
     /**
      * Compiled and flattened jexl script
      */
@@ -91,6 +94,9 @@ public class JexlEvaluation implements Predicate<Tuple3<Key,Document,DatawaveJex
             termOffsetMap.setGatherPhraseOffsets(true);
             termOffsetMap.setExcerptFields(phraseOffsetFields);
         }
+        if (termOffsetMap != null && isPrimitiveContentEvaluator()) {
+            termOffsetMap.setUsePrimitiveEvaluator(true);
+        }
 
         // now evaluate
         if (log.isTraceEnabled()) {
@@ -184,4 +190,12 @@ public class JexlEvaluation implements Predicate<Tuple3<Key,Document,DatawaveJex
     public void setPhraseOffsetFields(Set<String> phraseOffsetFields) {
         this.phraseOffsetFields = phraseOffsetFields;
     }
+
+    public boolean isPrimitiveContentEvaluator() {
+        return primitiveContentEvaluator;
+    }
+
+    public void setPrimitiveContentEvaluator(boolean primitiveContentEvaluator) {
+        this.primitiveContentEvaluator = primitiveContentEvaluator;
+    }
 }
@@ -0,0 +1,74 @@
+package datawave.query.function.deserializer;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.Serializable;
+import java.util.Map.Entry;
+
+import org.apache.accumulo.core.data.Key;
+import org.apache.accumulo.core.data.Value;
+
+import com.google.common.collect.Maps;
+
+import datawave.query.DocumentSerialization;
+import datawave.query.attributes.Document;
+import datawave.query.attributes.DocumentBlock;
+import datawave.query.attributes.DocumentBlockValue;
+
+/**
+ * Transform a column oriented {@link DocumentBlock} back into Documents. A block of several Documents is expected to be handed out once per Document, each
+ * time with the key of that Document and the same Value. The last block is kept so that it is only decompressed and parsed once, and its Documents are decoded
+ * one at a time as they are requested. A {@link DocumentBlockValue} already holds the parsed block, which is used as is.
+ */
+public class ColumnarDocumentDeserializer extends DocumentDeserializer implements Serializable {
+
+    private static final long serialVersionUID = 2731604870530942715L;
+
+    private transient byte[] lastBytes;
+    private transient DocumentBlock lastBlock;
+
+    @Override
+    public Entry<Key,Document> apply(Entry<Key,Value> from) {
+        DocumentBlock block = getBlock(from.getValue());
+        int index = block.size() == 1 ? 0 : block.indexOf(from.getKey());
+        if (index < 0) {
+            throw new IllegalStateException("Document " + from.getKey() + " is not in its block");
+        }
+        return Maps.immutableEntry(from.getKey(), block.getDocument(index));
+    }
+
+    @Override
+    public Document deserialize(InputStream data) {
+        DocumentBlock block = read(data);
+        if (block.size() != 1) {
+            throw new IllegalStateException("Expected a block with a single document but found " + block.size());
+        }
+        return block.getDocument(0);
+    }
+
+    private DocumentBlock getBlock(Value value) {
+        // Value.get() does not copy, so the Values of the Documents split out of a block share the same bytes
+        byte[] bytes = value.get();
+        if (bytes != lastBytes) {
+            lastBlock = value instanceof DocumentBlockValue ? ((DocumentBlockValue) value).getBlock() : read(DocumentSerialization.consumeHeader(bytes));
+            lastBytes = bytes;
+        }
+        return lastBlock;
+    }
+
+    /**
+     * Read a block, without decoding any of its Documents
+     *
+     * @param data
+     *            the block, after its header has been consumed
+     * @return the block
+     */
+    public static DocumentBlock read(InputStream data) {
+        try {
+            return new DocumentBlock(data.readAllBytes());
+        } catch (IOException e) {
+            throw new RuntimeException("Could not read document block", e);
+        }
+    }
+
+}
@@ -2,22 +2,45 @@ package datawave.query.function.deserializer;
 
 import java.io.InputStream;
 import java.io.Serializable;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
 
 import com.esotericsoftware.kryo.Kryo;
+import com.esotericsoftware.kryo.KryoException;
 import com.esotericsoftware.kryo.io.Input;
 
 import datawave.query.attributes.Document;
+import datawave.query.attributes.FieldNameDictionary;
+import datawave.query.function.serializer.KryoDocumentSerializer;
 
 /**
  * Transform Kryo-serialized bytes back into a Document. Ordering of Attributes is <b>not</b> guaranteed across serialization.
+ * <p>
+ * When a field name dictionary is used a dictionary is kept for each stream, since results from several tablets may be interleaved. The dictionary of a stream
+ * is dropped when the stream that supersedes it starts, and at most {@link #MAX_FIELD_DICTIONARY_STREAMS} dictionaries are kept, dropping the least recently
+ * used, for streams whose scan ended without a new stream taking over. The field names are shared between the dictionaries, so that each stream only holds
+ * references to them. The documents of each stream must still be deserialized in the order they were serialized, unless they were written with their field
+ * names inline.
  */
 public class KryoDocumentDeserializer extends DocumentDeserializer implements Serializable {
     private static final long serialVersionUID = -657326925013465794L;
 
+    // far more than the number of scans whose results may be interleaved, so that an active stream is not dropped
+    public static final int MAX_FIELD_DICTIONARY_STREAMS = 4096;
+
     final transient Kryo kryo = new Kryo();
 
+    private final boolean useFieldDictionary;
+    private transient Map<Long,FieldNameDictionary> streams;
+    private transient Map<String,String> sharedFieldNames;
+
     public KryoDocumentDeserializer() {
-        // empty constructor
+        this(false);
+    }
+
+    public KryoDocumentDeserializer(boolean useFieldDictionary) {
+        this.useFieldDictionary = useFieldDictionary;
     }
 
     @Override
@@ -25,9 +48,56 @@ public class KryoDocumentDeserializer extends DocumentDeserializer implements Se
         Document document;
         try (var input = new Input(data)) {
             document = new Document();
-            document.read(kryo, input);
+            if (useFieldDictionary) {
+                int version = input.readInt(true);
+                if (version == KryoDocumentSerializer.FIELD_DICTIONARY_VERSION) {
+                    document.read(kryo, input, getFieldNames(input.readLong()));
+                } else if (version == KryoDocumentSerializer.STREAM_START_VERSION) {
+                    document.read(kryo, input, startStream(input));
+                } else if (version == KryoDocumentSerializer.INLINE_FIELD_NAMES_VERSION) {
+                    document.read(kryo, input);
+                } else {
+                    throw new KryoException("Unsupported field dictionary version " + version);
+                }
+            } else {
+                document.read(kryo, input);
+            }
         }
         return document;
     }
 
+    private FieldNameDictionary getFieldNames(long streamId) {
+        if (streams == null) {
+            // access ordered so that the least recently used stream is evicted
+            streams = new LinkedHashMap<>(16, 0.75f, true) {
+                private static final long serialVersionUID = 1L;
+
+                @Override
+                protected boolean removeEldestEntry(Map.Entry<Long,FieldNameDictionary> eldest) {
+                    return size() > MAX_FIELD_DICTIONARY_STREAMS;
+                }
+            };
+            sharedFieldNames = new HashMap<>();
+        }
+        return streams.computeIfAbsent(streamId, id -> new FieldNameDictionary(sharedFieldNames));
+    }
+
+    private FieldNameDictionary startStream(Input input) {
+        long streamId = input.readLong();
+        if (input.readBoolean()) {
+            long supersededStreamId = input.readLong();
+            if (streams != null) {
+                // every document of the superseded stream was written, and therefore read, before this one
+                streams.remove(supersededStreamId);
+            }
+        }
+        FieldNameDictionary fieldNames = getFieldNames(streamId);
+        fieldNames.clear();
+        return fieldNames;
+    }
+
+    public boolean isUseFieldDictionary() {
+        return useFieldDictionary;
+    }
+
 }
@@ -0,0 +1,90 @@
+package datawave.query.function.serializer;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map.Entry;
+
+import org.apache.accumulo.core.data.Key;
+import org.apache.accumulo.core.data.Value;
+
+import com.google.common.collect.Maps;
+
+import datawave.query.attributes.Document;
+import datawave.query.attributes.DocumentBlock;
+
+/**
+ * Transform Documents into a column oriented {@link DocumentBlock}. A single Document becomes a block of one, while {@link #apply(Entry, Iterator)} batches
+ * several Documents into one block that is compressed as a whole. The key of a block is the key of its last Document.
+ */
+public class ColumnarDocumentSerializer extends DocumentSerializer {
+
+    public static final int DEFAULT_BLOCK_SIZE = 100;
+    public static final long DEFAULT_MAX_BLOCK_BYTES = 4L * 1024 * 1024;
+
+    private final int blockSize;
+    private final long maxBlockBytes;
+    private final List<Entry<Key,Document>> block = new ArrayList<>();
+
+    public ColumnarDocumentSerializer() {
+        this(false, false);
+    }
+
+    public ColumnarDocumentSerializer(boolean reducedResponse, boolean compress) {
+        this(reducedResponse, compress, DEFAULT_BLOCK_SIZE, DEFAULT_MAX_BLOCK_BYTES);
+    }
+
+    public ColumnarDocumentSerializer(boolean reducedResponse, boolean compress, int blockSize, long maxBlockBytes) {
+        super(reducedResponse, compress);
+        this.blockSize = blockSize;
+        this.maxBlockBytes = maxBlockBytes;
+    }
+
+    @Override
+    public byte[] serialize(Document doc) {
+        return DocumentBlock.write(Collections.singletonList(Maps.immutableEntry(new Key(), doc)));
+    }
+
+    @Override
+    public Entry<Key,Value> apply(Entry<Key,Document> from) {
+        return getValue(DocumentBlock.write(Collections.singletonList(from)), from.getKey());
+    }
+
+    /**
+     * Serialize a Document along with as many of the following Documents as fit in a block
+     *
+     * @param first
+     *            the first Document of the block
+     * @param remaining
+     *            the Documents that may follow it in the block
+     * @return the block, keyed by the key of its last Document
+     */
+    public Entry<Key,Value> apply(Entry<Key,Document> first, Iterator<Entry<Key,Document>> remaining) {
+        block.clear();
+        block.add(first);
+        long bytes = first.getValue().sizeInBytes();
+        while (block.size() < blockSize && bytes < maxBlockBytes && remaining.hasNext()) {
+            Entry<Key,Document> next = remaining.next();
+            block.add(next);
+            bytes += next.getValue().sizeInBytes();
+        }
+
+        Entry<Key,Value> entry = getValue(DocumentBlock.write(block), block.get(block.size() - 1).getKey());
+        block.clear();
+        return entry;
+    }
+
+    private Entry<Key,Value> getValue(byte[] bytes, Key key) {
+        return Maps.immutableEntry(key, getValue(bytes));
+    }
+
+    public int getBlockSize() {
+        return blockSize;
+    }
+
+    public long getMaxBlockBytes() {
+        return maxBlockBytes;
+    }
+
+}
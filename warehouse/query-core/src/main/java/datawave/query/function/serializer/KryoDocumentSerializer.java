@@ -1,19 +1,39 @@
 package datawave.query.function.serializer;
 
 import java.io.ByteArrayOutputStream;
+import java.util.concurrent.ThreadLocalRandom;
 
 import com.esotericsoftware.kryo.Kryo;
 import com.esotericsoftware.kryo.io.Output;
 
 import datawave.query.attributes.Document;
+import datawave.query.attributes.FieldNameDictionary;
 
 /**
  * Transform the Document into a Kryo-serialized version. Ordering of Attributes is <b>not</b> guaranteed across serialization.
+ * <p>
+ * When a field name dictionary is used each serialized document starts with the format version and the id of the stream it belongs to, and field names are
+ * written once per stream and then referenced by id. A new stream is started on {@link #reset()}, or when the dictionary is full. The first document of a
+ * stream also names the stream it supersedes, if any, so that a reader can drop the dictionary of that stream.
+ * <p>
+ * A reader can only decode a stream if it sees every document of it, in order. Where documents may be dropped before they are read, e.g. when unsorted results
+ * are deduplicated, the serializer should be made {@link #setSelfDescribing(boolean) self describing} so that every document carries its own field names.
  */
 public class KryoDocumentSerializer extends DocumentSerializer {
 
+    public static final int INLINE_FIELD_NAMES_VERSION = 0;
+    public static final int FIELD_DICTIONARY_VERSION = 1;
+    public static final int STREAM_START_VERSION = 2;
+    public static final int MAX_FIELD_DICTIONARY_SIZE = 4096;
+
     private final Kryo kryo = new Kryo();
     private final ByteArrayOutputStream baos = new ByteArrayOutputStream(4096);
+    private final FieldNameDictionary fieldNames;
+    private long streamId;
+    private boolean streamStarted = false;
+    // the last stream that documents were written to, which is superseded by the current stream
+    private Long supersededStreamId;
+    private boolean selfDescribing = false;
 
     public KryoDocumentSerializer() {
         this(false, false);
@@ -24,16 +44,77 @@ public class KryoDocumentSerializer extends DocumentSerializer {
     }
 
     public KryoDocumentSerializer(boolean reducedResponse, boolean compress) {
+        this(reducedResponse, compress, false);
+    }
+
+    public KryoDocumentSerializer(boolean reducedResponse, boolean compress, boolean useFieldDictionary) {
         super(reducedResponse, compress);
+        this.fieldNames = useFieldDictionary ? new FieldNameDictionary() : null;
+        reset();
     }
 
     @Override
     public byte[] serialize(Document doc) {
         baos.reset();
         try (var output = new Output(baos)) {
-            doc.write(kryo, output);
+            if (fieldNames == null) {
+                doc.write(kryo, output);
+            } else if (selfDescribing) {
+                output.writeInt(INLINE_FIELD_NAMES_VERSION, true);
+                doc.write(kryo, output);
+            } else {
+                if (fieldNames.size() >= MAX_FIELD_DICTIONARY_SIZE) {
+                    reset();
+                }
+                if (streamStarted) {
+                    output.writeInt(FIELD_DICTIONARY_VERSION, true);
+                    output.writeLong(streamId);
+                } else {
+                    output.writeInt(STREAM_START_VERSION, true);
+                    output.writeLong(streamId);
+                    output.writeBoolean(supersededStreamId != null);
+                    if (supersededStreamId != null) {
+                        output.writeLong(supersededStreamId);
+                    }
+                    streamStarted = true;
+                }
+                doc.write(kryo, output, fieldNames);
+            }
         }
         return baos.toByteArray();
     }
 
+    /**
+     * Start a new stream, so that field names are sent inline again. This has no effect if a field name dictionary is not used.
+     */
+    public void reset() {
+        if (fieldNames != null) {
+            if (streamStarted) {
+                supersededStreamId = streamId;
+                streamStarted = false;
+            }
+            fieldNames.clear();
+            streamId = ThreadLocalRandom.current().nextLong();
+        }
+    }
+
+    /**
+     * Write every field name inline instead of through the field name dictionary, so that each document can be read on its own. This has no effect if a field
+     * name dictionary is not used.
+     *
+     * @param selfDescribing
+     *            true if each document must be readable on its own
+     */
+    public void setSelfDescribing(boolean selfDescribing) {
+        this.selfDescribing = selfDescribing;
+    }
+
+    public boolean isSelfDescribing() {
+        return selfDescribing;
+    }
+
+    public boolean isUseFieldDictionary() {
+        return fieldNames != null;
+    }
+
 }
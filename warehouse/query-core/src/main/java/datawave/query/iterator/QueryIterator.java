@@ -55,12 +55,14 @@ import com.google.common.collect.Sets;
 import com.google.common.collect.UnmodifiableIterator;
 
 import datawave.core.iterators.DatawaveFieldIndexListIteratorJexl;
+import datawave.core.iterators.IteratorThreadPoolManager;
 import datawave.core.iterators.filesystem.FileSystemCache;
 import datawave.data.type.Type;
 import datawave.data.type.util.NumericalEncoder;
 import datawave.ingest.data.config.ingest.CompositeIngest;
 import datawave.marking.MarkingFunctionsFactory;
 import datawave.query.Constants;
+import datawave.query.DocumentSerialization;
 import datawave.query.attributes.AttributeKeepFilter;
 import datawave.query.attributes.Document;
 import datawave.query.attributes.ExcerptFields;
@@ -82,8 +84,11 @@ import datawave.query.function.MaskedValueFilterFactory;
 import datawave.query.function.MaskedValueFilterInterface;
 import datawave.query.function.RangeProvider;
 import datawave.query.function.RemoveGroupingContext;
+import datawave.query.function.serializer.ColumnarDocumentSerializer;
+import datawave.query.function.serializer.KryoDocumentSerializer;
 import datawave.query.iterator.aggregation.DocumentData;
 import datawave.query.iterator.ivarator.IvaratorCacheDirConfig;
+import datawave.query.iterator.pipeline.OutOfOrderPipelineIterator;
 import datawave.query.iterator.pipeline.PipelineFactory;
 import datawave.query.iterator.pipeline.PipelineIterator;
 import datawave.query.iterator.profile.EvaluationTrackingFunction;
@@ -177,10 +182,14 @@ public class QueryIterator extends QueryOptions implements YieldingKeyValueItera
 
     protected Range range;
     protected Range originalRange;
+    // documents returned out of order ahead of the document a teardown/rebuild range resumes after
+    protected Collection<Key> returnedAhead = Collections.emptyList();
 
     protected Key key;
     protected Value value;
     protected YieldCallback<Key> yieldCallback;
+    // a yield taken while filling the block that is currently on top, to be issued on the next call to next()
+    protected Key pendingYieldKey;
     protected WaitWindowObserver waitWindowObserver = new WaitWindowObserver();
 
     protected IteratorEnvironment myEnvironment;
@@ -260,6 +269,11 @@ public class QueryIterator extends QueryOptions implements YieldingKeyValueItera
         this.documentOptions = options;
         this.myEnvironment = env;
 
+        // the pool of the query weighs its share of the ivarator and evaluation threads
+        if (getQueryId() != null && getQueryPool() != null) {
+            IteratorThreadPoolManager.setQueryPool(getQueryId(), getQueryPool(), env);
+        }
+
         if (gatherTimingDetails()) {
             this.trackingSpan = new MultiThreadedQuerySpan(querySpanCollector, getStatsdClient());
             this.waitWindowObserver.setTrackingSpan(trackingSpan);
@@ -344,6 +358,14 @@ public class QueryIterator extends QueryOptions implements YieldingKeyValueItera
 
     @Override
     public void next() throws IOException {
+        // A yield that cut a block short is issued after that block has been returned
+        if (this.pendingYieldKey != null) {
+            this.yieldCallback.yield(this.pendingYieldKey);
+            this.pendingYieldKey = null;
+            this.key = null;
+            this.value = null;
+            return;
+        }
         // If collectTimingDetails, then we return an WAIT_WINDOW_OVERRUN first, then yield.
         // In this case, we are ready to yield and the iterator stack is not in a state to iterate
         if (this.waitWindowObserver.isReadyToYield()) {
@@ -375,6 +397,7 @@ public class QueryIterator extends QueryOptions implements YieldingKeyValueItera
         // preserve the original range for use with the Final Document tracking iterator because it is placed after the ResultCountingIterator
         // so the FinalDocumentTracking iterator needs the start key with the count already appended
         this.originalRange = range;
+        this.pendingYieldKey = null;
         this.waitWindowObserver.setSeekRange(range);
         if (WaitWindowObserver.getNumYields(range.getStartKey(), this.collectTimingDetails) < this.maxYields) {
             this.waitWindowObserver.start(this.queryId, this.yieldThresholdMs);
@@ -398,6 +421,7 @@ public class QueryIterator extends QueryOptions implements YieldingKeyValueItera
 
             // determine whether this is a teardown/rebuild range
             long resultCount = 0;
+            this.returnedAhead = Collections.emptyList();
             if (!range.isStartKeyInclusive()) {
                 // see if we can fail fast. If we were rebuilt with the FinalDocument key, then we are already completely done
                 if (this.collectTimingDetails && FinalDocumentTrackingIterator.isFinalDocumentKey(range.getStartKey())) {
@@ -416,6 +440,13 @@ public class QueryIterator extends QueryOptions implements YieldingKeyValueItera
                     startKey = new Key(startKey.getRow(), new Text(parts[1] + '\0' + parts[2]), startKey.getColumnQualifier(), startKey.getColumnVisibility(),
                                     startKey.getTimestamp());
                     this.range = range = new Range(startKey, range.isStartKeyInclusive(), range.getEndKey(), range.isEndKeyInclusive());
+
+                    // a result returned out of order carries the last document before which nothing is outstanding, so resume after that one and skip
+                    // the documents that were already returned ahead of it
+                    if (OutOfOrderPipelineIterator.hasResumeMarker(startKey)) {
+                        this.returnedAhead = OutOfOrderPipelineIterator.getReturnedAhead(startKey);
+                        this.range = range = OutOfOrderPipelineIterator.getResumeRange(range);
+                    }
                 }
             }
 
@@ -468,10 +499,13 @@ public class QueryIterator extends QueryOptions implements YieldingKeyValueItera
                 pipelineSource = getSourceDeepCopy("pipeline source");
             }
             PipelineIterator pipelineIter = PipelineFactory.createIterator(this.seekKeySource, getMaxEvaluationPipelines(), getMaxPipelineCachedResults(),
-                            getSerialPipelineRequest(), querySpanCollector, trackingSpan, this, pipelineSource, myEnvironment, yieldCallback, yieldThresholdMs,
-                            waitWindowObserver, queryId, columnFamilies, inclusive);
+                            getSerialPipelineRequest(), isOutOfOrderPipelineAllowed(documentRange), querySpanCollector, trackingSpan, this, pipelineSource,
+                            myEnvironment, yieldCallback, yieldThresholdMs, waitWindowObserver, queryId, columnFamilies, inclusive);
 
             pipelineIter.setCollectTimingDetails(collectTimingDetails);
+            if (pipelineIter instanceof OutOfOrderPipelineIterator) {
+                ((OutOfOrderPipelineIterator) pipelineIter).resumeFrom(range, returnedAhead);
+            }
             // TODO pipelineIter.setStatsdHostAndPort(statsdHostAndPort);
 
             pipelineIter.startPipeline();
@@ -517,6 +551,14 @@ public class QueryIterator extends QueryOptions implements YieldingKeyValueItera
 
             this.documentIterator = pipelineDocuments;
 
+            // every seek starts a new stream of documents, so that a client can decode them without having seen any earlier stream. Unsorted results are
+            // deduplicated by the client before they are read, which may drop a document defining field names, so those documents carry their own names.
+            if (getReturnType() == DocumentSerialization.ReturnType.kryodict && getDocumentSerializer() instanceof KryoDocumentSerializer) {
+                KryoDocumentSerializer kryoSerializer = (KryoDocumentSerializer) getDocumentSerializer();
+                kryoSerializer.setSelfDescribing(!sortedUIDs);
+                kryoSerializer.reset();
+            }
+
             // now add the result count to the keys (required when not sorting UIDs)
             // Cannot do this on document specific ranges as the count would place the keys outside the initial range
             if (!sortedUIDs && documentRange == null) {
@@ -681,6 +723,21 @@ public class QueryIterator extends QueryOptions implements YieldingKeyValueItera
         return serialEvaluationPipeline;
     }
 
+    /**
+     * Results may only be returned as their evaluations complete when the keys will be made unique by the ResultCountingIterator and no unique or grouping
+     * transform depends on the order of the documents.
+     *
+     * @param documentRange
+     *            the document specific range, or null
+     * @return true if an out of order pipeline was requested and is allowed
+     * @throws IOException
+     *             if the unique transform could not be created
+     */
+    private boolean isOutOfOrderPipelineAllowed(Range documentRange) throws IOException {
+        return isOutOfOrderEvaluationPipeline() && !sortedUIDs && documentRange == null && getUniqueTransform() == null
+                        && (getGroupFields() == null || !getGroupFields().hasGroupByFields());
+    }
+
     /**
      * A routine which should always be used to create deep copies of the source. This ensures that we are thread safe when doing these copies.
      *
@@ -1096,6 +1153,8 @@ public class QueryIterator extends QueryOptions implements YieldingKeyValueItera
             jexlEvaluationFunction.setPhraseOffsetFields(excerptFields.getFields());
         }
 
+        jexlEvaluationFunction.setPrimitiveContentEvaluator(isPrimitiveContentEvaluator());
+
         return jexlEvaluationFunction;
     }
 
@@ -1190,7 +1249,12 @@ public class QueryIterator extends QueryOptions implements YieldingKeyValueItera
 
             // just in time serialization
             Entry<Key,Document> docEntry = documentIterator.next();
-            Entry<Key,Value> entry = getDocumentSerializer().apply(docEntry);
+            Entry<Key,Value> entry;
+            if (isBatchDocuments()) {
+                entry = ((ColumnarDocumentSerializer) getDocumentSerializer()).apply(docEntry, getBlockRemainder(docEntry));
+            } else {
+                entry = getDocumentSerializer().apply(docEntry);
+            }
 
             if (log.isTraceEnabled()) {
                 log.trace("next() returned " + entry.getKey());
@@ -1218,11 +1282,47 @@ public class QueryIterator extends QueryOptions implements YieldingKeyValueItera
         if (this.yieldCallback != null && this.yieldCallback.hasYielded()) {
             // ensure that the timerTask is cancelled
             this.waitWindowObserver.stop();
-            this.key = null;
-            this.value = null;
+            if (this.key != null && isBatchDocuments()) {
+                // the yield came while waiting for the next document of a block. The yield key follows the last document of the block, so return the
+                // block first and yield on the next call
+                this.pendingYieldKey = this.yieldCallback.getPositionAndReset();
+            } else {
+                this.key = null;
+                this.value = null;
+            }
         }
     }
 
+    private boolean isBatchDocuments() {
+        return getDocumentSerializer() instanceof ColumnarDocumentSerializer;
+    }
+
+    /**
+     * Get the documents that may follow the first document of a block. The block ends at a WAIT_WINDOW_OVERRUN document, because the iterator stack can not
+     * be advanced once that document has been returned. A yield while waiting for the next document ends the block as well, and is deferred until the block
+     * has been returned.
+     *
+     * @param first
+     *            the first document of the block
+     * @return the documents that may be added to the block
+     */
+    private Iterator<Entry<Key,Document>> getBlockRemainder(final Entry<Key,Document> first) {
+        return new UnmodifiableIterator<Entry<Key,Document>>() {
+            private Entry<Key,Document> last = first;
+
+            @Override
+            public boolean hasNext() {
+                return !last.getValue().containsKey(WaitWindowObserver.WAIT_WINDOW_OVERRUN) && documentIterator.hasNext();
+            }
+
+            @Override
+            public Entry<Key,Document> next() {
+                last = documentIterator.next();
+                return last;
+            }
+        };
+    }
+
     @Override
     public Key getTopKey() {
         return this.key;
@@ -1497,6 +1597,7 @@ public class QueryIterator extends QueryOptions implements YieldingKeyValueItera
                 .setIvaratorCacheSubDirPrefix(this.getHdfsCacheSubDirPrefix())
                 .setHdfsFileCompressionCodec(this.getHdfsFileCompressionCodec())
                 .setIvaratorCacheBufferSize(this.getIvaratorCacheBufferSize())
+                .setIvaratorOffHeapBuffer(this.isIvaratorOffHeapBuffer())
                 .setIvaratorCacheScanPersistThreshold(this.getIvaratorCacheScanPersistThreshold())
                 .setIvaratorCacheScanTimeout(this.getIvaratorCacheScanTimeout())
                 .setMaxRangeSplit(this.getMaxIndexRangeSplit())
@@ -1518,6 +1619,7 @@ public class QueryIterator extends QueryOptions implements YieldingKeyValueItera
                 .setQuerySpanCollector(this.querySpanCollector)
                 .setIndexOnlyFields(this.getAllIndexOnlyFields())
                 .setAllowTermFrequencyLookup(this.allowTermFrequencyLookup)
+                .setUseLeapfrogIntersection(this.useLeapfrogIntersection)
                 .setCompositeMetadata(compositeMetadata)
                 .setFiNextSeek(this.getFiNextSeek())
                 .setEventNextSeek(this.getEventNextSeek())
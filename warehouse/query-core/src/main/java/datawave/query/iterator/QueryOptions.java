@@ -72,6 +72,7 @@ import datawave.query.function.Equality;
 import datawave.query.function.GetStartKey;
 import datawave.query.function.JexlEvaluation;
 import datawave.query.function.PrefixEquality;
+import datawave.query.function.serializer.ColumnarDocumentSerializer;
 import datawave.query.function.serializer.DocumentSerializer;
 import datawave.query.function.serializer.KryoDocumentSerializer;
 import datawave.query.function.serializer.ToStringDocumentSerializer;
@@ -90,6 +91,7 @@ import datawave.query.jexl.JexlASTHelper;
 import datawave.query.jexl.functions.FieldIndexAggregator;
 import datawave.query.jexl.functions.IdentityAggregator;
 import datawave.query.jexl.visitors.CardinalityVisitor;
+import datawave.query.jexl.visitors.RebuildingVisitor;
 import datawave.query.predicate.ConfiguredPredicate;
 import datawave.query.predicate.EventDataQueryFieldFilter;
 import datawave.query.predicate.EventDataQueryFilter;
@@ -122,6 +124,7 @@ public class QueryOptions implements OptionDescriber {
     public static final String DISABLE_DOCUMENTS_WITHOUT_EVENTS = "disable.index.only.documents";
     public static final String QUERY = "query";
     public static final String QUERY_ID = "query.id";
+    public static final String QUERY_POOL = "query.pool";
     public static final String TYPE_METADATA = "type.metadata";
     public static final String TYPE_METADATA_AUTHS = "type.metadata.auths";
     public static final String METADATA_TABLE_NAME = "model.table.name";
@@ -142,6 +145,7 @@ public class QueryOptions implements OptionDescriber {
     public static final String DOCUMENT_PERMUTATION_CLASSES = "document.permutation.classes";
     public static final String TERM_FREQUENCY_FIELDS = "term.frequency.fields";
     public static final String TERM_FREQUENCIES_REQUIRED = "term.frequencies.are.required";
+    public static final String PRIMITIVE_CONTENT_EVALUATOR = "primitive.content.evaluator";
     public static final String CONTENT_EXPANSION_FIELDS = "content.expansion.fields";
     public static final String LIMIT_FIELDS = "limit.fields";
     public static final String MATCHING_FIELD_SETS = "matching.field.sets";
@@ -205,6 +209,8 @@ public class QueryOptions implements OptionDescriber {
 
     public static final String ALLOW_TERM_FREQUENCY_LOOKUP = "allow.term.frequency.lookup";
 
+    public static final String USE_LEAPFROG_INTERSECTION = "use.leapfrog.intersection";
+
     public static final String HDFS_SITE_CONFIG_URLS = "hdfs.site.config.urls";
 
     public static final String HDFS_FILE_COMPRESSION_CODEC = "hdfs.file.compression.codec";
@@ -233,6 +239,10 @@ public class QueryOptions implements OptionDescriber {
 
     public static final String IVARATOR_PERSIST_VERIFY_COUNT = "ivarator.persist.verify.count";
 
+    public static final String IVARATOR_PERSIST_FORMAT = "ivarator.persist.format";
+
+    public static final String IVARATOR_OFF_HEAP_BUFFER = "ivarator.offheap.buffer";
+
     public static final String MAX_IVARATOR_SOURCES = "max.ivarator.sources";
     public static final String MAX_IVARATOR_SOURCE_WAIT = "max.ivarator.source.wait";
 
@@ -246,6 +256,8 @@ public class QueryOptions implements OptionDescriber {
 
     public static final String MAX_PIPELINE_CACHED_RESULTS = "max.pipeline.cached.results";
 
+    public static final String OUT_OF_ORDER_EVALUATION_PIPELINE = "out.of.order.evaluation.pipeline";
+
     public static final String DATE_INDEX_TIME_TRAVEL = "date.index.time.travel";
 
     public static final String SORTED_UIDS = "sorted.uids";
@@ -296,6 +308,7 @@ public class QueryOptions implements OptionDescriber {
     protected String query;
     private ASTJexlScript script;
     protected String queryId;
+    protected String queryPool;
     protected boolean disableEvaluation = false;
     protected boolean disableFiEval = false;
     protected long sourceLimit = -1;
@@ -372,6 +385,8 @@ public class QueryOptions implements OptionDescriber {
 
     protected boolean allowTermFrequencyLookup = true;
 
+    protected boolean useLeapfrogIntersection = false;
+
     protected String hdfsSiteConfigURLs = null;
     protected String hdfsFileCompressionCodec = null;
     protected FileSystemCache fsCache = null;
@@ -382,6 +397,7 @@ public class QueryOptions implements OptionDescriber {
     protected long ivaratorCacheScanPersistThreshold = 100000L;
     protected long ivaratorCacheScanTimeout = 1000L * 60 * 60;
     protected int ivaratorCacheBufferSize = 10000;
+    protected boolean ivaratorOffHeapBuffer = false;
 
     protected long resultTimeout = 1000L * 60 * 60;
     protected int maxIndexRangeSplit = 11;
@@ -405,6 +421,7 @@ public class QueryOptions implements OptionDescriber {
     protected Map<String,Set<String>> nonIndexedDataTypeMap = Maps.newHashMap();
 
     protected boolean termFrequenciesRequired = false;
+    protected boolean primitiveContentEvaluator = false;
     protected Set<String> termFrequencyFields = Collections.emptySet();
     protected Set<String> contentExpansionFields;
 
@@ -426,6 +443,8 @@ public class QueryOptions implements OptionDescriber {
 
     protected boolean serialEvaluationPipeline = false;
 
+    protected boolean outOfOrderEvaluationPipeline = false;
+
     protected String metadataTableName;
 
     protected boolean dateIndexTimeTravel = false;
@@ -537,6 +556,7 @@ public class QueryOptions implements OptionDescriber {
         this.ivaratorCacheDirConfigs = (other.ivaratorCacheDirConfigs == null) ? null : new ArrayList<>(other.ivaratorCacheDirConfigs);
         this.hdfsSiteConfigURLs = other.hdfsSiteConfigURLs;
         this.ivaratorCacheBufferSize = other.ivaratorCacheBufferSize;
+        this.ivaratorOffHeapBuffer = other.ivaratorOffHeapBuffer;
         this.uniqueCacheBufferSize = other.uniqueCacheBufferSize;
         this.ivaratorCacheScanPersistThreshold = other.ivaratorCacheScanPersistThreshold;
         this.ivaratorCacheScanTimeout = other.ivaratorCacheScanTimeout;
@@ -563,6 +583,7 @@ public class QueryOptions implements OptionDescriber {
         this.sortedUIDs = other.sortedUIDs;
 
         this.termFrequenciesRequired = other.termFrequenciesRequired;
+        this.primitiveContentEvaluator = other.primitiveContentEvaluator;
         this.termFrequencyFields = other.termFrequencyFields;
         this.contentExpansionFields = other.contentExpansionFields;
 
@@ -614,6 +635,14 @@ public class QueryOptions implements OptionDescriber {
         this.queryId = queryId;
     }
 
+    public String getQueryPool() {
+        return queryPool;
+    }
+
+    public void setQueryPool(String queryPool) {
+        this.queryPool = queryPool;
+    }
+
     public String getScanId() {
         return scanId;
     }
@@ -695,6 +724,12 @@ public class QueryOptions implements OptionDescriber {
                 case kryo:
                     documentSerializer = new KryoDocumentSerializer(isReducedResponse(), isCompressResults());
                     break;
+                case kryodict:
+                    documentSerializer = new KryoDocumentSerializer(isReducedResponse(), isCompressResults(), true);
+                    break;
+                case columnar:
+                    documentSerializer = new ColumnarDocumentSerializer(isReducedResponse(), isCompressResults());
+                    break;
                 case writable:
                     documentSerializer = new WritableDocumentSerializer(isReducedResponse());
                     break;
@@ -1033,6 +1068,14 @@ public class QueryOptions implements OptionDescriber {
         this.allowTermFrequencyLookup = allowTermFrequencyLookup;
     }
 
+    public boolean isUseLeapfrogIntersection() {
+        return useLeapfrogIntersection;
+    }
+
+    public void setUseLeapfrogIntersection(boolean useLeapfrogIntersection) {
+        this.useLeapfrogIntersection = useLeapfrogIntersection;
+    }
+
     public String getHdfsSiteConfigURLs() {
         return hdfsSiteConfigURLs;
     }
@@ -1086,6 +1129,14 @@ public class QueryOptions implements OptionDescriber {
         this.ivaratorCacheBufferSize = ivaratorCacheBufferSize;
     }
 
+    public boolean isIvaratorOffHeapBuffer() {
+        return ivaratorOffHeapBuffer;
+    }
+
+    public void setIvaratorOffHeapBuffer(boolean ivaratorOffHeapBuffer) {
+        this.ivaratorOffHeapBuffer = ivaratorOffHeapBuffer;
+    }
+
     public int getUniqueCacheBufferSize() {
         return uniqueCacheBufferSize;
     }
@@ -1341,6 +1392,7 @@ public class QueryOptions implements OptionDescriber {
         options.put(DISABLE_DOCUMENTS_WITHOUT_EVENTS, "Removes documents in which only hits against the index were found, and no event");
         options.put(QUERY, "The JEXL query to evaluate documents against");
         options.put(QUERY_ID, "The UUID of the query");
+        options.put(QUERY_POOL, "The connection pool of the query, which weighs its share of the ivarator and evaluation threads");
         options.put(TYPE_METADATA, "A mapping of field name to a set of DataType class names");
         options.put(QUERY_MAPPING_COMPRESS, "Boolean value to indicate Normalizer mapping is compressed");
         options.put(REDUCED_RESPONSE, "Whether or not to return visibility markings on each attribute. Default: " + reducedResponse);
@@ -1379,7 +1431,9 @@ public class QueryOptions implements OptionDescriber {
         options.put(ALLOW_FIELD_INDEX_EVALUATION,
                         "Allow the evaluation to occur purely on values pulled from the field index for queries only accessing indexed fields (default is true)");
         options.put(ALLOW_TERM_FREQUENCY_LOOKUP, "Allow the evaluation to use the term frequencies in lieu of the field index when appropriate");
+        options.put(USE_LEAPFROG_INTERSECTION, "Use the array based leapfrog join instead of the multimap based merge join for intersections of field index terms");
         options.put(TERM_FREQUENCIES_REQUIRED, "Does the query require gathering term frequencies");
+        options.put(PRIMITIVE_CONTENT_EVALUATOR, "Evaluate the content functions with the primitive array evaluator instead of the set based evaluators");
         options.put(TERM_FREQUENCY_FIELDS, "comma-delimited list of fields that contain term frequencies");
         options.put(CONTENT_EXPANSION_FIELDS, "comma-delimited list of fields used for content function expansions");
         options.put(HDFS_SITE_CONFIG_URLS, "URLs (comma delimited) of where to find the hadoop hdfs and core site configuration files");
@@ -1397,6 +1451,9 @@ public class QueryOptions implements OptionDescriber {
                         "The maximum number of files that can be opened at one time during a merge sort.  If more that this number of files are created, then compactions will occur");
         options.put(IVARATOR_NUM_RETRIES,
                         "The number of times an ivarator should attempt to persist a sorted set to a given ivarator cache directory.  We will use the specified number of retries for each of the configured ivarator cache directories.");
+        options.put(IVARATOR_PERSIST_FORMAT, "The file format of ivarator spills, RFILE (default) or COMPACT");
+        options.put(IVARATOR_OFF_HEAP_BUFFER,
+                        "Whether the ivarator cache buffer is held in direct memory, within the tserver off heap buffer budget.  Default is false.");
         options.put(MAX_IVARATOR_SOURCES,
                         " The maximum number of sources to use for ivarators across all ivarated terms within the query.  Note the thread pool size is controlled via an accumulo property.");
         options.put(YIELD_THRESHOLD_MS,
@@ -1406,6 +1463,8 @@ public class QueryOptions implements OptionDescriber {
         options.put(MAX_EVALUATION_PIPELINES, "The max number of evaluation pipelines");
         options.put(SERIAL_EVALUATION_PIPELINE, "Forces us to use the serial pipeline. Allows us to still have a single thread for evaluation");
         options.put(MAX_PIPELINE_CACHED_RESULTS, "The max number of non-null evaluated results to cache beyond the evaluation pipelines in queue");
+        options.put(OUT_OF_ORDER_EVALUATION_PIPELINE,
+                        "Return results as their evaluations complete instead of in key order when sorted UIDs, unique and grouping are not required");
         options.put(DATE_INDEX_TIME_TRAVEL, "Whether the shards from before the event should be gathered from the dateIndex");
 
         options.put(SORTED_UIDS,
@@ -1483,6 +1542,10 @@ public class QueryOptions implements OptionDescriber {
             this.queryId = options.get(QUERY_ID);
         }
 
+        if (options.containsKey(QUERY_POOL)) {
+            this.queryPool = options.get(QUERY_POOL);
+        }
+
         if (options.containsKey(SCAN_ID)) {
             this.scanId = options.get(SCAN_ID);
         }
@@ -1496,7 +1559,8 @@ public class QueryOptions implements OptionDescriber {
         if (options.containsKey(COMPOSITE_METADATA)) {
             String compositeMetadataString = options.get(COMPOSITE_METADATA);
             if (compositeMetadataString != null && !compositeMetadataString.isEmpty()) {
-                this.compositeMetadata = CompositeMetadata.fromBytes(java.util.Base64.getDecoder().decode(compositeMetadataString));
+                this.compositeMetadata = QueryOptionsCache.getCompositeMetadata(queryId, compositeMetadataString,
+                                option -> CompositeMetadata.fromBytes(java.util.Base64.getDecoder().decode(option)));
             }
 
             if (log.isTraceEnabled()) {
@@ -1819,6 +1883,10 @@ public class QueryOptions implements OptionDescriber {
             this.setAllowTermFrequencyLookup(Boolean.parseBoolean(options.get(ALLOW_TERM_FREQUENCY_LOOKUP)));
         }
 
+        if (options.containsKey(USE_LEAPFROG_INTERSECTION)) {
+            this.setUseLeapfrogIntersection(Boolean.parseBoolean(options.get(USE_LEAPFROG_INTERSECTION)));
+        }
+
         if (options.containsKey(HDFS_SITE_CONFIG_URLS)) {
             this.setHdfsSiteConfigURLs(options.get(HDFS_SITE_CONFIG_URLS));
         }
@@ -1870,13 +1938,26 @@ public class QueryOptions implements OptionDescriber {
         if (options.containsKey(IVARATOR_PERSIST_VERIFY)) {
             boolean verify = Boolean.parseBoolean(options.get(IVARATOR_PERSIST_VERIFY));
             FileSortedSet.PersistOptions persistOptions = getIvaratorPersistOptions();
-            this.setIvaratorPersistOptions(new FileSortedSet.PersistOptions(verify, verify, persistOptions.getNumElementsToVerify()));
+            this.setIvaratorPersistOptions(
+                            new FileSortedSet.PersistOptions(verify, verify, persistOptions.getNumElementsToVerify(), persistOptions.getKeyFormat()));
         }
 
         if (options.containsKey(IVARATOR_PERSIST_VERIFY_COUNT)) {
             int numElements = Integer.parseInt(options.get(IVARATOR_PERSIST_VERIFY_COUNT));
             FileSortedSet.PersistOptions persistOptions = getIvaratorPersistOptions();
-            this.setIvaratorPersistOptions(new FileSortedSet.PersistOptions(persistOptions.isVerifySize(), persistOptions.isVerifyElements(), numElements));
+            this.setIvaratorPersistOptions(new FileSortedSet.PersistOptions(persistOptions.isVerifySize(), persistOptions.isVerifyElements(), numElements,
+                            persistOptions.getKeyFormat()));
+        }
+
+        if (options.containsKey(IVARATOR_PERSIST_FORMAT)) {
+            FileSortedSet.PersistOptions.KeyFormat keyFormat = FileSortedSet.PersistOptions.KeyFormat.valueOf(options.get(IVARATOR_PERSIST_FORMAT));
+            FileSortedSet.PersistOptions persistOptions = getIvaratorPersistOptions();
+            this.setIvaratorPersistOptions(new FileSortedSet.PersistOptions(persistOptions.isVerifySize(), persistOptions.isVerifyElements(),
+                            persistOptions.getNumElementsToVerify(), keyFormat));
+        }
+
+        if (options.containsKey(IVARATOR_OFF_HEAP_BUFFER)) {
+            this.setIvaratorOffHeapBuffer(Boolean.parseBoolean(options.get(IVARATOR_OFF_HEAP_BUFFER)));
         }
 
         if (options.containsKey(MAX_IVARATOR_SOURCES)) {
@@ -1915,9 +1996,17 @@ public class QueryOptions implements OptionDescriber {
             this.setMaxPipelineCachedResults(Integer.parseInt(options.get(MAX_PIPELINE_CACHED_RESULTS)));
         }
 
+        if (options.containsKey(OUT_OF_ORDER_EVALUATION_PIPELINE)) {
+            this.setOutOfOrderEvaluationPipeline(Boolean.parseBoolean(options.get(OUT_OF_ORDER_EVALUATION_PIPELINE)));
+        }
+
         if (options.containsKey(TERM_FREQUENCIES_REQUIRED)) {
             this.setTermFrequenciesRequired(Boolean.parseBoolean(options.get(TERM_FREQUENCIES_REQUIRED)));
         }
+
+        if (options.containsKey(PRIMITIVE_CONTENT_EVALUATOR)) {
+            this.setPrimitiveContentEvaluator(Boolean.parseBoolean(options.get(PRIMITIVE_CONTENT_EVALUATOR)));
+        }
         this.setTermFrequencyFields(parseTermFrequencyFields(options));
         this.setContentExpansionFields(parseContentExpansionFields(options));
 
@@ -1997,10 +2086,12 @@ public class QueryOptions implements OptionDescriber {
         if (options.containsKey(TYPE_METADATA)) {
             String typeMetadataString = options.get(TYPE_METADATA);
             try {
-                if (compressedMappings) {
-                    typeMetadataString = decompressOption(typeMetadataString, QueryOptions.UTF8);
-                }
-                this.typeMetadata = buildTypeMetadata(typeMetadataString);
+                this.typeMetadata = QueryOptionsCache.getTypeMetadata(queryId, typeMetadataString, option -> {
+                    if (compressedMappings) {
+                        option = decompressOption(option, QueryOptions.UTF8);
+                    }
+                    return buildTypeMetadata(option);
+                });
             } catch (IOException e) {
                 throw new RuntimeException(e);
             }
@@ -2276,6 +2367,14 @@ public class QueryOptions implements OptionDescriber {
         this.termFrequenciesRequired = termFrequenciesRequired;
     }
 
+    public boolean isPrimitiveContentEvaluator() {
+        return primitiveContentEvaluator;
+    }
+
+    public void setPrimitiveContentEvaluator(boolean primitiveContentEvaluator) {
+        this.primitiveContentEvaluator = primitiveContentEvaluator;
+    }
+
     public Set<String> parseTermFrequencyFields(Map<String,String> options) {
         String val = options.get(TERM_FREQUENCY_FIELDS);
         if (val == null) {
@@ -2326,6 +2425,14 @@ public class QueryOptions implements OptionDescriber {
         this.maxPipelineCachedResults = maxCachedResults;
     }
 
+    public boolean isOutOfOrderEvaluationPipeline() {
+        return outOfOrderEvaluationPipeline;
+    }
+
+    public void setOutOfOrderEvaluationPipeline(boolean outOfOrderEvaluationPipeline) {
+        this.outOfOrderEvaluationPipeline = outOfOrderEvaluationPipeline;
+    }
+
     public String getStatsdHostAndPort() {
         return statsdHostAndPort;
     }
@@ -2481,7 +2588,8 @@ public class QueryOptions implements OptionDescriber {
     public ASTJexlScript getScript() {
         if (script == null) {
             try {
-                script = JexlASTHelper.parseAndFlattenJexlQuery(query);
+                // the cached script is shared with the other iterators of this query, so use a copy
+                script = (ASTJexlScript) RebuildingVisitor.copy(QueryOptionsCache.getScript(queryId, query, JexlASTHelper::parseAndFlattenJexlQuery));
             } catch (ParseException e) {
                 log.error("Failed to parse query", e);
                 throw new DatawaveFatalQueryException("Failed to parse query");
@@ -0,0 +1,137 @@
+package datawave.query.iterator;
+
+import java.util.Objects;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.commons.jexl3.parser.ASTJexlScript;
+import org.apache.log4j.Logger;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+
+import datawave.query.composite.CompositeMetadata;
+import datawave.query.util.TypeMetadata;
+
+/**
+ * A tserver wide cache of the artifacts parsed out of the {@link QueryOptions} of a query. A query is initialized once per range of a batch scan and again on
+ * every re-seek after a yield, and each initialization would otherwise parse the query and decompress and parse the type and composite metadata again.
+ *
+ * Entries are keyed by the query id, the kind of artifact and the exact option string it was parsed from, so a query can never be handed an artifact built
+ * from different options. The cached artifacts are shared between iterators and must not be modified; the parsed script in particular is copied by
+ * {@link QueryOptions#getScript()} before it is used.
+ */
+public class QueryOptionsCache {
+    private static final Logger log = Logger.getLogger(QueryOptionsCache.class);
+
+    public static final long DEFAULT_MAXIMUM_SIZE = 1000;
+    private static final long EXPIRE_AFTER_ACCESS_MINUTES = 10;
+
+    private static final Cache<Key,Object> cache = Caffeine.newBuilder().maximumSize(DEFAULT_MAXIMUM_SIZE)
+                    .expireAfterAccess(EXPIRE_AFTER_ACCESS_MINUTES, TimeUnit.MINUTES).recordStats().build();
+
+    private QueryOptionsCache() {}
+
+    /**
+     * Loads an artifact from an option string
+     *
+     * @param <T>
+     *            the type of the artifact
+     * @param <E>
+     *            the exception thrown when the option cannot be parsed
+     */
+    public interface Loader<T,E extends Exception> {
+        T load(String option) throws E;
+    }
+
+    public static <E extends Exception> TypeMetadata getTypeMetadata(String queryId, String option, Loader<TypeMetadata,E> loader) throws E {
+        return get(queryId, QueryOptions.TYPE_METADATA, option, loader);
+    }
+
+    public static <E extends Exception> CompositeMetadata getCompositeMetadata(String queryId, String option, Loader<CompositeMetadata,E> loader) throws E {
+        return get(queryId, QueryOptions.COMPOSITE_METADATA, option, loader);
+    }
+
+    public static <E extends Exception> ASTJexlScript getScript(String queryId, String option, Loader<ASTJexlScript,E> loader) throws E {
+        return get(queryId, QueryOptions.QUERY, option, loader);
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <T,E extends Exception> T get(String queryId, String kind, String option, Loader<T,E> loader) throws E {
+        // without a query id there is nothing to scope the entry to
+        if (queryId == null || option == null) {
+            return loader.load(option);
+        }
+        Key key = new Key(queryId, kind, option);
+        T value = (T) cache.getIfPresent(key);
+        if (value == null) {
+            value = loader.load(option);
+            if (value != null) {
+                cache.put(key, value);
+            }
+        } else if (log.isTraceEnabled()) {
+            log.trace("Using cached " + kind + " for query " + queryId);
+        }
+        return value;
+    }
+
+    /**
+     * Set the maximum number of cached artifacts
+     *
+     * @param maximumSize
+     *            the maximum size, 0 to disable caching
+     */
+    public static void setMaximumSize(long maximumSize) {
+        cache.policy().eviction().ifPresent(eviction -> eviction.setMaximum(Math.max(0, maximumSize)));
+    }
+
+    public static long getMaximumSize() {
+        return cache.policy().eviction().map(eviction -> eviction.getMaximum()).orElse(DEFAULT_MAXIMUM_SIZE);
+    }
+
+    /**
+     * @return the hit and miss counts of this cache since the tserver started
+     */
+    public static CacheStats getStats() {
+        return cache.stats();
+    }
+
+    public static long size() {
+        return cache.estimatedSize();
+    }
+
+    public static void invalidateAll() {
+        cache.invalidateAll();
+    }
+
+    private static class Key {
+        private final String queryId;
+        private final String kind;
+        private final String option;
+        private final int hashCode;
+
+        private Key(String queryId, String kind, String option) {
+            this.queryId = queryId;
+            this.kind = kind;
+            this.option = option;
+            this.hashCode = Objects.hash(queryId, kind, option);
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (o == null || getClass() != o.getClass()) {
+                return false;
+            }
+            Key that = (Key) o;
+            return hashCode == that.hashCode && queryId.equals(that.queryId) && kind.equals(that.kind) && option.equals(that.option);
+        }
+
+        @Override
+        public int hashCode() {
+            return hashCode;
+        }
+    }
+}
@@ -7,11 +7,14 @@ import org.apache.commons.jexl3.parser.JexlNode;
 
 import datawave.query.iterator.NestedIterator;
 import datawave.query.iterator.logic.AndIterator;
+import datawave.query.iterator.logic.LeapfrogAndIterator;
 
 public class AndIteratorBuilder extends AbstractIteratorBuilder {
 
     Set<JexlNode> compositePredicates = new HashSet<>();
 
+    protected boolean leapfrog = false;
+
     public Set<JexlNode> getCompositePredicates() {
         return compositePredicates;
     }
@@ -24,11 +27,28 @@ public class AndIteratorBuilder extends AbstractIteratorBuilder {
         this.compositePredicates = compositePredicates;
     }
 
+    public boolean isLeapfrog() {
+        return leapfrog;
+    }
+
+    /**
+     * Build a {@link LeapfrogAndIterator} instead of an {@link AndIterator}
+     *
+     * @param leapfrog
+     *            true to use the leapfrog intersection
+     */
+    public void setLeapfrog(boolean leapfrog) {
+        this.leapfrog = leapfrog;
+    }
+
     @SuppressWarnings({"rawtypes", "unchecked"})
     public <T> NestedIterator<T> build() {
         if (includes.isEmpty()) {
             throw new IllegalStateException("AndIterator has no inclusive sources!");
         }
+        if (leapfrog) {
+            return new LeapfrogAndIterator(includes, excludes, waitWindowObserver);
+        }
         return new AndIterator(includes, excludes, waitWindowObserver);
     }
 }
@@ -76,6 +76,7 @@ public class IndexFilterIteratorBuilder extends IvaratorBuilder implements Itera
                         .withScanThreshold(ivaratorCacheScanPersistThreshold)
                         .withScanTimeout(ivaratorCacheScanTimeout)
                         .withHdfsBackedSetBufferSize(ivaratorCacheBufferSize)
+                        .withOffHeapBuffer(ivaratorOffHeapBuffer)
                         .withMaxRangeSplit(maxRangeSplit)
                         .withMaxOpenFiles(ivaratorMaxOpenFiles)
                         .withMaxResults(maxIvaratorResults)
@@ -30,6 +30,7 @@ public abstract class IvaratorBuilder extends IndexIteratorBuilder {
     protected long ivaratorCacheScanPersistThreshold = 100000L;
     protected long ivaratorCacheScanTimeout = 1000L * 60 * 60;
     protected int ivaratorCacheBufferSize = 10000;
+    protected boolean ivaratorOffHeapBuffer = false;
     protected int maxRangeSplit = 11;
     protected int ivaratorMaxOpenFiles = 100;
     protected long maxIvaratorResults = -1;
@@ -99,6 +100,14 @@ public abstract class IvaratorBuilder extends IndexIteratorBuilder {
         this.ivaratorCacheBufferSize = ivaratorCacheBufferSize;
     }
 
+    public boolean isIvaratorOffHeapBuffer() {
+        return ivaratorOffHeapBuffer;
+    }
+
+    public void setIvaratorOffHeapBuffer(boolean ivaratorOffHeapBuffer) {
+        this.ivaratorOffHeapBuffer = ivaratorOffHeapBuffer;
+    }
+
     public long getIvaratorCacheScanPersistThreshold() {
         return ivaratorCacheScanPersistThreshold;
     }
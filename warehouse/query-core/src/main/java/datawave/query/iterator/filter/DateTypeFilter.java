@@ -10,6 +10,7 @@ import org.apache.accumulo.core.iterators.IteratorEnvironment;
 import org.apache.accumulo.core.iterators.SortedKeyValueIterator;
 
 import datawave.edge.util.EdgeKey;
+import datawave.edge.util.EdgeKeyView;
 import datawave.query.config.EdgeQueryConfiguration;
 
 /**
@@ -20,6 +21,9 @@ public class DateTypeFilter extends Filter {
 
     protected boolean[] state;
 
+    // reused across keys so that the date type can be read without decoding the key
+    private final EdgeKeyView keyView = new EdgeKeyView();
+
     @Override
     public SortedKeyValueIterator<Key,Value> deepCopy(IteratorEnvironment env) {
         DateTypeFilter result = (DateTypeFilter) super.deepCopy(env);
@@ -83,7 +87,8 @@ public class DateTypeFilter extends Filter {
     @Override
     public boolean accept(Key k, Value V) {
 
-        return (state[EdgeKey.getDateType(k).ordinal()]);
+        EdgeKey.DATE_TYPE keyDateType = keyView.set(k).getDateType();
+        return keyDateType != null && state[keyDateType.ordinal()];
     }
 
 }
@@ -37,6 +37,9 @@ public class IvaratorCacheDirConfig implements Serializable {
     // the minimum percent of available storage required to use this filesystem
     protected double minAvailableStoragePercent;
 
+    // whether to write to and memory map files directly on the local disk rather than through the hadoop filesystem. Only valid for 'file:' paths.
+    protected boolean memoryMapped;
+
     static {
         objectMapper.configure(SerializationFeature.WRITE_SINGLE_ELEM_ARRAYS_UNWRAPPED, true);
         objectMapper.configure(DeserializationFeature.ACCEPT_SINGLE_VALUE_AS_ARRAY, true);
@@ -88,6 +91,11 @@ public class IvaratorCacheDirConfig implements Serializable {
             result = false;
         }
 
+        if (memoryMapped && (basePathURI == null || !basePathURI.startsWith("file:/"))) {
+            log.warn("Invalid memoryMapped for IvaratorCacheDirConfig.  'memoryMapped' requires a 'file:' basePathURI");
+            result = false;
+        }
+
         return result;
     }
 
@@ -123,6 +131,14 @@ public class IvaratorCacheDirConfig implements Serializable {
         this.minAvailableStoragePercent = minAvailableStoragePercent;
     }
 
+    public boolean isMemoryMapped() {
+        return memoryMapped;
+    }
+
+    public void setMemoryMapped(boolean memoryMapped) {
+        this.memoryMapped = memoryMapped;
+    }
+
     public static String toJson(IvaratorCacheDirConfig ivaratorCacheDirConfig) throws JsonProcessingException {
         return toJson(Collections.singletonList(ivaratorCacheDirConfig));
     }
@@ -138,7 +154,7 @@ public class IvaratorCacheDirConfig implements Serializable {
     @Override
     public String toString() {
         return "IvaratorCacheDirConfig: [basePathURI: " + basePathURI + ", priority: " + priority + ", minAvailableStorageMiB: " + minAvailableStorageMiB
-                        + ", minAvailableStoragePercent: " + minAvailableStoragePercent + "]";
+                        + ", minAvailableStoragePercent: " + minAvailableStoragePercent + ", memoryMapped: " + memoryMapped + "]";
     }
 
     @Override
@@ -149,11 +165,12 @@ public class IvaratorCacheDirConfig implements Serializable {
             return false;
         IvaratorCacheDirConfig that = (IvaratorCacheDirConfig) o;
         return priority == that.priority && minAvailableStorageMiB == that.minAvailableStorageMiB
-                        && Double.compare(that.minAvailableStoragePercent, minAvailableStoragePercent) == 0 && Objects.equals(basePathURI, that.basePathURI);
+                        && Double.compare(that.minAvailableStoragePercent, minAvailableStoragePercent) == 0 && memoryMapped == that.memoryMapped
+                        && Objects.equals(basePathURI, that.basePathURI);
     }
 
     @Override
     public int hashCode() {
-        return Objects.hash(basePathURI, priority, minAvailableStorageMiB, minAvailableStoragePercent);
+        return Objects.hash(basePathURI, priority, minAvailableStorageMiB, minAvailableStoragePercent, memoryMapped);
     }
 }
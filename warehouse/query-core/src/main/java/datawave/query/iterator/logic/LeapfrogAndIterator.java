@@ -0,0 +1,824 @@
+package datawave.query.iterator.logic;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.LinkedList;
+import java.util.List;
+
+import org.apache.accumulo.core.data.ByteSequence;
+import org.apache.accumulo.core.data.Key;
+import org.apache.accumulo.core.data.Range;
+import org.apache.accumulo.core.iteratorsImpl.system.IterationInterruptedException;
+import org.apache.commons.lang3.tuple.Pair;
+import org.apache.log4j.Logger;
+
+import com.google.common.collect.TreeMultimap;
+
+import datawave.query.attributes.Document;
+import datawave.query.exceptions.DatawaveFatalQueryException;
+import datawave.query.exceptions.WaitWindowOverrunException;
+import datawave.query.iterator.NestedIterator;
+import datawave.query.iterator.Util;
+import datawave.query.iterator.Util.Transformer;
+import datawave.query.iterator.waitwindow.WaitWindowObserver;
+
+/**
+ * Performs a leapfrog join of the child iterators. It is expected that all child iterators return values in sorted order.
+ * <p>
+ * This produces the same results as the {@link AndIterator}, but the include heads are kept in arrays ordered cyclically by their current value instead of in a
+ * sorted multimap. The lowest head is always the next one to move and it is moved directly to the highest head, which makes each step of the join a single
+ * comparison with no allocation. This matters for intersections of many terms, where the multimap bookkeeping dominates the cost of the join.
+ * <p>
+ * Excludes and sources that require context are only consulted once the includes agree on a candidate, so they are handled exactly as in the
+ * {@link AndIterator}.
+ */
+public class LeapfrogAndIterator<T extends Comparable<T>> implements NestedIterator<T> {
+    // an id intended to be consistent across rebuilds
+    private final String id;
+
+    // temporary stores of uninitialized streams of iterators
+    private List<NestedIterator<T>> includes, excludes, contextIncludes, contextExcludes;
+
+    private WaitWindowObserver waitWindowObserver;
+    private Transformer<T> transformer;
+
+    // the include iterators, their transformed heads and their untransformed heads. Starting at lowest and wrapping around, the heads are in sorted order.
+    private NestedIterator<T>[] iterators;
+    private T[] heads;
+    private T[] tops;
+    private int size;
+    private int lowest;
+    private boolean exhausted;
+
+    private TreeMultimap<T,NestedIterator<T>> excludeHeads, contextIncludeHeads, contextExcludeHeads, contextIncludeNullHeads, contextExcludeNullHeads;
+    private T prev;
+    private T next;
+
+    private Document prevDocument, document;
+    private T evaluationContext;
+
+    private static final Logger log = Logger.getLogger(LeapfrogAndIterator.class);
+
+    public LeapfrogAndIterator(Iterable<NestedIterator<T>> sources) {
+        this(sources, null, null);
+    }
+
+    public LeapfrogAndIterator(Iterable<NestedIterator<T>> sources, Iterable<NestedIterator<T>> filters) {
+        this(sources, filters, null);
+    }
+
+    public LeapfrogAndIterator(Iterable<NestedIterator<T>> sources, Iterable<NestedIterator<T>> filters, WaitWindowObserver waitWindowObserver) {
+        this.waitWindowObserver = waitWindowObserver;
+        includes = new LinkedList<>();
+        contextIncludes = new LinkedList<>();
+        for (NestedIterator<T> src : sources) {
+            if (src.isContextRequired()) {
+                contextIncludes.add(src);
+            } else {
+                includes.add(src);
+            }
+        }
+
+        if (filters == null) {
+            excludes = Collections.emptyList();
+            contextExcludes = Collections.emptyList();
+        } else {
+            excludes = new LinkedList<>();
+            contextExcludes = new LinkedList<>();
+            for (NestedIterator<T> filter : filters) {
+                if (filter.isContextRequired()) {
+                    contextExcludes.add(filter);
+                } else {
+                    excludes.add(filter);
+                }
+            }
+        }
+        id = String.valueOf((long) includes.toString().hashCode() + excludes.toString().hashCode() + contextIncludes.toString().hashCode()
+                        + contextExcludes.toString().hashCode());
+    }
+
+    @SuppressWarnings("unchecked")
+    public void initialize() {
+        Comparator<T> keyComp = Util.keyComparator();
+        // nestedIteratorComparator will keep a deterministic ordering, unlike hashCodeComparator
+        Comparator<NestedIterator<T>> itrComp = Util.nestedIteratorComparator();
+
+        try {
+            transformer = Util.keyTransformer();
+
+            iterators = new NestedIterator[includes.size()];
+            heads = (T[]) new Comparable[includes.size()];
+            tops = (T[]) new Comparable[includes.size()];
+            size = 0;
+            lowest = 0;
+            exhausted = false;
+
+            for (NestedIterator<T> include : includes) {
+                include.initialize();
+                if (include.hasNext()) {
+                    T top = include.next();
+                    iterators[size] = include;
+                    tops[size] = top;
+                    heads[size] = transformer.transform(top);
+                    size++;
+                } else {
+                    // If a source has no valid records, it shouldn't throw an exception. It should just return no results.
+                    // For an And, once one source is exhausted, the entire tree is exhausted
+                    exhausted = true;
+                    break;
+                }
+            }
+            sortHeads();
+
+            if (excludes.isEmpty()) {
+                excludeHeads = Util.getEmpty();
+            } else {
+                excludeHeads = TreeMultimap.create(keyComp, itrComp);
+                try {
+                    for (NestedIterator<T> exclude : excludes) {
+                        exclude.initialize();
+                        if (exclude.hasNext()) {
+                            excludeHeads.put(transformer.transform(exclude.next()), exclude);
+                        }
+                    }
+                } catch (WaitWindowOverrunException e) {
+                    // excludes could be farther than the includes, so we don't want to use a yieldKey from the exception
+                    e.setYieldKey(Pair.of(null, id + ": yield while initializing excludes in LeapfrogAndIterator.initialize()"));
+                    throw e;
+                }
+            }
+
+            if (!contextIncludes.isEmpty()) {
+                contextIncludeHeads = TreeMultimap.create(keyComp, itrComp);
+                contextIncludeNullHeads = TreeMultimap.create(keyComp, itrComp);
+            }
+
+            if (contextExcludes != null && !contextExcludes.isEmpty()) {
+                contextExcludeHeads = TreeMultimap.create(keyComp, itrComp);
+                contextExcludeNullHeads = TreeMultimap.create(keyComp, itrComp);
+            }
+
+            next();
+        } catch (WaitWindowOverrunException e) {
+            Pair<Key,String> possibleYieldKey = null;
+            if (prev != null) {
+                // if prev != null then it's a match from the previous next() call that has not yet been returned
+                // set the exception yieldKey so that it is the only option to consider
+                // this shouldn't be possible during initialize
+                e.setYieldKey(this.waitWindowObserver.createYieldKey((Key) prev, true, id + ": prev in LeapfrogAndIterator.initialize()"));
+            } else if (next != null) {
+                // if next != null then it's a match from this next() call that has not yet been returned
+                // set the exception yieldKey so that it is the only option to consider
+                // this shouldn't be possible during initialize
+                e.setYieldKey(this.waitWindowObserver.createYieldKey((Key) next, true, id + ": next in LeapfrogAndIterator.initialize()"));
+            } else {
+                if (!exhausted && size > 0) {
+                    // if no keys were waiting to be returned, then our options are either the
+                    // highest key from the includes or the yieldKey that is in the exception
+                    possibleYieldKey = this.waitWindowObserver.createYieldKey((Key) highestHead(), true,
+                                    "highest includeHead in LeapfrogAndIterator.initialize()");
+                }
+            }
+            // When comparing possible yield keys in the AndIterator, we choose the highest
+            // key because the uids of the sources need to be equal to return a match
+            // and keys need to be returned in order
+            this.waitWindowObserver.propagateException(possibleYieldKey, true, false, e);
+        }
+    }
+
+    public boolean isInitialized() {
+        return iterators != null;
+    }
+
+    /**
+     * Apply a candidate as a context against both contextIncludes and contextExcludes.
+     *
+     * @param candidate
+     *            to be used as context against contextIncludes and contextExcludes
+     * @return true if candidate is included in all contextIncludes and excluded in all contextExcludes, false otherwise
+     */
+    private boolean applyContextRequired(T candidate) {
+        if (contextIncludes.size() > 0) {
+            T highestContextInclude = NestedIteratorContextUtil.intersect(candidate, contextIncludes, contextIncludeHeads, contextIncludeNullHeads,
+                            transformer);
+            // if there wasn't an intersection here move to the next one
+            if (!candidate.equals(highestContextInclude)) {
+                if (highestContextInclude != null) {
+                    // move to the next highest key
+                    moveIterators(highestContextInclude);
+                    return false;
+                } else {
+                    // all we know is they didn't intersect advance to next
+                    advanceIterators(candidate);
+                    return false;
+                }
+            }
+        }
+
+        // test any contextExcludes against candidate
+        if (contextExcludes.size() > 0) {
+            // DeMorgans Law: (~A) AND (~B) == ~(A OR B)
+            // for an exclude union lowest with the set
+            try {
+                T unionExclude = NestedIteratorContextUtil.union(candidate, contextExcludes, contextExcludeHeads, contextExcludeNullHeads, transformer);
+                // if the union matched it is not a hit
+                if (candidate.equals(unionExclude)) {
+                    // advance and try again
+                    advanceIterators(candidate);
+                    return false;
+                }
+            } catch (WaitWindowOverrunException e) {
+                // contextExcludes could be farther than the includes, so we don't want to use a yieldKey from the exception
+                e.setYieldKey(Pair.of(null, id + ": yield while advancing contextExcludes in LeapfrogAndIterator.applyContextRequired()"));
+                throw e;
+            }
+        }
+
+        return true;
+    }
+
+    /**
+     * return the previously found next and set its document. If there are more includes, leapfrog them until they all agree on a value that is not filtered,
+     * advancing all includes past that value and set next/document for the next call
+     *
+     * @return the previously found next
+     */
+    public T next() {
+        if (!isInitialized()) {
+            throw new IllegalStateException("initialize() was never called");
+        }
+        if (isContextRequired() && evaluationContext == null) {
+            throw new IllegalStateException("evaluationContext must be set prior to calling next");
+        }
+
+        if (log.isDebugEnabled()) {
+            log.debug(id + ": next will return " + next + " ; heads at " + headsToString());
+        }
+
+        prev = next;
+        prevDocument = document;
+        T highest = null;
+
+        try {
+            // look through includes for candidates if there are any
+            while (!exhausted && size > 0) {
+                T low = heads[lowest];
+                highest = highestHead();
+                T target = highest;
+
+                // short circuit if possible from a supplied evaluation context
+                if (evaluationContext != null) {
+                    checkWaitWindow(evaluationContext, "evaluationContext short circuit", "LeapfrogAndIterator.next()");
+                    if (highest.compareTo(evaluationContext) > 0) {
+                        // if any value is beyond the evaluationContext it's not possible to intersect
+                        break;
+                    }
+
+                    // anything less than the evaluation context must be moved to the evaluation context
+                    target = evaluationContext;
+                }
+                checkWaitWindow(highest, "highest includeHead", "LeapfrogAndIterator.next()");
+
+                if (low.compareTo(target) < 0) {
+                    // haven't converged yet, move the lowest to the target and it becomes the highest
+                    leapfrog(target);
+                    continue;
+                }
+
+                // the lowest has reached the target, so all of the includes are currently intersecting
+                boolean isFiltered;
+                try {
+                    // make sure this value isn't filtered
+                    isFiltered = NegationFilter.isFiltered(low, excludeHeads, transformer);
+                } catch (WaitWindowOverrunException e) {
+                    // excludeHeads could be farther than the includes, so we don't want to use a yieldKey from the exception
+                    e.setYieldKey(Pair.of(null, id + ": yield while calling NegationFilter.isFiltered with lowest/excludeHeads in LeapfrogAndIterator.next()"));
+                    throw e;
+                }
+                if (!isFiltered) {
+                    // use this value as a candidate against any includes/excludes that require context
+                    if (applyContextRequired(low)) {
+                        // found a match, set next/document and advance
+                        next = tops[lowest];
+                        document = buildDocument(low);
+                        advanceIterators(low);
+                        break;
+                    }
+                } else {
+                    // filtered, advance the iterators (which are all currently pointing at the same point)
+                    advanceIterators(low);
+                }
+            }
+
+            // for cases where there are no sources the only source for a candidate is the evaluationContext.
+            if (isContextRequired()) {
+                checkWaitWindow(evaluationContext, "evaluationContext", "LeapfrogAndIterator.next()");
+                // test exclude for the candidate in case there are excludes
+                boolean isFiltered;
+                try {
+                    // make sure this value isn't filtered
+                    isFiltered = NegationFilter.isFiltered(evaluationContext, excludeHeads, transformer);
+                } catch (WaitWindowOverrunException e) {
+                    // excludeHeads could be farther than the includes, so we don't want to use a yieldKey from the exception
+                    e.setYieldKey(Pair.of(null, id + ": yield while calling NegationFilter.isFiltered with excludeHeads in LeapfrogAndIterator.next()"));
+                    throw e;
+                }
+                if (!isFiltered) {
+                    if (applyContextRequired(evaluationContext)) {
+                        next = evaluationContext;
+                        document = Util.buildNewDocument(Collections.emptyList());
+                    }
+                }
+            }
+        } catch (WaitWindowOverrunException e) {
+            Pair<Key,String> possibleYieldKey = null;
+            if (prev != null) {
+                // if prev != null then it's a match from the previous next() call that has not yet been returned
+                // set the exception yieldKey so that it is the only option to consider
+                e.setYieldKey(this.waitWindowObserver.createYieldKey((Key) prev, true, id + ": prev in LeapfrogAndIterator.next()"));
+            } else if (next != null) {
+                // if next != null then it's a match from this next() call that has not yet been returned
+                // set the exception yieldKey so that it is the only option to consider
+                e.setYieldKey(this.waitWindowObserver.createYieldKey((Key) next, true, id + ": next in LeapfrogAndIterator.next()"));
+            } else {
+                // if no keys were waiting to be returned, then our options are either the
+                // highest key from the includes or the yieldKey that is in the exception
+                possibleYieldKey = this.waitWindowObserver.createYieldKey((Key) highest, true, id + ": highest includeHead in LeapfrogAndIterator.next()");
+            }
+            // When comparing possible yield keys in the AndIterator, we choose the highest
+            // key because the uids of the sources need to be equal to return a match
+            // and keys need to be returned in order
+            this.waitWindowObserver.propagateException(possibleYieldKey, true, false, e);
+        }
+
+        // if we didn't move after the loop, then we don't have a next after this
+        if (prev == next) {
+            next = null;
+        }
+
+        if (log.isDebugEnabled()) {
+            log.debug(id + ": next returning " + prev + "; cached next is " + next + " ; heads at " + headsToString());
+        }
+
+        return prev;
+    }
+
+    private void checkWaitWindow(T key, String keyDescription, String location) {
+        if (this.waitWindowObserver != null) {
+            if (prev != null) {
+                // if prev != null then it's a match from the previous next() call that has not yet been returned
+                this.waitWindowObserver.checkWaitWindow((Key) prev, true, id + ": prev in " + location);
+            } else if (next != null) {
+                // if next != null then it's a match from this next() call that has not yet been returned
+                this.waitWindowObserver.checkWaitWindow((Key) next, true, id + ": next in " + location);
+            } else {
+                this.waitWindowObserver.checkWaitWindow((Key) key, true, id + ": " + keyDescription + " in " + location);
+            }
+        }
+    }
+
+    public void remove() {
+        throw new UnsupportedOperationException("This iterator does not support remove.");
+    }
+
+    public boolean hasNext() {
+        if (!isInitialized()) {
+            throw new IllegalStateException("initialize() was never called");
+        }
+
+        return next != null;
+    }
+
+    @Override
+    public void seek(Range range, Collection<ByteSequence> columnFamilies, boolean inclusive) throws IOException {
+        if (log.isDebugEnabled()) {
+            log.debug(id + ": seeking to " + range);
+        }
+
+        // seek all iterators. Drop those that fail, as long as we have at least one include left
+        Iterator<NestedIterator<T>> include = includes.iterator();
+        while (include.hasNext()) {
+            NestedIterator<T> child = include.next();
+            try {
+                try {
+                    child.seek(range, columnFamilies, inclusive);
+                } catch (IterationInterruptedException e2) {
+                    // throw IterationInterrupted exceptions as-is with no modifications so the QueryIterator can handle it
+                    throw e2;
+                } catch (WaitWindowOverrunException e) {
+                    log.debug(id + ": LeapfrogAndIterator.seek() passing through WaitWindowOverrunException: " + e.getMessage());
+                    throw e;
+                } catch (Exception e2) {
+                    if (child.isNonEventField()) {
+                        // dropping a non-event term from the query means that the accuracy of the query
+                        // cannot be guaranteed. Thus, a fatal exception.
+                        log.error(id + ": Lookup of a non-event field failed, failing query");
+                        throw new DatawaveFatalQueryException("Lookup of non-event field failed", e2);
+                    }
+                    // otherwise we can safely drop this term from the intersection as the field will get re-introduced
+                    // to the context when the event is aggregated
+                    // Note: even though the precision of the query is affected the accuracy is not. i.e., documents that
+                    // would have been defeated at the field index will now be defeated at evaluation time
+                    throw e2;
+                }
+            } catch (WaitWindowOverrunException e) {
+                log.debug(id + ": LeapfrogAndIterator.seek() passing through WaitWindowOverrunException: " + e.getMessage());
+                // When comparing possible yield keys in the AndIterator, we choose the highest
+                // key because the uids of the sources need to be equal to return a match
+                this.waitWindowObserver.propagateException(null, true, false, e);
+            } catch (IterationInterruptedException iie) {
+                // allow the QueryIterator to handle these exceptions
+                throw iie;
+            } catch (Exception e) {
+                include.remove();
+                removeIterator(child);
+                if (includes.isEmpty() || e instanceof DatawaveFatalQueryException) {
+                    throw e;
+                } else {
+                    log.warn(id + ": Lookup of event field failed, precision of query reduced.");
+                }
+            }
+        }
+
+        for (NestedIterator<T> contextInclude : contextIncludes) {
+            contextInclude.seek(range, columnFamilies, inclusive);
+        }
+
+        try {
+            for (NestedIterator<T> exclude : excludes) {
+                exclude.seek(range, columnFamilies, inclusive);
+            }
+        } catch (WaitWindowOverrunException e) {
+            // excludes could be farther than the includes, so we don't want to use a yieldKey from the exception
+            e.setYieldKey(Pair.of(null, id + ": yield while calling seek on excludes in LeapfrogAndIterator.seek()"));
+            throw e;
+        }
+
+        if (isInitialized()) {
+            // advance throwing next away and re-populating next with what should be
+            next();
+        }
+    }
+
+    /**
+     * Test all layers of cache for the minimum, then if necessary advance heads
+     *
+     * @param minimum
+     *            the minimum to return
+     * @return the first greater than or equal to minimum or null if none exists
+     * @throws IllegalStateException
+     *             if prev is greater than or equal to minimum
+     */
+    public T move(T minimum) {
+        if (!isInitialized()) {
+            throw new IllegalStateException("initialize() was never called");
+        }
+
+        if (prev != null && prev.compareTo(minimum) >= 0) {
+            throw new IllegalStateException("Tried to call move when already at or beyond move point: topkey=" + prev + ", movekey=" + minimum);
+        }
+
+        if (log.isDebugEnabled()) {
+            log.debug(id + ": moving to " + minimum);
+        }
+
+        // test if the cached next is already beyond the minimum
+        if (next != null && next.compareTo(minimum) >= 0) {
+            // simply advance to next
+            return next();
+        }
+
+        moveIterators(minimum);
+
+        // next < minimum, so advance throwing next away and re-populating next with what should be >= minimum
+        next();
+
+        // now as long as the newly computed next exists return it and advance
+        if (hasNext()) {
+            return next();
+        } else {
+            exhausted = true;
+            return null;
+        }
+    }
+
+    public Collection<NestedIterator<T>> leaves() {
+        LinkedList<NestedIterator<T>> leaves = new LinkedList<>();
+        // treat this node as a leaf to allow us to pass through the seek method and appropriately drop branches if possible.
+        leaves.add(this);
+        return leaves;
+    }
+
+    @Override
+    public Collection<NestedIterator<T>> children() {
+        ArrayList<NestedIterator<T>> children = new ArrayList<>(includes.size() + excludes.size() + contextIncludes.size() + contextExcludes.size());
+
+        children.addAll(includes);
+        children.addAll(excludes);
+        children.addAll(contextIncludes);
+        children.addAll(contextExcludes);
+
+        return children;
+    }
+
+    /**
+     * Moves the lowest include to the target. Since the target is at least the highest head, the moved include becomes the highest and the next include in the
+     * cycle becomes the lowest.
+     *
+     * @param target
+     *            the value to move the lowest include to
+     */
+    private void leapfrog(T target) {
+        T top = iterators[lowest].move(target);
+        if (top == null) {
+            exhausted = true;
+            return;
+        }
+
+        tops[lowest] = top;
+        heads[lowest] = transformer.transform(top);
+        lowest = (lowest + 1) % size;
+    }
+
+    /**
+     * Advances all of the includes, which must all be pointing at the supplied key. The first include is advanced with <code>next</code> and the rest are
+     * moved directly to the highest value seen so far. Includes that fail on an event field are dropped from the intersection.
+     *
+     * @param key
+     *            the key all of the includes are pointing at
+     */
+    private void advanceIterators(T key) {
+        if (log.isDebugEnabled()) {
+            log.debug(id + ": advancing to " + key + ": " + headsToString());
+        }
+
+        boolean seenException = false;
+        T highest = null;
+        int i = 0;
+        while (i < size) {
+            NestedIterator<T> itr = iterators[i];
+            try {
+                T top;
+                // if there is already a known highest go straight there instead of next
+                if (highest != null) {
+                    top = itr.move(highest);
+                } else if (itr.hasNext()) {
+                    top = itr.next();
+                } else {
+                    exhausted = true;
+                    return;
+                }
+
+                if (top == null) {
+                    exhausted = true;
+                    return;
+                }
+
+                T transform = transformer.transform(top);
+                tops[i] = top;
+                heads[i] = transform;
+                i++;
+
+                // move the highest if the new key is higher than the current key and the highest seen so far
+                if ((highest == null && transform.compareTo(key) > 0) || (highest != null && transform.compareTo(highest) > 0)) {
+                    highest = transform;
+                }
+            } catch (WaitWindowOverrunException wwoe) {
+                log.debug(id + ": LeapfrogAndIterator.advanceIterators() passing through WaitWindowOverrunException: " + wwoe.getMessage());
+                throw wwoe;
+            } catch (IterationInterruptedException ie) {
+                // allow the QueryIterator to handle these exceptions
+                throw ie;
+            } catch (Exception e) {
+                seenException = true;
+                if (itr.isNonEventField()) {
+                    // dropping a non-event term from the query means that the accuracy of the query
+                    // cannot be guaranteed. Thus, a fatal exception.
+                    throw new DatawaveFatalQueryException("Lookup of non-event term failed", e);
+                } else {
+                    log.warn(id + ": Lookup of event field failed, precision of query reduced.");
+                    removeIterator(i);
+                }
+            }
+        }
+
+        // only need to actually fail if we have nothing left in the AND clause
+        if (seenException && size == 0) {
+            log.error(id + ": Failing query because all iterators within an intersection failed");
+            throw new DatawaveFatalQueryException("Exception in underlying iterator was destructive");
+        }
+
+        sortHeads();
+
+        if (log.isDebugEnabled()) {
+            log.debug(id + ": advanced to " + key + ": " + headsToString());
+        }
+    }
+
+    /**
+     * Moves every include that is less than the supplied value to at least that value. The target is raised to the highest head along the way since an
+     * intersection is not possible at anything less.
+     *
+     * @param to
+     *            the destination
+     */
+    private void moveIterators(T to) {
+        if (exhausted || size == 0) {
+            return;
+        }
+
+        if (log.isDebugEnabled()) {
+            log.debug(id + ": moving iterators to " + to + ": " + headsToString());
+        }
+
+        T target = to;
+        T highest = highestHead();
+        if (highest.compareTo(target) > 0) {
+            target = highest;
+        }
+
+        for (int i = 0; i < size; i++) {
+            if (heads[i].compareTo(to) < 0) {
+                T top = iterators[i].move(target);
+                if (top == null) {
+                    exhausted = true;
+                    return;
+                }
+
+                T transform = transformer.transform(top);
+                tops[i] = top;
+                heads[i] = transform;
+
+                if (transform.compareTo(target) > 0) {
+                    target = transform;
+                }
+            }
+        }
+
+        sortHeads();
+
+        if (log.isDebugEnabled()) {
+            log.debug(id + ": moved iterators to " + target + ": " + headsToString());
+        }
+    }
+
+    private T highestHead() {
+        return heads[(lowest + size - 1) % size];
+    }
+
+    /**
+     * Insertion sort of the includes by their current head. The includes are usually close to sorted already, and there is no allocation.
+     */
+    private void sortHeads() {
+        for (int i = 1; i < size; i++) {
+            NestedIterator<T> itr = iterators[i];
+            T head = heads[i];
+            T top = tops[i];
+            int j = i - 1;
+            while (j >= 0 && heads[j].compareTo(head) > 0) {
+                iterators[j + 1] = iterators[j];
+                heads[j + 1] = heads[j];
+                tops[j + 1] = tops[j];
+                j--;
+            }
+            iterators[j + 1] = itr;
+            heads[j + 1] = head;
+            tops[j + 1] = top;
+        }
+        lowest = 0;
+    }
+
+    private void removeIterator(NestedIterator<T> itr) {
+        if (iterators != null) {
+            for (int i = 0; i < size; i++) {
+                if (iterators[i] == itr) {
+                    removeIterator(i);
+                    sortHeads();
+                    return;
+                }
+            }
+        }
+    }
+
+    private void removeIterator(int index) {
+        // drop it from the includes as well, so that it is not seeked, initialized or reported as a child again
+        NestedIterator<T> itr = iterators[index];
+        includes.removeIf(include -> include == itr);
+
+        int remaining = size - index - 1;
+        System.arraycopy(iterators, index + 1, iterators, index, remaining);
+        System.arraycopy(heads, index + 1, heads, index, remaining);
+        System.arraycopy(tops, index + 1, tops, index, remaining);
+        size--;
+        iterators[size] = null;
+        heads[size] = null;
+        tops[size] = null;
+    }
+
+    private Document buildDocument(T candidate) {
+        Document d = new Document();
+        for (int i = 0; i < size; i++) {
+            d.putAll(iterators[i].document().getDictionary().entrySet().iterator(), false);
+        }
+
+        if (contextIncludeHeads != null) {
+            // context includes may not map to the candidate
+            for (NestedIterator<T> contextInclude : contextIncludeHeads.get(candidate)) {
+                Document doc = contextInclude.document();
+                if (doc != null) {
+                    d.putAll(doc.getDictionary().entrySet().iterator(), false);
+                }
+            }
+        }
+        return d;
+    }
+
+    private String headsToString() {
+        if (exhausted || heads == null) {
+            return "[]";
+        }
+
+        StringBuilder sb = new StringBuilder("[");
+        for (int i = 0; i < size; i++) {
+            if (i > 0) {
+                sb.append(", ");
+            }
+            sb.append(heads[(lowest + i) % size]);
+        }
+        return sb.append(']').toString();
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder sb = new StringBuilder(id + ": LeapfrogAndIterator: ");
+
+        sb.append("Includes: ");
+        sb.append(includes);
+        sb.append(", Deferred Includes: ");
+        sb.append(contextIncludes);
+        sb.append(", Excludes: ");
+        sb.append(excludes);
+        sb.append(", Deferred Excludes: ");
+        sb.append(contextExcludes);
+
+        return sb.toString();
+    }
+
+    public Document document() {
+        return prevDocument;
+    }
+
+    /**
+     * As long as there is at least one sourced included no context is required
+     *
+     * @return true if there are no includes, false otherwise
+     */
+    @Override
+    public boolean isContextRequired() {
+        return includes.isEmpty();
+    }
+
+    /**
+     * This context will be used even if isContextRequired is false as an anchor point for highest/lowest during next calls
+     *
+     * @param context
+     *            a context
+     */
+    @Override
+    public void setContext(T context) {
+        this.evaluationContext = context;
+    }
+
+    @Override
+    public boolean isNonEventField() {
+        for (NestedIterator<T> itr : includes) {
+            if (itr.isNonEventField()) {
+                return true;
+            }
+        }
+
+        for (NestedIterator<T> itr : contextIncludes) {
+            if (itr.isNonEventField()) {
+                return true;
+            }
+        }
+
+        for (NestedIterator<T> itr : excludes) {
+            if (itr.isNonEventField()) {
+                return true;
+            }
+        }
+
+        for (NestedIterator<T> itr : contextExcludes) {
+            if (itr.isNonEventField()) {
+                return true;
+            }
+        }
+
+        return false;
+    }
+}
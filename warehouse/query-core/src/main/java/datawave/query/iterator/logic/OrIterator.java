@@ -5,14 +5,8 @@ import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.Comparator;
-import java.util.HashMap;
-import java.util.Iterator;
 import java.util.LinkedList;
 import java.util.List;
-import java.util.Map;
-import java.util.Set;
-import java.util.SortedSet;
-import java.util.TreeSet;
 
 import org.apache.accumulo.core.data.ByteSequence;
 import org.apache.accumulo.core.data.Key;
@@ -27,9 +21,11 @@ import datawave.query.exceptions.WaitWindowOverrunException;
 import datawave.query.iterator.NestedIterator;
 import datawave.query.iterator.Util;
 import datawave.query.iterator.waitwindow.WaitWindowObserver;
+import datawave.query.util.TournamentTree;
 
 /**
- * Performs a deduping merge of iterators.
+ * Performs a deduping merge of iterators. The heads of the includes are merged with a {@link TournamentTree}, so each step costs about log2(k) comparisons for
+ * k includes and no allocation, which matters for wide unions such as expanded regexes.
  *
  * @param <T>
  *            type cast
@@ -41,10 +37,19 @@ public class OrIterator<T extends Comparable<T>> implements NestedIterator<T> {
     // temporary stores of uninitialized streams of iterators
     private List<NestedIterator<T>> includes, contextIncludes, contextExcludes;
 
-    private Map<T,T> transforms;
     private Util.Transformer<T> transformer;
+    private Comparator<T> keyComp;
 
-    private TreeMultimap<T,NestedIterator<T>> includeHeads, contextIncludeHeads, contextIncludeNullHeads, contextExcludeHeads, contextExcludeNullHeads;
+    // the includes, their untransformed heads, and a tree of their transformed heads
+    private NestedIterator<T>[] includeItrs;
+    private T[] includeTops;
+    private TournamentTree<T> includeHeads;
+
+    // the includes tied at the lowest head, which are set aside in includeHeads while they are used and advanced
+    private int[] lowestItrs;
+    private int numLowestItrs;
+
+    private TreeMultimap<T,NestedIterator<T>> contextIncludeHeads, contextIncludeNullHeads, contextExcludeHeads, contextExcludeNullHeads;
 
     private T prev;
     private T next;
@@ -91,17 +96,21 @@ public class OrIterator<T extends Comparable<T>> implements NestedIterator<T> {
      * Allows creators of this iterator to defer creating the sorted mapping of values to iterators until some condition is met. This is intended to let us
      * build the tree of iterators in <code>init()</code> and defer sorting the iterators until after <code>seek()</code> is called.
      */
+    @SuppressWarnings("unchecked")
     public void initialize() {
-        Comparator<T> keyComp = Util.keyComparator();
+        keyComp = Util.keyComparator();
         // nestedIteratorComparator will keep a deterministic ordering, unlike hashCodeComparator
         Comparator<NestedIterator<T>> itrComp = Util.nestedIteratorComparator();
 
         transformer = Util.keyTransformer();
-        transforms = new HashMap<>();
 
         try {
-            includeHeads = TreeMultimap.create(keyComp, itrComp);
-            initSubtree(includeHeads, includes, transformer, transforms, false);
+            includeItrs = includes.toArray(new NestedIterator[0]);
+            includeTops = (T[]) new Comparable[includeItrs.length];
+            includeHeads = new TournamentTree<>(includeItrs.length, keyComp);
+            lowestItrs = new int[includeItrs.length];
+            numLowestItrs = 0;
+            initIncludes();
 
             if (contextIncludes.size() > 0) {
                 contextIncludeHeads = TreeMultimap.create(keyComp, itrComp);
@@ -128,7 +137,7 @@ public class OrIterator<T extends Comparable<T>> implements NestedIterator<T> {
                 e.setYieldKey(this.waitWindowObserver.createYieldKey((Key) next, true, id + ": next in OrIterator.initialize()"));
             } else if (!includeHeads.isEmpty()) {
                 // choose the lowest key in includeHeads because a match in any candidate of an OrIterator can cause a valid result
-                possibleYieldKey = this.waitWindowObserver.createYieldKey((Key) includeHeads.keySet().first(), true,
+                possibleYieldKey = this.waitWindowObserver.createYieldKey((Key) includeHeads.peek(), true,
                                 id + ": lowest includeHead in OrIterator.initialize()");
             } else {
                 // this is needed in case initSubtree did not complete so that we do not use a greater yieldKey from the exception while
@@ -163,18 +172,19 @@ public class OrIterator<T extends Comparable<T>> implements NestedIterator<T> {
         }
 
         if (log.isDebugEnabled()) {
-            log.debug(id + ": next will return " + next + " ; heads at " + includeHeads.keySet());
+            log.debug(id + ": next will return " + next + " ; heads at " + includeHeads);
         }
 
         prev = next;
         prevDocument = document;
 
-        SortedSet<T> candidateSet = new TreeSet<>(Util.keyComparator());
-        T lowest;
+        // the lowest of the candidates, ties go to the first candidate considered
+        T lowest = null;
         try {
-            if (includeHeads.keySet().size() > 0) {
-                lowest = includeHeads.keySet().first();
-                candidateSet.add(lowest);
+            T lowestInclude = null;
+            if (!includeHeads.isEmpty()) {
+                lowestInclude = includeHeads.peek();
+                lowest = lowestInclude;
             }
 
             T lowestContextInclude = null;
@@ -183,8 +193,8 @@ public class OrIterator<T extends Comparable<T>> implements NestedIterator<T> {
                     // get the lowest union and add it for contextRequiredIncludes
                     lowestContextInclude = NestedIteratorContextUtil.union(evaluationContext, contextIncludes, contextIncludeHeads, contextIncludeNullHeads,
                                     transformer);
-                    if (lowestContextInclude != null) {
-                        candidateSet.add(lowestContextInclude);
+                    if (lowestContextInclude != null && (lowest == null || keyComp.compare(lowestContextInclude, lowest) < 0)) {
+                        lowest = lowestContextInclude;
                     }
                 }
 
@@ -194,8 +204,8 @@ public class OrIterator<T extends Comparable<T>> implements NestedIterator<T> {
                     try {
                         T intersectExclude = NestedIteratorContextUtil.intersect(evaluationContext, contextExcludes, contextExcludeHeads,
                                         contextExcludeNullHeads, transformer);
-                        if (!evaluationContext.equals(intersectExclude)) {
-                            candidateSet.add(evaluationContext);
+                        if (!evaluationContext.equals(intersectExclude) && (lowest == null || keyComp.compare(evaluationContext, lowest) < 0)) {
+                            lowest = evaluationContext;
                         }
                     } catch (WaitWindowOverrunException e) {
                         // contextExcludes could be farther than the includes, so we don't want to use a yieldKey from the exception
@@ -206,28 +216,33 @@ public class OrIterator<T extends Comparable<T>> implements NestedIterator<T> {
             }
 
             // take the lowest of the candidates
-            if (candidateSet.size() > 0) {
-                lowest = candidateSet.first();
+            if (lowest != null) {
                 checkWaitWindow(lowest, "lowest candidate", "OrIterator.next()");
 
+                // set aside all includes at the lowest, regardless of where we hit they will be advanced
+                boolean includeHit = lowestInclude != null && keyComp.compare(lowestInclude, lowest) == 0;
+                if (includeHit) {
+                    removeLowest();
+                }
+
                 // decide how to construct the document
                 if (lowest.equals(lowestContextInclude)) {
                     // build it from the contextIncludeHeads
                     next = lowestContextInclude;
                     document = Util.buildNewDocument(contextIncludeHeads.get(next));
-                } else if (includeHeads.keySet().size() > 0 && lowest.equals(includeHeads.keySet().first())) {
-                    // build it from the includeHeads
-                    next = transforms.get(lowest);
-                    document = Util.buildNewDocument(includeHeads.get(lowest));
+                } else if (lowestInclude != null && lowest.equals(lowestInclude)) {
+                    // build it from the includes at the lowest
+                    next = includeTops[lowestItrs[0]];
+                    document = buildLowestDocument();
                 } else {
                     // nothing to build it from all we know is that it wasn't in the exclude set
                     next = evaluationContext;
                     document = Util.buildNewDocument(Collections.emptyList());
                 }
 
-                // regardless of where we hit make sure to advance includeHeads if it matches there
-                if (includeHeads != null && includeHeads.containsKey(lowest)) {
-                    includeHeads = advanceIterators(lowest);
+                // regardless of where we hit make sure to advance the includes if it matches there
+                if (includeHit) {
+                    advanceIterators(lowest);
                 }
             }
         } catch (WaitWindowOverrunException e) {
@@ -240,10 +255,9 @@ public class OrIterator<T extends Comparable<T>> implements NestedIterator<T> {
                 // if next != null then it's a match from this next() call that has not yet been returned
                 // set the exception yieldKey so that it is the only option to consider
                 e.setYieldKey(this.waitWindowObserver.createYieldKey((Key) next, true, id + ": next in OrIterator.next()"));
-            } else if (!includeHeads.keySet().isEmpty()) {
+            } else if (!includeHeads.isEmpty()) {
                 // Choose the lowest candidate because a match in any candidate of an OrIterator can cause a valid result
-                possibleYieldKey = this.waitWindowObserver.createYieldKey((Key) includeHeads.keySet().first(), true,
-                                id + ": lowest includeHead in OrIterator.next()");
+                possibleYieldKey = this.waitWindowObserver.createYieldKey((Key) includeHeads.peek(), true, id + ": lowest includeHead in OrIterator.next()");
             } else {
                 // We can not assume that the exception yieldKey is the lowest possible yieldKey. If the yieldKey Pair with a null reaches the top
                 // of the iterator chain, it will be replaced with the range start key in handleWaitWindowOverrun of SerialIterator/PipelineIterator
@@ -260,7 +274,7 @@ public class OrIterator<T extends Comparable<T>> implements NestedIterator<T> {
         }
 
         if (log.isDebugEnabled()) {
-            log.debug(id + ": next returning " + prev + "; cached next is " + next + " ; heads at " + includeHeads.keySet());
+            log.debug(id + ": next returning " + prev + "; cached next is " + next + " ; heads at " + includeHeads);
         }
 
         return prev;
@@ -309,14 +323,8 @@ public class OrIterator<T extends Comparable<T>> implements NestedIterator<T> {
             return next();
         }
 
-        Set<T> headSet = includeHeads.keySet().headSet(minimum);
-
         // some iterators need to be moved into the target range before recalculating the next
-        Iterator<T> topKeys = new LinkedList<>(headSet).iterator();
-        while (!includeHeads.isEmpty() && topKeys.hasNext()) {
-            // advance each iterator that is under the threshold
-            includeHeads = moveIterators(topKeys.next(), minimum);
-        }
+        moveIterators(minimum);
 
         // next < minimum, so advance throwing next away and re-populating next with what should be >= minimum
         next();
@@ -325,7 +333,7 @@ public class OrIterator<T extends Comparable<T>> implements NestedIterator<T> {
         if (hasNext()) {
             return next();
         } else {
-            includeHeads = Util.getEmpty();
+            includeHeads.removeAll();
             return null;
         }
     }
@@ -359,85 +367,120 @@ public class OrIterator<T extends Comparable<T>> implements NestedIterator<T> {
     }
 
     /**
-     * Advances all iterators associated with the supplied key and adds them back into the sorted multimap. If any of the sub-trees returns false, then they are
+     * Sets aside every include tied at the lowest head. Their indices are kept in <code>lowestItrs</code> until they are advanced.
+     */
+    private void removeLowest() {
+        T lowest = includeHeads.peek();
+        numLowestItrs = 0;
+        do {
+            int leaf = includeHeads.winner();
+            lowestItrs[numLowestItrs++] = leaf;
+            includeHeads.remove(leaf);
+        } while (!includeHeads.isEmpty() && keyComp.compare(includeHeads.peek(), lowest) == 0);
+    }
+
+    /**
+     * Restores the includes that were set aside, but not yet advanced, at their previous heads
+     *
+     * @param from
+     *            the first of the set aside includes to restore
+     */
+    private void restoreLowest(int from) {
+        for (int i = from; i < numLowestItrs; i++) {
+            includeHeads.update(lowestItrs[i], includeHeads.get(lowestItrs[i]));
+        }
+        numLowestItrs = 0;
+    }
+
+    private Document buildLowestDocument() {
+        Document d = new Document();
+        for (int i = 0; i < numLowestItrs; i++) {
+            d.putAll(includeItrs[lowestItrs[i]].document().getDictionary().entrySet().iterator(), false);
+        }
+        return d;
+    }
+
+    /**
+     * Advances all includes that were set aside at the supplied key and puts them back into the tree. If any of the sub-trees are exhausted, then they are
      * dropped.
      *
      * @param key
      *            a key
-     * @return a sorted map
      */
-    private TreeMultimap<T,NestedIterator<T>> advanceIterators(T key) {
+    private void advanceIterators(T key) {
         if (log.isDebugEnabled()) {
-            log.debug(id + ": advancing to " + key + ": " + includeHeads.keySet());
+            log.debug(id + ": advancing to " + key + ": " + includeHeads);
         }
 
-        SortedSet<NestedIterator<T>> includedItrs = includeHeads.removeAll(key);
+        int i = 0;
         try {
-            transforms.remove(key);
-            for (NestedIterator<T> itr : includedItrs) {
+            for (; i < numLowestItrs; i++) {
+                int leaf = lowestItrs[i];
+                NestedIterator<T> itr = includeItrs[leaf];
                 if (itr.hasNext()) {
                     T next = itr.next();
-                    T transform = transformer.transform(next);
-                    transforms.put(transform, next);
-                    includeHeads.put(transform, itr);
+                    includeTops[leaf] = next;
+                    includeHeads.update(leaf, transformer.transform(next));
                 }
             }
+            numLowestItrs = 0;
         } catch (WaitWindowOverrunException e) {
-            // Since we didn't advance all itrs from includeHeads.removeAll(key), we don't know which one
-            // would have been the lowest if the operation completed, so we add back the key that was removed.
-            // Since we are only concerned about the key and want the original value, skip the transform
-            includeHeads.putAll(key, includedItrs);
+            // Since we didn't advance all the includes at the key, we don't know which one would have been
+            // the lowest if the operation completed, so we add back the key for those that were not advanced
+            restoreLowest(i);
             // make sure the yield key is not past what we are moving to
             e.setYieldKey(this.waitWindowObserver.createYieldKey((Key) key, true, id + ": to in OrIterator.advanceIterators()"));
             throw e;
         }
 
         if (log.isDebugEnabled()) {
-            log.debug(id + ": advanced to " + key + ": " + includeHeads.keySet());
+            log.debug(id + ": advanced to " + key + ": " + includeHeads);
         }
-
-        return includeHeads;
     }
 
     /**
-     * Similar to <code>advanceIterators</code>, but instead of calling <code>next</code> on each sub-tree, this calls <code>move</code> with the supplied
-     * <code>to</code> parameter.
+     * Similar to <code>advanceIterators</code>, but instead of calling <code>next</code> on the includes, this calls <code>move</code> with the supplied
+     * <code>to</code> parameter on every include that is lower than it.
      *
-     * @param key
-     *            a key
      * @param to
-     *            another key to move
-     * @return a tree map
+     *            the key to move to
      */
-    private TreeMultimap<T,NestedIterator<T>> moveIterators(T key, T to) {
+    private void moveIterators(T to) {
         if (log.isDebugEnabled()) {
-            log.debug(id + ": moving iterators for " + key + " to " + to + ": " + includeHeads.keySet());
+            log.debug(id + ": moving iterators to " + to + ": " + includeHeads);
+        }
+
+        // set aside everything under the threshold first, the moved heads may still sort before the threshold
+        numLowestItrs = 0;
+        while (!includeHeads.isEmpty() && keyComp.compare(includeHeads.peek(), to) < 0) {
+            int leaf = includeHeads.winner();
+            lowestItrs[numLowestItrs++] = leaf;
+            includeHeads.remove(leaf);
         }
-        SortedSet<NestedIterator<T>> includedItrs = includeHeads.removeAll(key);
+
+        int i = 0;
         try {
-            transforms.remove(key);
-            for (NestedIterator<T> itr : includedItrs) {
-                T next = itr.move(to);
+            for (; i < numLowestItrs; i++) {
+                int leaf = lowestItrs[i];
+                T next = includeItrs[leaf].move(to);
                 if (next != null) {
-                    T transform = transformer.transform(next);
-                    transforms.put(transform, next);
-                    includeHeads.put(transform, itr);
+                    includeTops[leaf] = next;
+                    includeHeads.update(leaf, transformer.transform(next));
                 }
             }
+            numLowestItrs = 0;
         } catch (WaitWindowOverrunException e) {
-            // Since we didn't advance all itrs from includeHeads.removeAll(key), we don't know which one
-            // would have been the lowest if the operation completed, so we add back the key that was removed.
-            // Since we are only concerned about the key and want the original value, skip the transform
-            includeHeads.putAll(key, includedItrs);
+            // Since we didn't move all the includes, we don't know which one would have been the lowest
+            // if the operation completed, so we add back the keys for those that were not moved
+            restoreLowest(i);
             // make sure the yield key is not past what we are moving to
             e.setYieldKey(this.waitWindowObserver.createYieldKey((Key) to, true, id + ": to in OrIterator.moveIterators()"));
             throw e;
         }
+
         if (log.isDebugEnabled()) {
-            log.debug(id + ": moved iterators for " + key + " to " + to + ": " + includeHeads.keySet());
+            log.debug(id + ": moved iterators to " + to + ": " + includeHeads);
         }
-
-        return includeHeads;
     }
 
     public Collection<NestedIterator<T>> leaves() {
@@ -471,30 +514,23 @@ public class OrIterator<T extends Comparable<T>> implements NestedIterator<T> {
         return children;
     }
 
-    private static <T extends Comparable<T>> TreeMultimap<T,NestedIterator<T>> initSubtree(TreeMultimap<T,NestedIterator<T>> subtree,
-                    Iterable<NestedIterator<T>> sources, Util.Transformer<T> transformer, Map<T,T> transforms, boolean anded) {
+    private void initIncludes() {
         try {
-            for (NestedIterator<T> src : sources) {
+            for (int i = 0; i < includeItrs.length; i++) {
+                NestedIterator<T> src = includeItrs[i];
                 src.initialize();
                 if (src.hasNext()) {
                     T next = src.next();
-                    T transform = transformer.transform(next);
-                    if (transforms != null) {
-                        transforms.put(transform, next);
-                    }
-                    subtree.put(transform, src);
-                } else if (anded) {
-                    // If a source has no valid records, it shouldn't throw an exception. It should just return no results.
-                    // For an And, once one source is exhausted, the entire tree is exhausted
-                    return Util.getEmpty();
+                    includeTops[i] = next;
+                    includeHeads.set(i, transformer.transform(next));
                 }
             }
+            includeHeads.build();
         } catch (WaitWindowOverrunException e) {
             // This method must complete so that we know which branch of the OR is lowest to select a yieldKey
-            subtree.clear();
+            includeHeads.removeAll();
             throw e;
         }
-        return subtree;
     }
 
     @Override
@@ -35,8 +35,6 @@ import datawave.query.Constants;
  */
 public class TermFrequencyExcerptIterator implements SortedKeyValueIterator<Key,Value>, OptionDescriber {
     private static final Logger log = LoggerFactory.getLogger(TermFrequencyExcerptIterator.class);
-    private static final Collection<ByteSequence> TERM_FREQUENCY_COLUMN_FAMILY_BYTE_SEQUENCE = Collections
-                    .singleton(new ArrayByteSequence(Constants.TERM_FREQUENCY_COLUMN_FAMILY.getBytes()));
 
     /**
      * A special term that is used to indicate we removed a candidate term because <br>
@@ -136,6 +134,22 @@ public class TermFrequencyExcerptIterator implements SortedKeyValueIterator<Key,
             return hitTermsList;
         }
 
+        public String getFieldName() {
+            return fieldName;
+        }
+
+        public int getStartOffset() {
+            return startOffset;
+        }
+
+        public int getEndOffset() {
+            return endOffset;
+        }
+
+        public boolean isTrimExcerpt() {
+            return trimExcerpt;
+        }
+
         public String toString() {
             return fieldName + ", " + startOffset + ", " + endOffset;
         }
@@ -263,15 +277,14 @@ public class TermFrequencyExcerptIterator implements SortedKeyValueIterator<Key,
                 // if no column families or not using these column families inclusively
                 if (this.columnFamilies.isEmpty() || !this.inclusive) {
                     // then start at the beginning of the tf range
-                    startKey = new Key(range.getStartKey().getRow(), Constants.TERM_FREQUENCY_COLUMN_FAMILY);
+                    startKey = new Key(range.getStartKey().getRow(), getColumnFamily());
                 } else {
                     // otherwise start at the first document specified
-                    startKey = new Key(range.getStartKey().getRow(), Constants.TERM_FREQUENCY_COLUMN_FAMILY,
-                                    new Text(this.columnFamilies.first() + Constants.NULL));
+                    startKey = new Key(range.getStartKey().getRow(), getColumnFamily(), new Text(this.columnFamilies.first() + Constants.NULL));
                 }
             } else {
                 // we had a start document specified in the start key, so start there
-                startKey = new Key(range.getStartKey().getRow(), Constants.TERM_FREQUENCY_COLUMN_FAMILY, new Text(dtAndUid));
+                startKey = new Key(range.getStartKey().getRow(), getColumnFamily(), new Text(dtAndUid));
             }
         }
         log.debug("{} calling seek to start key: {}", this, startKey);
@@ -286,15 +299,15 @@ public class TermFrequencyExcerptIterator implements SortedKeyValueIterator<Key,
                 // if we do not have column families specified, or they are not inclusive
                 if (this.columnFamilies.isEmpty() || !this.inclusive) {
                     // then go to the end of the TFs
-                    endKey = new Key(range.getEndKey().getRow(), Constants.TERM_FREQUENCY_COLUMN_FAMILY, new Text(Constants.MAX_UNICODE_STRING));
+                    endKey = new Key(range.getEndKey().getRow(), getColumnFamily(), new Text(Constants.MAX_UNICODE_STRING));
                 } else {
                     // otherwise end at the last document specified
-                    endKey = new Key(range.getEndKey().getRow(), Constants.TERM_FREQUENCY_COLUMN_FAMILY,
+                    endKey = new Key(range.getEndKey().getRow(), getColumnFamily(),
                                     new Text(this.columnFamilies.last() + Constants.NULL + Constants.MAX_UNICODE_STRING));
                 }
             } else {
                 // we had an end document specified in the end key, so end there
-                endKey = new Key(range.getStartKey().getRow(), Constants.TERM_FREQUENCY_COLUMN_FAMILY, new Text(dtAndUid));
+                endKey = new Key(range.getStartKey().getRow(), getColumnFamily(), new Text(dtAndUid));
             }
         }
         log.debug("{} seek'ing to end key: {}", this, endKey);
@@ -307,7 +320,7 @@ public class TermFrequencyExcerptIterator implements SortedKeyValueIterator<Key,
             return;
         }
 
-        // set our term frequency scan range
+        // set our scan range
         this.scanRange = new Range(startKey, false, endKey, false);
 
         if (log.isDebugEnabled()) {
@@ -315,12 +328,26 @@ public class TermFrequencyExcerptIterator implements SortedKeyValueIterator<Key,
         }
 
         // seek the underlying source
-        source.seek(this.scanRange, TERM_FREQUENCY_COLUMN_FAMILY_BYTE_SEQUENCE, true);
+        source.seek(this.scanRange, getColumnFamilyByteSequences(), true);
 
         // get the next key
         next();
     }
 
+    /**
+     * The column family scanned for the terms of each document
+     *
+     * @return the term frequency column family
+     */
+    protected Text getColumnFamily() {
+        return Constants.TERM_FREQUENCY_COLUMN_FAMILY;
+    }
+
+    private Collection<ByteSequence> getColumnFamilyByteSequences() {
+        Text cf = getColumnFamily();
+        return Collections.singleton(new ArrayByteSequence(cf.getBytes(), 0, cf.getLength()));
+    }
+
     @Override
     public void next() throws IOException {
         tk = null;
@@ -330,28 +357,15 @@ public class TermFrequencyExcerptIterator implements SortedKeyValueIterator<Key,
             log.trace("{} calling next on {}", source.hasTop(), scanRange);
         }
 
-        // find a valid dt/uid (depends on initial column families set in seek call)
-        String dtUid = null;
-        while (source.hasTop() && dtUid == null) {
-            Key top = source.getTopKey();
-            String thisDtUid = getDtUidFromTfKey(top);
-            // if this dt and uid are in the accepted column families...
-            if (columnFamilies.contains(thisDtUid) == inclusive) {
-                // we can use this document
-                dtUid = thisDtUid;
-            } else {
-                seekToNextUid(top.getRow(), thisDtUid);
-            }
-        }
+        String dtUid = findNextDocument();
 
         // if no more term frequencies, then we are done.
-        if (!source.hasTop() || dtUid == null) {
+        if (dtUid == null) {
             return;
         }
 
         final int startOffset = config.startOffset;
         final int endOffset = config.endOffset;
-        final List<String> hitTermsList = config.hitTermsList;
         final String fieldName = config.fieldName;
 
         Key top = source.getTopKey();
@@ -388,24 +402,9 @@ public class TermFrequencyExcerptIterator implements SortedKeyValueIterator<Key,
                         if (offset >= startOffset && offset < endOffset) {
                             // calculate the index in our value list
                             int index = offset - startOffset;
-                            // if the current index has no words/scores yet, initialize an object at the index
-                            if (wordsAndScoresArr[index] == null) {
-                                wordsAndScoresArr[index] = new WordsAndScores();
-                            }
-                            boolean stopFound;
-                            // if we are using scores, add the word and score to the object, if not then only add the word
-                            if (useScores) {
-                                stopFound = wordsAndScoresArr[index].addTerm(fieldAndValue[1], scoreList.get(i), hitTermsList);
-                            } else {
-                                stopFound = wordsAndScoresArr[index].addTerm(fieldAndValue[1], hitTermsList);
-                            }
-                            // if we encounter a stop word, and we're not in trim mode, fail-fast and create an entry
-                            // to return the special marker token. When seeing this, the transform will run this again
-                            // in trim mode with an expanded offset range.
-                            if (stopFound && !config.trimExcerpt) {
-                                tk = new Key(top.getRow(), new Text(dtUid), new Text(fieldName + Constants.NULL + WORD_SKIPPED_MARKER + Constants.NULL
-                                                + WORD_SKIPPED_MARKER + Constants.NULL + WORD_SKIPPED_MARKER), top.getColumnVisibility(), top.getTimestamp());
-                                tv = new Value();
+                            // if we encounter a stop word, and we're not in trim mode, fail-fast and return the special marker token
+                            if (addTerm(wordsAndScoresArr, index, fieldAndValue[1], useScores, useScores ? scoreList.get(i) : 0)) {
+                                setWordSkippedTop(top, dtUid);
                                 return;
                             }
                         }
@@ -417,9 +416,89 @@ public class TermFrequencyExcerptIterator implements SortedKeyValueIterator<Key,
             // get the next term frequency
             source.next();
         }
-        // Now that the words and scores array is populated with all the tf data, it's time to generate an excerpt and
-        // create a key that contains all of our excerpts to be read by the ExcerptTransform
-        tk = new Key(top.getRow(), new Text(dtUid), new Text(fieldName + Constants.NULL + generateExcerpt(wordsAndScoresArr)), top.getColumnVisibility(),
+        // Now that the words and scores array is populated with all the tf data, it's time to generate an excerpt
+        setExcerptTop(top, dtUid, wordsAndScoresArr);
+    }
+
+    /**
+     * Find the next document to excerpt, skipping any dt/uids excluded by the column families given to seek
+     *
+     * @return the dt\x00uid of the document the source is positioned on, or null if there are no more documents
+     * @throws IOException
+     *             for issues with read/write
+     */
+    protected String findNextDocument() throws IOException {
+        // find a valid dt/uid (depends on initial column families set in seek call)
+        while (source.hasTop()) {
+            Key top = source.getTopKey();
+            String thisDtUid = getDtUidFromTfKey(top);
+            // if this dt and uid are in the accepted column families...
+            if (columnFamilies.contains(thisDtUid) == inclusive) {
+                // we can use this document
+                return thisDtUid;
+            } else {
+                seekToNextUid(top.getRow(), thisDtUid);
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Add a term found at an offset of the excerpt
+     *
+     * @param wordsAndScoresArr
+     *            the terms of the excerpt, by offset from the start offset
+     * @param index
+     *            the offset of the term, less the start offset
+     * @param term
+     *            the term
+     * @param useScores
+     *            whether to add the score with the term
+     * @param score
+     *            the score of the term
+     * @return true if the term is a stop word and we are not in trim mode, in which case the excerpt should be abandoned for the skipped word marker
+     */
+    protected boolean addTerm(WordsAndScores[] wordsAndScoresArr, int index, String term, boolean useScores, int score) {
+        // if the current index has no words/scores yet, initialize an object at the index
+        if (wordsAndScoresArr[index] == null) {
+            wordsAndScoresArr[index] = new WordsAndScores();
+        }
+        boolean stopFound;
+        // if we are using scores, add the word and score to the object, if not then only add the word
+        if (useScores) {
+            stopFound = wordsAndScoresArr[index].addTerm(term, score, config.hitTermsList);
+        } else {
+            stopFound = wordsAndScoresArr[index].addTerm(term, config.hitTermsList);
+        }
+        return stopFound && !config.trimExcerpt;
+    }
+
+    /**
+     * Set the top key to the skipped word marker. When seeing this, the transform will run this again in trim mode with an expanded offset range.
+     *
+     * @param top
+     *            the last key read for the document
+     * @param dtUid
+     *            the dt\x00uid of the document
+     */
+    protected void setWordSkippedTop(Key top, String dtUid) {
+        tk = new Key(top.getRow(), new Text(dtUid), new Text(config.fieldName + Constants.NULL + WORD_SKIPPED_MARKER + Constants.NULL + WORD_SKIPPED_MARKER
+                        + Constants.NULL + WORD_SKIPPED_MARKER), top.getColumnVisibility(), top.getTimestamp());
+        tv = new Value();
+    }
+
+    /**
+     * Generate the excerpts and set the top key to contain all of them, to be read by the ExcerptTransform
+     *
+     * @param top
+     *            the last key read for the document
+     * @param dtUid
+     *            the dt\x00uid of the document
+     * @param wordsAndScoresArr
+     *            the terms of the excerpt, by offset from the start offset
+     */
+    protected void setExcerptTop(Key top, String dtUid, WordsAndScores[] wordsAndScoresArr) {
+        tk = new Key(top.getRow(), new Text(dtUid), new Text(config.fieldName + Constants.NULL + generateExcerpt(wordsAndScoresArr)), top.getColumnVisibility(),
                         top.getTimestamp());
         tv = new Value();
     }
@@ -851,14 +930,14 @@ public class TermFrequencyExcerptIterator implements SortedKeyValueIterator<Key,
      * @throws IOException
      *             for issues with read/write
      */
-    private void seekToNextUid(Text row, String dtAndUid) throws IOException {
-        Key startKey = new Key(row, Constants.TERM_FREQUENCY_COLUMN_FAMILY, new Text(dtAndUid + '.'));
+    protected void seekToNextUid(Text row, String dtAndUid) throws IOException {
+        Key startKey = new Key(row, getColumnFamily(), new Text(dtAndUid + '.'));
         this.scanRange = new Range(startKey, false, this.scanRange.getEndKey(), this.scanRange.isEndKeyInclusive());
         if (log.isDebugEnabled()) {
             log.debug("{} seek'ing to next document: {}", this, this.scanRange);
         }
 
-        source.seek(this.scanRange, Collections.singleton(new ArrayByteSequence(Constants.TERM_FREQUENCY_COLUMN_FAMILY.getBytes())), true);
+        source.seek(this.scanRange, getColumnFamilyByteSequences(), true);
     }
 
     /**
@@ -901,7 +980,7 @@ public class TermFrequencyExcerptIterator implements SortedKeyValueIterator<Key,
      *            the term freq key
      * @return the dt\x00uid
      */
-    private static String getDtUidFromTfKey(Key tfKey) {
+    protected static String getDtUidFromTfKey(Key tfKey) {
         return getDtUid(tfKey.getColumnQualifier().toString());
     }
 
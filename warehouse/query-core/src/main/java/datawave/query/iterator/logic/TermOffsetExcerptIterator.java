@@ -0,0 +1,121 @@
+package datawave.query.iterator.logic;
+
+import java.io.IOException;
+import java.util.Collection;
+import java.util.Collections;
+
+import org.apache.accumulo.core.data.ArrayByteSequence;
+import org.apache.accumulo.core.data.ByteSequence;
+import org.apache.accumulo.core.data.Key;
+import org.apache.accumulo.core.data.Range;
+import org.apache.accumulo.core.data.Value;
+import org.apache.accumulo.core.iterators.IteratorEnvironment;
+import org.apache.accumulo.core.iterators.SortedKeyValueIterator;
+import org.apache.hadoop.io.Text;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import datawave.ingest.mapreduce.handler.tokenize.TermOffsetIndexUtil;
+
+/**
+ * An excerpt iterator which reads the term offset column written at ingest time when <code>content.ingest.term.offsets</code> is enabled, instead of the term
+ * frequency column. The term offset column is sorted by field and offset within each document, so this iterator seeks straight to the window of offsets being
+ * excerpted instead of reading every term frequency of the document. The excerpts returned are the same as those of the {@link TermFrequencyExcerptIterator},
+ * except that the term offset column carries no scores, so these are always unscored excerpts.
+ * <p>
+ * Use by setting the excerptIterator of the query logic to this class, for data ingested with the term offset column.
+ */
+public class TermOffsetExcerptIterator extends TermFrequencyExcerptIterator {
+    private static final Logger log = LoggerFactory.getLogger(TermOffsetExcerptIterator.class);
+
+    private static final Text TERM_OFFSET_COLUMN_FAMILY = new Text(TermOffsetIndexUtil.TERM_OFFSET_COLUMN_FAMILY);
+    private static final Collection<ByteSequence> TERM_OFFSET_COLUMN_FAMILY_BYTE_SEQUENCE = Collections
+                    .singleton(new ArrayByteSequence(TermOffsetIndexUtil.TERM_OFFSET_COLUMN_FAMILY.getBytes()));
+
+    /** set once the last document in the scan range has been excerpted */
+    private boolean exhausted = false;
+
+    @Override
+    protected Text getColumnFamily() {
+        return TERM_OFFSET_COLUMN_FAMILY;
+    }
+
+    @Override
+    public SortedKeyValueIterator<Key,Value> deepCopy(IteratorEnvironment env) {
+        TermOffsetExcerptIterator it = new TermOffsetExcerptIterator();
+        it.source = source.deepCopy(env);
+        it.config.deepCopy(config);
+        return it;
+    }
+
+    @Override
+    public void seek(Range range, Collection<ByteSequence> columnFamilies, boolean inclusive) throws IOException {
+        exhausted = false;
+        super.seek(range, columnFamilies, inclusive);
+    }
+
+    @Override
+    protected String findNextDocument() throws IOException {
+        return exhausted ? null : super.findNextDocument();
+    }
+
+    @Override
+    public void next() throws IOException {
+        tk = null;
+        tv = null;
+
+        String dtUid = findNextDocument();
+
+        // if no more term offsets, then we are done.
+        if (dtUid == null) {
+            return;
+        }
+
+        final int startOffset = config.getStartOffset();
+        final int endOffset = config.getEndOffset();
+        final String fieldName = config.getFieldName();
+
+        Key top = source.getTopKey();
+        Text row = top.getRow();
+
+        // seek straight to the offsets of the field that are in the window, there being no negative offsets
+        Key windowStart = new Key(row, TERM_OFFSET_COLUMN_FAMILY,
+                        new Text(TermOffsetIndexUtil.getColumnQualifierPrefix(dtUid, fieldName, Math.max(startOffset, 0))));
+        Key windowEnd = new Key(row, TERM_OFFSET_COLUMN_FAMILY,
+                        new Text(TermOffsetIndexUtil.getColumnQualifierPrefix(dtUid, fieldName, Math.max(endOffset, 0))));
+        if (log.isTraceEnabled()) {
+            log.trace("{} seek'ing to offset window {} to {}", this, windowStart, windowEnd);
+        }
+        source.seek(new Range(windowStart, true, windowEnd, false), TERM_OFFSET_COLUMN_FAMILY_BYTE_SEQUENCE, true);
+
+        int prefixLength = TermOffsetIndexUtil.getColumnQualifierPrefix(dtUid, fieldName).length();
+        WordsAndScores[] wordsAndScoresArr = new WordsAndScores[endOffset - startOffset];
+        boolean wordSkipped = false;
+        while (source.hasTop() && !wordSkipped) {
+            top = source.getTopKey();
+            String cq = top.getColumnQualifier().toString();
+            int index = TermOffsetIndexUtil.getOffset(cq, prefixLength) - startOffset;
+            wordSkipped = addTerm(wordsAndScoresArr, index, TermOffsetIndexUtil.getTerm(cq, prefixLength), false, 0);
+            source.next();
+        }
+
+        // set the top key before moving the source on to the next document
+        if (wordSkipped) {
+            setWordSkippedTop(top, dtUid);
+        } else {
+            setExcerptTop(top, dtUid, wordsAndScoresArr);
+        }
+        // the window seek left the scan range, so seek back into it at the following document
+        Key nextDocument = new Key(row, TERM_OFFSET_COLUMN_FAMILY, new Text(dtUid + '.'));
+        if (scanRange.afterEndKey(nextDocument)) {
+            exhausted = true;
+        } else {
+            seekToNextUid(row, dtUid);
+        }
+    }
+
+    @Override
+    public String toString() {
+        return "TermOffsetExcerptIterator: " + config;
+    }
+}
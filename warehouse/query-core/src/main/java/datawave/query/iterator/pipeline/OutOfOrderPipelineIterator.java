@@ -0,0 +1,560 @@
+package datawave.query.iterator.pipeline;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map.Entry;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.BlockingDeque;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.LinkedBlockingDeque;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.accumulo.core.data.ByteSequence;
+import org.apache.accumulo.core.data.Key;
+import org.apache.accumulo.core.data.Range;
+import org.apache.accumulo.core.data.Value;
+import org.apache.accumulo.core.iterators.IteratorEnvironment;
+import org.apache.accumulo.core.iterators.SortedKeyValueIterator;
+import org.apache.accumulo.core.iterators.YieldCallback;
+import org.apache.commons.lang3.tuple.Pair;
+import org.apache.hadoop.io.Text;
+import org.apache.log4j.Logger;
+
+import com.google.common.collect.Maps;
+
+import datawave.core.iterators.IteratorThreadPoolManager;
+import datawave.query.attributes.Document;
+import datawave.query.exceptions.WaitWindowOverrunException;
+import datawave.query.iterator.NestedIterator;
+import datawave.query.iterator.NestedQuery;
+import datawave.query.iterator.NestedQueryIterator;
+import datawave.query.iterator.QueryIterator;
+import datawave.query.iterator.profile.QuerySpan;
+import datawave.query.iterator.profile.QuerySpanCollector;
+import datawave.query.iterator.waitwindow.WaitWindowObserver;
+import datawave.query.jexl.functions.KeyAdjudicator;
+import datawave.query.util.Tuple2;
+
+/**
+ * A pipeline iterator that returns results in the order in which their evaluations complete, instead of the order of the document keys. This is only
+ * appropriate when the keys do not have to be returned sorted, i.e. for unsorted UIDs where the keys are made unique by the ResultCountingIterator, and when
+ * no unique or grouping transform consumes the results.
+ * <p>
+ * Evaluations that have been queued but not yet started are held in a bounded deque per query. Each queued evaluation submits a task to the shared evaluation
+ * thread pool that runs the oldest evaluation left in the deque, while the iterator thread, rather than sit idle waiting on a completion, steals the newest
+ * evaluation from the other end of the deque and runs it itself.
+ * <p>
+ * When yielding, everything before the yield key must have been returned and nothing after it. Results returned out of order may leave gaps of evaluations
+ * still running before the last result returned, so on a wait window overrun the cached results and the evaluations in those gaps are returned first, and
+ * the yield key is then placed after the last contiguous key evaluated.
+ * <p>
+ * A teardown and rebuild of the scan session re-seeks after the last key returned, which may be ahead of documents still being evaluated. Each result
+ * therefore carries in its column qualifier the document before which nothing is outstanding, and the documents returned ahead of that one. The rebuilt
+ * QueryIterator resumes after that document and skips those, see {@link #getResumeRange(Range)} and {@link #getReturnedAhead(Key)}. The cached result of the
+ * lowest document is returned first, and when the start of the seek range is not a point to resume from, e.g. after a yield, results are only returned ahead
+ * of an earlier document once there is a document to resume after.
+ */
+public class OutOfOrderPipelineIterator extends PipelineIterator {
+
+    // the prefix of the column qualifier of a result that carries the documents to resume from
+    public static final String RESUME_MARKER = "!RESUME_AFTER";
+
+    private final Logger log = Logger.getLogger(getClass());
+
+    // evaluations that have not been started yet, taken from the head by the evaluation threads and from the tail by the iterator thread
+    protected final BlockingDeque<Evaluation> pending;
+    // evaluations that have completed but have not been consumed yet
+    protected final BlockingQueue<Evaluation> completed = new LinkedBlockingQueue<>();
+    // evaluations that have not been consumed yet in the order they were queued. This parallels the evaluationQueue.
+    protected final Deque<Evaluation> inFlight = new ArrayDeque<>();
+    // keys of evaluations consumed ahead of an earlier evaluation that has not been consumed yet
+    protected final TreeMap<Long,Key> consumedAhead = new TreeMap<>();
+    // the results that have not been returned yet by sequence number. This parallels the results.
+    protected final TreeMap<Long,Entry<Key,Document>> cachedResults = new TreeMap<>();
+    // documents that are done, i.e. returned, evaluated without a result or skipped, ahead of an earlier document that is not
+    protected final TreeMap<Long,Key> doneAhead = new TreeMap<>();
+    // the documents of those which have been returned
+    protected final TreeMap<Long,Key> returnedAhead = new TreeMap<>();
+    // the document before which nothing is outstanding, a key with only a row for the start of that row, or null if there is none yet
+    protected Key resumeKey = null;
+    // documents that were returned before the scan session was rebuilt, which are not evaluated again
+    protected final Set<Key> skippedDocuments = new HashSet<>();
+
+    protected long nextSequence = 0;
+    // the sequence number of the latest evaluation whose result has been handed out
+    protected long highestReturned = -1;
+    // once the wait window is overrun, the cached results and the evaluations before drainBefore are returned before yielding
+    protected boolean draining = false;
+    protected long drainBefore = -1;
+    protected final List<Pair<Key,String>> drainYieldKeys = new ArrayList<>();
+
+    public OutOfOrderPipelineIterator(NestedIterator<Key> documents, int maxPipelines, int maxCachedResults, QuerySpanCollector querySpanCollector,
+                    QuerySpan querySpan, QueryIterator sourceIterator, SortedKeyValueIterator<Key,Value> sourceForDeepCopy, IteratorEnvironment env,
+                    YieldCallback<Key> yieldCallback, long yieldThresholdMs, WaitWindowObserver waitWindowObserver, String queryId,
+                    Collection<ByteSequence> columnFamilies, boolean inclusive) {
+        super(documents, maxPipelines, maxCachedResults, querySpanCollector, querySpan, sourceIterator, sourceForDeepCopy, env, yieldCallback, yieldThresholdMs,
+                        waitWindowObserver, queryId, columnFamilies, inclusive);
+        this.pending = new LinkedBlockingDeque<>(maxPipelines);
+    }
+
+    /**
+     * Set the point that this iterator resumes from, which must be called before the pipeline is started
+     *
+     * @param range
+     *            the seek range, after any teardown/rebuild range has been translated by {@link #getResumeRange(Range)}
+     * @param returnedAhead
+     *            the documents already returned ahead of the start of the range, see {@link #getReturnedAhead(Key)}
+     */
+    public void resumeFrom(Range range, Collection<Key> returnedAhead) {
+        Key start = range.getStartKey();
+        resumeKey = null;
+        if (start != null && !WaitWindowObserver.hasMarker(start)) {
+            if (start.getColumnFamilyData().length() == 0 && start.getColumnQualifierData().length() == 0) {
+                resumeKey = new Key(start.getRow());
+            } else if (!range.isStartKeyInclusive() && start.getColumnQualifier().equals(KeyAdjudicator.COLUMN_QUALIFIER_SUFFIX)) {
+                resumeKey = documentKey(start);
+            }
+        }
+        skippedDocuments.clear();
+        skippedDocuments.addAll(returnedAhead);
+    }
+
+    @Override
+    protected Entry<Key,Document> nextResult() throws InterruptedException, ExecutionException {
+        while (!hasResultToReturn()) {
+            if (isDraining()) {
+                if (!drainNext()) {
+                    // all the results before the last one returned are out, so we can yield after the last contiguous key
+                    List<Pair<Key,String>> yieldKeys = new ArrayList<>(drainYieldKeys);
+                    if (lastKeyEvaluated != null) {
+                        yieldKeys.add(waitWindowObserver.createYieldKey(lastKeyEvaluated, false, "lastEvaluated in OutOfOrderPipelineIterator.nextResult()"));
+                    }
+                    throwExceptionOnWaitWindowOverrun(yieldKeys);
+                }
+                continue;
+            }
+
+            flushCompletedResults();
+            fillEvaluationQueue();
+
+            if (hasResultToReturn() || isDraining()) {
+                continue;
+            }
+            if (inFlight.isEmpty()) {
+                // nothing left to evaluate
+                break;
+            }
+            awaitCompletion();
+        }
+
+        if (log.isTraceEnabled()) {
+            log.trace("nextResult inFlight: " + inFlight.size() + " pending: " + pending.size() + " cached: " + results.size());
+        }
+        return returnNextResult();
+    }
+
+    /**
+     * A cached result may be returned if there is a document to resume after once it has been, which is always the case for the lowest result cached when
+     * nothing before it is still being evaluated
+     *
+     * @return true if there is a result to return
+     */
+    private boolean hasResultToReturn() {
+        return !cachedResults.isEmpty() && (resumeKey != null || cachedResults.firstKey() < lowestInFlight());
+    }
+
+    /**
+     * Return the cached result of the lowest document, with the documents to resume from in the column qualifier of its key
+     *
+     * @return the result, or null if there is none
+     */
+    private Entry<Key,Document> returnNextResult() {
+        Entry<Long,Entry<Key,Document>> next = cachedResults.pollFirstEntry();
+        if (next == null) {
+            return null;
+        }
+        Entry<Key,Document> result = next.getValue();
+        results.removeIf(r -> r == result);
+
+        Key document = documentKey(result.getKey());
+        doneAhead.put(next.getKey(), document);
+        returnedAhead.put(next.getKey(), document);
+        advanceResumeKey();
+
+        return Maps.immutableEntry(createResumeKey(result.getKey(), resumeKey, returnedAhead.values()), result.getValue());
+    }
+
+    /**
+     * Advance the resume key over the documents that are done and have nothing outstanding before them
+     */
+    private void advanceResumeKey() {
+        long boundary = Math.min(lowestInFlight(), cachedResults.isEmpty() ? Long.MAX_VALUE : cachedResults.firstKey());
+        while (!doneAhead.isEmpty() && doneAhead.firstKey() < boundary) {
+            resumeKey = doneAhead.pollFirstEntry().getValue();
+        }
+        returnedAhead.headMap(boundary).clear();
+    }
+
+    /**
+     * Advance the last contiguous key evaluated over the evaluations consumed
+     */
+    private void advanceLastKeyEvaluated() {
+        long lowestInFlight = lowestInFlight();
+        while (!consumedAhead.isEmpty() && consumedAhead.firstKey() < lowestInFlight) {
+            lastKeyEvaluated = consumedAhead.pollFirstEntry().getValue();
+        }
+    }
+
+    private long lowestInFlight() {
+        return inFlight.isEmpty() ? Long.MAX_VALUE : inFlight.peekFirst().sequence;
+    }
+
+    /**
+     * Consume the evaluations that have already completed, up to the max number of cached results
+     */
+    private void flushCompletedResults() throws InterruptedException, ExecutionException {
+        Evaluation evaluation;
+        while (results.size() < maxResults && (evaluation = completed.poll()) != null) {
+            consume(evaluation);
+        }
+    }
+
+    /**
+     * Wait for the next evaluation to complete, running a pending evaluation on this thread in the meantime if there is one
+     */
+    private void awaitCompletion() throws InterruptedException, ExecutionException {
+        // we must have at least evaluated one thing in order to yield, otherwise we will have not progressed at all
+        boolean canYield = yieldCallback != null && lastKeyEvaluated != null;
+        if (canYield && waitWindowObserver.remainingTimeMs() <= 0) {
+            yieldAfterDraining(waitWindowObserver.createYieldKey(lastKeyEvaluated, false, "lastEvaluated in OutOfOrderPipelineIterator.awaitCompletion()"));
+            return;
+        }
+
+        Evaluation evaluation = completed.poll();
+        if (evaluation == null) {
+            Evaluation stolen = pending.pollLast();
+            if (stolen != null) {
+                if (log.isTraceEnabled()) {
+                    log.trace("Stealing evaluation of " + stolen.key);
+                }
+                // its completion will be picked up on the next pass
+                stolen.run();
+                return;
+            }
+
+            if (canYield) {
+                evaluation = completed.poll(waitWindowObserver.remainingTimeMs(), TimeUnit.MILLISECONDS);
+                if (evaluation == null) {
+                    yieldAfterDraining(waitWindowObserver.createYieldKey(lastKeyEvaluated, false, "OutOfOrderPipelineIterator.awaitCompletion()"));
+                    return;
+                }
+            } else {
+                evaluation = completed.take();
+            }
+        }
+        consume(evaluation);
+    }
+
+    /**
+     * Complete and consume the first evaluation queued before the last result returned
+     *
+     * @return false if there are no such evaluations left
+     */
+    private boolean drainNext() throws InterruptedException, ExecutionException {
+        Evaluation evaluation = inFlight.peekFirst();
+        if (evaluation == null || evaluation.sequence >= drainBefore) {
+            return false;
+        }
+        // run it here if no evaluation thread has picked it up, otherwise wait for it. We are past the wait window, but there are at most maxPipelines of
+        // these and yielding before them would return the results after them again.
+        if (pending.remove(evaluation)) {
+            evaluation.run();
+        }
+        consume(evaluation);
+        return true;
+    }
+
+    /**
+     * Record the result of an evaluation and return its pipeline to the pool. An evaluation that overran the wait window itself will throw its
+     * WaitWindowOverrunException from here, and we then yield before it, which may return results after it again. Those are discarded by the deduping done
+     * for unsorted UIDs.
+     */
+    private void consume(Evaluation evaluation) throws InterruptedException, ExecutionException {
+        if (evaluation.consumed || evaluation.isCancelled()) {
+            return;
+        }
+
+        // call get to ensure that we throw any exception that occurred
+        evaluation.get();
+        Entry<Key,Document> result = evaluation.pipeline.getResult();
+
+        if (log.isTraceEnabled()) {
+            log.trace("Evaluation of " + evaluation.key + " was " + (result == null ? "empty" : "successful"));
+        }
+
+        evaluation.consumed = true;
+        inFlight.remove(evaluation);
+        evaluationQueue.remove(evaluation.entry);
+        pipelines.checkIn(evaluation.pipeline);
+
+        // advance the last contiguous key evaluated
+        consumedAhead.put(evaluation.sequence, evaluation.key);
+        advanceLastKeyEvaluated();
+
+        if (result != null) {
+            results.add(result);
+            cachedResults.put(evaluation.sequence, result);
+            highestReturned = Math.max(highestReturned, evaluation.sequence);
+        } else {
+            doneAhead.put(evaluation.sequence, documentKey(evaluation.key));
+        }
+        advanceResumeKey();
+    }
+
+    /**
+     * Account for a document that was returned before the scan session was rebuilt as if it had been evaluated and returned again
+     */
+    private void skip(Key key) {
+        if (log.isTraceEnabled()) {
+            log.trace("Skipping " + key + " which was returned before the rebuild");
+        }
+        long sequence = nextSequence++;
+        consumedAhead.put(sequence, key);
+        advanceLastKeyEvaluated();
+
+        Key document = documentKey(key);
+        doneAhead.put(sequence, document);
+        returnedAhead.put(sequence, document);
+        advanceResumeKey();
+    }
+
+    /**
+     * Yield at the lowest of the yield keys, once the evaluations queued before the last result returned have been completed and their results returned
+     */
+    private void yieldAfterDraining(Pair<Key,String> yieldKey) {
+        yieldAfterDraining(Collections.singletonList(yieldKey));
+    }
+
+    private void yieldAfterDraining(List<Pair<Key,String>> yieldKeys) {
+        if (hasGaps() || !results.isEmpty()) {
+            if (log.isDebugEnabled()) {
+                log.debug("Completing " + inFlight.size() + " evaluations before yielding for queryId:" + queryId);
+            }
+            draining = true;
+            drainBefore = highestReturned;
+            drainYieldKeys.addAll(yieldKeys);
+        } else {
+            throwExceptionOnWaitWindowOverrun(yieldKeys);
+        }
+    }
+
+    private boolean hasGaps() {
+        return !inFlight.isEmpty() && inFlight.peekFirst().sequence < highestReturned;
+    }
+
+    private boolean isDraining() {
+        return draining;
+    }
+
+    private void fillEvaluationQueue() {
+        // start a new evaluation for any available sources if there is room in the evaluationQueue
+        try {
+            while (inFlight.size() < pipelines.maxPipelines && docSource.hasNext()) {
+                Key keySource = docSource.next();
+                if (!skippedDocuments.isEmpty() && skippedDocuments.remove(documentKey(keySource))) {
+                    skip(keySource);
+                    continue;
+                }
+                if (waitWindowObserver.waitWindowOverrun()) {
+                    List<Pair<Key,String>> yieldKeys = new ArrayList<>();
+                    yieldKeys.add(waitWindowObserver.createYieldKey(keySource, WaitWindowObserver.shouldYieldToBeginning(keySource),
+                                    "keySource in OutOfOrderPipelineIterator.fillEvaluationQueue()"));
+                    if (lastKeyEvaluated != null) {
+                        yieldKeys.add(waitWindowObserver.createYieldKey(lastKeyEvaluated, false,
+                                        "lastEvaluated in OutOfOrderPipelineIterator.fillEvaluationQueue()"));
+                    }
+                    yieldAfterDraining(yieldKeys);
+                    return;
+                } else {
+                    NestedQuery<Key> nestedQuery = null;
+                    if (docSource instanceof NestedQueryIterator) {
+                        nestedQuery = ((NestedQueryIterator) this.docSource).getNestedQuery();
+                    }
+                    evaluate(keySource, docSource.document(), nestedQuery);
+                }
+            }
+        } catch (WaitWindowOverrunException e) {
+            // thrown from the document source
+            if (!hasGaps() && results.isEmpty()) {
+                throw e;
+            }
+            yieldAfterDraining(e.getYieldKey());
+        } finally {
+            if (collectTimingDetails) {
+                querySpanCollector.addQuerySpan(querySpan);
+            }
+        }
+    }
+
+    private void evaluate(Key key, Document document, NestedQuery<Key> nestedQuery) {
+        if (log.isTraceEnabled()) {
+            log.trace("Adding evaluation of " + key + " to pipeline");
+        }
+        Pipeline pipeline = pipelines.checkOut(key, document, nestedQuery, columnFamilies, inclusive);
+        Evaluation evaluation = new Evaluation(nextSequence++, key, pipeline);
+        inFlight.add(evaluation);
+        evaluationQueue.add(evaluation.entry);
+        pending.offerLast(evaluation);
+
+        // the task runs whichever evaluation is the oldest still pending when it gets a thread, if the iterator thread has not already run them all
+        IteratorThreadPoolManager.executeEvaluation(() -> {
+            Evaluation next = pending.pollFirst();
+            if (next != null) {
+                next.run();
+            }
+        }, "evaluation for queryId:" + queryId, queryId, env);
+    }
+
+    @Override
+    public void startPipeline() {
+        try {
+            fillEvaluationQueue();
+        } catch (WaitWindowOverrunException e) {
+            this.waitWindowOverrunException = e;
+        }
+    }
+
+    @Override
+    protected void cancel() {
+        // ensure that nothing pending gets started, then wait for anything running
+        pending.clear();
+        super.cancel();
+        inFlight.clear();
+        completed.clear();
+        consumedAhead.clear();
+        cachedResults.clear();
+        doneAhead.clear();
+        returnedAhead.clear();
+        skippedDocuments.clear();
+        draining = false;
+        drainBefore = -1;
+        drainYieldKeys.clear();
+    }
+
+    private static Key documentKey(Key key) {
+        return new Key(key.getRow(), key.getColumnFamily());
+    }
+
+    /**
+     * Create the key of a result, with the documents to resume from in the column qualifier. Each document is written as its row, datatype and uid, with an
+     * empty datatype and uid for the start of a row.
+     *
+     * @param key
+     *            the key of the result
+     * @param resumeKey
+     *            the document before which nothing is outstanding, or a key with only a row
+     * @param returnedAhead
+     *            the documents returned ahead of it
+     * @return the key
+     */
+    static Key createResumeKey(Key key, Key resumeKey, Collection<Key> returnedAhead) {
+        StringBuilder colQual = new StringBuilder(RESUME_MARKER);
+        appendDocument(colQual, resumeKey);
+        for (Key document : returnedAhead) {
+            appendDocument(colQual, document);
+        }
+        return new Key(key.getRow(), key.getColumnFamily(), new Text(colQual.toString()), key.getColumnVisibility(), key.getTimestamp());
+    }
+
+    private static void appendDocument(StringBuilder colQual, Key document) {
+        colQual.append('\0').append(document.getRow()).append('\0');
+        if (document.getColumnFamilyData().length() == 0) {
+            colQual.append('\0');
+        } else {
+            colQual.append(document.getColumnFamily());
+        }
+    }
+
+    private static List<Key> parseDocuments(Key key) {
+        String[] parts = key.getColumnQualifier().toString().substring(RESUME_MARKER.length() + 1).split("\0", -1);
+        List<Key> documents = new ArrayList<>(parts.length / 3);
+        for (int i = 0; i + 2 < parts.length; i += 3) {
+            if (parts[i + 1].isEmpty()) {
+                documents.add(new Key(parts[i]));
+            } else {
+                documents.add(new Key(parts[i], parts[i + 1] + '\0' + parts[i + 2]));
+            }
+        }
+        return documents;
+    }
+
+    /**
+     * @param key
+     *            the start key of a teardown/rebuild range, without the result count
+     * @return true if the key is that of a result returned by this iterator
+     */
+    public static boolean hasResumeMarker(Key key) {
+        return key != null && key.getColumnQualifier().toString().startsWith(RESUME_MARKER);
+    }
+
+    /**
+     * Translate a teardown/rebuild range that starts after a result returned by this iterator to one that starts after the document before which nothing was
+     * outstanding when the result was returned
+     *
+     * @param range
+     *            the range, without the result count in the start key
+     * @return the range to resume from
+     */
+    public static Range getResumeRange(Range range) {
+        Key resumeKey = parseDocuments(range.getStartKey()).get(0);
+        if (resumeKey.getColumnFamilyData().length() == 0) {
+            return new Range(resumeKey, true, range.getEndKey(), range.isEndKeyInclusive());
+        }
+        Key start = new Key(resumeKey.getRow(), resumeKey.getColumnFamily(), KeyAdjudicator.COLUMN_QUALIFIER_SUFFIX);
+        return new Range(start, false, range.getEndKey(), range.isEndKeyInclusive());
+    }
+
+    /**
+     * @param key
+     *            the start key of a teardown/rebuild range, without the result count
+     * @return the documents, as row and column family, which were returned ahead of the document to resume after
+     */
+    public static List<Key> getReturnedAhead(Key key) {
+        List<Key> documents = parseDocuments(key);
+        return documents.subList(1, documents.size());
+    }
+
+    /**
+     * The evaluation of a document by a pipeline, which notes itself as completed when done
+     */
+    protected class Evaluation extends FutureTask<Void> {
+        private final long sequence;
+        private final Key key;
+        private final Pipeline pipeline;
+        private final Tuple2<Future<?>,Pipeline> entry;
+        private boolean consumed = false;
+
+        public Evaluation(long sequence, Key key, Pipeline pipeline) {
+            super(pipeline, null);
+            this.sequence = sequence;
+            this.key = key;
+            this.pipeline = pipeline;
+            this.entry = new Tuple2<>(this, pipeline);
+        }
+
+        @Override
+        protected void done() {
+            completed.offer(this);
+        }
+    }
+}
@@ -143,39 +143,7 @@ public class PipelineIterator implements Iterator<Entry<Key,Document>> {
      */
     private Entry<Key,Document> getNext() {
         try {
-            if (log.isTraceEnabled()) {
-                log.trace("getNext start: " + evaluationQueue.size() + " cached: " + results.size());
-            }
-
-            // cache the next non-null result if we do not already have one
-            if (results.isEmpty()) {
-                cacheNextResult();
-            }
-
-            if (log.isTraceEnabled()) {
-                log.trace("getNext cache: " + evaluationQueue.size() + " cached: " + results.size());
-            }
-
-            // flush any completed results to the results queue
-            flushCompletedResults();
-
-            if (log.isTraceEnabled()) {
-                log.trace("getNext flush: " + evaluationQueue.size() + " cached: " + results.size());
-            }
-
-            // ensure that the evaluation queue is filled if there is anything to evaluate
-            fillEvaluationQueue();
-
-            if (log.isTraceEnabled()) {
-                log.trace("getNext fill: " + evaluationQueue.size() + " cached: " + results.size());
-            }
-
-            // get/remove and return the next result, null if we are done
-            Entry<Key,Document> next = null;
-            if (!results.isEmpty()) {
-                next = results.poll();
-            }
-            return next;
+            return nextResult();
         } catch (WaitWindowOverrunException e) {
             return handleWaitWindowOverrun(e);
         } catch (Exception e) {
@@ -193,6 +161,52 @@ public class PipelineIterator implements Iterator<Entry<Key,Document>> {
         }
     }
 
+    /**
+     * Cache and return the next non-null result, starting new evaluations as room frees up in the evaluation queue. A WaitWindowOverrunException thrown from
+     * here will be handled by yielding.
+     *
+     * @return the next non-null entry. null if there are no more entries to get.
+     * @throws ExecutionException
+     *             for execution exceptions
+     * @throws InterruptedException
+     *             for interrupted exceptions
+     */
+    protected Entry<Key,Document> nextResult() throws InterruptedException, ExecutionException {
+        if (log.isTraceEnabled()) {
+            log.trace("getNext start: " + evaluationQueue.size() + " cached: " + results.size());
+        }
+
+        // cache the next non-null result if we do not already have one
+        if (results.isEmpty()) {
+            cacheNextResult();
+        }
+
+        if (log.isTraceEnabled()) {
+            log.trace("getNext cache: " + evaluationQueue.size() + " cached: " + results.size());
+        }
+
+        // flush any completed results to the results queue
+        flushCompletedResults();
+
+        if (log.isTraceEnabled()) {
+            log.trace("getNext flush: " + evaluationQueue.size() + " cached: " + results.size());
+        }
+
+        // ensure that the evaluation queue is filled if there is anything to evaluate
+        fillEvaluationQueue();
+
+        if (log.isTraceEnabled()) {
+            log.trace("getNext fill: " + evaluationQueue.size() + " cached: " + results.size());
+        }
+
+        // get/remove and return the next result, null if we are done
+        Entry<Key,Document> next = null;
+        if (!results.isEmpty()) {
+            next = results.poll();
+        }
+        return next;
+    }
+
     /**
      * poll results from the evaluation queue until we get one that is non-null
      *
@@ -352,7 +366,7 @@ public class PipelineIterator implements Iterator<Entry<Key,Document>> {
     }
 
     // This exception should be caught in getNext which will call handleWaitWindowOverrun
-    private void throwExceptionOnWaitWindowOverrun(List<Pair<Key,String>> yieldKeys) {
+    protected void throwExceptionOnWaitWindowOverrun(List<Pair<Key,String>> yieldKeys) {
         throw new WaitWindowOverrunException(findLowestYieldKey(getPossibleYieldKeys(yieldKeys)));
     }
 
@@ -476,7 +490,7 @@ public class PipelineIterator implements Iterator<Entry<Key,Document>> {
     /**
      * Cancel queued evaluations and clear results
      */
-    private void cancel() {
+    protected void cancel() {
         while (!evaluationQueue.isEmpty()) {
             Tuple2<Future<?>,Pipeline> pair = evaluationQueue.poll();
             Future<?> future = pair.first();
@@ -522,7 +536,7 @@ public class PipelineIterator implements Iterator<Entry<Key,Document>> {
         }
         Pipeline pipeline = pipelines.checkOut(key, document, nestedQuery, columnFamilies, inclusive);
         String taskName = pipeline.toString() + " for queryId:" + queryId;
-        evaluationQueue.add(new Tuple2<>(IteratorThreadPoolManager.executeEvaluation(pipeline, taskName, env), pipeline));
+        evaluationQueue.add(new Tuple2<>(IteratorThreadPoolManager.executeEvaluation(pipeline, taskName, queryId, env), pipeline));
     }
 
     /*
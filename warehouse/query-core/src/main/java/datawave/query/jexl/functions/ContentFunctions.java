@@ -89,7 +89,7 @@ public class ContentFunctions {
      * @return a collection of fields that satisfy the content function
      */
     public static Collection<String> within(int distance, TermOffsetMap termOffsetMap, String... terms) {
-        return new ContentUnorderedEvaluator(Collections.emptySet(), distance, Float.NEGATIVE_INFINITY, termOffsetMap, terms).evaluate();
+        return newUnorderedEvaluator(Collections.emptySet(), distance, Float.NEGATIVE_INFINITY, termOffsetMap, terms).evaluate();
     }
 
     /**
@@ -107,7 +107,7 @@ public class ContentFunctions {
      * @see #within(int, TermOffsetMap, String...)
      */
     public static Collection<String> within(Object zone, int distance, TermOffsetMap termOffsetMap, String... terms) {
-        return new ContentUnorderedEvaluator(getFields(zone), distance, Float.NEGATIVE_INFINITY, termOffsetMap, terms).evaluate();
+        return newUnorderedEvaluator(getFields(zone), distance, Float.NEGATIVE_INFINITY, termOffsetMap, terms).evaluate();
     }
 
     /**
@@ -125,7 +125,7 @@ public class ContentFunctions {
      * @see #within(int, TermOffsetMap, String...)
      */
     public static Collection<String> within(Iterable<?> zones, int distance, TermOffsetMap termOffsetMap, String... terms) {
-        return new ContentUnorderedEvaluator(getFields(zones), distance, Float.NEGATIVE_INFINITY, termOffsetMap, terms).evaluate();
+        return newUnorderedEvaluator(getFields(zones), distance, Float.NEGATIVE_INFINITY, termOffsetMap, terms).evaluate();
     }
 
     /**
@@ -182,7 +182,7 @@ public class ContentFunctions {
      * @return a collection of fields that satisfy the content function
      */
     public static Collection<String> phrase(TermOffsetMap termOffsetMap, String... terms) {
-        return new ContentOrderedEvaluator(Collections.emptySet(), 1, Float.NEGATIVE_INFINITY, termOffsetMap, terms).evaluate();
+        return newOrderedEvaluator(Collections.emptySet(), 1, Float.NEGATIVE_INFINITY, termOffsetMap, terms).evaluate();
     }
 
     /**
@@ -197,7 +197,7 @@ public class ContentFunctions {
      * @return a collection of fields that satisfy the content function
      */
     public static Collection<String> phrase(Object zone, TermOffsetMap termOffsetMap, String... terms) {
-        return new ContentOrderedEvaluator(getFields(zone), 1, Float.NEGATIVE_INFINITY, termOffsetMap, terms).evaluate();
+        return newOrderedEvaluator(getFields(zone), 1, Float.NEGATIVE_INFINITY, termOffsetMap, terms).evaluate();
     }
 
     /**
@@ -212,7 +212,7 @@ public class ContentFunctions {
      * @return a collection of fields that satisfy the content function
      */
     public static Collection<String> scoredPhrase(Number minScore, TermOffsetMap termOffsetMap, String... terms) {
-        return new ContentOrderedEvaluator(Collections.emptySet(), 1, minScore.floatValue(), termOffsetMap, terms).evaluate();
+        return newOrderedEvaluator(Collections.emptySet(), 1, minScore.floatValue(), termOffsetMap, terms).evaluate();
     }
 
     /**
@@ -229,7 +229,7 @@ public class ContentFunctions {
      * @return a collection of fields that satisfy the content function
      */
     public static Collection<String> scoredPhrase(Object zone, Number minScore, TermOffsetMap termOffsetMap, String... terms) {
-        return new ContentOrderedEvaluator(getFields(zone), 1, minScore.floatValue(), termOffsetMap, terms).evaluate();
+        return newOrderedEvaluator(getFields(zone), 1, minScore.floatValue(), termOffsetMap, terms).evaluate();
     }
 
     /**
@@ -244,7 +244,24 @@ public class ContentFunctions {
      * @return a collection of fields that satisfy the content function
      */
     public static Collection<String> phrase(Iterable<?> zone, TermOffsetMap termOffsetMap, String... terms) {
-        return new ContentOrderedEvaluator(getFields(zone), 1, Float.NEGATIVE_INFINITY, termOffsetMap, terms).evaluate();
+        return newOrderedEvaluator(getFields(zone), 1, Float.NEGATIVE_INFINITY, termOffsetMap, terms).evaluate();
+    }
+
+    // the evaluator is chosen per query, see TermOffsetMap.setUsePrimitiveEvaluator
+    private static ContentFunctionEvaluator newUnorderedEvaluator(Set<String> fields, int distance, float maxScore, TermOffsetMap termOffsetMap,
+                    String... terms) {
+        if (termOffsetMap != null && termOffsetMap.usePrimitiveEvaluator()) {
+            return new ContentPrimitiveEvaluator(fields, distance, maxScore, false, termOffsetMap, terms);
+        }
+        return new ContentUnorderedEvaluator(fields, distance, maxScore, termOffsetMap, terms);
+    }
+
+    private static ContentFunctionEvaluator newOrderedEvaluator(Set<String> fields, int distance, float maxScore, TermOffsetMap termOffsetMap,
+                    String... terms) {
+        if (termOffsetMap != null && termOffsetMap.usePrimitiveEvaluator()) {
+            return new ContentPrimitiveEvaluator(fields, distance, maxScore, true, termOffsetMap, terms);
+        }
+        return new ContentOrderedEvaluator(fields, distance, maxScore, termOffsetMap, terms);
     }
 
     /**
@@ -0,0 +1,391 @@
+package datawave.query.jexl.functions;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.apache.log4j.Logger;
+
+import datawave.ingest.protobuf.TermWeightPosition;
+import datawave.query.postprocessing.tf.TermOffsetMap;
+
+/**
+ * <p>
+ * A content function evaluator which works over primitive arrays instead of sorted sets of term positions. The offsets of each term are copied once into
+ * parallel int arrays, sorted as the {@link TermWeightPosition}s are (low offset, then offset), and then swept with one pointer per term.
+ * </p>
+ *
+ * <ul>
+ * <li>Unordered (content:within, content:adjacent): the pointer holding the lowest position is advanced until the highest and lowest positions are within the
+ * distance, the same sweep as the {@link ContentUnorderedEvaluator}. Terms tied on the lowest position are advanced in term order, where that evaluator's
+ * priority queue takes them in heap order. Without skip words the order does not change the result, with skip words the two may disagree on such ties.</li>
+ * <li>Ordered (content:phrase, content:scoredPhrase): one index per term stands in for the head of each sorted set of the {@link ContentOrderedEvaluator},
+ * and is trimmed and advanced exactly as that evaluator polls its sets, so both find the same phrases and record the same phrase offsets.</li>
+ * </ul>
+ *
+ * This is selected over the set based evaluators per query with the <code>primitive.content.evaluator</code> query option, see
+ * {@link TermOffsetMap#setUsePrimitiveEvaluator(boolean)}.
+ */
+public class ContentPrimitiveEvaluator extends ContentFunctionEvaluator {
+    private static final Logger log = Logger.getLogger(ContentPrimitiveEvaluator.class);
+
+    private final boolean ordered;
+
+    public ContentPrimitiveEvaluator(Set<String> fields, int distance, float maxScore, boolean ordered, TermOffsetMap termOffsetMap, String... terms) {
+        super(fields, distance, maxScore, termOffsetMap, terms);
+        this.ordered = ordered;
+    }
+
+    @Override
+    protected boolean evaluate(String field, String eventId, List<List<TermWeightPosition>> offsets) {
+        if (offsets.isEmpty() || offsets.size() < terms.length) {
+            return false;
+        }
+
+        // terms repeated within an unordered function share their positions as in the unordered evaluator, while the ordered evaluator reads each term's own
+        // list
+        Map<String,Positions> positionsByTerm = new HashMap<>();
+        Positions[] positions = new Positions[terms.length];
+        for (int i = 0; i < terms.length; i++) {
+            Positions termPositions = ordered ? null : positionsByTerm.get(terms[i]);
+            if (termPositions == null) {
+                termPositions = new Positions(offsets.get(i), maxScore, ordered);
+                positionsByTerm.put(terms[i], termPositions);
+            }
+
+            // if any term has no positions a match is not possible
+            if (termPositions.size == 0) {
+                if (log.isTraceEnabled()) {
+                    log.trace("No positions for " + terms[i] + " in " + field + ", skipping");
+                }
+                return false;
+            }
+            positions[i] = termPositions;
+        }
+
+        return ordered ? evaluateOrdered(field, eventId, positions) : evaluateUnordered(field, eventId, positions);
+    }
+
+    /**
+     * Sweep for any set of positions, one per term, where the highest low offset is within the distance of the lowest offset. Terms repeated within the
+     * function take distinct positions from their shared list.
+     *
+     * @param field
+     *            the field where the offsets were found
+     * @param eventId
+     *            the event id (see @TermFrequencyList.getEventId(Key))
+     * @param positions
+     *            the positions of each term
+     * @return true if the terms were found within the distance
+     */
+    private boolean evaluateUnordered(String field, String eventId, Positions[] positions) {
+        final int numTerms = positions.length;
+
+        // the index of the position held by each term, and for each list the index of the next position not yet taken
+        int[] current = new int[numTerms];
+        int[] maxOffsets = new int[numTerms];
+        Map<Positions,int[]> nextByPositions = new HashMap<>();
+
+        int maxLowOffset = Integer.MIN_VALUE;
+        int maxOffset = Integer.MIN_VALUE;
+        for (int i = 0; i < numTerms; i++) {
+            Positions p = positions[i];
+            int[] next = nextByPositions.computeIfAbsent(p, k -> new int[1]);
+            if (next[0] >= p.size) {
+                return false;
+            }
+            current[i] = next[0]++;
+            maxOffsets[i] = p.getMaxOffset(current[i]);
+
+            if (p.compare(current[i], maxLowOffset, maxOffset) > 0) {
+                maxLowOffset = p.lowOffsets[current[i]];
+                maxOffset = p.offsets[current[i]];
+            }
+        }
+
+        while (true) {
+            // find the term holding the lowest position
+            int min = 0;
+            for (int i = 1; i < numTerms; i++) {
+                if (positions[i].compare(current[i], positions[min].lowOffsets[current[min]], positions[min].offsets[current[min]]) < 0) {
+                    min = i;
+                }
+            }
+
+            Positions p = positions[min];
+            int minOffset = p.offsets[current[min]];
+            if (maxLowOffset - minOffset <= distance) {
+                // Only record the phrase index if this is a targeted excerpt field.
+                if (termOffsetMap.shouldRecordPhraseIndex(field)) {
+                    termOffsetMap.addPhraseIndexTriplet(field, eventId, minOffset, maxLowOffset);
+                    if (log.isTraceEnabled()) {
+                        log.trace("Adding phrase indexes [" + minOffset + "," + maxLowOffset + "] for field " + field + " to jexl context");
+                    }
+                }
+                return true;
+            }
+
+            // if the max is more than the distance from the highest remaining position of this term, there is no way to satisfy
+            if (maxLowOffset - maxOffsets[min] > distance) {
+                return false;
+            }
+
+            int[] next = nextByPositions.get(p);
+            if (next[0] >= p.size) {
+                return false;
+            }
+            current[min] = next[0]++;
+
+            if (p.compare(current[min], maxLowOffset, maxOffset) > 0) {
+                maxLowOffset = p.lowOffsets[current[min]];
+                maxOffset = p.offsets[current[min]];
+            }
+        }
+    }
+
+    /**
+     * Find the terms in order, where each term is within the distance of the term before it. This walks the positions the same way the
+     * {@link ContentOrderedEvaluator} walks its sorted sets, with an index into each term's positions standing in for the head of its set, so that both find
+     * the same phrases and record the same phrase offsets.
+     *
+     * @param field
+     *            the field where the offsets were found
+     * @param eventId
+     *            the event id (see @TermFrequencyList.getEventId(Key))
+     * @param positions
+     *            the positions of each term
+     * @return true if the phrase was found
+     */
+    private boolean evaluateOrdered(String field, String eventId, Positions[] positions) {
+        // the index of the first remaining position of each term
+        int[] current = new int[positions.length];
+        if (!trim(positions, current)) {
+            return false;
+        }
+
+        while (!isConverged(field, eventId, positions, current)) {
+            // look for alternatives that also satisfy convergence before rolling the first term forward
+            int[] alternative = current.clone();
+            boolean alternativeConverged = false;
+            while (!alternativeConverged && nextAlternative(positions, alternative)) {
+                alternativeConverged = isConverged(field, eventId, positions, alternative);
+            }
+
+            if (alternativeConverged) {
+                return true;
+            }
+
+            // if no alternatives, move to the next first term and start again
+            if (++current[0] >= positions[0].size) {
+                return false;
+            }
+
+            if (!trim(positions, current)) {
+                return false;
+            }
+        }
+
+        // converged on the phrase
+        return true;
+    }
+
+    /**
+     * Advance each term past the positions which sort before the current position of the term before it, or which are the same position of the same term.
+     *
+     * @param positions
+     *            the positions of each term
+     * @param current
+     *            the index of the current position of each term, advanced in place
+     * @return false if a term ran out of positions
+     */
+    private boolean trim(Positions[] positions, int[] current) {
+        for (int i = 0; i + 1 < positions.length; i++) {
+            Positions first = positions[i];
+            Positions second = positions[i + 1];
+            boolean sameTerm = terms[i].equals(terms[i + 1]);
+
+            int compare = second.compare(current[i + 1], first.lowOffsets[current[i]], first.offsets[current[i]]);
+            while (compare < 0 || (compare == 0 && sameTerm)) {
+                if (++current[i + 1] >= second.size) {
+                    return false;
+                }
+                compare = second.compare(current[i + 1], first.lowOffsets[current[i]], first.offsets[current[i]]);
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Move at most one term, starting with the second, to its next position if that position is within the distance of the term before it.
+     *
+     * @param positions
+     *            the positions of each term
+     * @param alternative
+     *            the index of the current position of each term, advanced in place
+     * @return false if there is no alternative
+     */
+    private boolean nextAlternative(Positions[] positions, int[] alternative) {
+        for (int i = 1; i < positions.length; i++) {
+            int candidate = alternative[i] + 1;
+            if (candidate < positions[i].size && isWithin(positions[i - 1], alternative[i - 1], positions[i], candidate) && !terms[i - 1].equals(terms[i])) {
+                alternative[i] = candidate;
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Test if the current position of each term is within the distance of the current position of the term before it, recording the phrase if so.
+     *
+     * @param field
+     *            the field where the offsets were found
+     * @param eventId
+     *            the event id (see @TermFrequencyList.getEventId(Key))
+     * @param positions
+     *            the positions of each term
+     * @param current
+     *            the index of the current position of each term
+     * @return true if the phrase was found
+     */
+    private boolean isConverged(String field, String eventId, Positions[] positions, int[] current) {
+        if (positions.length == 1) {
+            return true;
+        }
+
+        for (int i = 1; i < positions.length; i++) {
+            if (!isWithin(positions[i - 1], current[i - 1], positions[i], current[i])) {
+                return false;
+            }
+        }
+
+        // Only record the phrase index if this is a targeted excerpt field.
+        if (termOffsetMap.shouldRecordPhraseIndex(field)) {
+            int startOffset = positions[0].offsets[current[0]];
+            int last = positions.length - 1;
+            int endOffset = positions[last].offsets[current[last]];
+            termOffsetMap.addPhraseIndexTriplet(field, eventId, startOffset, endOffset);
+            if (log.isTraceEnabled()) {
+                log.trace("Adding phrase indexes [" + startOffset + "," + endOffset + "] for field " + field + " for event " + eventId + " to jexl context");
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Can the position q of a term follow the position p of the previous term in a phrase. They may not share an offset if either disallows zero offset
+     * matches, and the next position must be within the distance allowing for skips.
+     *
+     * @param previous
+     *            the positions of the previous term
+     * @param p
+     *            the index of the previous position
+     * @param next
+     *            the positions of the next term
+     * @param q
+     *            the index of the next position
+     * @return true if q may follow p
+     */
+    private boolean isWithin(Positions previous, int p, Positions next, int q) {
+        if ((!previous.zeroOffsetMatch[p] || !next.zeroOffsetMatch[q]) && previous.offsets[p] == next.offsets[q]) {
+            return false;
+        }
+        return previous.lowOffsets[p] <= next.offsets[q] && next.lowOffsets[q] <= previous.offsets[p] + distance;
+    }
+
+    /**
+     * The positions of one term within a field of an event, as parallel arrays in {@link TermWeightPosition} order. Positions scoring over the max score are
+     * dropped. When distinct, only the first of the positions which compare equal is kept, as when they are added to a sorted set.
+     */
+    private static class Positions {
+        final int[] offsets;
+        final int[] lowOffsets;
+        final boolean[] zeroOffsetMatch;
+        final int size;
+
+        Positions(List<TermWeightPosition> termOffsets, int maxScore, boolean distinct) {
+            int length = termOffsets.size();
+            offsets = new int[length];
+            lowOffsets = new int[length];
+            zeroOffsetMatch = new boolean[length];
+
+            int n = 0;
+            for (TermWeightPosition twp : termOffsets) {
+                if (twp.getScore() > maxScore) {
+                    continue;
+                }
+                offsets[n] = twp.getOffset();
+                lowOffsets[n] = twp.getLowOffset();
+                zeroOffsetMatch[n] = twp.getZeroOffsetMatch();
+                n++;
+            }
+
+            // the offsets of a zone come from a sorted set, but a list handed in directly may not be sorted
+            if (!isSorted(n)) {
+                sort(n);
+            }
+            size = distinct ? removeDuplicates(n) : n;
+        }
+
+        // compare the position at index i to a low offset and offset, as TermWeightPosition.compareTo does
+        int compare(int i, int lowOffset, int offset) {
+            int result = Integer.compare(lowOffsets[i], lowOffset);
+            if (result != 0) {
+                return result;
+            }
+            return Integer.compare(offsets[i], offset);
+        }
+
+        // the highest offset from index i onward, positions with skip words sort by their low offset so this must look at all of them
+        int getMaxOffset(int i) {
+            int max = Integer.MIN_VALUE;
+            for (; i < size; i++) {
+                max = Math.max(max, offsets[i]);
+            }
+            return max;
+        }
+
+        private boolean isSorted(int n) {
+            for (int i = 1; i < n; i++) {
+                if (compare(i, lowOffsets[i - 1], offsets[i - 1]) < 0) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        private void sort(int n) {
+            // a stable insertion sort, lists arriving out of order are expected to be small
+            for (int i = 1; i < n; i++) {
+                int offset = offsets[i];
+                int lowOffset = lowOffsets[i];
+                boolean zero = zeroOffsetMatch[i];
+                int j = i - 1;
+                while (j >= 0 && (lowOffsets[j] > lowOffset || (lowOffsets[j] == lowOffset && offsets[j] > offset))) {
+                    offsets[j + 1] = offsets[j];
+                    lowOffsets[j + 1] = lowOffsets[j];
+                    zeroOffsetMatch[j + 1] = zeroOffsetMatch[j];
+                    j--;
+                }
+                offsets[j + 1] = offset;
+                lowOffsets[j + 1] = lowOffset;
+                zeroOffsetMatch[j + 1] = zero;
+            }
+        }
+
+        // the sort is stable, so keeping the first of each run keeps the first position added
+        private int removeDuplicates(int n) {
+            int kept = Math.min(n, 1);
+            for (int i = 1; i < n; i++) {
+                if (compare(i, lowOffsets[kept - 1], offsets[kept - 1]) != 0) {
+                    offsets[kept] = offsets[i];
+                    lowOffsets[kept] = lowOffsets[i];
+                    zeroOffsetMatch[kept] = zeroOffsetMatch[i];
+                    kept++;
+                }
+            }
+            return kept;
+        }
+    }
+}
@@ -156,6 +156,7 @@ public class IteratorBuildingVisitor extends BaseVisitor {
     protected long ivaratorCacheScanPersistThreshold = 100000L;
     protected long ivaratorCacheScanTimeout = 1000L * 60 * 60;
     protected int ivaratorCacheBufferSize = 10000;
+    protected boolean ivaratorOffHeapBuffer = false;
     protected int maxRangeSplit = 11;
     protected int ivaratorMaxOpenFiles = 100;
     protected long maxIvaratorResults = -1;
@@ -172,6 +173,7 @@ public class IteratorBuildingVisitor extends BaseVisitor {
     protected Set<String> fieldsToAggregate = Collections.emptySet();
     protected Set<String> termFrequencyFields = Collections.emptySet();
     protected boolean allowTermFrequencyLookup = true;
+    protected boolean useLeapfrogIntersection = false;
     protected Set<String> indexOnlyFields = Collections.emptySet();
     protected FieldIndexAggregator fiAggregator;
 
@@ -387,7 +389,8 @@ public class IteratorBuildingVisitor extends BaseVisitor {
             and.childrenAccept(this, data);
         } else {
             // Create an AndIterator and recursively add the children
-            AbstractIteratorBuilder andItr = new AndIteratorBuilder();
+            AndIteratorBuilder andItr = new AndIteratorBuilder();
+            andItr.setLeapfrog(useLeapfrogIntersection);
             andItr.negateAsNeeded(data);
             andItr.setWaitWindowObserver(this.waitWindowObserver);
             and.childrenAccept(this, andItr);
@@ -1493,6 +1496,7 @@ public class IteratorBuildingVisitor extends BaseVisitor {
         builder.setHdfsFileCompressionCodec(hdfsFileCompressionCodec);
         builder.setQueryLock(queryLock);
         builder.setIvaratorCacheBufferSize(ivaratorCacheBufferSize);
+        builder.setIvaratorOffHeapBuffer(ivaratorOffHeapBuffer);
         builder.setIvaratorCacheScanPersistThreshold(ivaratorCacheScanPersistThreshold);
         builder.setIvaratorCacheScanTimeout(ivaratorCacheScanTimeout);
         builder.setMaxRangeSplit(maxRangeSplit);
@@ -1830,6 +1834,11 @@ public class IteratorBuildingVisitor extends BaseVisitor {
         return this;
     }
 
+    public IteratorBuildingVisitor setIvaratorOffHeapBuffer(boolean ivaratorOffHeapBuffer) {
+        this.ivaratorOffHeapBuffer = ivaratorOffHeapBuffer;
+        return this;
+    }
+
     public IteratorBuildingVisitor setIvaratorCacheScanPersistThreshold(long ivaratorCacheScanPersistThreshold) {
         this.ivaratorCacheScanPersistThreshold = ivaratorCacheScanPersistThreshold;
         return this;
@@ -1896,6 +1905,11 @@ public class IteratorBuildingVisitor extends BaseVisitor {
         return this;
     }
 
+    public IteratorBuildingVisitor setUseLeapfrogIntersection(boolean useLeapfrogIntersection) {
+        this.useLeapfrogIntersection = useLeapfrogIntersection;
+        return this;
+    }
+
     public IteratorBuildingVisitor setIndexOnlyFields(Set<String> indexOnlyFields) {
         this.indexOnlyFields = (indexOnlyFields == null ? Collections.emptySet() : indexOnlyFields);
         return this;
@@ -520,8 +520,22 @@ public class DefaultQueryPlanner extends QueryPlanner implements Cloneable {
             cfg = getQueryIterator(metadataHelper, config, "", false, true);
         }
 
+        // the key has to be taken before planning updates the configuration
+        QueryPlanCache.PlanKey planKey = config.isQueryPlanCacheEnabled() ? QueryPlanCache.createKey(config, query, settings) : null;
+
         try {
-            config.setQueryTree(updateQueryTree(scannerFactory, metadataHelper, dateIndexHelper, config, query, settings));
+            QueryPlanCache.Plan plan = (planKey == null ? null : QueryPlanCache.get(planKey, config.getQueryPlanCacheTTL()));
+            if (plan != null) {
+                TraceStopwatch stopwatch = config.getTimers().newStartedStopwatch("DefaultQueryPlanner - Apply cached plan");
+                plan.applyTo(config);
+                disableBoundedLookup = plan.isDisableBoundedLookup();
+                stopwatch.stop();
+            } else {
+                config.setQueryTree(updateQueryTree(scannerFactory, metadataHelper, dateIndexHelper, config, query, settings));
+                if (planKey != null) {
+                    QueryPlanCache.put(planKey, config, disableBoundedLookup);
+                }
+            }
         } catch (StackOverflowError e) {
             if (log.isTraceEnabled()) {
                 log.trace("Stack trace for overflow " + e);
@@ -774,8 +788,12 @@ public class DefaultQueryPlanner extends QueryPlanner implements Cloneable {
         addOption(cfg, QueryOptions.HIT_LIST, Boolean.toString(config.isHitList()), false);
         addOption(cfg, QueryOptions.TERM_FREQUENCY_FIELDS, Joiner.on(',').join(config.getQueryTermFrequencyFields()), false);
         addOption(cfg, QueryOptions.TERM_FREQUENCIES_REQUIRED, Boolean.toString(config.isTermFrequenciesRequired()), false);
+        addOption(cfg, QueryOptions.PRIMITIVE_CONTENT_EVALUATOR, Boolean.toString(config.isPrimitiveContentEvaluator()), false);
         addOption(cfg, QueryOptions.QUERY, newQueryString, false);
         addOption(cfg, QueryOptions.QUERY_ID, config.getQuery().getId().toString(), false);
+        if (config.getConnPoolName() != null) {
+            addOption(cfg, QueryOptions.QUERY_POOL, config.getConnPoolName(), false);
+        }
         addOption(cfg, QueryOptions.FULL_TABLE_SCAN_ONLY, Boolean.toString(isFullTable), false);
         addOption(cfg, QueryOptions.TRACK_SIZES, Boolean.toString(config.isTrackSizes()), false);
         addOption(cfg, QueryOptions.ACTIVE_QUERY_LOG_NAME, config.getActiveQueryLogName(), false);
@@ -2527,8 +2545,11 @@ public class DefaultQueryPlanner extends QueryPlanner implements Cloneable {
             addOption(cfg, QueryOptions.IVARATOR_NUM_RETRIES, Integer.toString(config.getIvaratorNumRetries()), false);
             addOption(cfg, QueryOptions.IVARATOR_PERSIST_VERIFY, Boolean.toString(config.isIvaratorPersistVerify()), false);
             addOption(cfg, QueryOptions.IVARATOR_PERSIST_VERIFY_COUNT, Integer.toString(config.getIvaratorPersistVerifyCount()), false);
+            addOption(cfg, QueryOptions.IVARATOR_PERSIST_FORMAT, config.getIvaratorPersistFormat().name(), false);
+            addOption(cfg, QueryOptions.IVARATOR_OFF_HEAP_BUFFER, Boolean.toString(config.isIvaratorOffHeapBuffer()), false);
             addOption(cfg, QueryOptions.MAX_EVALUATION_PIPELINES, Integer.toString(config.getMaxEvaluationPipelines()), false);
             addOption(cfg, QueryOptions.MAX_PIPELINE_CACHED_RESULTS, Integer.toString(config.getMaxPipelineCachedResults()), false);
+            addOption(cfg, QueryOptions.OUT_OF_ORDER_EVALUATION_PIPELINE, Boolean.toString(config.isOutOfOrderEvaluationPipeline()), false);
             addOption(cfg, QueryOptions.MAX_IVARATOR_SOURCES, Integer.toString(config.getMaxIvaratorSources()), false);
             addOption(cfg, QueryOptions.MAX_IVARATOR_SOURCE_WAIT, Long.toString(config.getMaxIvaratorSourceWait()), false);
 
@@ -2926,6 +2947,7 @@ public class DefaultQueryPlanner extends QueryPlanner implements Cloneable {
         addOption(cfg, QueryOptions.CONTAINS_COMPOSITE_TERMS, Boolean.toString(config.isContainsCompositeTerms()), false);
         addOption(cfg, QueryOptions.ALLOW_FIELD_INDEX_EVALUATION, Boolean.toString(config.isAllowFieldIndexEvaluation()), false);
         addOption(cfg, QueryOptions.ALLOW_TERM_FREQUENCY_LOOKUP, Boolean.toString(config.isAllowTermFrequencyLookup()), false);
+        addOption(cfg, QueryOptions.USE_LEAPFROG_INTERSECTION, Boolean.toString(config.isUseLeapfrogIntersection()), false);
         addOption(cfg, QueryOptions.COMPRESS_SERVER_SIDE_RESULTS, Boolean.toString(config.isCompressServerSideResults()), false);
 
         if (config.getCardinalityThreshold() > 0) { // only add option if it is set
@@ -0,0 +1,250 @@
+package datawave.query.planner;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Objects;
+import java.util.Set;
+import java.util.SortedMap;
+import java.util.SortedSet;
+import java.util.TreeMap;
+import java.util.TreeSet;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.apache.accumulo.core.client.AccumuloClient;
+import org.apache.accumulo.core.security.Authorizations;
+import org.apache.commons.jexl3.parser.ParseException;
+import org.apache.log4j.Logger;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+
+import datawave.core.common.logging.ThreadConfigurableLogger;
+import datawave.core.query.configuration.QueryData;
+import datawave.microservice.query.Query;
+import datawave.microservice.query.QueryImpl.Parameter;
+import datawave.query.config.ShardQueryConfiguration;
+import datawave.query.jexl.JexlASTHelper;
+import datawave.query.jexl.visitors.JexlStringBuildingVisitor;
+
+/**
+ * A cache of planned query trees shared by the query planners of this JVM. An entry holds the configuration as it stood after the query tree was planned,
+ * including the query model, regex, range and unfielded term expansions, so that a repeated query can skip straight to the global index range lookup. The
+ * ranges themselves are never cached because the global index changes as data is ingested.
+ *
+ * An entry is keyed by the normalized query, the auths, the exact date range, the datatype filter, the query logic, the query parameters and the metadata
+ * epoch. The epoch is advanced whenever the metadata table changes, which orphans every cached plan. Because expansions against the global index can also go
+ * stale as new values are ingested, entries are only used up to the TTL configured on the query logic.
+ */
+public class QueryPlanCache {
+    private static final Logger log = ThreadConfigurableLogger.getLogger(QueryPlanCache.class);
+
+    private static final int MAX_CACHED_PLANS = 1000;
+
+    private static final AtomicLong metadataEpoch = new AtomicLong();
+
+    private static final Cache<PlanKey,Plan> plans = CacheBuilder.newBuilder().maximumSize(MAX_CACHED_PLANS).concurrencyLevel(100)
+                    .expireAfterWrite(24, TimeUnit.HOURS).build();
+
+    private QueryPlanCache() {}
+
+    /**
+     * Called when the metadata table changes. Any plan cached before this call will not be used again.
+     */
+    public static void advanceMetadataEpoch() {
+        metadataEpoch.incrementAndGet();
+        plans.invalidateAll();
+    }
+
+    public static long getMetadataEpoch() {
+        return metadataEpoch.get();
+    }
+
+    /**
+     * Create the key for a query that is about to be planned. This must be called before planning modifies the configuration.
+     *
+     * @param config
+     *            the configuration
+     * @param query
+     *            the query string
+     * @param settings
+     *            the query settings
+     * @return the key, or null if the query cannot be parsed in which case planning will report the problem
+     */
+    public static PlanKey createKey(ShardQueryConfiguration config, String query, Query settings) {
+        String normalizedQuery;
+        try {
+            normalizedQuery = JexlStringBuildingVisitor.buildQuery(JexlASTHelper.parseJexlQuery(query));
+        } catch (ParseException | RuntimeException e) {
+            return null;
+        }
+
+        SortedSet<String> auths = new TreeSet<>();
+        if (config.getAuthorizations() != null) {
+            for (Authorizations authorizations : config.getAuthorizations()) {
+                auths.add(authorizations.toString());
+            }
+        }
+
+        SortedMap<String,String> parameters = new TreeMap<>();
+        if (settings != null && settings.getParameters() != null) {
+            for (Parameter parameter : settings.getParameters()) {
+                parameters.put(parameter.getParameterName(), parameter.getParameterValue());
+            }
+        }
+
+        // @formatter:off
+        return new PlanKey(
+                        normalizedQuery,
+                        auths,
+                        config.getBeginDate() == null ? 0 : config.getBeginDate().getTime(),
+                        config.getEndDate() == null ? 0 : config.getEndDate().getTime(),
+                        config.getDatatypeFilter() == null ? new TreeSet<>() : new TreeSet<>(config.getDatatypeFilter()),
+                        settings == null ? null : settings.getQueryLogicName(),
+                        parameters,
+                        metadataEpoch.get());
+        // @formatter:on
+    }
+
+    /**
+     * Get a cached plan
+     *
+     * @param key
+     *            the key
+     * @param ttl
+     *            the maximum age of a usable plan in milliseconds
+     * @return the plan, or null if there is no usable plan
+     */
+    public static Plan get(PlanKey key, long ttl) {
+        Plan plan = plans.getIfPresent(key);
+        if (plan != null && System.currentTimeMillis() - plan.created > ttl) {
+            plans.invalidate(key);
+            plan = null;
+        }
+        if (log.isDebugEnabled()) {
+            log.debug((plan == null ? "No cached plan for " : "Using cached plan for ") + key.query);
+        }
+        return plan;
+    }
+
+    /**
+     * Cache the plan of a query
+     *
+     * @param key
+     *            the key created before the query was planned
+     * @param config
+     *            the configuration after the query tree was planned
+     * @param disableBoundedLookup
+     *            the bounded lookup setting of the planner after the query tree was planned
+     */
+    public static void put(PlanKey key, ShardQueryConfiguration config, boolean disableBoundedLookup) {
+        // a plan made before the metadata changed is already stale
+        if (key.epoch == metadataEpoch.get()) {
+            plans.put(key, new Plan(config, disableBoundedLookup));
+        }
+    }
+
+    public static void invalidate(PlanKey key) {
+        plans.invalidate(key);
+    }
+
+    public static long size() {
+        return plans.size();
+    }
+
+    /**
+     * A planned configuration
+     */
+    public static class Plan {
+        private final ShardQueryConfiguration config;
+        private final boolean disableBoundedLookup;
+        private final long created = System.currentTimeMillis();
+
+        private Plan(ShardQueryConfiguration config, boolean disableBoundedLookup) {
+            this.config = new ShardQueryConfiguration(config);
+            // do not hold onto the client or ranges of the query that made this plan
+            this.config.setClient(null);
+            this.config.setQueries(null);
+            this.disableBoundedLookup = disableBoundedLookup;
+        }
+
+        /**
+         * Copy this plan into the configuration of another query, keeping that query's own settings and client
+         *
+         * @param target
+         *            the configuration
+         */
+        public void applyTo(ShardQueryConfiguration target) {
+            Query query = target.getQuery();
+            AccumuloClient client = target.getClient();
+            Collection<QueryData> queries = target.getQueries();
+            target.copyFrom(config);
+            target.setQuery(query);
+            target.setClient(client);
+            target.setQueries(queries);
+        }
+
+        public boolean isDisableBoundedLookup() {
+            return disableBoundedLookup;
+        }
+    }
+
+    /**
+     * The key of a cached plan
+     */
+    public static class PlanKey {
+        private final String query;
+        private final Set<String> auths;
+        private final long beginDate;
+        private final long endDate;
+        private final Set<String> datatypeFilter;
+        private final String queryLogicName;
+        private final SortedMap<String,String> parameters;
+        private final long epoch;
+
+        private PlanKey(String query, Set<String> auths, long beginDate, long endDate, Set<String> datatypeFilter, String queryLogicName,
+                        SortedMap<String,String> parameters, long epoch) {
+            this.query = query;
+            this.auths = auths;
+            this.beginDate = beginDate;
+            this.endDate = endDate;
+            this.datatypeFilter = datatypeFilter;
+            this.queryLogicName = queryLogicName;
+            this.parameters = parameters;
+            this.epoch = epoch;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (o == null || getClass() != o.getClass()) {
+                return false;
+            }
+            PlanKey that = (PlanKey) o;
+            return beginDate == that.beginDate && endDate == that.endDate && epoch == that.epoch && query.equals(that.query) && auths.equals(that.auths)
+                            && datatypeFilter.equals(that.datatypeFilter) && Objects.equals(queryLogicName, that.queryLogicName)
+                            && parameters.equals(that.parameters);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(query, auths, beginDate, endDate, datatypeFilter, queryLogicName, parameters, epoch);
+        }
+
+        @Override
+        public String toString() {
+            List<String> parts = new ArrayList<>();
+            parts.add(query);
+            parts.add(auths.toString());
+            parts.add(beginDate + "-" + endDate);
+            parts.add(datatypeFilter.toString());
+            parts.add(queryLogicName);
+            parts.add(parameters.toString());
+            parts.add("epoch " + epoch);
+            return String.join(", ", parts);
+        }
+    }
+}
@@ -18,6 +18,9 @@ public class TermOffsetMap {
     // should we gather phrase offsets
     boolean gatherPhraseOffsets = false;
 
+    // should the content functions use the ContentPrimitiveEvaluator
+    boolean usePrimitiveEvaluator = false;
+
     // The set of excerpt fields to gather phrase offsets for.
     private Set<String> excerptFields;
     /**
@@ -129,6 +132,21 @@ public class TermOffsetMap {
         }
     }
 
+    public boolean usePrimitiveEvaluator() {
+        return usePrimitiveEvaluator;
+    }
+
+    /**
+     * Set whether the content functions evaluated against this map use the {@link datawave.query.jexl.functions.ContentPrimitiveEvaluator} instead of the
+     * ordered and unordered evaluators.
+     *
+     * @param usePrimitiveEvaluator
+     *            true to use the primitive evaluator
+     */
+    public void setUsePrimitiveEvaluator(boolean usePrimitiveEvaluator) {
+        this.usePrimitiveEvaluator = usePrimitiveEvaluator;
+    }
+
     /**
      * Set the excerpt fields.
      *
@@ -159,18 +177,20 @@ public class TermOffsetMap {
             return false;
         }
         TermOffsetMap that = (TermOffsetMap) o;
-        return gatherPhraseOffsets == that.gatherPhraseOffsets && Objects.equals(excerptFields, that.excerptFields)
-                        && Objects.equals(termFrequencies, that.termFrequencies) && Objects.equals(phraseIndexes, that.phraseIndexes);
+        return gatherPhraseOffsets == that.gatherPhraseOffsets && usePrimitiveEvaluator == that.usePrimitiveEvaluator
+                        && Objects.equals(excerptFields, that.excerptFields) && Objects.equals(termFrequencies, that.termFrequencies)
+                        && Objects.equals(phraseIndexes, that.phraseIndexes);
     }
 
     @Override
     public int hashCode() {
-        return Objects.hash(gatherPhraseOffsets, excerptFields, termFrequencies, phraseIndexes);
+        return Objects.hash(gatherPhraseOffsets, usePrimitiveEvaluator, excerptFields, termFrequencies, phraseIndexes);
     }
 
     @Override
     public String toString() {
         return new StringJoiner(", ", TermOffsetMap.class.getSimpleName() + "[", "]").add("gatherPhraseOffsets=" + gatherPhraseOffsets)
-                        .add("excerptFields=" + excerptFields).add("termFrequencies=" + termFrequencies).add("phraseIndexes=" + phraseIndexes).toString();
+                        .add("usePrimitiveEvaluator=" + usePrimitiveEvaluator).add("excerptFields=" + excerptFields).add("termFrequencies=" + termFrequencies)
+                        .add("phraseIndexes=" + phraseIndexes).toString();
     }
 }
@@ -0,0 +1,81 @@
+package datawave.query.tables;
+
+import java.io.IOException;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+import datawave.core.query.configuration.Result;
+import datawave.core.query.configuration.ResultContext;
+import datawave.query.DocumentSerialization;
+import datawave.query.attributes.DocumentBlock;
+import datawave.query.attributes.DocumentBlockValue;
+import datawave.query.function.deserializer.ColumnarDocumentDeserializer;
+
+/**
+ * Split the blocks returned for the <code>columnar</code> return type into one result per document, so that everything downstream still sees a key per
+ * document. Each block is parsed once here, and its results share a single {@link DocumentBlockValue} holding the uncompressed block and the parsed block,
+ * which the {@link ColumnarDocumentDeserializer} reads the documents from.
+ */
+class DocumentBlockIterator implements Iterator<Result> {
+
+    private final Iterator<Result> delegate;
+
+    // the block being split, or null once all of its documents have been returned
+    private DocumentBlockValue blockValue;
+    private ResultContext context;
+    private int nextDocument;
+
+    public DocumentBlockIterator(Iterator<Result> delegate) {
+        this.delegate = delegate;
+    }
+
+    @Override
+    public boolean hasNext() {
+        return blockValue != null || delegate.hasNext();
+    }
+
+    @Override
+    public Result next() {
+        if (blockValue != null) {
+            return nextInBlock();
+        }
+        if (!delegate.hasNext()) {
+            throw new NoSuchElementException();
+        }
+
+        Result result = delegate.next();
+        // allow empty results to go through (required to track completion of ranges)
+        if (result.getKey() == null) {
+            return result;
+        }
+
+        byte[] body;
+        try {
+            body = DocumentSerialization.consumeHeader(result.getValue().get()).readAllBytes();
+        } catch (IOException e) {
+            throw new RuntimeException("Could not read document block", e);
+        }
+        DocumentBlock block = new DocumentBlock(body);
+
+        byte[] header = DocumentSerialization.getHeader();
+        byte[] bytes = new byte[header.length + body.length];
+        System.arraycopy(header, 0, bytes, 0, header.length);
+        System.arraycopy(body, 0, bytes, header.length, body.length);
+
+        blockValue = new DocumentBlockValue(bytes, block);
+        context = result.getContext();
+        nextDocument = 0;
+        return nextInBlock();
+    }
+
+    private Result nextInBlock() {
+        DocumentBlock block = blockValue.getBlock();
+        Result result = new Result(context, block.getKey(nextDocument++), blockValue);
+        if (nextDocument == block.size()) {
+            blockValue = null;
+            context = null;
+        }
+        return result;
+    }
+
+}
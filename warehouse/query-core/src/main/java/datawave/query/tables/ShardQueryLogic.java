@@ -700,6 +700,11 @@ public class ShardQueryLogic extends BaseQueryLogic<Entry<Key,Value>> implements
         this.scanner = null;
         Iterator<Result> resultIterator = this.scheduler.iterator();
 
+        // split columnar blocks back into one result per document
+        if (config.getReturnType() == DocumentSerialization.ReturnType.columnar) {
+            resultIterator = new DocumentBlockIterator(resultIterator);
+        }
+
         if (!config.isSortedUIDs()) {
             DedupingIterator dedupIterator = new DedupingIterator(resultIterator, config.getBloom());
             config.setBloom(dedupIterator.getBloom());
@@ -2500,6 +2505,22 @@ public class ShardQueryLogic extends BaseQueryLogic<Entry<Key,Value>> implements
         getConfig().setIvaratorPersistVerifyCount(ivaratorPersistVerifyCount);
     }
 
+    public FileSortedSet.PersistOptions.KeyFormat getIvaratorPersistFormat() {
+        return getConfig().getIvaratorPersistFormat();
+    }
+
+    public void setIvaratorPersistFormat(FileSortedSet.PersistOptions.KeyFormat ivaratorPersistFormat) {
+        getConfig().setIvaratorPersistFormat(ivaratorPersistFormat);
+    }
+
+    public boolean isIvaratorOffHeapBuffer() {
+        return getConfig().isIvaratorOffHeapBuffer();
+    }
+
+    public void setIvaratorOffHeapBuffer(boolean ivaratorOffHeapBuffer) {
+        getConfig().setIvaratorOffHeapBuffer(ivaratorOffHeapBuffer);
+    }
+
     public int getMaxIvaratorSources() {
         return getConfig().getMaxIvaratorSources();
     }
@@ -2548,6 +2569,14 @@ public class ShardQueryLogic extends BaseQueryLogic<Entry<Key,Value>> implements
         getConfig().setMaxPipelineCachedResults(maxCachedResults);
     }
 
+    public boolean isOutOfOrderEvaluationPipeline() {
+        return getConfig().isOutOfOrderEvaluationPipeline();
+    }
+
+    public void setOutOfOrderEvaluationPipeline(boolean outOfOrderEvaluationPipeline) {
+        getConfig().setOutOfOrderEvaluationPipeline(outOfOrderEvaluationPipeline);
+    }
+
     public void setQueryExecutionForPageTimeout(long queryExecutionForPageTimeout) {
         getConfig().setQueryExecutionForPageTimeout(queryExecutionForPageTimeout);
     }
@@ -2945,6 +2974,38 @@ public class ShardQueryLogic extends BaseQueryLogic<Entry<Key,Value>> implements
         getConfig().setAllowTermFrequencyLookup(allowTermFrequencyLookup);
     }
 
+    public boolean isUseLeapfrogIntersection() {
+        return getConfig().isUseLeapfrogIntersection();
+    }
+
+    public void setUseLeapfrogIntersection(boolean useLeapfrogIntersection) {
+        getConfig().setUseLeapfrogIntersection(useLeapfrogIntersection);
+    }
+
+    public boolean isPrimitiveContentEvaluator() {
+        return getConfig().isPrimitiveContentEvaluator();
+    }
+
+    public void setPrimitiveContentEvaluator(boolean primitiveContentEvaluator) {
+        getConfig().setPrimitiveContentEvaluator(primitiveContentEvaluator);
+    }
+
+    public boolean isQueryPlanCacheEnabled() {
+        return getConfig().isQueryPlanCacheEnabled();
+    }
+
+    public void setQueryPlanCacheEnabled(boolean queryPlanCacheEnabled) {
+        getConfig().setQueryPlanCacheEnabled(queryPlanCacheEnabled);
+    }
+
+    public long getQueryPlanCacheTTL() {
+        return getConfig().getQueryPlanCacheTTL();
+    }
+
+    public void setQueryPlanCacheTTL(long queryPlanCacheTTL) {
+        getConfig().setQueryPlanCacheTTL(queryPlanCacheTTL);
+    }
+
     public boolean isExpandUnfieldedNegations() {
         return getConfig().isExpandUnfieldedNegations();
     }
@@ -466,6 +466,8 @@ public class VisitorFunction implements Function<ScannerChunk,ScannerChunk> {
             settings.removeOption(QueryOptions.IVARATOR_NUM_RETRIES);
             settings.removeOption(QueryOptions.IVARATOR_PERSIST_VERIFY);
             settings.removeOption(QueryOptions.IVARATOR_PERSIST_VERIFY_COUNT);
+            settings.removeOption(QueryOptions.IVARATOR_PERSIST_FORMAT);
+            settings.removeOption(QueryOptions.IVARATOR_OFF_HEAP_BUFFER);
             settings.removeOption(QueryOptions.IVARATOR_SCAN_PERSIST_THRESHOLD);
             settings.removeOption(QueryOptions.IVARATOR_SCAN_TIMEOUT);
 
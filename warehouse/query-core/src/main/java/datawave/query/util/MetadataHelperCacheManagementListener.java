@@ -9,10 +9,11 @@ import org.apache.curator.framework.state.ConnectionState;
 import org.apache.log4j.Logger;
 
 import datawave.core.common.cache.SharedCacheCoordinator;
+import datawave.query.planner.QueryPlanCache;
 
 /**
  * Uses the SharedCacheCoordinator to register listeners so that when an event is fired (for example, when a new model is loaded) the spring injected cache of
- * the MetadataHelpers will be evicted.
+ * the MetadataHelpers will be evicted, along with any cached query plans.
  *
  * Note that because the SharedCacheCoordinator uses zookeeper, this class will not work in cases where zookeeper is not running (like in unit tests). This
  * class is created by the MetadataHelperCacheListenerContext.xml which is not loaded in unit tests
@@ -71,6 +72,7 @@ public class MetadataHelperCacheManagementListener {
                     if (!watcher.checkCounter(metadataTableName, newCount)) {
                         log.debug("will evictCaches for " + metadataTableName);
                         metadataCacheManager.evictCaches();
+                        QueryPlanCache.advanceMetadataEpoch();
                     } else {
                         log.debug("did not evictCaches for " + metadataTableName);
                     }
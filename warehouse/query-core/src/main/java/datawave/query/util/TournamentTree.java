@@ -0,0 +1,214 @@
+package datawave.query.util;
+
+import java.util.Comparator;
+
+/**
+ * A tournament tree used to merge a fixed number of sorted sources. Each source is a leaf holding its current head, and each internal node holds the leaf that
+ * won the match between its two children. Changing the head of any leaf only replays the matches on the path from that leaf to the root: about log2(k)
+ * comparisons for k sources, with no allocation after construction.
+ * <p>
+ * Unlike a loser tree, any leaf may be changed, not just the current winner. The merges need this to set aside every source tied with the winner and to bring
+ * them back once they have been advanced.
+ * <p>
+ * A leaf is either active, in which case its head competes, or inactive (exhausted or set aside by the caller), in which case it loses every match. Ties are
+ * broken by leaf index so the order in which equal heads are won is deterministic. Heads may be null if the comparator supports null.
+ *
+ * @param <T>
+ *            type of the heads
+ */
+public class TournamentTree<T> {
+
+    private final Comparator<? super T> comparator;
+    private final int size;
+    private final Object[] heads;
+    private final boolean[] active;
+    // node 1 is the root, the children of node n are 2n and 2n + 1, and leaf i sits at node size + i
+    private final int[] tree;
+
+    /**
+     * Create a tree for the given number of sources. All leaves start inactive.
+     *
+     * @param size
+     *            the number of sources
+     * @param comparator
+     *            the comparator for the heads, or null for natural ordering
+     */
+    public TournamentTree(int size, Comparator<? super T> comparator) {
+        this.comparator = comparator;
+        this.size = size;
+        this.heads = new Object[size];
+        this.active = new boolean[size];
+        this.tree = new int[2 * size];
+        for (int i = 0; i < size; i++) {
+            tree[size + i] = i;
+        }
+    }
+
+    /**
+     * Set the head of a leaf without replaying its matches. Call {@link #build()} once all of the leaves have been set.
+     *
+     * @param leaf
+     *            the leaf
+     * @param head
+     *            the new head
+     */
+    public void set(int leaf, T head) {
+        heads[leaf] = head;
+        active[leaf] = true;
+    }
+
+    /**
+     * Deactivate a leaf without replaying its matches. The head is kept so that the leaf can be restored later. Call {@link #build()} once all of the leaves
+     * have been set.
+     *
+     * @param leaf
+     *            the leaf
+     */
+    public void clear(int leaf) {
+        active[leaf] = false;
+    }
+
+    /**
+     * Play all of the matches from scratch, which takes k - 1 comparisons.
+     */
+    public void build() {
+        for (int node = size - 1; node > 0; node--) {
+            play(node);
+        }
+    }
+
+    /**
+     * Replace the head of a leaf and replay its matches
+     *
+     * @param leaf
+     *            the leaf
+     * @param head
+     *            the new head
+     */
+    public void update(int leaf, T head) {
+        set(leaf, head);
+        replay(leaf);
+    }
+
+    /**
+     * Deactivate a leaf and replay its matches. The head is kept so that the leaf can be restored later with <code>update(leaf, get(leaf))</code>.
+     *
+     * @param leaf
+     *            the leaf
+     */
+    public void remove(int leaf) {
+        clear(leaf);
+        replay(leaf);
+    }
+
+    /**
+     * Deactivate all of the leaves
+     */
+    public void removeAll() {
+        for (int i = 0; i < size; i++) {
+            clear(i);
+        }
+    }
+
+    private void replay(int leaf) {
+        for (int node = (size + leaf) >>> 1; node > 0; node >>>= 1) {
+            play(node);
+        }
+    }
+
+    private void play(int node) {
+        int left = tree[2 * node];
+        int right = tree[2 * node + 1];
+        tree[node] = beats(right, left) ? right : left;
+    }
+
+    @SuppressWarnings("unchecked")
+    private boolean beats(int a, int b) {
+        if (!active[a]) {
+            return false;
+        } else if (!active[b]) {
+            return true;
+        }
+        int result = compare((T) heads[a], (T) heads[b]);
+        return result < 0 || (result == 0 && a < b);
+    }
+
+    /**
+     * Compare two heads with the comparator of this tree
+     *
+     * @param o1
+     *            a head
+     * @param o2
+     *            another head
+     * @return the comparison
+     */
+    @SuppressWarnings("unchecked")
+    public int compare(T o1, T o2) {
+        if (comparator == null) {
+            return ((Comparable<? super T>) o1).compareTo(o2);
+        }
+        return comparator.compare(o1, o2);
+    }
+
+    /**
+     * @return true if no leaf is active
+     */
+    public boolean isEmpty() {
+        return size == 0 || !active[tree[1]];
+    }
+
+    /**
+     * @return the active leaf with the lowest head, or -1 if there is none
+     */
+    public int winner() {
+        return isEmpty() ? -1 : tree[1];
+    }
+
+    /**
+     * @return the lowest head, which is only meaningful if the tree is not empty
+     */
+    @SuppressWarnings("unchecked")
+    public T peek() {
+        return (T) heads[tree[1]];
+    }
+
+    /**
+     * @param leaf
+     *            the leaf
+     * @return the head of the leaf, which is the last head it was given if it is not active
+     */
+    @SuppressWarnings("unchecked")
+    public T get(int leaf) {
+        return (T) heads[leaf];
+    }
+
+    /**
+     * @param leaf
+     *            the leaf
+     * @return true if the leaf is active
+     */
+    public boolean isActive(int leaf) {
+        return active[leaf];
+    }
+
+    /**
+     * @return the number of leaves
+     */
+    public int size() {
+        return size;
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder sb = new StringBuilder("[");
+        for (int i = 0; i < size; i++) {
+            if (active[i]) {
+                if (sb.length() > 1) {
+                    sb.append(", ");
+                }
+                sb.append(heads[i]);
+            }
+        }
+        return sb.append(']').toString();
+    }
+}
@@ -0,0 +1,304 @@
+package datawave.query.util.sortedset;
+
+import static datawave.query.util.sortedset.CompactKeyOutputStream.DELETED;
+import static datawave.query.util.sortedset.CompactKeyOutputStream.END;
+import static datawave.query.util.sortedset.CompactKeyOutputStream.FOOTER_LENGTH;
+import static datawave.query.util.sortedset.CompactKeyOutputStream.HEADER_LENGTH;
+import static datawave.query.util.sortedset.CompactKeyOutputStream.LZ4;
+import static datawave.query.util.sortedset.CompactKeyOutputStream.MAGIC;
+import static datawave.query.util.sortedset.CompactKeyOutputStream.RAW;
+import static datawave.query.util.sortedset.CompactKeyOutputStream.SAME_CF;
+import static datawave.query.util.sortedset.CompactKeyOutputStream.SAME_CQ;
+import static datawave.query.util.sortedset.CompactKeyOutputStream.SAME_CV;
+import static datawave.query.util.sortedset.CompactKeyOutputStream.SAME_ROW;
+import static datawave.query.util.sortedset.CompactKeyOutputStream.SAME_TIMESTAMP;
+import static datawave.query.util.sortedset.CompactKeyOutputStream.VERSION;
+
+import java.io.DataInput;
+import java.io.DataInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.util.zip.CRC32;
+
+import org.apache.accumulo.core.data.Key;
+import org.apache.hadoop.fs.PositionedReadable;
+import org.apache.hadoop.fs.Seekable;
+import org.apache.hadoop.io.DataInputBuffer;
+import org.apache.hadoop.io.WritableUtils;
+import org.apache.log4j.Logger;
+
+/**
+ * Reads a sorted set of keys written by a {@link CompactKeyOutputStream}. When the underlying stream can seek, a bounded read uses the index to start at the
+ * block that may hold the start key, and the size is read directly from the footer.
+ */
+public class CompactKeyInputStream implements FileSortedSet.SortedSetInputStream<Key> {
+    private static final Logger log = Logger.getLogger(CompactKeyInputStream.class);
+    private static final byte[] EMPTY = new byte[0];
+
+    private final InputStream inputStream;
+    private final long length;
+    private Key start;
+    private Key end;
+    private DataInputStream in;
+    private int size = -1;
+    private boolean done = false;
+
+    private byte[] stored = EMPTY;
+    private byte[] raw = EMPTY;
+    private final DataInputBuffer block = new DataInputBuffer();
+    private Key previous;
+
+    public CompactKeyInputStream(InputStream inputStream, long length) {
+        this.inputStream = inputStream;
+        this.length = length;
+    }
+
+    public CompactKeyInputStream(InputStream inputStream, long length, Key start, Key end) {
+        this(inputStream, length);
+        this.start = start;
+        this.end = end;
+    }
+
+    /**
+     * Determine whether a stream holds a file written by a {@link CompactKeyOutputStream}, without moving the stream
+     *
+     * @param inputStream
+     *            the stream
+     * @return true if the stream can be read without moving it and starts with the magic number of the format
+     * @throws IOException
+     *             for issues with read
+     */
+    public static boolean isCompactKeyFile(InputStream inputStream) throws IOException {
+        if (inputStream instanceof PositionedReadable) {
+            byte[] magic = new byte[4];
+            int read = ((PositionedReadable) inputStream).read(0, magic, 0, magic.length);
+            return read == magic.length && ByteBuffer.wrap(magic).getInt() == MAGIC;
+        }
+        return false;
+    }
+
+    private boolean isSeekable() {
+        return length > 0 && inputStream instanceof Seekable && inputStream instanceof PositionedReadable;
+    }
+
+    private void open() throws IOException {
+        in = new DataInputStream(inputStream);
+        if (in.readInt() != MAGIC) {
+            throw new IOException("Not a compact key file");
+        }
+        byte version = in.readByte();
+        if (version != VERSION) {
+            throw new IOException("Unsupported compact key file version " + version);
+        }
+        if (start != null && isSeekable()) {
+            long offset = findBlock(start);
+            if (offset > HEADER_LENGTH) {
+                ((Seekable) inputStream).seek(offset);
+            }
+        }
+    }
+
+    /**
+     * Find the last block starting at or before a key using the index
+     *
+     * @param key
+     *            the key
+     * @return the offset of the block
+     * @throws IOException
+     *             for issues with read
+     */
+    private long findBlock(Key key) throws IOException {
+        Footer footer = readFooter();
+        int indexLength = (int) (length - FOOTER_LENGTH - footer.indexOffset);
+        byte[] index = new byte[indexLength];
+        ((PositionedReadable) inputStream).readFully(footer.indexOffset, index);
+        if (CompactKeyOutputStream.checksum(index, indexLength, footer.size, footer.blockCount) != footer.checksum) {
+            throw new IOException("Compact key file index failed its checksum");
+        }
+
+        DataInputBuffer indexInput = new DataInputBuffer();
+        indexInput.reset(index, indexLength);
+        long offset = HEADER_LENGTH;
+        for (int i = 0; i < footer.blockCount; i++) {
+            Key first = readKey(indexInput, CompactKeyOutputStream.EMPTY_KEY);
+            long blockOffset = WritableUtils.readVLong(indexInput);
+            if (first.compareTo(key) > 0) {
+                break;
+            }
+            offset = blockOffset;
+        }
+        return offset;
+    }
+
+    private Footer readFooter() throws IOException {
+        byte[] bytes = new byte[FOOTER_LENGTH];
+        ((PositionedReadable) inputStream).readFully(length - FOOTER_LENGTH, bytes);
+        ByteBuffer buffer = ByteBuffer.wrap(bytes);
+        Footer footer = new Footer(buffer.getLong(), buffer.getInt(), buffer.getInt(), buffer.getLong());
+        if (buffer.getInt() != MAGIC) {
+            throw new IOException("Compact key file is missing its footer");
+        }
+        return footer;
+    }
+
+    /**
+     * Read the next block into the block buffer
+     *
+     * @return false if there are no more blocks
+     * @throws IOException
+     *             for issues with read
+     */
+    private boolean readBlock() throws IOException {
+        byte codec = in.readByte();
+        if (codec == END) {
+            readTrailer();
+            return false;
+        }
+        int rawLength = in.readInt();
+        int storedLength = in.readInt();
+        int checksum = in.readInt();
+        if (stored.length < storedLength) {
+            stored = new byte[storedLength];
+        }
+        in.readFully(stored, 0, storedLength);
+        CRC32 crc = new CRC32();
+        crc.update(stored, 0, storedLength);
+        if ((int) crc.getValue() != checksum) {
+            throw new IOException("Compact key file block failed its checksum");
+        }
+
+        if (codec == RAW) {
+            block.reset(stored, storedLength);
+        } else if (codec == LZ4) {
+            if (raw.length < rawLength) {
+                raw = new byte[rawLength];
+            }
+            Lz4Block.decompress(stored, storedLength, raw, rawLength);
+            block.reset(raw, rawLength);
+        } else {
+            throw new IOException("Unknown compact key file block codec " + codec);
+        }
+        previous = CompactKeyOutputStream.EMPTY_KEY;
+        return true;
+    }
+
+    /**
+     * Read the index and footer following the last block
+     *
+     * @throws IOException
+     *             for issues with read
+     */
+    private void readTrailer() throws IOException {
+        int indexLength = in.readInt();
+        byte[] index = new byte[indexLength];
+        in.readFully(index);
+        long indexOffset = in.readLong();
+        int fileSize = in.readInt();
+        int blockCount = in.readInt();
+        long checksum = in.readLong();
+        if (in.readInt() != MAGIC || CompactKeyOutputStream.checksum(index, indexLength, fileSize, blockCount) != checksum) {
+            throw new IOException("Compact key file footer failed its checksum");
+        }
+        size = fileSize;
+    }
+
+    static Key readKey(DataInput input, Key previous) throws IOException {
+        int flags = input.readByte();
+        byte[] row = (flags & SAME_ROW) == 0 ? readBytes(input, previous.getRowData().getBackingArray()) : previous.getRowData().getBackingArray();
+        byte[] cf = (flags & SAME_CF) == 0 ? readBytes(input, previous.getColumnFamilyData().getBackingArray())
+                        : previous.getColumnFamilyData().getBackingArray();
+        byte[] cq = (flags & SAME_CQ) == 0 ? readBytes(input, previous.getColumnQualifierData().getBackingArray())
+                        : previous.getColumnQualifierData().getBackingArray();
+        byte[] cv = (flags & SAME_CV) == 0 ? readBytes(input, previous.getColumnVisibilityData().getBackingArray())
+                        : previous.getColumnVisibilityData().getBackingArray();
+        long timestamp = previous.getTimestamp();
+        if ((flags & SAME_TIMESTAMP) == 0) {
+            long zigzag = WritableUtils.readVLong(input);
+            timestamp += (zigzag >>> 1) ^ -(zigzag & 1);
+        }
+        // the keys are built from arrays owned by this stream, which may be shared with the previous key but are never modified
+        return new Key(row, cf, cq, cv, timestamp, (flags & DELETED) != 0, false);
+    }
+
+    private static byte[] readBytes(DataInput input, byte[] previous) throws IOException {
+        int prefix = WritableUtils.readVInt(input);
+        int suffix = WritableUtils.readVInt(input);
+        byte[] bytes = new byte[prefix + suffix];
+        System.arraycopy(previous, 0, bytes, 0, prefix);
+        input.readFully(bytes, prefix, suffix);
+        return bytes;
+    }
+
+    @Override
+    public Key readObject() throws IOException {
+        if (in == null) {
+            open();
+        }
+        while (!done) {
+            if (block.available() == 0 && !readBlock()) {
+                done = true;
+                break;
+            }
+            Key key = readKey(block, previous);
+            previous = key;
+            if (start != null && key.compareTo(start) < 0) {
+                continue;
+            }
+            if (end != null && key.compareTo(end) >= 0) {
+                done = true;
+                break;
+            }
+            return key;
+        }
+        return null;
+    }
+
+    @Override
+    public int readSize() throws IOException {
+        if (size < 0) {
+            if (isSeekable()) {
+                size = readFooter().size;
+            } else if (in != null) {
+                throw new IllegalStateException("Cannot read size from undetermined location in stream");
+            } else {
+                // skip over the blocks to the footer
+                open();
+                while (in.readByte() != END) {
+                    in.readInt();
+                    int storedLength = in.readInt();
+                    in.readInt();
+                    if (in.skip(storedLength) != storedLength) {
+                        throw new IOException("Compact key file is truncated");
+                    }
+                }
+                readTrailer();
+                done = true;
+            }
+        }
+        return size;
+    }
+
+    @Override
+    public void close() {
+        try {
+            inputStream.close();
+        } catch (IOException e) {
+            log.error("Failed to close input stream", e);
+        }
+    }
+
+    private static class Footer {
+        private final long indexOffset;
+        private final int size;
+        private final int blockCount;
+        private final long checksum;
+
+        private Footer(long indexOffset, int size, int blockCount, long checksum) {
+            this.indexOffset = indexOffset;
+            this.size = size;
+            this.blockCount = blockCount;
+            this.checksum = checksum;
+        }
+    }
+}
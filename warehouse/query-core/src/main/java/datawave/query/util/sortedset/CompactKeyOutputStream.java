@@ -0,0 +1,212 @@
+package datawave.query.util.sortedset;
+
+import java.io.DataOutput;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.zip.CRC32;
+
+import org.apache.accumulo.core.data.ByteSequence;
+import org.apache.accumulo.core.data.Key;
+import org.apache.hadoop.io.DataOutputBuffer;
+import org.apache.hadoop.io.WritableUtils;
+
+/**
+ * Writes a sorted set of keys in a format made for ivarator spills, which are mostly keys sharing the same row and long column prefixes. The file is laid out
+ * as:
+ *
+ * <pre>
+ * header:  magic (int), version (byte)
+ * blocks:  codec (byte), raw length (int), stored length (int), crc32 of the stored bytes (int), stored bytes
+ * index:   END (byte), index length (int), then per block: first key, block offset (vlong)
+ * footer:  index offset (long), size (int), block count (int), crc32 of the index and size (long), magic (int)
+ * </pre>
+ *
+ * Within a block each key is written as a flags byte, then for each of the row, column family, column qualifier and visibility that differs from the previous
+ * key the length of the prefix shared with the previous key and the remaining bytes, then the timestamp as a delta from the previous key. The first key of a
+ * block is written against an empty key so that a reader can start at any block found in the index.
+ */
+public class CompactKeyOutputStream implements FileSortedSet.SortedSetOutputStream<Key> {
+    static final int MAGIC = 0x44574b46;
+    static final byte VERSION = 1;
+    static final int HEADER_LENGTH = 5;
+    static final int FOOTER_LENGTH = 28;
+    static final int DEFAULT_BLOCK_SIZE = 64 * 1024;
+
+    static final byte RAW = 0;
+    static final byte LZ4 = 1;
+    static final byte END = 2;
+
+    static final int DELETED = 0x01;
+    static final int SAME_ROW = 0x02;
+    static final int SAME_CF = 0x04;
+    static final int SAME_CQ = 0x08;
+    static final int SAME_CV = 0x10;
+    static final int SAME_TIMESTAMP = 0x20;
+
+    static final Key EMPTY_KEY = new Key();
+
+    private DataOutputStream out;
+    private final int blockSize;
+    private final DataOutputBuffer block = new DataOutputBuffer();
+    private final DataOutputBuffer index = new DataOutputBuffer();
+    private byte[] compressed = new byte[0];
+    private Key previous = EMPTY_KEY;
+    private long position = 0;
+    private int blockCount = 0;
+
+    public CompactKeyOutputStream(OutputStream stream) throws IOException {
+        this(stream, DEFAULT_BLOCK_SIZE);
+    }
+
+    public CompactKeyOutputStream(OutputStream stream, int blockSize) throws IOException {
+        this.out = new DataOutputStream(stream);
+        this.blockSize = blockSize;
+        out.writeInt(MAGIC);
+        out.writeByte(VERSION);
+        position = HEADER_LENGTH;
+    }
+
+    @Override
+    public void writeObject(Key key) throws IOException {
+        if (block.getLength() == 0) {
+            // index the first key of each block
+            writeKey(index, key, EMPTY_KEY);
+            WritableUtils.writeVLong(index, position);
+            previous = EMPTY_KEY;
+        }
+        writeKey(block, key, previous);
+        previous = key;
+        if (block.getLength() >= blockSize) {
+            writeBlock();
+        }
+    }
+
+    private void writeBlock() throws IOException {
+        int rawLength = block.getLength();
+        int maxLength = Lz4Block.maxCompressedLength(rawLength);
+        if (compressed.length < maxLength) {
+            compressed = new byte[maxLength];
+        }
+        int compressedLength = Lz4Block.compress(block.getData(), rawLength, compressed);
+
+        byte codec = LZ4;
+        byte[] stored = compressed;
+        int storedLength = compressedLength;
+        if (compressedLength >= rawLength) {
+            codec = RAW;
+            stored = block.getData();
+            storedLength = rawLength;
+        }
+        CRC32 crc = new CRC32();
+        crc.update(stored, 0, storedLength);
+
+        out.writeByte(codec);
+        out.writeInt(rawLength);
+        out.writeInt(storedLength);
+        out.writeInt((int) crc.getValue());
+        out.write(stored, 0, storedLength);
+        position += 13 + storedLength;
+        blockCount++;
+        block.reset();
+    }
+
+    /**
+     * Write a key, prefix encoded against the previous key
+     *
+     * @param out
+     *            the output
+     * @param key
+     *            the key
+     * @param previous
+     *            the previous key
+     * @throws IOException
+     *             for issues with write
+     */
+    static void writeKey(DataOutput out, Key key, Key previous) throws IOException {
+        ByteSequence row = key.getRowData();
+        ByteSequence cf = key.getColumnFamilyData();
+        ByteSequence cq = key.getColumnQualifierData();
+        ByteSequence cv = key.getColumnVisibilityData();
+
+        int flags = key.isDeleted() ? DELETED : 0;
+        flags |= row.equals(previous.getRowData()) ? SAME_ROW : 0;
+        flags |= cf.equals(previous.getColumnFamilyData()) ? SAME_CF : 0;
+        flags |= cq.equals(previous.getColumnQualifierData()) ? SAME_CQ : 0;
+        flags |= cv.equals(previous.getColumnVisibilityData()) ? SAME_CV : 0;
+        flags |= key.getTimestamp() == previous.getTimestamp() ? SAME_TIMESTAMP : 0;
+        out.writeByte(flags);
+
+        if ((flags & SAME_ROW) == 0) {
+            writeBytes(out, row, previous.getRowData());
+        }
+        if ((flags & SAME_CF) == 0) {
+            writeBytes(out, cf, previous.getColumnFamilyData());
+        }
+        if ((flags & SAME_CQ) == 0) {
+            writeBytes(out, cq, previous.getColumnQualifierData());
+        }
+        if ((flags & SAME_CV) == 0) {
+            writeBytes(out, cv, previous.getColumnVisibilityData());
+        }
+        if ((flags & SAME_TIMESTAMP) == 0) {
+            long delta = key.getTimestamp() - previous.getTimestamp();
+            // zig zag encode the delta so that small negative deltas stay small
+            WritableUtils.writeVLong(out, (delta << 1) ^ (delta >> 63));
+        }
+    }
+
+    private static void writeBytes(DataOutput out, ByteSequence bytes, ByteSequence previous) throws IOException {
+        byte[] data = bytes.getBackingArray();
+        int offset = bytes.offset();
+        int length = bytes.length();
+        byte[] previousData = previous.getBackingArray();
+        int previousOffset = previous.offset();
+        int max = Math.min(length, previous.length());
+        int prefix = 0;
+        while (prefix < max && data[offset + prefix] == previousData[previousOffset + prefix]) {
+            prefix++;
+        }
+        WritableUtils.writeVInt(out, prefix);
+        WritableUtils.writeVInt(out, length - prefix);
+        out.write(data, offset + prefix, length - prefix);
+    }
+
+    @Override
+    public void writeSize(int size) throws IOException {
+        if (block.getLength() > 0) {
+            writeBlock();
+        }
+        out.writeByte(END);
+        out.writeInt(index.getLength());
+        long indexOffset = position + 5;
+        out.write(index.getData(), 0, index.getLength());
+
+        out.writeLong(indexOffset);
+        out.writeInt(size);
+        out.writeInt(blockCount);
+        out.writeLong(checksum(index.getData(), index.getLength(), size, blockCount));
+        out.writeInt(MAGIC);
+    }
+
+    static long checksum(byte[] index, int length, int size, int blockCount) {
+        CRC32 crc = new CRC32();
+        crc.update(index, 0, length);
+        crc.update(size >>> 24);
+        crc.update(size >>> 16);
+        crc.update(size >>> 8);
+        crc.update(size);
+        crc.update(blockCount >>> 24);
+        crc.update(blockCount >>> 16);
+        crc.update(blockCount >>> 8);
+        crc.update(blockCount);
+        return crc.getValue();
+    }
+
+    @Override
+    public void close() throws IOException {
+        // a file closed without its size has no footer and will fail to be read
+        out.close();
+        out = null;
+    }
+}
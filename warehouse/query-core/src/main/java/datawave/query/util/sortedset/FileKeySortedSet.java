@@ -1,17 +1,20 @@
 package datawave.query.util.sortedset;
 
 import java.io.IOException;
+import java.io.InputStream;
 import java.util.Comparator;
 import java.util.SortedSet;
 
 import org.apache.accumulo.core.data.Key;
+import org.apache.hadoop.fs.PositionedReadable;
 import org.apache.log4j.Logger;
 
 /**
  * A sorted set that can be persisted into a file and still be read in its persisted state. The set can always be re-loaded and then all operations will work as
  * expected. This will support null contained in the underlying sets iff a comparator is supplied that can handle null values.
  *
- * The persisted file will contain the serialized entries, followed by the actual size.
+ * The persisted file will contain the serialized entries, followed by the actual size. The file is an RFile unless the persist options select the
+ * {@link PersistOptions.KeyFormat#COMPACT} format.
  *
  */
 public class FileKeySortedSet extends FileSortedSet<Key> {
@@ -132,19 +135,33 @@ public class FileKeySortedSet extends FileSortedSet<Key> {
 
         @Override
         public SortedSetInputStream<Key> getInputStream() throws IOException {
-            return new RFileKeyInputStream(delegate.getInputStream(), delegate.getSize());
+            return getInputStream(null, null);
         }
 
         @Override
         public SortedSetInputStream<Key> getInputStream(Key start, Key end) throws IOException {
-            return new RFileKeyInputStream(delegate.getInputStream(), delegate.getSize(), start, end);
+            InputStream inputStream = delegate.getInputStream();
+            // go by the file itself where possible so that files written with another format can still be read
+            if (CompactKeyInputStream.isCompactKeyFile(inputStream)
+                            || (!(inputStream instanceof PositionedReadable) && getKeyFormat() == PersistOptions.KeyFormat.COMPACT)) {
+                return new CompactKeyInputStream(inputStream, delegate.getSize(), start, end);
+            }
+            return new RFileKeyInputStream(inputStream, delegate.getSize(), start, end);
         }
 
         @Override
         public SortedSetOutputStream getOutputStream() throws IOException {
+            if (getKeyFormat() == PersistOptions.KeyFormat.COMPACT) {
+                return new CompactKeyOutputStream(delegate.getOutputStream());
+            }
             return new RFileKeyOutputStream(delegate.getOutputStream());
         }
 
+        private PersistOptions.KeyFormat getKeyFormat() {
+            PersistOptions persistOptions = delegate.getPersistOptions();
+            return persistOptions == null ? PersistOptions.KeyFormat.RFILE : persistOptions.getKeyFormat();
+        }
+
         @Override
         public PersistOptions getPersistOptions() {
             return delegate.getPersistOptions();
@@ -165,6 +182,20 @@ public class FileKeySortedSet extends FileSortedSet<Key> {
      * A factory for these file sorted sets
      */
     public static class Factory implements FileSortedSetFactory<Key> {
+        // hold the in memory entries of new unpersisted sets off heap
+        private final boolean offHeapBuffer;
+
+        public Factory() {
+            this(false);
+        }
+
+        public Factory(boolean offHeapBuffer) {
+            this.offHeapBuffer = offHeapBuffer;
+        }
+
+        public boolean isOffHeapBuffer() {
+            return offHeapBuffer;
+        }
 
         @Override
         public FileKeySortedSet newInstance(FileSortedSet<Key> other) {
@@ -183,7 +214,12 @@ public class FileKeySortedSet extends FileSortedSet<Key> {
 
         @Override
         public FileKeySortedSet newInstance(Comparator<? super Key> comparator, SortedSetFileHandler handler, boolean persisted) {
-            return new FileKeySortedSet(comparator, handler, persisted);
+            FileKeySortedSet set = new FileKeySortedSet(comparator, handler, persisted);
+            if (offHeapBuffer && !persisted) {
+                // this is how the buffer of a BufferedFileBackedSortedSet is created
+                set.set = new OffHeapSortedKeySet();
+            }
+            return set;
         }
 
         @Override
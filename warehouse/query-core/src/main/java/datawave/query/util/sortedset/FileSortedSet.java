@@ -1046,9 +1046,20 @@ public abstract class FileSortedSet<E> implements SortedSet<E>, Cloneable {
     }
 
     public static class PersistOptions {
+        /**
+         * The file format used to persist sets of keys
+         */
+        public enum KeyFormat {
+            /** Accumulo RFiles */
+            RFILE,
+            /** Prefix encoded keys in LZ4 compressed blocks, see {@link CompactKeyOutputStream} */
+            COMPACT
+        }
+
         private boolean verifySize = true;
         private boolean verifyElements = true;
         private int numElementsToVerify = 100;
+        private KeyFormat keyFormat = KeyFormat.RFILE;
 
         public PersistOptions() {}
 
@@ -1062,6 +1073,11 @@ public abstract class FileSortedSet<E> implements SortedSet<E>, Cloneable {
             this.numElementsToVerify = numElementsToVerify;
         }
 
+        public PersistOptions(boolean verifySize, boolean verifyElements, int numElementsToVerify, KeyFormat keyFormat) {
+            this(verifySize, verifyElements, numElementsToVerify);
+            this.keyFormat = keyFormat;
+        }
+
         public boolean isVerifySize() {
             return verifySize;
         }
@@ -1073,5 +1089,9 @@ public abstract class FileSortedSet<E> implements SortedSet<E>, Cloneable {
         public int getNumElementsToVerify() {
             return numElementsToVerify;
         }
+
+        public KeyFormat getKeyFormat() {
+            return keyFormat;
+        }
     }
 }
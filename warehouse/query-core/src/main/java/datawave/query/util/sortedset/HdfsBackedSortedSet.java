@@ -1,9 +1,12 @@
 package datawave.query.util.sortedset;
 
+import java.io.BufferedOutputStream;
+import java.io.File;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.OutputStream;
 import java.net.MalformedURLException;
+import java.nio.file.Files;
 import java.util.ArrayList;
 import java.util.Comparator;
 import java.util.List;
@@ -132,7 +135,7 @@ public class HdfsBackedSortedSet<E> extends BufferedFileBackedSortedSet<E> imple
                         for (FileStatus file : files) {
                             if (!file.isDir() && file.getPath().getName().startsWith(FILENAME_PREFIX)) {
                                 count++;
-                                addSet(setFactory.newInstance(comparator, new SortedSetHdfsFileHandler(fs, file.getPath(), persistOptions), true));
+                                addSet(setFactory.newInstance(comparator, hdfsHandlerFactory.createHandler(file.getPath()), true));
                             }
                         }
                     }
@@ -190,7 +193,30 @@ public class HdfsBackedSortedSet<E> extends BufferedFileBackedSortedSet<E> imple
             this.fileCount = count;
         }
 
+        /**
+         * @return true if files are written to and memory mapped from the local disk directly
+         */
+        public boolean isMemoryMapped() {
+            return ivaratorCacheDir.getConfig().isMemoryMapped() && "file".equals(getFs().getScheme());
+        }
+
         public boolean isValid() {
+            if (isMemoryMapped()) {
+                // measure the disk the cache dir is on rather than the disk of the local root
+                File dir = getLocalFile(new Path(ivaratorCacheDir.getPathURI()));
+                while (dir != null && !dir.exists()) {
+                    dir = dir.getParentFile();
+                }
+                if (dir == null || dir.getTotalSpace() == 0) {
+                    log.warn("Unable to determine status of the local disk for " + ivaratorCacheDir.getPathURI());
+                    return false;
+                }
+                long availableStorageMiB = dir.getUsableSpace() / 0x100000L;
+                double availableStoragePercent = (double) dir.getUsableSpace() / dir.getTotalSpace();
+                return availableStorageMiB >= ivaratorCacheDir.getConfig().getMinAvailableStorageMiB()
+                                && availableStoragePercent >= ivaratorCacheDir.getConfig().getMinAvailableStoragePercent();
+            }
+
             FsStatus fsStatus = null;
             try {
                 fsStatus = ivaratorCacheDir.getFs().getStatus();
@@ -222,7 +248,25 @@ public class HdfsBackedSortedSet<E> extends BufferedFileBackedSortedSet<E> imple
             // generate a unique file name
             fileCount++;
             Path file = new Path(uniqueDir, FILENAME_PREFIX + fileCount + '.' + System.currentTimeMillis());
-            return new SortedSetHdfsFileHandler(fs, file, persistOptions);
+            return createHandler(file);
+        }
+
+        /**
+         * Create a handler for a file in the unique dir
+         *
+         * @param file
+         *            the file
+         * @return the handler
+         */
+        public SortedSetHdfsFileHandler createHandler(Path file) {
+            if (isMemoryMapped()) {
+                return new SortedSetLocalFileHandler(getFs(), file, getLocalFile(file), persistOptions);
+            }
+            return new SortedSetHdfsFileHandler(getFs(), file, persistOptions);
+        }
+
+        private File getLocalFile(Path path) {
+            return new File(getFs().makeQualified(path).toUri());
         }
 
         private void ensureDirsCreated() throws IOException {
@@ -330,4 +374,50 @@ public class HdfsBackedSortedSet<E> extends BufferedFileBackedSortedSet<E> imple
         }
 
     }
+
+    /**
+     * A handler for files on the local disk, which bypasses the hadoop filesystem. Files are written directly and read back through a memory mapping, so that
+     * the repeated reads of a file during merges and after a yield are served from the page cache.
+     */
+    public static class SortedSetLocalFileHandler extends SortedSetHdfsFileHandler {
+        private final File localFile;
+
+        public SortedSetLocalFileHandler(FileSystem fs, Path file, File localFile, FileSortedSet.PersistOptions persistOptions) {
+            super(fs, file, persistOptions);
+            this.localFile = localFile;
+        }
+
+        @Override
+        public InputStream getInputStream() throws IOException {
+            if (log.isDebugEnabled()) {
+                log.debug("Mapping " + localFile);
+            }
+            return new MappedFileInputStream(localFile);
+        }
+
+        @Override
+        public OutputStream getOutputStream() throws IOException {
+            if (log.isDebugEnabled()) {
+                log.debug("Creating " + localFile);
+            }
+            return new BufferedOutputStream(Files.newOutputStream(localFile.toPath()), 64 * 1024);
+        }
+
+        @Override
+        public long getSize() {
+            return localFile.exists() ? localFile.length() : -1;
+        }
+
+        @Override
+        public void deleteFile() {
+            try {
+                if (log.isDebugEnabled()) {
+                    log.debug("Deleting " + localFile);
+                }
+                Files.deleteIfExists(localFile.toPath());
+            } catch (IOException e) {
+                log.error("Failed to delete file " + localFile, e);
+            }
+        }
+    }
 }
@@ -0,0 +1,165 @@
+package datawave.query.util.sortedset;
+
+import java.io.IOException;
+
+/**
+ * A compressor and decompressor for the LZ4 block format. Matches are found with a single hash table lookup per position, trading some compression ratio for
+ * speed as the LZ4 "fast" mode does. The output can be read by any LZ4 block decompressor.
+ */
+final class Lz4Block {
+    private static final int MIN_MATCH = 4;
+    // the last match must start at least this many bytes before the end of the input
+    private static final int MF_LIMIT = 12;
+    // the last bytes of the input are always literals
+    private static final int LAST_LITERALS = 5;
+    private static final int MAX_OFFSET = 65535;
+    private static final int HASH_BITS = 12;
+
+    private Lz4Block() {}
+
+    /**
+     * @param length
+     *            the length of the input
+     * @return the maximum length of the compressed input
+     */
+    static int maxCompressedLength(int length) {
+        return length + length / 255 + 16;
+    }
+
+    /**
+     * Compress a block
+     *
+     * @param src
+     *            the input
+     * @param length
+     *            the length of the input
+     * @param dest
+     *            the output, at least {@link #maxCompressedLength(int)} long
+     * @return the compressed length
+     */
+    static int compress(byte[] src, int length, byte[] dest) {
+        int[] table = new int[1 << HASH_BITS];
+        int anchor = 0;
+        int ip = 0;
+        int op = 0;
+        int limit = length - MF_LIMIT;
+        int matchLimit = length - LAST_LITERALS;
+
+        while (ip < limit) {
+            int sequence = readInt(src, ip);
+            int hash = (sequence * -1640531535) >>> (32 - HASH_BITS);
+            // the table holds positions plus one so that zero is empty
+            int ref = table[hash] - 1;
+            table[hash] = ip + 1;
+            if (ref < 0 || ip - ref > MAX_OFFSET || readInt(src, ref) != sequence) {
+                ip++;
+                continue;
+            }
+
+            while (ip > anchor && ref > 0 && src[ip - 1] == src[ref - 1]) {
+                ip--;
+                ref--;
+            }
+            int matchLength = MIN_MATCH;
+            while (ip + matchLength < matchLimit && src[ip + matchLength] == src[ref + matchLength]) {
+                matchLength++;
+            }
+
+            op = writeLiterals(src, anchor, ip - anchor, dest, op, matchLength - MIN_MATCH);
+            dest[op++] = (byte) (ip - ref);
+            dest[op++] = (byte) ((ip - ref) >>> 8);
+            if (matchLength - MIN_MATCH >= 15) {
+                op = writeLength(matchLength - MIN_MATCH - 15, dest, op);
+            }
+            ip += matchLength;
+            anchor = ip;
+        }
+
+        return writeLiterals(src, anchor, length - anchor, dest, op, 0);
+    }
+
+    private static int writeLiterals(byte[] src, int offset, int literals, byte[] dest, int op, int matchToken) {
+        dest[op++] = (byte) ((Math.min(literals, 15) << 4) | Math.min(matchToken, 15));
+        if (literals >= 15) {
+            op = writeLength(literals - 15, dest, op);
+        }
+        System.arraycopy(src, offset, dest, op, literals);
+        return op + literals;
+    }
+
+    private static int writeLength(int length, byte[] dest, int op) {
+        while (length >= 255) {
+            dest[op++] = (byte) 255;
+            length -= 255;
+        }
+        dest[op++] = (byte) length;
+        return op;
+    }
+
+    private static int readInt(byte[] src, int offset) {
+        return (src[offset] & 0xFF) | (src[offset + 1] & 0xFF) << 8 | (src[offset + 2] & 0xFF) << 16 | (src[offset + 3] & 0xFF) << 24;
+    }
+
+    /**
+     * Decompress a block
+     *
+     * @param src
+     *            the compressed block
+     * @param length
+     *            the length of the compressed block
+     * @param dest
+     *            the output
+     * @param rawLength
+     *            the length of the block before it was compressed
+     * @throws IOException
+     *             if the block is corrupt
+     */
+    static void decompress(byte[] src, int length, byte[] dest, int rawLength) throws IOException {
+        int ip = 0;
+        int op = 0;
+        try {
+            while (true) {
+                int token = src[ip++] & 0xFF;
+                int literals = token >>> 4;
+                if (literals == 15) {
+                    int b;
+                    do {
+                        b = src[ip++] & 0xFF;
+                        literals += b;
+                    } while (b == 255);
+                }
+                System.arraycopy(src, ip, dest, op, literals);
+                ip += literals;
+                op += literals;
+                if (ip >= length) {
+                    break;
+                }
+
+                int offset = (src[ip++] & 0xFF) | (src[ip++] & 0xFF) << 8;
+                int matchLength = token & 0x0F;
+                if (matchLength == 15) {
+                    int b;
+                    do {
+                        b = src[ip++] & 0xFF;
+                        matchLength += b;
+                    } while (b == 255);
+                }
+                matchLength += MIN_MATCH;
+                int ref = op - offset;
+                if (offset == 0 || ref < 0 || op + matchLength > rawLength) {
+                    throw new IOException("Corrupt LZ4 block: bad match at " + op);
+                }
+                // the match may overlap the bytes it copies, so copy a byte at a time
+                for (int i = 0; i < matchLength; i++) {
+                    dest[op + i] = dest[ref + i];
+                }
+                op += matchLength;
+            }
+        } catch (IndexOutOfBoundsException e) {
+            throw new IOException("Corrupt LZ4 block", e);
+        }
+        if (op != rawLength) {
+            throw new IOException("Corrupt LZ4 block: expected " + rawLength + " bytes but found " + op);
+        }
+    }
+}
@@ -0,0 +1,157 @@
+package datawave.query.util.sortedset;
+
+import java.io.EOFException;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.StandardOpenOption;
+
+import org.apache.hadoop.fs.PositionedReadable;
+import org.apache.hadoop.fs.Seekable;
+
+/**
+ * An input stream over a local file mapped into memory. Reads are served straight from the page cache, without going through the hadoop file system and its
+ * checksums, and seeks are free, which suits the repeated bounded reads of a sorted set file during merges. Files larger than a single mapping are mapped in
+ * segments.
+ */
+public class MappedFileInputStream extends InputStream implements Seekable, PositionedReadable {
+    // the size of each mapped segment, a power of 2
+    private static final int SEGMENT_BITS = 30;
+    private static final long SEGMENT_SIZE = 1L << SEGMENT_BITS;
+
+    private final long length;
+    private MappedByteBuffer[] segments;
+    private long position = 0;
+    private long mark = 0;
+
+    public MappedFileInputStream(File file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ)) {
+            this.length = channel.size();
+            int count = (int) ((length + SEGMENT_SIZE - 1) >>> SEGMENT_BITS);
+            this.segments = new MappedByteBuffer[count];
+            for (int i = 0; i < count; i++) {
+                long offset = i * SEGMENT_SIZE;
+                segments[i] = channel.map(FileChannel.MapMode.READ_ONLY, offset, Math.min(SEGMENT_SIZE, length - offset));
+            }
+        }
+        // the mappings stay valid after the channel is closed
+    }
+
+    private void ensureOpen() throws IOException {
+        if (segments == null) {
+            throw new IOException("Stream closed");
+        }
+    }
+
+    @Override
+    public int read() throws IOException {
+        ensureOpen();
+        if (position >= length) {
+            return -1;
+        }
+        int b = segments[(int) (position >>> SEGMENT_BITS)].get((int) (position & (SEGMENT_SIZE - 1))) & 0xFF;
+        position++;
+        return b;
+    }
+
+    @Override
+    public int read(byte[] buffer, int offset, int len) throws IOException {
+        int read = read(position, buffer, offset, len);
+        if (read > 0) {
+            position += read;
+        }
+        return read;
+    }
+
+    @Override
+    public int read(long pos, byte[] buffer, int offset, int len) throws IOException {
+        ensureOpen();
+        if (len == 0) {
+            return 0;
+        }
+        if (pos >= length) {
+            return -1;
+        }
+        int toRead = (int) Math.min(len, length - pos);
+        int read = 0;
+        while (read < toRead) {
+            long current = pos + read;
+            MappedByteBuffer segment = segments[(int) (current >>> SEGMENT_BITS)];
+            int segmentOffset = (int) (current & (SEGMENT_SIZE - 1));
+            int chunk = Math.min(toRead - read, segment.limit() - segmentOffset);
+            // absolute gets on a duplicate so that concurrent positioned reads do not share a buffer position
+            segment.duplicate().position(segmentOffset).get(buffer, offset + read, chunk);
+            read += chunk;
+        }
+        return read;
+    }
+
+    @Override
+    public void readFully(long pos, byte[] buffer, int offset, int len) throws IOException {
+        if (pos + len > length) {
+            throw new EOFException("Cannot read " + len + " bytes at " + pos + " from a file of " + length + " bytes");
+        }
+        read(pos, buffer, offset, len);
+    }
+
+    @Override
+    public void readFully(long pos, byte[] buffer) throws IOException {
+        readFully(pos, buffer, 0, buffer.length);
+    }
+
+    @Override
+    public void seek(long pos) throws IOException {
+        ensureOpen();
+        if (pos < 0 || pos > length) {
+            throw new EOFException("Cannot seek to " + pos + " in a file of " + length + " bytes");
+        }
+        this.position = pos;
+    }
+
+    @Override
+    public long getPos() {
+        return position;
+    }
+
+    @Override
+    public boolean seekToNewSource(long targetPos) {
+        return false;
+    }
+
+    @Override
+    public long skip(long n) throws IOException {
+        ensureOpen();
+        long skipped = Math.max(0, Math.min(n, length - position));
+        position += skipped;
+        return skipped;
+    }
+
+    @Override
+    public int available() throws IOException {
+        ensureOpen();
+        return (int) Math.min(Integer.MAX_VALUE, length - position);
+    }
+
+    @Override
+    public boolean markSupported() {
+        return true;
+    }
+
+    @Override
+    public synchronized void mark(int readlimit) {
+        mark = position;
+    }
+
+    @Override
+    public synchronized void reset() {
+        position = mark;
+    }
+
+    @Override
+    public void close() {
+        // the mappings are released once garbage collected
+        segments = null;
+    }
+}
@@ -7,16 +7,16 @@ import java.util.Iterator;
 import java.util.List;
 import java.util.NoSuchElementException;
 import java.util.SortedSet;
-import java.util.TreeSet;
 
+import datawave.query.util.TournamentTree;
 import datawave.webservice.query.exception.DatawaveErrorCode;
 import datawave.webservice.query.exception.QueryException;
 
 /**
  * This is an iterator that will return a sorted set of items (no dups) from an underlying set of sorted sets. This will support null contained in the
  * underlying sets iff the underlying sets use a comparator that can handle null values.
- *
- *
+ * <p>
+ * The heads of the underlying sets are merged with a {@link TournamentTree}, so each value costs about log2(k) comparisons for k sets and no allocation.
  *
  * @param <T>
  *            type for the iterator
@@ -24,33 +24,35 @@ import datawave.webservice.query.exception.QueryException;
 public class MergeSortIterator<T> implements Iterator<T> {
 
     private List<Iterator<T>> iterators = new ArrayList<>();
-    private List<T> lastList = new ArrayList<>();
-    private boolean[] finished = null;
-    private SortedSet<T> set = null;
+    private TournamentTree<T> heads;
+    private boolean initialized = false;
     private boolean populated = false;
     private T next = null;
-    private List<Iterator<T>> nextIterators = new ArrayList<>();
+    // the iterators that contributed to the last returned value. These are set aside in the tree until the next call to populate
+    private int[] nextIterators;
+    private int numNextIterators;
 
     public MergeSortIterator(Collection<? extends SortedSet<T>> sets) {
         Comparator<? super T> comparator = null;
         for (SortedSet<T> set : sets) {
             comparator = set.comparator();
-            Iterator<T> it = set.iterator();
-            iterators.add(it);
-            nextIterators.add(it);
-            lastList.add(null);
+            iterators.add(set.iterator());
         }
-        this.set = new TreeSet<>(comparator);
-        this.finished = new boolean[iterators.size()];
+        this.heads = new TournamentTree<>(iterators.size(), comparator);
+        this.nextIterators = new int[iterators.size()];
+        for (int i = 0; i < nextIterators.length; i++) {
+            nextIterators[i] = i;
+        }
+        this.numNextIterators = nextIterators.length;
     }
 
     @Override
     public boolean hasNext() {
-        if (!set.isEmpty()) {
+        if (!heads.isEmpty()) {
             return true;
         }
-        for (Iterator<T> it : nextIterators) {
-            if (it != null && it.hasNext()) {
+        for (int i = 0; i < numNextIterators; i++) {
+            if (iterators.get(nextIterators[i]).hasNext()) {
                 return true;
             }
         }
@@ -73,13 +75,11 @@ public class MergeSortIterator<T> implements Iterator<T> {
             throw new IllegalStateException();
         }
         Exception e = null;
-        for (Iterator<T> it : nextIterators) {
-            if (it != null) {
-                try {
-                    it.remove();
-                } catch (UnsupportedOperationException uoe) {
-                    e = uoe;
-                }
+        for (int i = 0; i < numNextIterators; i++) {
+            try {
+                iterators.get(nextIterators[i]).remove();
+            } catch (UnsupportedOperationException uoe) {
+                e = uoe;
             }
         }
         populated = false;
@@ -88,53 +88,36 @@ public class MergeSortIterator<T> implements Iterator<T> {
         }
     }
 
-    /* Some utility methods */
-    private boolean equals(T o1, T o2) {
-        if (o1 == null) {
-            return o2 == null;
-        } else if (o2 == null) {
-            return false;
-        } else {
-            if (set.comparator() == null) {
-                return o1.equals(o2);
-            } else {
-                return set.comparator().compare(o1, o2) == 0;
-            }
-        }
-    }
-
     private void populate() {
         populated = false;
 
-        // update the last value for those iterators contributing to
-        // the last returned value
-        for (int i = 0; i < nextIterators.size(); i++) {
-            if (nextIterators.get(i) != null) {
-                Iterator<T> it = nextIterators.get(i);
-                if (it.hasNext()) {
-                    T val = it.next();
-                    lastList.set(i, val);
-                    set.add(val);
+        // advance those iterators contributing to the last returned value
+        for (int i = 0; i < numNextIterators; i++) {
+            int leaf = nextIterators[i];
+            Iterator<T> it = iterators.get(leaf);
+            if (it.hasNext()) {
+                if (initialized) {
+                    heads.update(leaf, it.next());
                 } else {
-                    lastList.set(i, null);
-                    finished[i] = true;
+                    heads.set(leaf, it.next());
                 }
             }
         }
+        numNextIterators = 0;
 
-        if (!set.isEmpty()) {
-            next = set.first();
-            set.remove(next);
-            for (int i = 0; i < iterators.size(); i++) {
-                if (!finished[i] && equals(next, lastList.get(i))) {
-                    nextIterators.set(i, iterators.get(i));
-                } else {
-                    // if the iterator is finished, or did not contribute to the value being returned
-                    // then null it out since the value returned is already in the set to compare
-                    // on the next round
-                    nextIterators.set(i, null);
-                }
-            }
+        if (!initialized) {
+            heads.build();
+            initialized = true;
+        }
+
+        if (!heads.isEmpty()) {
+            next = heads.peek();
+            // set aside every iterator that has the value being returned, they are advanced on the next call
+            do {
+                int leaf = heads.winner();
+                nextIterators[numNextIterators++] = leaf;
+                heads.remove(leaf);
+            } while (!heads.isEmpty() && heads.compare(heads.peek(), next) == 0);
             populated = true;
         }
 
@@ -7,7 +7,6 @@ import java.util.Iterator;
 import java.util.List;
 import java.util.NoSuchElementException;
 import java.util.SortedSet;
-import java.util.TreeSet;
 
 /*
  * This is a sorted set that is backed by multiple underlying sorted sets.  It is assumed that the underlying
@@ -149,17 +148,22 @@ public class MultiSetBackedSortedSet<E> extends AbstractSet<E> implements Sorted
         if (sets == null || sets.isEmpty()) {
             throw new NoSuchElementException("No elements in input sets");
         }
-        SortedSet<E> firstSet = new TreeSet<>(comparator());
+        Comparator<? super E> comparator = comparator();
+        boolean found = false;
+        E first = null;
         for (SortedSet<E> set : sets) {
             if (set != null && !set.isEmpty()) {
                 E s = set.first();
-                firstSet.add(s);
+                if (!found || compare(comparator, s, first) < 0) {
+                    first = s;
+                    found = true;
+                }
             }
         }
-        if (firstSet.isEmpty()) {
+        if (!found) {
             throw new NoSuchElementException("No elements in input sets");
         }
-        return firstSet.first();
+        return first;
     }
 
     @Override
@@ -167,16 +171,29 @@ public class MultiSetBackedSortedSet<E> extends AbstractSet<E> implements Sorted
         if (sets == null || sets.isEmpty()) {
             throw new NoSuchElementException("No elements in input sets");
         }
-        SortedSet<E> lastSet = new TreeSet<>(comparator());
+        Comparator<? super E> comparator = comparator();
+        boolean found = false;
+        E last = null;
         for (SortedSet<E> set : sets) {
             if (set != null && !set.isEmpty()) {
                 E s = set.last();
-                lastSet.add(s);
+                if (!found || compare(comparator, s, last) > 0) {
+                    last = s;
+                    found = true;
+                }
             }
         }
-        if (lastSet.isEmpty()) {
+        if (!found) {
             throw new NoSuchElementException("No elements in input sets");
         }
-        return lastSet.last();
+        return last;
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <E> int compare(Comparator<? super E> comparator, E o1, E o2) {
+        if (comparator == null) {
+            return ((Comparable<? super E>) o1).compareTo(o2);
+        }
+        return comparator.compare(o1, o2);
     }
 }
@@ -0,0 +1,100 @@
+package datawave.query.util.sortedset;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayDeque;
+import java.util.Deque;
+
+import org.apache.log4j.Logger;
+
+/**
+ * A tserver wide pool of fixed size direct memory slabs used by the off heap sorted set buffers. The total amount of direct memory held by the arena, whether
+ * in use or pooled, never exceeds the budget. When the budget is spent, {@link #allocate()} returns null and the caller is expected to fall back to the heap.
+ */
+public class OffHeapArena {
+    private static final Logger log = Logger.getLogger(OffHeapArena.class);
+
+    public static final int SLAB_SIZE = 1024 * 1024;
+    public static final long DEFAULT_BUDGET = 256L * 1024 * 1024;
+
+    private static final OffHeapArena instance = new OffHeapArena(DEFAULT_BUDGET);
+
+    private final Deque<ByteBuffer> free = new ArrayDeque<>();
+    private long budget;
+    private long allocated = 0;
+    private long inUse = 0;
+    private boolean exhaustedLogged = false;
+
+    OffHeapArena(long budget) {
+        this.budget = budget;
+    }
+
+    public static OffHeapArena getInstance() {
+        return instance;
+    }
+
+    /**
+     * Set the maximum number of bytes of direct memory held by this arena. Lowering the budget below what is in use takes effect as the slabs are released.
+     *
+     * @param budget
+     *            the budget in bytes, 0 to disable off heap buffers
+     */
+    public synchronized void setBudget(long budget) {
+        this.budget = Math.max(0, budget);
+        while (allocated > this.budget && !free.isEmpty()) {
+            free.pop();
+            allocated -= SLAB_SIZE;
+        }
+        exhaustedLogged = false;
+    }
+
+    public synchronized long getBudget() {
+        return budget;
+    }
+
+    /**
+     * @return the number of bytes of direct memory currently handed out
+     */
+    public synchronized long getInUse() {
+        return inUse;
+    }
+
+    /**
+     * Get a cleared slab of {@link #SLAB_SIZE} bytes
+     *
+     * @return the slab, or null if the budget is spent
+     */
+    public synchronized ByteBuffer allocate() {
+        ByteBuffer slab = free.poll();
+        if (slab == null) {
+            if (allocated + SLAB_SIZE > budget) {
+                if (!exhaustedLogged) {
+                    log.warn("Off heap buffer budget of " + budget + " bytes is spent, falling back to heap buffers");
+                    exhaustedLogged = true;
+                }
+                return null;
+            }
+            slab = ByteBuffer.allocateDirect(SLAB_SIZE);
+            allocated += SLAB_SIZE;
+        }
+        inUse += SLAB_SIZE;
+        slab.clear();
+        return slab;
+    }
+
+    /**
+     * Return a slab obtained from {@link #allocate()}
+     *
+     * @param slab
+     *            the slab
+     */
+    public synchronized void release(ByteBuffer slab) {
+        inUse -= SLAB_SIZE;
+        if (allocated > budget) {
+            // the budget was lowered, let this slab be collected
+            allocated -= SLAB_SIZE;
+        } else {
+            free.push(slab);
+            exhaustedLogged = false;
+        }
+    }
+}
@@ -0,0 +1,515 @@
+package datawave.query.util.sortedset;
+
+import java.lang.ref.Cleaner;
+import java.nio.ByteBuffer;
+import java.util.AbstractSet;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.ConcurrentModificationException;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.SortedSet;
+
+import org.apache.accumulo.core.data.ByteSequence;
+import org.apache.accumulo.core.data.Key;
+
+/**
+ * A sorted set of keys held in slabs of direct memory obtained from the {@link OffHeapArena}, used as the in memory buffer of a {@link FileKeySortedSet} so
+ * that a large ivarator buffer does not fill the heap with long lived key objects. Each key is serialized once into a slab and the set itself is only a sorted
+ * array of addresses into the slabs. New keys are binary inserted into a small sorted tail run, which is merged into the main run when it fills or when the set
+ * is read in order. Keys added in sorted order, which is the common case when filling from the field index, are appended directly to the main run.
+ *
+ * When the arena budget is spent, slabs are allocated on the heap instead. The bytes of removed keys are only reclaimed when the set is cleared, which happens
+ * once a buffer is persisted. Keys are materialized on every read, so this set trades some cpu for the heap it saves. This set is not thread safe.
+ */
+public class OffHeapSortedKeySet extends AbstractSet<Key> implements SortedSet<Key> {
+    private static final Cleaner cleaner = Cleaner.create();
+
+    private final Store store;
+    private final Key from;
+    private final Key to;
+
+    public OffHeapSortedKeySet() {
+        this(OffHeapArena.getInstance());
+    }
+
+    public OffHeapSortedKeySet(OffHeapArena arena) {
+        this.store = new Store(arena);
+        this.from = null;
+        this.to = null;
+        // ensure the slabs go back to the arena if this set is dropped without being cleared
+        cleaner.register(store, store.slabs);
+    }
+
+    private OffHeapSortedKeySet(Store store, Key from, Key to) {
+        this.store = store;
+        this.from = from;
+        this.to = to;
+    }
+
+    private boolean isBounded() {
+        return from != null || to != null;
+    }
+
+    private boolean inRange(Key key) {
+        return (from == null || key.compareTo(from) >= 0) && (to == null || key.compareTo(to) < 0);
+    }
+
+    // the index in the merged run of the first key in range
+    private int startIndex() {
+        store.merge();
+        if (from == null) {
+            return 0;
+        }
+        int index = store.search(store.run, store.runSize, from);
+        return index < 0 ? -(index + 1) : index;
+    }
+
+    // the index in the merged run following the last key in range
+    private int endIndex() {
+        store.merge();
+        if (to == null) {
+            return store.runSize;
+        }
+        int index = store.search(store.run, store.runSize, to);
+        return index < 0 ? -(index + 1) : index;
+    }
+
+    /**
+     * @return the number of bytes of direct memory held by this set
+     */
+    public long getOffHeapBytes() {
+        return store.slabs.getDirectBytes();
+    }
+
+    @Override
+    public int size() {
+        if (!isBounded()) {
+            return store.runSize + store.tailSize;
+        }
+        return Math.max(0, endIndex() - startIndex());
+    }
+
+    @Override
+    public boolean isEmpty() {
+        return size() == 0;
+    }
+
+    @Override
+    public boolean contains(Object o) {
+        if (!(o instanceof Key) || !inRange((Key) o)) {
+            return false;
+        }
+        Key key = (Key) o;
+        return store.search(store.run, store.runSize, key) >= 0 || store.search(store.tail, store.tailSize, key) >= 0;
+    }
+
+    @Override
+    public boolean add(Key key) {
+        if (key == null) {
+            throw new NullPointerException("Cannot add a null key to an off heap sorted set");
+        }
+        if (!inRange(key)) {
+            throw new IllegalArgumentException("Key out of range: " + key);
+        }
+        return store.add(key);
+    }
+
+    @Override
+    public boolean remove(Object o) {
+        if (!(o instanceof Key) || !inRange((Key) o)) {
+            return false;
+        }
+        return store.remove((Key) o);
+    }
+
+    @Override
+    public void clear() {
+        if (isBounded()) {
+            super.clear();
+        } else {
+            store.clear();
+        }
+    }
+
+    @Override
+    public Iterator<Key> iterator() {
+        return new Iterator<>() {
+            private int index = startIndex();
+            private int expectedModCount = store.modCount;
+            private boolean canRemove = false;
+
+            @Override
+            public boolean hasNext() {
+                checkModCount();
+                return index < store.runSize && (to == null || store.compare(to, store.run[index]) > 0);
+            }
+
+            @Override
+            public Key next() {
+                if (!hasNext()) {
+                    throw new NoSuchElementException();
+                }
+                canRemove = true;
+                return store.read(store.run[index++]);
+            }
+
+            @Override
+            public void remove() {
+                if (!canRemove) {
+                    throw new IllegalStateException();
+                }
+                checkModCount();
+                store.removeFromRun(--index);
+                expectedModCount = store.modCount;
+                canRemove = false;
+            }
+
+            private void checkModCount() {
+                if (store.modCount != expectedModCount) {
+                    throw new ConcurrentModificationException();
+                }
+            }
+        };
+    }
+
+    @Override
+    public Comparator<? super Key> comparator() {
+        return null;
+    }
+
+    @Override
+    public SortedSet<Key> subSet(Key fromElement, Key toElement) {
+        if (fromElement.compareTo(toElement) > 0) {
+            throw new IllegalArgumentException("fromElement > toElement");
+        }
+        return new OffHeapSortedKeySet(store, bound(fromElement, true), bound(toElement, false));
+    }
+
+    @Override
+    public SortedSet<Key> headSet(Key toElement) {
+        return new OffHeapSortedKeySet(store, from, bound(toElement, false));
+    }
+
+    @Override
+    public SortedSet<Key> tailSet(Key fromElement) {
+        return new OffHeapSortedKeySet(store, bound(fromElement, true), to);
+    }
+
+    private Key bound(Key key, boolean lower) {
+        if ((from != null && key.compareTo(from) < 0) || (to != null && key.compareTo(to) > 0)) {
+            throw new IllegalArgumentException((lower ? "fromElement" : "toElement") + " out of range: " + key);
+        }
+        return key;
+    }
+
+    @Override
+    public Key first() {
+        int start = startIndex();
+        if (start >= endIndex()) {
+            throw new NoSuchElementException();
+        }
+        return store.read(store.run[start]);
+    }
+
+    @Override
+    public Key last() {
+        int end = endIndex();
+        if (end <= startIndex()) {
+            throw new NoSuchElementException();
+        }
+        return store.read(store.run[end - 1]);
+    }
+
+    /**
+     * The sorted runs of addresses shared by a set and its views
+     */
+    private static final class Store {
+        private static final int INITIAL_CAPACITY = 1024;
+        private static final int MIN_TAIL_CAPACITY = 64;
+
+        private final Slabs slabs;
+        private long[] run = new long[INITIAL_CAPACITY];
+        private int runSize = 0;
+        private long[] tail = new long[MIN_TAIL_CAPACITY];
+        private int tailSize = 0;
+        private int modCount = 0;
+
+        private Store(OffHeapArena arena) {
+            this.slabs = new Slabs(arena);
+        }
+
+        private boolean add(Key key) {
+            // fast path for keys arriving in sorted order
+            if (tailSize == 0 && (runSize == 0 || compare(key, run[runSize - 1]) > 0)) {
+                run = ensureCapacity(run, runSize + 1);
+                run[runSize++] = slabs.write(key);
+                modCount++;
+                return true;
+            }
+            if (search(run, runSize, key) >= 0) {
+                return false;
+            }
+            int index = search(tail, tailSize, key);
+            if (index >= 0) {
+                return false;
+            }
+            index = -(index + 1);
+            tail = ensureCapacity(tail, tailSize + 1);
+            System.arraycopy(tail, index, tail, index + 1, tailSize - index);
+            tail[index] = slabs.write(key);
+            tailSize++;
+            modCount++;
+            // keeping the tail near the square root of the run balances the cost of inserting into the tail against that of merging it
+            if (tailSize >= Math.max(MIN_TAIL_CAPACITY, (int) Math.sqrt(runSize))) {
+                merge();
+            }
+            return true;
+        }
+
+        private boolean remove(Key key) {
+            int index = search(run, runSize, key);
+            if (index >= 0) {
+                removeFromRun(index);
+                return true;
+            }
+            index = search(tail, tailSize, key);
+            if (index >= 0) {
+                System.arraycopy(tail, index + 1, tail, index, tailSize - index - 1);
+                tailSize--;
+                modCount++;
+                return true;
+            }
+            return false;
+        }
+
+        private void removeFromRun(int index) {
+            System.arraycopy(run, index + 1, run, index, runSize - index - 1);
+            runSize--;
+            modCount++;
+        }
+
+        private void clear() {
+            slabs.run();
+            run = new long[INITIAL_CAPACITY];
+            runSize = 0;
+            tail = new long[MIN_TAIL_CAPACITY];
+            tailSize = 0;
+            modCount++;
+        }
+
+        /**
+         * Merge the tail into the main run, from the back so that no extra array is needed
+         */
+        private void merge() {
+            if (tailSize == 0) {
+                return;
+            }
+            run = ensureCapacity(run, runSize + tailSize);
+            int r = runSize - 1;
+            int t = tailSize - 1;
+            int dest = runSize + tailSize - 1;
+            while (t >= 0) {
+                if (r >= 0 && compare(run[r], tail[t]) > 0) {
+                    run[dest--] = run[r--];
+                } else {
+                    run[dest--] = tail[t--];
+                }
+            }
+            runSize += tailSize;
+            tailSize = 0;
+        }
+
+        private static long[] ensureCapacity(long[] array, int capacity) {
+            if (capacity > array.length) {
+                return Arrays.copyOf(array, Math.max(capacity, array.length + (array.length >> 1)));
+            }
+            return array;
+        }
+
+        private int search(long[] addresses, int size, Key key) {
+            int low = 0;
+            int high = size - 1;
+            while (low <= high) {
+                int mid = (low + high) >>> 1;
+                int cmp = compare(key, addresses[mid]);
+                if (cmp > 0) {
+                    low = mid + 1;
+                } else if (cmp < 0) {
+                    high = mid - 1;
+                } else {
+                    return mid;
+                }
+            }
+            return -(low + 1);
+        }
+
+        /**
+         * Compare a key against a serialized key in the same order as {@link Key#compareTo(Key)}
+         */
+        private int compare(Key key, long address) {
+            ByteBuffer slab = slabs.get(address);
+            int offset = Slabs.offset(address);
+            int position = offset + Slabs.HEADER_LENGTH;
+            int cmp = compareBytes(key.getRowData(), slab, position, slab.getInt(offset));
+            if (cmp != 0) {
+                return cmp;
+            }
+            position += slab.getInt(offset);
+            cmp = compareBytes(key.getColumnFamilyData(), slab, position, slab.getInt(offset + 4));
+            if (cmp != 0) {
+                return cmp;
+            }
+            position += slab.getInt(offset + 4);
+            cmp = compareBytes(key.getColumnQualifierData(), slab, position, slab.getInt(offset + 8));
+            if (cmp != 0) {
+                return cmp;
+            }
+            position += slab.getInt(offset + 8);
+            cmp = compareBytes(key.getColumnVisibilityData(), slab, position, slab.getInt(offset + 12));
+            if (cmp != 0) {
+                return cmp;
+            }
+            cmp = Long.compare(slab.getLong(offset + 16), key.getTimestamp());
+            if (cmp != 0) {
+                return cmp;
+            }
+            return compareDeleted(key.isDeleted(), slab.get(offset + 24) != 0);
+        }
+
+        /**
+         * Compare two serialized keys in the same order as {@link Key#compareTo(Key)}
+         */
+        private int compare(long address1, long address2) {
+            ByteBuffer slab1 = slabs.get(address1);
+            ByteBuffer slab2 = slabs.get(address2);
+            int offset1 = Slabs.offset(address1);
+            int offset2 = Slabs.offset(address2);
+            int position1 = offset1 + Slabs.HEADER_LENGTH;
+            int position2 = offset2 + Slabs.HEADER_LENGTH;
+            for (int i = 0; i < 4; i++) {
+                int length1 = slab1.getInt(offset1 + i * 4);
+                int length2 = slab2.getInt(offset2 + i * 4);
+                int length = Math.min(length1, length2);
+                for (int j = 0; j < length; j++) {
+                    int cmp = (slab1.get(position1 + j) & 0xff) - (slab2.get(position2 + j) & 0xff);
+                    if (cmp != 0) {
+                        return cmp;
+                    }
+                }
+                if (length1 != length2) {
+                    return length1 - length2;
+                }
+                position1 += length1;
+                position2 += length2;
+            }
+            int cmp = Long.compare(slab2.getLong(offset2 + 16), slab1.getLong(offset1 + 16));
+            if (cmp != 0) {
+                return cmp;
+            }
+            return compareDeleted(slab1.get(offset1 + 24) != 0, slab2.get(offset2 + 24) != 0);
+        }
+
+        private static int compareBytes(ByteSequence bytes, ByteBuffer slab, int position, int length) {
+            byte[] data = bytes.getBackingArray();
+            int offset = bytes.offset();
+            int min = Math.min(bytes.length(), length);
+            for (int i = 0; i < min; i++) {
+                int cmp = (data[offset + i] & 0xff) - (slab.get(position + i) & 0xff);
+                if (cmp != 0) {
+                    return cmp;
+                }
+            }
+            return bytes.length() - length;
+        }
+
+        // deleted keys sort before their non deleted counterparts
+        private static int compareDeleted(boolean deleted1, boolean deleted2) {
+            if (deleted1 == deleted2) {
+                return 0;
+            }
+            return deleted1 ? -1 : 1;
+        }
+
+        private Key read(long address) {
+            ByteBuffer slab = slabs.get(address).duplicate();
+            int offset = Slabs.offset(address);
+            byte[][] fields = new byte[4][];
+            slab.position(offset + Slabs.HEADER_LENGTH);
+            for (int i = 0; i < fields.length; i++) {
+                fields[i] = new byte[slab.getInt(offset + i * 4)];
+                slab.get(fields[i]);
+            }
+            return new Key(fields[0], fields[1], fields[2], fields[3], slab.getLong(offset + 16), slab.get(offset + 24) != 0, false);
+        }
+    }
+
+    /**
+     * The slabs holding the serialized keys. An address is the index of the slab in the upper 32 bits and the offset within the slab in the lower 32 bits. A
+     * key is written as the lengths of the row, column family, column qualifier and visibility, the timestamp and the delete flag, followed by the bytes.
+     * Running this releases the direct slabs back to the arena.
+     */
+    private static final class Slabs implements Runnable {
+        private static final int HEADER_LENGTH = 25;
+
+        private final OffHeapArena arena;
+        private final List<ByteBuffer> buffers = new ArrayList<>();
+        private ByteBuffer current;
+
+        private Slabs(OffHeapArena arena) {
+            this.arena = arena;
+        }
+
+        private static int offset(long address) {
+            return (int) address;
+        }
+
+        private ByteBuffer get(long address) {
+            return buffers.get((int) (address >>> 32));
+        }
+
+        private long write(Key key) {
+            ByteSequence row = key.getRowData();
+            ByteSequence cf = key.getColumnFamilyData();
+            ByteSequence cq = key.getColumnQualifierData();
+            ByteSequence cv = key.getColumnVisibilityData();
+            int length = HEADER_LENGTH + row.length() + cf.length() + cq.length() + cv.length();
+            if (current == null || current.remaining() < length) {
+                if (length > OffHeapArena.SLAB_SIZE) {
+                    current = ByteBuffer.allocate(length);
+                } else {
+                    current = arena.allocate();
+                    if (current == null) {
+                        current = ByteBuffer.allocate(OffHeapArena.SLAB_SIZE);
+                    }
+                }
+                buffers.add(current);
+            }
+            long address = ((long) (buffers.size() - 1) << 32) | current.position();
+            current.putInt(row.length()).putInt(cf.length()).putInt(cq.length()).putInt(cv.length());
+            current.putLong(key.getTimestamp()).put((byte) (key.isDeleted() ? 1 : 0));
+            current.put(row.getBackingArray(), row.offset(), row.length());
+            current.put(cf.getBackingArray(), cf.offset(), cf.length());
+            current.put(cq.getBackingArray(), cq.offset(), cq.length());
+            current.put(cv.getBackingArray(), cv.offset(), cv.length());
+            return address;
+        }
+
+        private synchronized long getDirectBytes() {
+            return buffers.stream().filter(ByteBuffer::isDirect).count() * OffHeapArena.SLAB_SIZE;
+        }
+
+        @Override
+        public synchronized void run() {
+            for (ByteBuffer buffer : buffers) {
+                if (buffer.isDirect()) {
+                    arena.release(buffer);
+                }
+            }
+            buffers.clear();
+            current = null;
+        }
+    }
+}
@@ -0,0 +1,151 @@
+package datawave.core.iterators;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+class FairShareTaskQueueTest {
+
+    private FairShareTaskQueue queue;
+
+    @BeforeEach
+    void setup() {
+        queue = new FairShareTaskQueue();
+    }
+
+    @Test
+    void testRoundRobin() {
+        offer("a", 4);
+        offer("b", 2);
+        offer("c", 1);
+
+        assertEquals(7, queue.size());
+        assertEquals(List.of("a", "b", "c", "a", "b", "a", "a"), pollAll());
+        assertEquals(0, queue.size());
+        assertNull(queue.poll());
+    }
+
+    @Test
+    void testWeights() {
+        queue.setWeights(queryId -> queryId.equals("a") ? 3 : 1);
+        offer("a", 6);
+        offer("b", 3);
+
+        assertEquals(List.of("a", "a", "a", "b", "a", "a", "a", "b", "b"), pollAll());
+    }
+
+    @Test
+    void testMaxRunningPerQuery() {
+        queue.setMaxRunningPerQuery(2);
+        offer("a", 3);
+        offer("b", 1);
+
+        Runnable first = queue.poll();
+        assertEquals("a", queryId(first));
+        assertEquals("b", queryId(queue.poll()));
+        assertEquals("a", queryId(queue.poll()));
+        // query a is at its maximum
+        assertNull(queue.poll());
+        assertNull(queue.peek());
+        assertEquals(1, queue.size());
+
+        queue.completed(first);
+        assertEquals("a", queryId(queue.poll()));
+
+        queue.setMaxRunningPerQuery(0);
+        offer("a", 1);
+        assertEquals("a", queryId(queue.poll()));
+    }
+
+    @Test
+    void testRemove() {
+        List<Runnable> tasks = offer("a", 2);
+        offer("b", 1);
+
+        assertTrue(queue.remove(tasks.get(0)));
+        assertTrue(queue.remove(tasks.get(1)));
+        assertEquals(1, queue.size());
+        assertEquals(List.of("b"), pollAll());
+    }
+
+    @Test
+    void testStats() {
+        offer("a", 2);
+        offer("b", 1);
+        Runnable task = queue.poll();
+
+        Map<String,FairShareTaskQueue.QueryStats> stats = queue.getStats();
+        assertEquals(1, stats.get("a").getRunning());
+        assertEquals(1, stats.get("a").getWaiting());
+        assertEquals(1, stats.get("a").getStarted());
+        assertEquals(0, stats.get("b").getRunning());
+        assertEquals(1, stats.get("b").getWaiting());
+
+        queue.completed(task);
+        queue.poll();
+        queue.poll();
+        assertEquals(2, queue.getStats().size());
+        queue.completed(task);
+        assertEquals(List.of("b"), new ArrayList<>(queue.getStats().keySet()));
+    }
+
+    @Test
+    void testUnknownQuery() {
+        Runnable task = () -> {};
+        queue.offer(task);
+
+        assertSame(task, queue.poll());
+        assertTrue(queue.getStats().containsKey(FairShareTaskQueue.UNKNOWN_QUERY));
+    }
+
+    @Test
+    void testExecutor() throws InterruptedException {
+        FairShareThreadPoolExecutor executor = new FairShareThreadPoolExecutor(2, 1, TimeUnit.MINUTES, Executors.defaultThreadFactory());
+        executor.setMaxThreadsPerQuery(1);
+        try {
+            CountDownLatch done = new CountDownLatch(10);
+            for (int i = 0; i < 10; i++) {
+                executor.execute(new FairShareThreadPoolExecutor.QueryTask<>(done::countDown, null, "query" + (i % 2)));
+            }
+            assertTrue(done.await(30, TimeUnit.SECONDS));
+        } finally {
+            executor.shutdown();
+        }
+        assertTrue(executor.awaitTermination(30, TimeUnit.SECONDS));
+        assertTrue(executor.getQueryStats().isEmpty());
+    }
+
+    private List<Runnable> offer(String queryId, int count) {
+        List<Runnable> tasks = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            Runnable task = new FairShareThreadPoolExecutor.QueryTask<>(() -> {}, null, queryId);
+            queue.offer(task);
+            tasks.add(task);
+        }
+        return tasks;
+    }
+
+    private List<String> pollAll() {
+        List<String> queryIds = new ArrayList<>();
+        Runnable task;
+        while ((task = queue.poll()) != null) {
+            queryIds.add(queryId(task));
+        }
+        return queryIds;
+    }
+
+    private String queryId(Runnable task) {
+        return ((FairShareThreadPoolExecutor.QueryTask<?>) task).getQueryId();
+    }
+}
@@ -0,0 +1,163 @@
+package datawave.query.attributes;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.ByteArrayInputStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map.Entry;
+
+import org.apache.accumulo.core.data.Key;
+import org.apache.accumulo.core.data.Value;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import com.google.common.collect.Maps;
+
+import datawave.data.type.LcNoDiacriticsType;
+import datawave.data.type.NumberType;
+import datawave.query.DocumentSerialization;
+import datawave.query.function.deserializer.ColumnarDocumentDeserializer;
+import datawave.query.function.serializer.ColumnarDocumentSerializer;
+import datawave.query.function.serializer.KryoDocumentSerializer;
+import datawave.query.util.TypeMetadata;
+
+class DocumentBlockTest {
+
+    private final String datatype = "datatype";
+
+    private AttributeFactory attributeFactory;
+    private List<Entry<Key,Document>> documents;
+
+    @BeforeEach
+    void setup() {
+        TypeMetadata typeMetadata = new TypeMetadata();
+        typeMetadata.put("NAME", datatype, LcNoDiacriticsType.class.getTypeName());
+        typeMetadata.put("AGE", datatype, NumberType.class.getTypeName());
+        attributeFactory = new AttributeFactory(typeMetadata);
+
+        documents = new ArrayList<>();
+        for (int i = 0; i < 10; i++) {
+            String visibility = i % 2 == 0 ? "A&B" : "A";
+            Key key = new Key("20240101_0", datatype + "\0uid-" + i, "", visibility, 1000L + i);
+            Document document = new Document(key, true);
+            document.put("NAME", attributeFactory.create("NAME", "name-" + i, key, datatype, true));
+            // only every third document has an age
+            if (i % 3 == 0) {
+                document.put("AGE", attributeFactory.create("AGE", String.valueOf(i), key, datatype, true));
+            }
+            // multi-valued field
+            document.put("TAG", attributeFactory.create("TAG", "tag-a", key, datatype, true));
+            document.put("TAG", attributeFactory.create("TAG", "tag-b-" + i, key, datatype, true));
+            documents.add(Maps.immutableEntry(key, document));
+        }
+    }
+
+    @Test
+    void testRoundTrip() {
+        DocumentBlock block = new DocumentBlock(DocumentBlock.write(documents));
+
+        assertEquals(documents.size(), block.size());
+        assertEquals(List.of("AGE", "NAME", "TAG"), block.getFieldNames());
+        for (int i = 0; i < documents.size(); i++) {
+            assertEquals(documents.get(i).getKey(), block.getKey(i));
+            assertDocument(documents.get(i).getValue(), block.getDocument(i));
+        }
+    }
+
+    @Test
+    void testOutOfOrder() {
+        DocumentBlock block = new DocumentBlock(DocumentBlock.write(documents));
+
+        for (int i : new int[] {7, 2, 9, 0, 3, 3}) {
+            assertDocument(documents.get(i).getValue(), block.getDocument(i));
+        }
+        assertEquals(4, block.indexOf(documents.get(4).getKey()));
+        assertEquals(-1, block.indexOf(new Key("missing")));
+    }
+
+    @Test
+    void testGetAttribute() {
+        DocumentBlock block = new DocumentBlock(DocumentBlock.write(documents));
+
+        assertEquals(documents.get(6).getValue().get("AGE"), block.getAttribute(6, "AGE"));
+        assertEquals(documents.get(5).getValue().get("NAME"), block.getAttribute(5, "NAME"));
+        assertNull(block.getAttribute(5, "AGE"));
+        assertNull(block.getAttribute(5, "MISSING"));
+    }
+
+    @Test
+    void testSmallerThanKryo() {
+        KryoDocumentSerializer kryo = new KryoDocumentSerializer();
+        int kryoBytes = 0;
+        for (Entry<Key,Document> entry : documents) {
+            kryoBytes += kryo.serialize(entry.getValue()).length;
+        }
+        assertTrue(DocumentBlock.write(documents).length < kryoBytes);
+    }
+
+    @Test
+    void testSerializerBatchesDocuments() {
+        ColumnarDocumentSerializer serializer = new ColumnarDocumentSerializer(false, true, 4, ColumnarDocumentSerializer.DEFAULT_MAX_BLOCK_BYTES);
+        ColumnarDocumentDeserializer deserializer = new ColumnarDocumentDeserializer();
+
+        var iterator = documents.iterator();
+        int read = 0;
+        while (iterator.hasNext()) {
+            Entry<Key,Value> entry = serializer.apply(iterator.next(), iterator);
+            DocumentBlock block = ColumnarDocumentDeserializer.read(DocumentSerialization.consumeHeader(entry.getValue().get()));
+            assertTrue(block.size() <= 4);
+            assertEquals(block.getKey(block.size() - 1), entry.getKey());
+
+            for (int i = 0; i < block.size(); i++) {
+                Entry<Key,Document> document = deserializer.apply(Maps.immutableEntry(block.getKey(i), entry.getValue()));
+                assertEquals(documents.get(read).getKey(), document.getKey());
+                assertDocument(documents.get(read).getValue(), document.getValue());
+                read++;
+            }
+        }
+        assertEquals(documents.size(), read);
+    }
+
+    @Test
+    void testDeserializerReadsParsedBlock() {
+        ColumnarDocumentSerializer serializer = new ColumnarDocumentSerializer(false, true, 4, ColumnarDocumentSerializer.DEFAULT_MAX_BLOCK_BYTES);
+        ColumnarDocumentDeserializer deserializer = new ColumnarDocumentDeserializer();
+
+        var iterator = documents.iterator();
+        Entry<Key,Value> entry = serializer.apply(iterator.next(), iterator);
+        DocumentBlock block = ColumnarDocumentDeserializer.read(DocumentSerialization.consumeHeader(entry.getValue().get()));
+
+        // the value holds no block to parse, so the documents can only come from the parsed block
+        Value value = new DocumentBlockValue(DocumentSerialization.getHeader(), block);
+        for (int i = 0; i < block.size(); i++) {
+            Entry<Key,Document> document = deserializer.apply(Maps.immutableEntry(block.getKey(i), value));
+            assertEquals(documents.get(i).getKey(), document.getKey());
+            assertDocument(documents.get(i).getValue(), document.getValue());
+        }
+    }
+
+    @Test
+    void testSingleDocument() {
+        ColumnarDocumentSerializer serializer = new ColumnarDocumentSerializer();
+        ColumnarDocumentDeserializer deserializer = new ColumnarDocumentDeserializer();
+
+        Document document = documents.get(3).getValue();
+        byte[] bytes = serializer.serialize(document);
+        assertDocument(document, deserializer.deserialize(new ByteArrayInputStream(bytes)));
+    }
+
+    private void assertDocument(Document expected, Document actual) {
+        assertEquals(expected.getDictionary(), actual.getDictionary());
+        assertEquals(expected.size(), actual.size());
+        assertEquals(expected.sizeInBytes(), actual.sizeInBytes());
+        for (String field : expected.getDictionary().keySet()) {
+            // the visibility of a multi-valued field is combined from its values
+            if (!(expected.get(field) instanceof Attributes)) {
+                assertEquals(expected.get(field).getColumnVisibility(), actual.get(field).getColumnVisibility());
+            }
+        }
+    }
+}
@@ -51,6 +51,7 @@ import datawave.query.iterator.logic.TermFrequencyIndexIterator;
 import datawave.query.jexl.JexlASTHelper;
 import datawave.query.model.QueryModel;
 import datawave.query.planner.scanhints.IvaratorScanHint;
+import datawave.query.util.sortedset.FileSortedSet;
 import datawave.util.TableName;
 
 public class ShardQueryConfigurationTest {
@@ -426,6 +427,10 @@ public class ShardQueryConfigurationTest {
         updatedValues.put("ivaratorPersistVerify", false);
         defaultValues.put("ivaratorPersistVerifyCount", 100);
         updatedValues.put("ivaratorPersistVerifyCount", 101);
+        defaultValues.put("ivaratorPersistFormat", FileSortedSet.PersistOptions.KeyFormat.RFILE);
+        updatedValues.put("ivaratorPersistFormat", FileSortedSet.PersistOptions.KeyFormat.COMPACT);
+        defaultValues.put("ivaratorOffHeapBuffer", false);
+        updatedValues.put("ivaratorOffHeapBuffer", true);
         defaultValues.put("maxIvaratorSources", 33);
         updatedValues.put("maxIvaratorSources", 16);
         defaultValues.put("maxIvaratorResults", -1L);
@@ -438,6 +443,8 @@ public class ShardQueryConfigurationTest {
         updatedValues.put("maxEvaluationPipelines", 24);
         defaultValues.put("maxPipelineCachedResults", 25);
         updatedValues.put("maxPipelineCachedResults", 26);
+        defaultValues.put("outOfOrderEvaluationPipeline", false);
+        updatedValues.put("outOfOrderEvaluationPipeline", true);
         defaultValues.put("expandAllTerms", false);
         updatedValues.put("expandAllTerms", true);
         defaultValues.put("queryModel", null);
@@ -644,6 +651,14 @@ public class ShardQueryConfigurationTest {
         updatedValues.put("useShardedIndex", true);
         defaultValues.put("dayIndexThreshold", -1);
         updatedValues.put("dayIndexThreshold", 31);
+        defaultValues.put("useLeapfrogIntersection", false);
+        updatedValues.put("useLeapfrogIntersection", true);
+        defaultValues.put("primitiveContentEvaluator", false);
+        updatedValues.put("primitiveContentEvaluator", true);
+        defaultValues.put("queryPlanCacheEnabled", false);
+        updatedValues.put("queryPlanCacheEnabled", true);
+        defaultValues.put("queryPlanCacheTTL", 15 * 60 * 1000L);
+        updatedValues.put("queryPlanCacheTTL", 60 * 1000L);
     }
 
     private Query createQuery(String query) {
@@ -2,6 +2,7 @@ package datawave.query.data.parsers;
 
 import static datawave.query.data.parsers.DatawaveKey.KeyType.EVENT;
 import static datawave.query.data.parsers.DatawaveKey.KeyType.INDEX_EVENT;
+import static datawave.query.data.parsers.DatawaveKey.KeyType.TERM_OFFSET_INDEX;
 import static datawave.query.data.parsers.DatawaveKey.KeyType.TERM_OFFSETS;
 import static org.junit.Assert.assertEquals;
 
@@ -155,6 +156,42 @@ public class DatawaveKeyTest {
         assertFieldValue("fi\0eldVa\0lue");
     }
 
+    @Test
+    public void testTermOffsetKey() {
+        Key key = new Key(row, "to", "datatype\u0000uid\u0000fieldName\u00000000000012\u0000fieldValue", cv);
+        parse(key);
+
+        assertInvalid(false);
+        assertType(TERM_OFFSET_INDEX);
+        assertRow(row);
+        assertShardId(row);
+        assertDataType(datatype);
+        assertUid(uid);
+        assertFieldName(fieldName);
+        assertFieldValue(fieldValue);
+    }
+
+    @Test
+    public void testTermOffsetKeyWithExtraNulls() {
+        Key key = new Key(row, "to", "datatype\u0000uid.1\u0000fieldName\u00000000000012\u0000fi\u0000eldValue", cv);
+        parse(key);
+
+        assertInvalid(false);
+        assertType(TERM_OFFSET_INDEX);
+        assertDataType(datatype);
+        assertUid("uid.1");
+        assertFieldName(fieldName);
+        assertFieldValue("fi\0eldValue");
+    }
+
+    @Test
+    public void testInvalidTermOffsetKey() {
+        Key key = new Key(row, "to", "datatype\u0000uid\u0000fieldName", cv);
+        parse(key);
+        assertType(TERM_OFFSET_INDEX);
+        assertInvalid(true);
+    }
+
     @Test
     public void testGlobalIndexKey() {
         Key key = new Key("fieldValue", "fieldName", "row\0datatype");
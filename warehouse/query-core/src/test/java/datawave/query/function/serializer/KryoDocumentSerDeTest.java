@@ -1,14 +1,19 @@
 package datawave.query.function.serializer;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 
 import java.io.ByteArrayInputStream;
+import java.util.ArrayList;
+import java.util.List;
 
 import org.apache.accumulo.core.data.Key;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 
+import com.esotericsoftware.kryo.KryoException;
+
 import datawave.data.type.DateType;
 import datawave.data.type.GeoLatType;
 import datawave.data.type.GeoLonType;
@@ -108,4 +113,129 @@ public abstract class KryoDocumentSerDeTest {
         }
     }
 
+    static class KryoFieldDictionarySerDeTest extends KryoDocumentSerDeTest {
+
+        private final KryoDocumentSerializer dictionarySerializer = new KryoDocumentSerializer(false, false, true);
+        private final KryoDocumentDeserializer dictionaryDeserializer = new KryoDocumentDeserializer(true);
+
+        @Test
+        public void testFieldNamesSentOncePerStream() {
+            byte[] first = dictionarySerializer.serialize(d);
+            byte[] second = dictionarySerializer.serialize(d);
+            assertTrue(second.length < first.length);
+
+            assertDocument(dictionaryDeserializer.deserialize(new ByteArrayInputStream(first)));
+            assertDocument(dictionaryDeserializer.deserialize(new ByteArrayInputStream(second)));
+        }
+
+        @Test
+        public void testInterleavedStreams() {
+            KryoDocumentSerializer otherSerializer = new KryoDocumentSerializer(false, false, true);
+            byte[] first = dictionarySerializer.serialize(d);
+            byte[] otherFirst = otherSerializer.serialize(d);
+            byte[] second = dictionarySerializer.serialize(d);
+            byte[] otherSecond = otherSerializer.serialize(d);
+
+            assertDocument(dictionaryDeserializer.deserialize(new ByteArrayInputStream(first)));
+            assertDocument(dictionaryDeserializer.deserialize(new ByteArrayInputStream(otherFirst)));
+            assertDocument(dictionaryDeserializer.deserialize(new ByteArrayInputStream(otherSecond)));
+            assertDocument(dictionaryDeserializer.deserialize(new ByteArrayInputStream(second)));
+        }
+
+        @Test
+        public void testResetStartsNewStream() {
+            byte[] first = dictionarySerializer.serialize(d);
+            dictionarySerializer.reset();
+            byte[] second = dictionarySerializer.serialize(d);
+            // the new stream names the stream it supersedes
+            assertEquals(first.length + Long.BYTES, second.length);
+
+            // the new stream can be read without having seen the first one
+            assertDocument(new KryoDocumentDeserializer(true).deserialize(new ByteArrayInputStream(second)));
+        }
+
+        @Test
+        public void testMissingStreamStart() {
+            dictionarySerializer.serialize(d);
+            byte[] second = dictionarySerializer.serialize(d);
+
+            assertThrows(KryoException.class, () -> new KryoDocumentDeserializer(true).deserialize(new ByteArrayInputStream(second)));
+        }
+
+        @Test
+        public void testSupersededStreamDropped() {
+            byte[] first = dictionarySerializer.serialize(d);
+            byte[] second = dictionarySerializer.serialize(d);
+            dictionarySerializer.reset();
+            byte[] third = dictionarySerializer.serialize(d);
+
+            assertDocument(dictionaryDeserializer.deserialize(new ByteArrayInputStream(first)));
+            assertDocument(dictionaryDeserializer.deserialize(new ByteArrayInputStream(third)));
+            // the first stream was dropped once the stream superseding it started
+            assertThrows(KryoException.class, () -> dictionaryDeserializer.deserialize(new ByteArrayInputStream(second)));
+        }
+
+        @Test
+        public void testLeastRecentlyUsedStreamDropped() {
+            byte[] first = dictionarySerializer.serialize(d);
+            byte[] second = dictionarySerializer.serialize(d);
+            assertDocument(dictionaryDeserializer.deserialize(new ByteArrayInputStream(first)));
+
+            for (int i = 0; i < KryoDocumentDeserializer.MAX_FIELD_DICTIONARY_STREAMS; i++) {
+                byte[] other = new KryoDocumentSerializer(false, false, true).serialize(d);
+                assertDocument(dictionaryDeserializer.deserialize(new ByteArrayInputStream(other)));
+            }
+
+            assertThrows(KryoException.class, () -> dictionaryDeserializer.deserialize(new ByteArrayInputStream(second)));
+        }
+
+        @Test
+        public void testSelfDescribingDuplicatesDropped() {
+            // unsorted results are deduplicated before they are read, so a document carrying new field names may never be seen
+            KryoDocumentSerializer otherSerializer = new KryoDocumentSerializer(false, false, true);
+            dictionarySerializer.setSelfDescribing(true);
+            otherSerializer.setSelfDescribing(true);
+
+            byte[] first = dictionarySerializer.serialize(d);
+            byte[] duplicate = otherSerializer.serialize(d);
+            d.put("LC_ND", createAttribute("LC_ND", "value-3"));
+            byte[] second = dictionarySerializer.serialize(d);
+            byte[] otherSecond = otherSerializer.serialize(d);
+            assertTrue(duplicate.length > 0);
+
+            assertEquals(12, dictionaryDeserializer.deserialize(new ByteArrayInputStream(first)).size());
+            assertDocument(dictionaryDeserializer.deserialize(new ByteArrayInputStream(otherSecond)));
+            assertDocument(dictionaryDeserializer.deserialize(new ByteArrayInputStream(second)));
+        }
+
+        @Test
+        public void testManyInterleavedStreams() {
+            int numStreams = 1000;
+            List<KryoDocumentSerializer> serializers = new ArrayList<>();
+            List<byte[]> firsts = new ArrayList<>();
+            for (int i = 0; i < numStreams; i++) {
+                KryoDocumentSerializer streamSerializer = new KryoDocumentSerializer(false, false, true);
+                serializers.add(streamSerializer);
+                firsts.add(streamSerializer.serialize(d));
+            }
+            d.put("LC_ND", createAttribute("LC_ND", "value-3"));
+            List<byte[]> seconds = new ArrayList<>();
+            for (KryoDocumentSerializer streamSerializer : serializers) {
+                seconds.add(streamSerializer.serialize(d));
+            }
+
+            // every stream is started before any of them continues, so no stream may be forgotten
+            for (byte[] first : firsts) {
+                assertEquals(12, dictionaryDeserializer.deserialize(new ByteArrayInputStream(first)).size());
+            }
+            for (int i = numStreams - 1; i >= 0; i--) {
+                assertDocument(dictionaryDeserializer.deserialize(new ByteArrayInputStream(seconds.get(i))));
+            }
+        }
+
+        private void assertDocument(Document document) {
+            assertEquals(d.getDictionary().keySet(), document.getDictionary().keySet());
+            assertEquals(d.size(), document.size());
+        }
+    }
 }
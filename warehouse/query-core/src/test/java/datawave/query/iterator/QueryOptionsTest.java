@@ -37,6 +37,8 @@ import datawave.query.function.Equality;
 import datawave.query.function.PrefixEquality;
 import datawave.query.iterator.filter.EntryKeyIdentity;
 import datawave.query.iterator.filter.FieldIndexKeyDataTypeFilter;
+import datawave.query.jexl.visitors.JexlStringBuildingVisitor;
+import datawave.query.util.TypeMetadata;
 
 public class QueryOptionsTest {
 
@@ -253,6 +255,41 @@ public class QueryOptionsTest {
         Assert.assertEquals(initialString, decompressOptions);
     }
 
+    @Test
+    public void testParsedOptionsAreCachedPerQuery() throws IOException {
+        TypeMetadata typeMetadata = new TypeMetadata();
+        typeMetadata.put("FOO", "datatype", "datawave.data.type.LcNoDiacriticsType");
+
+        Map<String,String> optionsMap = new HashMap<>();
+        optionsMap.put(QUERY, "FOO == 'bar' && (BAR == 'baz')");
+        optionsMap.put(QueryOptions.QUERY_ID, "query-" + System.nanoTime());
+        optionsMap.put(QueryOptions.QUERY_MAPPING_COMPRESS, "true");
+        optionsMap.put(QueryOptions.TYPE_METADATA, QueryOptions.compressOption(typeMetadata.toString(), QueryOptions.UTF8));
+
+        long hits = QueryOptionsCache.getStats().hitCount();
+
+        QueryOptions first = new QueryOptions();
+        first.validateOptions(optionsMap);
+        QueryOptions second = new QueryOptions();
+        second.validateOptions(optionsMap);
+
+        // the type metadata is parsed once and shared
+        assertEquals(typeMetadata.toString(), first.getTypeMetadata().toString());
+        Assert.assertSame(first.getTypeMetadata(), second.getTypeMetadata());
+        assertEquals(hits + 1, QueryOptionsCache.getStats().hitCount());
+
+        // each iterator gets its own copy of the parsed script
+        assertEquals(JexlStringBuildingVisitor.buildQuery(first.getScript()), JexlStringBuildingVisitor.buildQuery(second.getScript()));
+        Assert.assertNotSame(first.getScript(), second.getScript());
+        assertEquals(hits + 2, QueryOptionsCache.getStats().hitCount());
+
+        // another query does not share the entries
+        optionsMap.put(QueryOptions.QUERY_ID, "query-" + System.nanoTime());
+        QueryOptions other = new QueryOptions();
+        other.validateOptions(optionsMap);
+        Assert.assertNotSame(first.getTypeMetadata(), other.getTypeMetadata());
+    }
+
     private static class WrappedQueryOptions extends QueryOptions {
         protected static String decompressOption(final String buffer, Charset characterSet) throws IOException {
             return QueryOptions.decompressOption(buffer, characterSet);
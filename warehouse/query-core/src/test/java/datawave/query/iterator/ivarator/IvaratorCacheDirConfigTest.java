@@ -15,6 +15,7 @@ public class IvaratorCacheDirConfigTest {
 
         ivaratorCacheDirConfigs.add(new IvaratorCacheDirConfig("file:/some/path", 0, 1024));
         ivaratorCacheDirConfigs.add(new IvaratorCacheDirConfig("hdfs:/some/other/path", 1, 0.5));
+        ivaratorCacheDirConfigs.get(0).setMemoryMapped(true);
 
         String json = IvaratorCacheDirConfig.toJson(ivaratorCacheDirConfigs);
         List<IvaratorCacheDirConfig> parsedConfigs = IvaratorCacheDirConfig.fromJson(json);
@@ -43,5 +44,16 @@ public class IvaratorCacheDirConfigTest {
         Assert.assertEquals(IvaratorCacheDirConfig.DEFAULT_PRIORITY, config.getPriority());
         Assert.assertEquals(IvaratorCacheDirConfig.DEFAULT_MIN_AVAILABLE_STORAGE_MiB, config.getMinAvailableStorageMiB());
         Assert.assertEquals(IvaratorCacheDirConfig.DEFAULT_MIN_AVAILABLE_STORAGE_PERCENT, config.getMinAvailableStoragePercent(), 0.0);
+        Assert.assertFalse(config.isMemoryMapped());
+    }
+
+    @Test
+    public void memoryMappedRequiresLocalPathTest() {
+        IvaratorCacheDirConfig config = new IvaratorCacheDirConfig("hdfs:/some/path");
+        config.setMemoryMapped(true);
+        Assert.assertFalse(config.isValid());
+
+        config.setBasePathURI("file:/some/path");
+        Assert.assertTrue(config.isValid());
     }
 }
@@ -0,0 +1,315 @@
+package datawave.query.iterator.logic;
+
+import static datawave.query.iterator.logic.TestUtil.randomUids;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+import java.util.SortedSet;
+
+import org.apache.accumulo.core.data.Key;
+import org.apache.accumulo.core.data.Range;
+import org.junit.jupiter.api.Test;
+
+import com.google.common.collect.Lists;
+
+import datawave.query.attributes.Document;
+import datawave.query.iterator.NestedIterator;
+import datawave.query.iterator.logic.NegationFilterTest.InterruptedIterable;
+
+/**
+ * Tests for the {@link LeapfrogAndIterator}. The first half mirrors the {@link AndIteratorTest}, the rest asserts that both engines produce the same results.
+ */
+class LeapfrogAndIteratorTest {
+
+    private static final Random rand = new Random();
+
+    @Test
+    void testSingleInclude() {
+        Set<NestedIterator<String>> includes = new HashSet<>();
+        includes.add(getItr(Lists.newArrayList("a", "b"), false));
+
+        LeapfrogAndIterator<String> iterator = new LeapfrogAndIterator<>(includes);
+        iterator.initialize();
+
+        assertFalse(iterator.isContextRequired());
+        assertResults(iterator, "a", "b");
+    }
+
+    @Test
+    void testMultiInclude() {
+        Set<NestedIterator<String>> includes = new HashSet<>();
+        includes.add(getItr(Lists.newArrayList("a", "b", "e", "g"), false));
+        includes.add(getItr(Lists.newArrayList("a", "b", "c", "d", "e", "f"), false));
+
+        LeapfrogAndIterator<String> iterator = new LeapfrogAndIterator<>(includes);
+        iterator.initialize();
+
+        assertFalse(iterator.isContextRequired());
+        assertResults(iterator, "a", "b", "e");
+    }
+
+    @Test
+    void testManyIncludes() {
+        Set<NestedIterator<String>> includes = new HashSet<>();
+        includes.add(getItr(Lists.newArrayList("a", "b", "e", "g", "k", "z"), false));
+        includes.add(getItr(Lists.newArrayList("a", "c", "e", "k", "z"), false));
+        includes.add(getItr(Lists.newArrayList("b", "e", "f", "k", "m", "z"), false));
+        includes.add(getItr(Lists.newArrayList("e", "k", "y", "z"), false));
+        includes.add(getItr(Lists.newArrayList("d", "e", "h", "i", "j", "k", "l", "z"), false));
+
+        LeapfrogAndIterator<String> iterator = new LeapfrogAndIterator<>(includes);
+        iterator.initialize();
+
+        assertResults(iterator, "e", "k", "z");
+    }
+
+    @Test
+    void testEmptyInclude() {
+        Set<NestedIterator<String>> includes = new HashSet<>();
+        includes.add(getItr(Lists.newArrayList("a", "b"), false));
+        includes.add(getItr(Lists.newArrayList(), false));
+
+        LeapfrogAndIterator<String> iterator = new LeapfrogAndIterator<>(includes);
+        iterator.initialize();
+
+        assertResults(iterator);
+    }
+
+    @Test
+    void testMultiIncludeContextRequired() {
+        Set<NestedIterator<String>> includes = new HashSet<>();
+        includes.add(getItr(Lists.newArrayList("a", "b", "c"), false));
+        includes.add(getItr(Lists.newArrayList("b", "c", "d"), true));
+
+        LeapfrogAndIterator<String> iterator = new LeapfrogAndIterator<>(includes);
+        iterator.initialize();
+
+        assertFalse(iterator.isContextRequired());
+        assertResults(iterator, "b", "c");
+    }
+
+    @Test
+    void testExcludeFirstMatch() {
+        Set<NestedIterator<String>> includes = new HashSet<>();
+        includes.add(getItr(Lists.newArrayList("a", "b"), false));
+        includes.add(getItr(Lists.newArrayList("a", "b", "c", "d", "e", "f"), false));
+
+        Set<NestedIterator<String>> excludes = new HashSet<>();
+        excludes.add(getItr(Lists.newArrayList("a", "c", "e", "f"), false));
+
+        LeapfrogAndIterator<String> iterator = new LeapfrogAndIterator<>(includes, excludes);
+        iterator.initialize();
+
+        assertResults(iterator, "b");
+    }
+
+    @Test
+    void testExcludeLastMatch() {
+        Set<NestedIterator<String>> includes = new HashSet<>();
+        includes.add(getItr(Lists.newArrayList("a", "b", "f"), false));
+        includes.add(getItr(Lists.newArrayList("a", "b", "c", "d", "e", "f"), false));
+
+        Set<NestedIterator<String>> excludes = new HashSet<>();
+        excludes.add(getItr(Lists.newArrayList("c", "e", "f"), false));
+
+        LeapfrogAndIterator<String> iterator = new LeapfrogAndIterator<>(includes, excludes);
+        iterator.initialize();
+
+        assertResults(iterator, "a", "b");
+    }
+
+    @Test
+    void testDeferred() {
+        Set<NestedIterator<String>> includes = new HashSet<>();
+        includes.add(getItr(Lists.newArrayList("a", "b"), false));
+        includes.add(getItr(Lists.newArrayList("b"), true));
+
+        LeapfrogAndIterator<String> iterator = new LeapfrogAndIterator<>(includes);
+        iterator.initialize();
+
+        assertResults(iterator, "b");
+    }
+
+    @Test
+    void testNegatedDeferred() {
+        Set<NestedIterator<String>> includes = new HashSet<>();
+        includes.add(getItr(Lists.newArrayList("a", "b"), false));
+
+        Set<NestedIterator<String>> excludes = new HashSet<>();
+        excludes.add(getItr(Lists.newArrayList("b"), true));
+
+        LeapfrogAndIterator<String> iterator = new LeapfrogAndIterator<>(includes, excludes);
+        iterator.initialize();
+
+        assertResults(iterator, "a");
+    }
+
+    @Test
+    void testDeferredChild() {
+        Set<NestedIterator<String>> includes = new HashSet<>();
+        includes.add(getItr(Lists.newArrayList("a", "b"), true));
+        includes.add(getItr(Lists.newArrayList("b", "c"), true));
+
+        LeapfrogAndIterator<String> unsourcedIterator = new LeapfrogAndIterator<>(includes);
+
+        includes = new HashSet<>();
+        includes.add(unsourcedIterator);
+        includes.add(getItr(Lists.newArrayList("c"), false));
+
+        LeapfrogAndIterator<String> iterator = new LeapfrogAndIterator<>(includes);
+        iterator.initialize();
+
+        assertFalse(iterator.isContextRequired());
+        assertTrue(unsourcedIterator.isContextRequired());
+        assertFalse(iterator.hasNext());
+    }
+
+    @Test
+    void testContextWhenNotRequiredMoveAll() {
+        Set<NestedIterator<String>> includes = new HashSet<>();
+        includes.add(getItr(Lists.newArrayList("c", "d", "e"), false));
+        includes.add(getItr(Lists.newArrayList("c", "d", "e"), false));
+
+        LeapfrogAndIterator<String> iterator = new LeapfrogAndIterator<>(includes);
+        iterator.initialize();
+
+        iterator.setContext("e");
+        assertResults(iterator, "c", "e");
+    }
+
+    @Test
+    void testContextWhenNotRequiredShortCircuit() {
+        Set<NestedIterator<String>> includes = new HashSet<>();
+        includes.add(getItr(Lists.newArrayList("c", "s", "z"), false));
+        includes.add(getItr(Lists.newArrayList("c", "z"), false));
+
+        LeapfrogAndIterator<String> iterator = new LeapfrogAndIterator<>(includes);
+        iterator.initialize();
+
+        iterator.setContext("d");
+        assertResults(iterator, "c");
+    }
+
+    @Test
+    void testContextWhenNotRequiredSkipLowestMoveLowest() {
+        Set<NestedIterator<String>> includes = new HashSet<>();
+        includes.add(getItr(Lists.newArrayList("c", "s", "z"), false));
+        includes.add(getItr(Lists.newArrayList("c", "z"), false));
+
+        LeapfrogAndIterator<String> iterator = new LeapfrogAndIterator<>(includes);
+        iterator.initialize();
+
+        iterator.setContext("z");
+        assertResults(iterator, "c", "z");
+    }
+
+    @Test
+    void testMove() {
+        Set<NestedIterator<String>> includes = new HashSet<>();
+        includes.add(getItr(Lists.newArrayList("a", "c", "e", "g", "i", "k"), false));
+        includes.add(getItr(Lists.newArrayList("a", "b", "c", "e", "f", "g", "k"), false));
+
+        LeapfrogAndIterator<String> iterator = new LeapfrogAndIterator<>(includes);
+        iterator.initialize();
+
+        assertEquals("a", iterator.next());
+        assertEquals("e", iterator.move("d"));
+        assertEquals("k", iterator.move("h"));
+        assertFalse(iterator.hasNext());
+    }
+
+    @Test
+    void testFailedIncludeLookup() {
+        NestedIterator<String> failing = getInterruptableItr(Lists.newArrayList("a", "b", "c"), false);
+        Set<NestedIterator<String>> includes = new HashSet<>();
+        includes.add(getItr(Lists.newArrayList("a", "b", "c"), false));
+        includes.add(failing);
+
+        LeapfrogAndIterator<String> iterator = new LeapfrogAndIterator<>(includes);
+        iterator.initialize();
+
+        for (String top : List.of("a", "b", "c")) {
+            assertTrue(iterator.hasNext());
+            assertEquals(top, iterator.next());
+            assertNotNull(iterator.document());
+        }
+
+        assertFalse(iterator.hasNext());
+
+        // the failed include is dropped from the intersection entirely
+        assertEquals(1, iterator.children().size());
+        assertFalse(iterator.children().contains(failing));
+    }
+
+    @Test
+    void testSameResultsAsAndIterator() throws IOException {
+        for (int i = 0; i < 100; i++) {
+            int numTerms = 2 + rand.nextInt(24);
+            List<SortedSet<String>> uids = new ArrayList<>(numTerms);
+            for (int j = 0; j < numTerms; j++) {
+                uids.add(randomUids(100, 50 + rand.nextInt(51)));
+            }
+            SortedSet<String> negated = randomUids(100, rand.nextInt(20));
+
+            List<Key> expected = drive(new AndIterator<>(createIncludes(uids), createExcludes(negated)));
+            List<Key> actual = drive(new LeapfrogAndIterator<>(createIncludes(uids), createExcludes(negated)));
+            assertEquals(expected, actual);
+        }
+    }
+
+    private List<Key> drive(NestedIterator<Key> itr) throws IOException {
+        itr.seek(new Range(), Collections.emptyList(), false);
+        itr.initialize();
+
+        List<Key> results = new ArrayList<>();
+        while (itr.hasNext()) {
+            Key key = itr.next();
+            results.add(new Key(key.getRow(), key.getColumnFamily()));
+
+            Document d = itr.document();
+            TestUtil.assertDocumentUids(TestUtil.uidFromKey(key), d);
+        }
+        return results;
+    }
+
+    private List<NestedIterator<Key>> createIncludes(List<SortedSet<String>> uids) {
+        List<NestedIterator<Key>> includes = new ArrayList<>(uids.size());
+        for (int i = 0; i < uids.size(); i++) {
+            includes.add(IndexIteratorBridgeTest.createIndexIteratorBridge("FIELD_" + i, uids.get(i), true));
+        }
+        return includes;
+    }
+
+    private List<NestedIterator<Key>> createExcludes(SortedSet<String> uids) {
+        if (uids.isEmpty()) {
+            return null;
+        }
+        return Collections.singletonList(IndexIteratorBridgeTest.createIndexIteratorBridge("NEGATED", uids, false));
+    }
+
+    private void assertResults(LeapfrogAndIterator<String> iterator, String... expected) {
+        for (String top : expected) {
+            assertTrue(iterator.hasNext());
+            assertEquals(top, iterator.next());
+        }
+        assertFalse(iterator.hasNext());
+    }
+
+    private NegationFilterTest.Itr<String> getItr(List<String> source, boolean contextRequired) {
+        return new NegationFilterTest.Itr<>(source, contextRequired);
+    }
+
+    private NegationFilterTest.Itr<String> getInterruptableItr(List<String> source, boolean contextRequired) {
+        InterruptedIterable<String> iterable = new InterruptedIterable<>(source.iterator());
+        return new NegationFilterTest.Itr<>(iterable, contextRequired);
+    }
+}
@@ -0,0 +1,155 @@
+package datawave.query.iterator.logic;
+
+import static datawave.query.iterator.logic.TermFrequencyExcerptIterator.Configuration.END_OFFSET;
+import static datawave.query.iterator.logic.TermFrequencyExcerptIterator.Configuration.FIELD_NAME;
+import static datawave.query.iterator.logic.TermFrequencyExcerptIterator.Configuration.START_OFFSET;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.io.IOException;
+import java.util.AbstractMap;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.apache.accumulo.core.data.Key;
+import org.apache.accumulo.core.data.PartialKey;
+import org.apache.accumulo.core.data.Range;
+import org.apache.accumulo.core.data.Value;
+import org.apache.accumulo.core.iterators.IteratorEnvironment;
+import org.apache.accumulo.core.security.ColumnVisibility;
+import org.apache.hadoop.io.Text;
+import org.easymock.EasyMockRunner;
+import org.easymock.EasyMockSupport;
+import org.easymock.Mock;
+import org.junit.After;
+import org.junit.BeforeClass;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import datawave.ingest.mapreduce.handler.tokenize.TermOffsetIndexUtil;
+import datawave.query.Constants;
+import datawave.query.iterator.SortedListKeyValueIterator;
+
+@RunWith(EasyMockRunner.class)
+public class TermOffsetExcerptIteratorTest extends EasyMockSupport {
+
+    private static final Text row = new Text("20220115_1");
+    private static final Text colf = new Text(TermOffsetIndexUtil.TERM_OFFSET_COLUMN_FAMILY);
+
+    @Mock
+    private IteratorEnvironment env;
+    private static final List<Map.Entry<Key,Value>> source = new ArrayList<>();
+    private final Map<String,String> options = new HashMap<>();
+    private final TermOffsetExcerptIterator iterator = new TermOffsetExcerptIterator();
+
+    @BeforeClass
+    public static void beforeClass() {
+        givenData("email", "123.456.789", "BODY", "the quick brown fox jumped over the lazy dog");
+        givenData("email", "123.456.789", "CONTENT", "there is no greater divide in fandoms than that between star wars and star trek fans");
+        givenData("email", "123.456.789.1", "BODY", "an attachment of the email");
+        givenData("scan", "987.654.321", "CONTENT", "we've been trying to reach you about your car warranty");
+    }
+
+    private static void givenData(String datatype, String uid, String fieldName, String phrase) {
+        String[] terms = phrase.split(" ");
+        for (int i = 0; i < terms.length; i++) {
+            Text colq = new Text(TermOffsetIndexUtil.getColumnQualifier(datatype, uid, fieldName, i, terms[i]));
+            Key key = new Key(row, colf, colq, new ColumnVisibility("ALL"), new Date().getTime());
+            source.add(new AbstractMap.SimpleEntry<>(key, new Value()));
+        }
+    }
+
+    @After
+    public void tearDown() {
+        options.clear();
+    }
+
+    private void givenOptions(String field, int start, int end) {
+        options.put(FIELD_NAME, field);
+        options.put(START_OFFSET, String.valueOf(start));
+        options.put(END_OFFSET, String.valueOf(end));
+    }
+
+    private void initIterator() throws IOException {
+        iterator.init(new SortedListKeyValueIterator(source), options, env);
+        iterator.setHitTermsList(new ArrayList<>(List.of("")));
+    }
+
+    private Range getDocumentRange(String dtUid) {
+        Key startKey = new Key(row, new Text(dtUid));
+        return new Range(startKey, true, startKey.followingKey(PartialKey.ROW_COLFAM), false);
+    }
+
+    private void assertExcerpt(String dtUid, String field, String excerpt) {
+        assertTrue(iterator.hasTop());
+        Key topKey = iterator.getTopKey();
+        assertEquals(row, topKey.getRow());
+        assertEquals(new Text(dtUid), topKey.getColumnFamily());
+        assertEquals(new Text(field + Constants.NULL + TermFrequencyExcerptIterator.NOT_SCORED_MARKER + Constants.NULL + excerpt + Constants.NULL
+                        + TermFrequencyExcerptIterator.NOT_SCORED_MARKER), topKey.getColumnQualifier());
+    }
+
+    @Test
+    public void testMatchFound() throws IOException {
+        givenOptions("BODY", 1, 5);
+        initIterator();
+
+        iterator.seek(getDocumentRange("email" + Constants.NULL + "123.456.789"), Collections.emptyList(), false);
+
+        assertExcerpt("email" + Constants.NULL + "123.456.789", "BODY", "quick brown fox jumped");
+        iterator.next();
+        assertFalse(iterator.hasTop());
+    }
+
+    @Test
+    public void testOffsetRangeOutsideBounds() throws IOException {
+        givenOptions("CONTENT", -1, 20);
+        initIterator();
+
+        iterator.seek(getDocumentRange("email" + Constants.NULL + "123.456.789"), Collections.emptyList(), false);
+
+        assertExcerpt("email" + Constants.NULL + "123.456.789", "CONTENT",
+                        "there is no greater divide in fandoms than that between star wars and star trek fans");
+    }
+
+    @Test
+    public void testNoMatchFoundForField() throws IOException {
+        givenOptions("BAD_FIELD", 1, 5);
+        initIterator();
+
+        iterator.seek(getDocumentRange("email" + Constants.NULL + "123.456.789"), Collections.emptyList(), false);
+
+        assertExcerpt("email" + Constants.NULL + "123.456.789", "BAD_FIELD", "YOUR EXCERPT WAS BLANK! Maybe bad field or size?");
+    }
+
+    @Test
+    public void testNoMatchFoundForDataTypeAndUid() throws IOException {
+        givenOptions("BODY", 1, 5);
+        initIterator();
+
+        iterator.seek(getDocumentRange("other" + Constants.NULL + "111.111.111"), Collections.emptyList(), false);
+
+        assertFalse(iterator.hasTop());
+    }
+
+    @Test
+    public void testMultipleDocuments() throws IOException {
+        givenOptions("BODY", 0, 3);
+        initIterator();
+
+        iterator.seek(new Range(row), Collections.emptyList(), false);
+
+        assertExcerpt("email" + Constants.NULL + "123.456.789", "BODY", "the quick brown");
+        iterator.next();
+        assertExcerpt("email" + Constants.NULL + "123.456.789.1", "BODY", "an attachment of");
+        iterator.next();
+        assertExcerpt("scan" + Constants.NULL + "987.654.321", "BODY", "YOUR EXCERPT WAS BLANK! Maybe bad field or size?");
+        iterator.next();
+        assertFalse(iterator.hasTop());
+    }
+}
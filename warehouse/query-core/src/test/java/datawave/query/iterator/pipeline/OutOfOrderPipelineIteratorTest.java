@@ -0,0 +1,341 @@
+package datawave.query.iterator.pipeline;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Predicate;
+import java.util.stream.Collectors;
+
+import org.apache.accumulo.core.data.ByteSequence;
+import org.apache.accumulo.core.data.Key;
+import org.apache.accumulo.core.data.Range;
+import org.apache.accumulo.core.data.Value;
+import org.apache.accumulo.core.iterators.SortedKeyValueIterator;
+import org.apache.accumulo.core.iterators.YieldCallback;
+import org.apache.accumulo.core.iteratorsImpl.system.SortedMapIterator;
+import org.junit.Test;
+
+import datawave.query.attributes.Document;
+import datawave.query.iterator.DocumentSpecificNestedIterator;
+import datawave.query.iterator.NestedIterator;
+import datawave.query.iterator.NestedQueryIterator;
+import datawave.query.iterator.QueryIterator;
+import datawave.query.iterator.profile.QuerySpanCollector;
+import datawave.query.iterator.waitwindow.WaitWindowObserver;
+
+public class OutOfOrderPipelineIteratorTest {
+
+    private static final String ROW = "20240101_0";
+
+    @Test
+    public void testResultsReturnedAsEvaluationsComplete() {
+        List<Key> keys = createKeys(4);
+        Key slowKey = keys.get(0);
+
+        // the first document only completes once the documents queued after it have been evaluated
+        CountDownLatch others = new CountDownLatch(3);
+        Predicate<Key> evaluation = key -> {
+            if (key.equals(slowKey)) {
+                await(others);
+                sleep(100);
+            } else {
+                others.countDown();
+            }
+            return true;
+        };
+
+        List<Key> results = drain(createIterator(keys, 4, evaluation, new TestWaitWindowObserver(), null));
+
+        assertEquals(4, results.size());
+        assertEquals(new HashSet<>(keys), new HashSet<>(results));
+        assertEquals(slowKey, results.get(3));
+    }
+
+    @Test
+    public void testDrainsAllEvaluationsAtEndOfRange() {
+        List<Key> keys = createKeys(20);
+
+        // every fifth document does not match, and the evaluations take varying times so that they complete out of order
+        Predicate<Key> evaluation = key -> {
+            int index = keys.indexOf(key);
+            sleep((index % 4) * 5L);
+            return index % 5 != 0;
+        };
+
+        OutOfOrderPipelineIterator iterator = createIterator(keys, 4, evaluation, new TestWaitWindowObserver(), null);
+        List<Key> results = drain(iterator);
+
+        Set<Key> expected = keys.stream().filter(key -> keys.indexOf(key) % 5 != 0).collect(Collectors.toSet());
+        assertEquals(expected.size(), results.size());
+        assertEquals(expected, new HashSet<>(results));
+
+        // nothing is left once the range is exhausted
+        assertFalse(iterator.hasNext());
+        assertFalse(iterator.hasNext());
+    }
+
+    @Test
+    public void testYieldResumesWithoutSkippingOrDuplicating() {
+        List<Key> keys = createKeys(50);
+        Key slowKey = keys.get(0);
+
+        // the wait window is overrun while the first document is still being evaluated and the documents after it have completed
+        TestWaitWindowObserver observer = new TestWaitWindowObserver();
+        YieldCallback<Key> yieldCallback = new YieldCallback<>();
+        CountDownLatch others = new CountDownLatch(3);
+        Predicate<Key> evaluation = key -> {
+            int index = keys.indexOf(key);
+            if (index == 0) {
+                await(others);
+            } else if (index <= 3) {
+                if (index == 3) {
+                    observer.overrun.set(true);
+                }
+                others.countDown();
+            }
+            return true;
+        };
+
+        List<Key> beforeYield = drain(createIterator(keys, 4, evaluation, observer, yieldCallback));
+        assertTrue(yieldCallback.hasYielded());
+        Key yieldKey = yieldCallback.getPositionAndReset();
+        assertNotNull(yieldKey);
+        assertTrue(beforeYield.contains(slowKey));
+
+        // re-seek after the yield key, as the tserver would when the scan resumes
+        List<Key> remaining = keys.stream().filter(key -> key.compareTo(yieldKey) > 0).collect(Collectors.toList());
+        List<Key> afterYield = drain(createIterator(remaining, 4, key -> true, new TestWaitWindowObserver(), null));
+
+        Set<Key> returned = new HashSet<>(beforeYield);
+        for (Key key : afterYield) {
+            assertTrue("returned again after the yield: " + key, returned.add(key));
+        }
+        assertEquals(beforeYield.size() + afterYield.size(), returned.size());
+        assertEquals(new HashSet<>(keys), returned);
+    }
+
+    @Test
+    public void testTeardownResumesWithoutSkippingOrDuplicating() {
+        List<Key> keys = createKeys(20);
+        Key slowKey = keys.get(2);
+        Thread scanThread = Thread.currentThread();
+        Predicate<Key> matches = key -> keys.indexOf(key) % 5 != 4;
+
+        // the third document is still being evaluated when the scan session is torn down, after documents on either side of it have been returned
+        CountDownLatch release = new CountDownLatch(1);
+        Predicate<Key> evaluation = key -> {
+            if (key.equals(slowKey) && Thread.currentThread() != scanThread) {
+                await(release);
+            }
+            return matches.test(key);
+        };
+
+        List<Key> beforeTeardown;
+        try {
+            beforeTeardown = take(createIterator(keys, 4, evaluation, new TestWaitWindowObserver(), null), 6);
+        } finally {
+            release.countDown();
+        }
+        assertEquals(6, beforeTeardown.size());
+
+        // re-seek after the last key returned, as the tserver would when the scan session is rebuilt
+        Key lastReturned = beforeTeardown.get(beforeTeardown.size() - 1);
+        assertTrue(OutOfOrderPipelineIterator.hasResumeMarker(lastReturned));
+        Range range = OutOfOrderPipelineIterator.getResumeRange(new Range(lastReturned, false, null, true));
+        List<Key> returnedAhead = OutOfOrderPipelineIterator.getReturnedAhead(lastReturned);
+        List<Key> remaining = keys.stream().filter(range::contains).collect(Collectors.toList());
+        List<Key> afterTeardown = drain(createIterator(remaining, 4, matches, new TestWaitWindowObserver(), null, range, returnedAhead));
+
+        Set<Key> returned = new HashSet<>();
+        for (Key key : documents(beforeTeardown)) {
+            assertTrue("returned twice: " + key, returned.add(key));
+        }
+        for (Key key : afterTeardown) {
+            assertTrue("returned again after the teardown: " + key, returned.add(key));
+        }
+        assertEquals(keys.stream().filter(matches).collect(Collectors.toSet()), returned);
+    }
+
+    private static List<Key> createKeys(int count) {
+        List<Key> keys = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            keys.add(new Key(ROW, String.format("datatype\u0000uid%03d", i)));
+        }
+        return keys;
+    }
+
+    private static OutOfOrderPipelineIterator createIterator(List<Key> keys, int maxPipelines, Predicate<Key> evaluation, WaitWindowObserver observer,
+                    YieldCallback<Key> yieldCallback) {
+        return createIterator(keys, maxPipelines, evaluation, observer, yieldCallback, new Range(ROW), Collections.emptyList());
+    }
+
+    private static OutOfOrderPipelineIterator createIterator(List<Key> keys, int maxPipelines, Predicate<Key> evaluation, WaitWindowObserver observer,
+                    YieldCallback<Key> yieldCallback, Range range, Collection<Key> returnedAhead) {
+        observer.setSeekRange(range);
+        observer.setYieldCallback(yieldCallback);
+        SortedKeyValueIterator<Key,Value> source = new SortedMapIterator(new TreeMap<>());
+        OutOfOrderPipelineIterator iterator = new OutOfOrderPipelineIterator(new KeyIterator(keys), maxPipelines, maxPipelines, new QuerySpanCollector(),
+                        null, new EvaluatingQueryIterator(evaluation), source, null, yieldCallback, Long.MAX_VALUE, observer, "testQueryId",
+                        Collections.emptyList(), false);
+        iterator.resumeFrom(range, returnedAhead);
+        iterator.startPipeline();
+        return iterator;
+    }
+
+    /**
+     * @return the documents returned, without the documents to resume from in the column qualifiers of the keys
+     */
+    private static List<Key> drain(OutOfOrderPipelineIterator iterator) {
+        return documents(take(iterator, Integer.MAX_VALUE));
+    }
+
+    private static List<Key> take(OutOfOrderPipelineIterator iterator, int max) {
+        List<Key> results = new ArrayList<>();
+        while (results.size() < max && iterator.hasNext()) {
+            results.add(iterator.next().getKey());
+        }
+        return results;
+    }
+
+    private static List<Key> documents(List<Key> keys) {
+        return keys.stream().map(key -> new Key(key.getRow(), key.getColumnFamily())).collect(Collectors.toList());
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            assertTrue(latch.await(30, TimeUnit.SECONDS));
+        } catch (InterruptedException e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    private static void sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    /**
+     * A wait window that is overrun on demand instead of after a period of time
+     */
+    private static class TestWaitWindowObserver extends WaitWindowObserver {
+        private final AtomicBoolean overrun = new AtomicBoolean(false);
+
+        @Override
+        public long remainingTimeMs() {
+            return overrun.get() ? 0 : Long.MAX_VALUE;
+        }
+
+        @Override
+        public boolean waitWindowOverrun() {
+            return overrun.get();
+        }
+    }
+
+    /**
+     * A query iterator whose document pipelines return the document when it matches the evaluation
+     */
+    private static class EvaluatingQueryIterator extends QueryIterator {
+        private final Predicate<Key> evaluation;
+
+        EvaluatingQueryIterator(Predicate<Key> evaluation) {
+            this.evaluation = evaluation;
+        }
+
+        @Override
+        public Iterator<Map.Entry<Key,Document>> createDocumentPipeline(SortedKeyValueIterator<Key,Value> deepSourceCopy,
+                        NestedQueryIterator<Key> documentSpecificSource, Collection<ByteSequence> columnFamilies, boolean inclusive,
+                        QuerySpanCollector querySpanCollector) {
+            DocumentSpecificNestedIterator source = (DocumentSpecificNestedIterator) documentSpecificSource;
+            return new Iterator<>() {
+                @Override
+                public boolean hasNext() {
+                    return evaluation.test(source.getDocumentKey().getKey());
+                }
+
+                @Override
+                public Map.Entry<Key,Document> next() {
+                    return source.getDocumentKey();
+                }
+            };
+        }
+    }
+
+    /**
+     * A document source over a list of keys
+     */
+    private static class KeyIterator implements NestedIterator<Key> {
+        private final Iterator<Key> keys;
+
+        KeyIterator(List<Key> keys) {
+            this.keys = keys.iterator();
+        }
+
+        @Override
+        public boolean hasNext() {
+            return keys.hasNext();
+        }
+
+        @Override
+        public Key next() {
+            return keys.next();
+        }
+
+        @Override
+        public void initialize() {}
+
+        @Override
+        public Key move(Key minimum) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public void seek(Range range, Collection<ByteSequence> columnFamilies, boolean inclusive) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public Collection<NestedIterator<Key>> leaves() {
+            return Collections.singletonList(this);
+        }
+
+        @Override
+        public Collection<NestedIterator<Key>> children() {
+            return Collections.emptyList();
+        }
+
+        @Override
+        public Document document() {
+            return new Document();
+        }
+
+        @Override
+        public boolean isContextRequired() {
+            return false;
+        }
+
+        @Override
+        public void setContext(Key context) {}
+
+        @Override
+        public boolean isNonEventField() {
+            return false;
+        }
+    }
+}
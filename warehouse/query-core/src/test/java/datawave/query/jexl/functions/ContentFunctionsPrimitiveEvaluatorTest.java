@@ -0,0 +1,17 @@
+package datawave.query.jexl.functions;
+
+import org.junit.Before;
+
+/**
+ * Runs the content function tests with the {@link ContentPrimitiveEvaluator}, which must find the same phrases and record the same phrase offsets as the
+ * ordered and unordered evaluators.
+ */
+public class ContentFunctionsPrimitiveEvaluatorTest extends ContentFunctionsTest {
+
+    @Override
+    @Before
+    public void setup() {
+        super.setup();
+        termOffSetMap.setUsePrimitiveEvaluator(true);
+    }
+}
@@ -46,7 +46,7 @@ public class ContentFunctionsTest {
     private static DatawaveJexlEngine engine;
 
     private JexlContext context;
-    private TermOffsetMap termOffSetMap;
+    protected TermOffsetMap termOffSetMap;
 
     private final String phraseFunction = ContentFunctions.CONTENT_PHRASE_FUNCTION_NAME;
     private final String scoredPhraseFunction = ContentFunctions.CONTENT_SCORED_PHRASE_FUNCTION_NAME;
@@ -0,0 +1,289 @@
+package datawave.query.jexl.functions;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+import java.util.TreeSet;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import datawave.ingest.protobuf.TermWeightPosition;
+import datawave.query.postprocessing.tf.PhraseOffset;
+import datawave.query.postprocessing.tf.TermOffsetMap;
+
+public class ContentPrimitiveEvaluatorTest {
+
+    private static final String EVENT_ID = "shard\u0000dt\u0000uid";
+    private static final String FIELD = "CONTENT";
+    private TermOffsetMap termOffsetMap;
+    private final List<List<TermWeightPosition>> offsets = new ArrayList<>();
+    private int distance;
+    private String[] terms;
+
+    @Before
+    public void setup() {
+        termOffsetMap = new TermOffsetMap();
+        termOffsetMap.setGatherPhraseOffsets(true);
+        termOffsetMap.setExcerptFields(Set.of(FIELD));
+    }
+
+    @After
+    public void teardown() {
+        offsets.clear();
+        terms = null;
+    }
+
+    @Test
+    public void testPhrase() {
+        givenDistance(1);
+        givenOffsets(1, 10, 20);
+        givenOffsets(21, 24, 30);
+        givenOffsets(3, 8, 12, 19, 22);
+        givenTerms("a", "b", "c");
+
+        assertEvaluate(true, true);
+        assertPhraseOffsetsContain(20, 22);
+    }
+
+    @Test
+    public void testPhraseOutOfOrder() {
+        givenDistance(2);
+        givenOffsets(3);
+        givenOffsets(2);
+        givenOffsets(1);
+        givenTerms("a", "b", "c");
+
+        assertEvaluate(true, false);
+        assertEvaluate(false, true);
+    }
+
+    @Test
+    public void testPhraseAfterPartialMatch() {
+        // a partial match at 10->11 precedes the full match at 19->20->21
+        givenDistance(1);
+        givenOffsets(10, 19);
+        givenOffsets(11, 20);
+        givenOffsets(3, 21, 100);
+        givenTerms("a", "b", "c");
+
+        assertEvaluate(true, true);
+        assertPhraseOffsetsContain(19, 21);
+    }
+
+    @Test
+    public void testPhraseRepeatedTerm() {
+        givenDistance(1);
+        givenOffsets(3, 7, 8);
+        givenOffsets(3, 7, 8);
+        givenTerms("a", "a");
+
+        assertEvaluate(true, true);
+        assertPhraseOffsetsContain(7, 8);
+
+        // a single position may not be used for both terms
+        offsets.clear();
+        givenOffsets(3, 7);
+        givenOffsets(3, 7);
+        assertEvaluate(true, false);
+    }
+
+    @Test
+    public void testPhraseZeroOffsetMatch() {
+        givenDistance(1);
+        givenOffsets(true, 5);
+        givenOffsets(true, 5);
+        givenTerms("a", "b");
+        assertEvaluate(true, true);
+
+        offsets.clear();
+        givenOffsets(false, 5);
+        givenOffsets(false, 5);
+        assertEvaluate(true, false);
+    }
+
+    @Test
+    public void testPhraseSkipWords() {
+        // "b" at 5 follows two skip words, so it may be as low as 3
+        givenDistance(1);
+        givenOffsets(2);
+        offsets.add(List.of(new TermWeightPosition.Builder().setOffset(5).setPrevSkips(2).build()));
+        givenTerms("a", "b");
+
+        assertEvaluate(true, true);
+        assertPhraseOffsetsContain(2, 5);
+    }
+
+    @Test
+    public void testScoredPhrase() {
+        givenDistance(1);
+        offsets.add(List.of(new TermWeightPosition.Builder().setOffset(1).setScore(5).build()));
+        offsets.add(List.of(new TermWeightPosition.Builder().setOffset(2).setScore(50).build()));
+        givenTerms("a", "b");
+
+        float maxScore = TermWeightPosition.termWeightScoreToPositionScore(10);
+        assertEquals(false, new ContentPrimitiveEvaluator(null, distance, maxScore, true, termOffsetMap, terms).evaluate(FIELD, EVENT_ID, offsets));
+        maxScore = TermWeightPosition.termWeightScoreToPositionScore(100);
+        assertEquals(true, new ContentPrimitiveEvaluator(null, distance, maxScore, true, termOffsetMap, terms).evaluate(FIELD, EVENT_ID, offsets));
+    }
+
+    @Test
+    public void testWithin() {
+        givenDistance(2);
+        givenOffsets(1, 10);
+        givenOffsets(4, 12);
+        givenOffsets(11);
+        givenTerms("a", "b", "c");
+
+        assertEvaluate(false, true);
+        assertPhraseOffsetsContain(10, 12);
+
+        givenDistance(1);
+        assertEvaluate(false, false);
+    }
+
+    @Test
+    public void testWithinRepeatedTerm() {
+        givenDistance(1);
+        givenOffsets(3, 8);
+        givenOffsets(3, 8);
+        givenTerms("a", "a");
+
+        assertEvaluate(false, false);
+
+        offsets.clear();
+        givenOffsets(3, 4);
+        givenOffsets(3, 4);
+        assertEvaluate(false, true);
+    }
+
+    /**
+     * The primitive evaluator must agree with the unordered and ordered evaluators, including the phrase offsets recorded.
+     */
+    @Test
+    public void testCrossCheck() {
+        Random random = new Random(42);
+        String[] vocabulary = {"a", "b", "c", "d"};
+        for (int i = 0; i < 5000; i++) {
+            offsets.clear();
+
+            int numTerms = 2 + random.nextInt(3);
+            terms = new String[numTerms];
+            boolean zeroOffsetMatch = random.nextBoolean();
+            for (int t = 0; t < numTerms; t++) {
+                terms[t] = vocabulary[t];
+                int[] termOffsets = new int[1 + random.nextInt(5)];
+                for (int o = 0; o < termOffsets.length; o++) {
+                    termOffsets[o] = random.nextInt(20);
+                }
+                givenOffsets(zeroOffsetMatch, termOffsets);
+            }
+
+            distance = random.nextInt(4);
+            assertSameAs(new ContentUnorderedEvaluator(null, distance, Float.NEGATIVE_INFINITY, newTermOffsetMap(), terms), false);
+            assertSameAs(new ContentOrderedEvaluator(null, 1, Float.NEGATIVE_INFINITY, newTermOffsetMap(), terms), true);
+        }
+    }
+
+    /**
+     * The ordered evaluation must also agree with the ordered evaluator when terms repeat and positions follow skip words.
+     */
+    @Test
+    public void testCrossCheckOrderedWithSkips() {
+        Random random = new Random(42);
+        String[] vocabulary = {"a", "b"};
+        for (int i = 0; i < 5000; i++) {
+            offsets.clear();
+
+            int numTerms = 1 + random.nextInt(4);
+            terms = new String[numTerms];
+            for (int t = 0; t < numTerms; t++) {
+                terms[t] = vocabulary[random.nextInt(vocabulary.length)];
+                List<TermWeightPosition> list = new ArrayList<>();
+                for (int o = random.nextInt(6); o > 0; o--) {
+                    TermWeightPosition.Builder builder = new TermWeightPosition.Builder().setOffset(random.nextInt(15))
+                                    .setZeroOffsetMatch(random.nextBoolean());
+                    if (random.nextInt(3) == 0) {
+                        builder.setPrevSkips(random.nextInt(3));
+                    }
+                    list.add(builder.build());
+                }
+                offsets.add(new ArrayList<>(new TreeSet<>(list)));
+            }
+
+            distance = random.nextInt(4);
+            assertSameAs(new ContentOrderedEvaluator(null, distance, Float.NEGATIVE_INFINITY, newTermOffsetMap(), terms), true);
+        }
+    }
+
+    // evaluate the offsets with the given evaluator and the primitive evaluator, and assert they match and record the same phrase offsets
+    private void assertSameAs(ContentFunctionEvaluator expected, boolean ordered) {
+        boolean expectedResult = expected.evaluate(FIELD, EVENT_ID, copyOffsets());
+        TermOffsetMap primitiveTermOffsetMap = newTermOffsetMap();
+        boolean result = new ContentPrimitiveEvaluator(null, expected.distance, Float.NEGATIVE_INFINITY, ordered, primitiveTermOffsetMap, terms)
+                        .evaluate(FIELD, EVENT_ID, copyOffsets());
+        assertEquals(describe(), expectedResult, result);
+        assertEquals(describe(), expected.termOffsetMap.getPhraseIndexes(FIELD), primitiveTermOffsetMap.getPhraseIndexes(FIELD));
+    }
+
+    private TermOffsetMap newTermOffsetMap() {
+        TermOffsetMap map = new TermOffsetMap();
+        map.setGatherPhraseOffsets(true);
+        map.setExcerptFields(Set.of(FIELD));
+        return map;
+    }
+
+    private void givenDistance(int distance) {
+        this.distance = distance;
+    }
+
+    private void givenOffsets(int... offsets) {
+        givenOffsets(true, offsets);
+    }
+
+    private void givenOffsets(boolean zeroOffsetMatch, int... offsets) {
+        List<TermWeightPosition> list = new ArrayList<>();
+        for (int offset : offsets) {
+            list.add(new TermWeightPosition.Builder().setOffset(offset).setZeroOffsetMatch(zeroOffsetMatch).build());
+        }
+        // offsets are handed to the evaluators from a sorted set
+        this.offsets.add(new ArrayList<>(new TreeSet<>(list)));
+    }
+
+    private void givenTerms(String... terms) {
+        this.terms = terms;
+    }
+
+    private List<List<TermWeightPosition>> copyOffsets() {
+        List<List<TermWeightPosition>> copy = new ArrayList<>();
+        for (List<TermWeightPosition> list : offsets) {
+            copy.add(new ArrayList<>(list));
+        }
+        return copy;
+    }
+
+    private boolean evaluate(boolean ordered) {
+        return new ContentPrimitiveEvaluator(null, distance, Float.NEGATIVE_INFINITY, ordered, termOffsetMap, terms).evaluate(FIELD, EVENT_ID, copyOffsets());
+    }
+
+    private void assertEvaluate(boolean ordered, boolean expected) {
+        assertEquals("Expected evaluate() to return " + expected, expected, evaluate(ordered));
+    }
+
+    private void assertPhraseOffsetsContain(int startOffset, int endOffset) {
+        Collection<PhraseOffset> phraseOffsets = termOffsetMap.getPhraseIndexes(FIELD);
+        boolean found = phraseOffsets.stream()
+                        .anyMatch(pair -> pair.getEventId().equals(EVENT_ID) && pair.getStartOffset() == startOffset && pair.getEndOffset() == endOffset);
+        assertTrue("Expected phrase offset [" + startOffset + ", " + endOffset + "]", found);
+    }
+
+    private String describe() {
+        return "terms " + String.join(",", terms) + " distance " + distance + " offsets " + offsets;
+    }
+}
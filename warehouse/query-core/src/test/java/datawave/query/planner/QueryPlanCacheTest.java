@@ -0,0 +1,115 @@
+package datawave.query.planner;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.Collections;
+import java.util.Date;
+
+import org.apache.accumulo.core.security.Authorizations;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import datawave.microservice.query.QueryImpl;
+import datawave.query.config.ShardQueryConfiguration;
+import datawave.query.jexl.JexlASTHelper;
+import datawave.query.jexl.visitors.JexlStringBuildingVisitor;
+
+class QueryPlanCacheTest {
+
+    private ShardQueryConfiguration config;
+    private QueryImpl settings;
+
+    @BeforeEach
+    void setUp() {
+        QueryPlanCache.advanceMetadataEpoch();
+        config = new ShardQueryConfiguration();
+        config.setAuthorizations(Collections.singleton(new Authorizations("A", "B")));
+        config.setBeginDate(new Date(1000L));
+        config.setEndDate(new Date(2000L));
+        settings = new QueryImpl();
+        settings.setQueryLogicName("EventQuery");
+        settings.addParameter("return.fields", "FOO");
+    }
+
+    @Test
+    void testKeyNormalizesQuery() {
+        assertEquals(QueryPlanCache.createKey(config, "FOO == 'bar'  &&   BAR == 'baz'", settings),
+                        QueryPlanCache.createKey(config, "FOO=='bar' && BAR=='baz'", settings));
+        assertNotEquals(QueryPlanCache.createKey(config, "FOO == 'a  b'", settings), QueryPlanCache.createKey(config, "FOO == 'a b'", settings));
+        assertNull(QueryPlanCache.createKey(config, "FOO == ", settings));
+    }
+
+    @Test
+    void testKeyIncludesQueryContext() {
+        QueryPlanCache.PlanKey key = QueryPlanCache.createKey(config, "FOO == 'bar'", settings);
+
+        config.setAuthorizations(Collections.singleton(new Authorizations("A")));
+        assertNotEquals(key, QueryPlanCache.createKey(config, "FOO == 'bar'", settings));
+        config.setAuthorizations(Collections.singleton(new Authorizations("A", "B")));
+
+        config.setEndDate(new Date(3000L));
+        assertNotEquals(key, QueryPlanCache.createKey(config, "FOO == 'bar'", settings));
+        config.setEndDate(new Date(2000L));
+
+        config.setDatatypeFilter(Collections.singleton("csv"));
+        assertNotEquals(key, QueryPlanCache.createKey(config, "FOO == 'bar'", settings));
+        config.setDatatypeFilter(Collections.emptySet());
+
+        settings.addParameter("unique.fields", "FOO");
+        assertNotEquals(key, QueryPlanCache.createKey(config, "FOO == 'bar'", settings));
+    }
+
+    @Test
+    void testPlanReuse() throws Exception {
+        QueryPlanCache.PlanKey key = QueryPlanCache.createKey(config, "FOO == 'bar'", settings);
+        assertNull(QueryPlanCache.get(key, 60000L));
+
+        // the planned configuration
+        config.setQueryTree(JexlASTHelper.parseJexlQuery("FOO == 'bar' || FOO == 'baz'"));
+        config.setBeginDate(new Date(1500L));
+        config.setIndexedFields(Collections.singleton("FOO"));
+        config.setQuery(settings);
+        QueryPlanCache.put(key, config, true);
+
+        // another run of the same query
+        QueryImpl otherSettings = new QueryImpl();
+        otherSettings.setQueryLogicName("EventQuery");
+        ShardQueryConfiguration other = new ShardQueryConfiguration();
+        other.setQuery(otherSettings);
+
+        QueryPlanCache.Plan plan = QueryPlanCache.get(key, 60000L);
+        assertNotNull(plan);
+        plan.applyTo(other);
+        assertEquals("FOO == 'bar' || FOO == 'baz'", JexlStringBuildingVisitor.buildQuery(other.getQueryTree()));
+        assertEquals(new Date(1500L), other.getBeginDate());
+        assertEquals(Collections.singleton("FOO"), other.getIndexedFields());
+        // the query keeps its own settings
+        assertSame(otherSettings, other.getQuery());
+        assertTrue(plan.isDisableBoundedLookup());
+
+        // expired plans are not used
+        assertNull(QueryPlanCache.get(key, -1L));
+        assertNull(QueryPlanCache.get(key, 60000L));
+    }
+
+    @Test
+    void testMetadataEpoch() throws Exception {
+        QueryPlanCache.PlanKey key = QueryPlanCache.createKey(config, "FOO == 'bar'", settings);
+        config.setQueryTree(JexlASTHelper.parseJexlQuery("FOO == 'bar'"));
+        QueryPlanCache.put(key, config, false);
+        assertNotNull(QueryPlanCache.get(key, 60000L));
+
+        QueryPlanCache.advanceMetadataEpoch();
+        assertNull(QueryPlanCache.get(key, 60000L));
+        assertNotEquals(key, QueryPlanCache.createKey(config, "FOO == 'bar'", settings));
+
+        // a plan started before the metadata changed is not cached
+        QueryPlanCache.put(key, config, false);
+        assertEquals(0, QueryPlanCache.size());
+    }
+}
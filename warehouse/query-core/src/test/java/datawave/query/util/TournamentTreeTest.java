@@ -0,0 +1,119 @@
+package datawave.query.util;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+
+class TournamentTreeTest {
+
+    @Test
+    void testEmpty() {
+        TournamentTree<Integer> tree = new TournamentTree<>(0, null);
+        tree.build();
+        assertTrue(tree.isEmpty());
+        assertEquals(-1, tree.winner());
+
+        tree = new TournamentTree<>(3, null);
+        tree.build();
+        assertTrue(tree.isEmpty());
+    }
+
+    @Test
+    void testSingleLeaf() {
+        TournamentTree<Integer> tree = new TournamentTree<>(1, null);
+        tree.update(0, 5);
+        assertFalse(tree.isEmpty());
+        assertEquals(0, tree.winner());
+        assertEquals(5, tree.peek());
+
+        tree.remove(0);
+        assertTrue(tree.isEmpty());
+        assertEquals(5, tree.get(0));
+    }
+
+    @Test
+    void testTiesGoToLowestLeaf() {
+        TournamentTree<String> tree = new TournamentTree<>(5, null);
+        tree.set(0, "c");
+        tree.set(1, "b");
+        tree.set(2, "a");
+        tree.set(3, "b");
+        tree.set(4, "a");
+        tree.build();
+
+        assertEquals(2, tree.winner());
+        tree.remove(2);
+        assertEquals(4, tree.winner());
+        tree.remove(4);
+        assertEquals(1, tree.winner());
+        tree.remove(1);
+        assertEquals(3, tree.winner());
+
+        // restore a leaf that was set aside
+        tree.update(1, tree.get(1));
+        assertEquals(1, tree.winner());
+    }
+
+    @Test
+    void testNullHeads() {
+        Comparator<Integer> nullsFirst = Comparator.nullsFirst(Comparator.naturalOrder());
+        TournamentTree<Integer> tree = new TournamentTree<>(3, nullsFirst);
+        tree.set(0, 1);
+        tree.set(1, null);
+        tree.set(2, 0);
+        tree.build();
+
+        assertEquals(1, tree.winner());
+        assertEquals(null, tree.peek());
+    }
+
+    @Test
+    void testMergeAgainstSort() {
+        Random random = new Random(8675309L);
+        for (int trial = 0; trial < 100; trial++) {
+            int numSources = 1 + random.nextInt(64);
+            List<List<Integer>> sources = new ArrayList<>();
+            List<Integer> expected = new ArrayList<>();
+            for (int i = 0; i < numSources; i++) {
+                List<Integer> source = new ArrayList<>();
+                int value = 0;
+                for (int j = random.nextInt(32); j > 0; j--) {
+                    value += random.nextInt(8);
+                    source.add(value);
+                }
+                sources.add(source);
+                expected.addAll(source);
+            }
+            expected.sort(null);
+
+            int[] positions = new int[numSources];
+            TournamentTree<Integer> tree = new TournamentTree<>(numSources, null);
+            for (int i = 0; i < numSources; i++) {
+                if (!sources.get(i).isEmpty()) {
+                    tree.set(i, sources.get(i).get(positions[i]++));
+                }
+            }
+            tree.build();
+
+            List<Integer> merged = new ArrayList<>();
+            while (!tree.isEmpty()) {
+                int leaf = tree.winner();
+                merged.add(tree.peek());
+                if (positions[leaf] < sources.get(leaf).size()) {
+                    tree.update(leaf, sources.get(leaf).get(positions[leaf]++));
+                } else {
+                    tree.remove(leaf);
+                }
+            }
+
+            assertEquals(expected, merged);
+        }
+    }
+}
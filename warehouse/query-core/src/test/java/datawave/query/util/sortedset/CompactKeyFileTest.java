@@ -0,0 +1,184 @@
+package datawave.query.util.sortedset;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.SortedSet;
+import java.util.TreeSet;
+
+import org.apache.accumulo.core.data.Key;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+public class CompactKeyFileTest {
+
+    private SortedSetTempFileHandler handler;
+    private TreeSet<Key> keys;
+
+    @Before
+    public void setUp() throws Exception {
+        handler = new SortedSetTempFileHandler();
+        keys = new TreeSet<>();
+        // field index style keys: a few rows with many uids each
+        for (int row = 0; row < 3; row++) {
+            for (int uid = 0; uid < 5000; uid++) {
+                keys.add(new Key("20240101_" + row, "fi\0FIELD", "value\0datatype\0uid." + uid, "A&B", 1000L + (uid % 7)));
+            }
+        }
+        keys.add(new Key("20240101_3", "fi\0FIELD", "value", "", Long.MAX_VALUE));
+        keys.add(new Key("20240101_3", "fi\0FIELD", "value", "", 0L));
+    }
+
+    @After
+    public void tearDown() {
+        handler.deleteFile();
+    }
+
+    private void write(SortedSet<Key> keys, int blockSize) throws IOException {
+        try (CompactKeyOutputStream out = new CompactKeyOutputStream(handler.getOutputStream(), blockSize)) {
+            for (Key key : keys) {
+                out.writeObject(key);
+            }
+            out.writeSize(keys.size());
+        }
+    }
+
+    private List<Key> read(InputStream inputStream, long length, Key start, Key end) throws IOException {
+        List<Key> read = new ArrayList<>();
+        try (CompactKeyInputStream in = new CompactKeyInputStream(inputStream, length, start, end)) {
+            Key key;
+            while ((key = in.readObject()) != null) {
+                read.add(key);
+            }
+        }
+        return read;
+    }
+
+    @Test
+    public void testRoundTrip() throws IOException {
+        write(keys, 4096);
+        assertEquals(new ArrayList<>(keys), read(handler.getInputStream(), handler.getSize(), null, null));
+        try (CompactKeyInputStream in = new CompactKeyInputStream(handler.getInputStream(), handler.getSize())) {
+            assertEquals(keys.size(), in.readSize());
+        }
+    }
+
+    @Test
+    public void testBounds() throws IOException {
+        write(keys, 4096);
+        List<Key> list = new ArrayList<>(keys);
+        Key start = list.get(7777);
+        Key end = list.get(9999);
+        assertEquals(list.subList(7777, 9999), read(handler.getInputStream(), handler.getSize(), start, end));
+        assertEquals(list.subList(0, 10), read(handler.getInputStream(), handler.getSize(), null, list.get(10)));
+        assertEquals(list.subList(list.size() - 2, list.size()), read(handler.getInputStream(), handler.getSize(), list.get(list.size() - 2), null));
+    }
+
+    @Test
+    public void testSequentialStream() throws IOException {
+        write(keys, 4096);
+        List<Key> list = new ArrayList<>(keys);
+        byte[] bytes;
+        try (InputStream in = handler.getInputStream()) {
+            bytes = in.readAllBytes();
+        }
+        // without a seekable stream the reader has to skip to the start key and to the footer
+        assertEquals(list.subList(100, 200), read(new ByteArrayInputStream(bytes), bytes.length, list.get(100), list.get(200)));
+        try (CompactKeyInputStream in = new CompactKeyInputStream(new ByteArrayInputStream(bytes), bytes.length)) {
+            assertEquals(keys.size(), in.readSize());
+        }
+    }
+
+    @Test(expected = IOException.class)
+    public void testCorruptBlock() throws IOException {
+        write(keys, 4096);
+        byte[] bytes;
+        try (InputStream in = handler.getInputStream()) {
+            bytes = in.readAllBytes();
+        }
+        bytes[CompactKeyOutputStream.HEADER_LENGTH + 20] ^= 0x55;
+        read(new ByteArrayInputStream(bytes), bytes.length, null, null);
+    }
+
+    @Test
+    public void testFileKeySortedSet() throws Exception {
+        FileSortedSet.SortedSetFileHandler compactHandler = new FileSortedSet.SortedSetFileHandler() {
+            @Override
+            public InputStream getInputStream() throws IOException {
+                return handler.getInputStream();
+            }
+
+            @Override
+            public OutputStream getOutputStream() throws IOException {
+                return handler.getOutputStream();
+            }
+
+            @Override
+            public FileSortedSet.PersistOptions getPersistOptions() {
+                return new FileSortedSet.PersistOptions(true, true, 100, FileSortedSet.PersistOptions.KeyFormat.COMPACT);
+            }
+
+            @Override
+            public long getSize() {
+                return handler.getSize();
+            }
+
+            @Override
+            public void deleteFile() {
+                handler.deleteFile();
+            }
+        };
+
+        FileKeySortedSet set = new FileKeySortedSet(keys, compactHandler, true);
+        assertTrue(set.isPersisted());
+        assertTrue(CompactKeyInputStream.isCompactKeyFile(handler.getInputStream()));
+        assertEquals(keys.size(), set.size());
+        assertEquals(keys.first(), set.first());
+        assertEquals(keys.last(), set.last());
+
+        List<Key> list = new ArrayList<>(keys);
+        assertEquals(new TreeSet<>(list.subList(5000, 6000)), new TreeSet<>(set.subSet(list.get(5000), list.get(6000))));
+
+        set.load();
+        assertFalse(set.isPersisted());
+        assertEquals(keys, new TreeSet<>(set));
+    }
+
+    @Test
+    public void testLz4() throws IOException {
+        Random random = new Random(42);
+        for (int length : new int[] {0, 1, 12, 13, 100, 70000}) {
+            byte[] raw = new byte[length];
+            for (int i = 0; i < length; i++) {
+                // runs of repeated and random bytes
+                raw[i] = (byte) ((i / 50) % 2 == 0 ? i % 5 : random.nextInt());
+            }
+            byte[] compressed = new byte[Lz4Block.maxCompressedLength(length)];
+            int compressedLength = Lz4Block.compress(raw, length, compressed);
+            byte[] decompressed = new byte[length];
+            Lz4Block.decompress(compressed, compressedLength, decompressed, length);
+            assertArrayEquals(raw, decompressed);
+        }
+    }
+
+    @Test
+    public void testEmpty() throws IOException {
+        write(new TreeSet<>(), 4096);
+        assertEquals(List.of(), read(handler.getInputStream(), handler.getSize(), null, null));
+        try (CompactKeyInputStream in = new CompactKeyInputStream(handler.getInputStream(), handler.getSize())) {
+            assertEquals(0, in.readSize());
+            assertNull(in.readObject());
+        }
+    }
+}
@@ -6,6 +6,7 @@ import java.util.Arrays;
 import java.util.Collections;
 import java.util.List;
 
+import org.apache.accumulo.core.data.Key;
 import org.apache.hadoop.conf.Configuration;
 import org.apache.hadoop.fs.FileStatus;
 import org.apache.hadoop.fs.FsStatus;
@@ -197,4 +198,59 @@ public class HdfsBackedSortedSetTest {
         compactedSortedSet.iterator().forEachRemaining(results::remove);
         Assert.assertTrue(results.isEmpty());
     }
+
+    @Test
+    public void memoryMappedPersistReloadTest() throws Exception {
+        File tempDir = temporaryFolder.newFolder();
+
+        File fullDir = new File(tempDir, "full");
+        Assert.assertTrue(fullDir.mkdirs());
+
+        File localDir = new File(tempDir, "local");
+        Assert.assertTrue(localDir.mkdirs());
+
+        LocalFileSystem fs = new LocalFileSystem();
+        fs.initialize(tempDir.toURI(), new Configuration());
+
+        // require more space than the disk has left so that the first local dir is skipped
+        long minRemainingMB = (localDir.getUsableSpace() / 0x100000L) + 4096L;
+        IvaratorCacheDirConfig fullConfig = new IvaratorCacheDirConfig(fullDir.toURI().toString(), 0, minRemainingMB);
+        fullConfig.setMemoryMapped(true);
+        IvaratorCacheDirConfig localConfig = new IvaratorCacheDirConfig(localDir.toURI().toString(), 1);
+        localConfig.setMemoryMapped(true);
+
+        List<IvaratorCacheDir> ivaratorCacheDirs = new ArrayList<>();
+        ivaratorCacheDirs.add(new IvaratorCacheDir(fullConfig, fs, fullDir.toURI().toString()));
+        ivaratorCacheDirs.add(new IvaratorCacheDir(localConfig, fs, localDir.toURI().toString()));
+
+        String uniquePath = "blah";
+        List<Key> keys = new ArrayList<>();
+        for (int i = 0; i < 1000; i++) {
+            keys.add(new Key("row", "fi\0FIELD", String.format("value\0datatype\0uid.%04d", i)));
+        }
+
+        for (FileSortedSet.PersistOptions.KeyFormat keyFormat : FileSortedSet.PersistOptions.KeyFormat.values()) {
+            String subPath = uniquePath + keyFormat;
+            FileSortedSet.PersistOptions persistOptions = new FileSortedSet.PersistOptions(true, true, 100, keyFormat);
+            HdfsBackedSortedSet<Key> sortedSet = new HdfsBackedSortedSet<>(ivaratorCacheDirs, subPath, 9999, 2, persistOptions, new FileKeySortedSet.Factory());
+            sortedSet.addAll(keys);
+            sortedSet.persist();
+
+            // the file was written directly to the local dir, without a hadoop checksum file
+            Assert.assertFalse(new File(fullDir, subPath).exists());
+            File[] files = new File(localDir, subPath).listFiles();
+            Assert.assertNotNull(files);
+            Assert.assertEquals(1, files.length);
+            Assert.assertTrue(files[0].getName().startsWith("SortedSet"));
+
+            // reload the files as would be done after a yield
+            HdfsBackedSortedSet<Key> reloadedSortedSet = new HdfsBackedSortedSet<>(ivaratorCacheDirs, subPath, 9999, 2, persistOptions,
+                            new FileKeySortedSet.Factory());
+            Assert.assertEquals(keys.size(), reloadedSortedSet.size());
+            Assert.assertEquals(keys, new ArrayList<>(reloadedSortedSet));
+            Assert.assertEquals(keys.subList(100, 200), new ArrayList<>(reloadedSortedSet.subSet(keys.get(100), keys.get(200))));
+
+            reloadedSortedSet.clear();
+        }
+    }
 }
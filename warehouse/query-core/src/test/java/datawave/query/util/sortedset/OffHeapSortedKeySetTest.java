@@ -0,0 +1,146 @@
+package datawave.query.util.sortedset;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Random;
+import java.util.SortedSet;
+import java.util.TreeSet;
+
+import org.apache.accumulo.core.data.Key;
+import org.junit.Test;
+
+public class OffHeapSortedKeySetTest {
+
+    private static Key randomKey(Random random) {
+        byte[] cq = new byte[random.nextInt(4)];
+        random.nextBytes(cq);
+        Key key = new Key(("row" + random.nextInt(5)).getBytes(), "fi\0FIELD".getBytes(), cq, "A&B".getBytes(), random.nextInt(3));
+        key.setDeleted(random.nextBoolean());
+        return key;
+    }
+
+    @Test
+    public void testAgainstTreeSet() {
+        OffHeapArena arena = new OffHeapArena(4L * OffHeapArena.SLAB_SIZE);
+        Random random = new Random(42);
+        for (int iteration = 0; iteration < 20; iteration++) {
+            TreeSet<Key> expected = new TreeSet<>();
+            OffHeapSortedKeySet set = new OffHeapSortedKeySet(arena);
+            for (int i = 0; i < 10000; i++) {
+                Key key = randomKey(random);
+                int op = random.nextInt(10);
+                if (op < 7) {
+                    assertEquals(expected.add(key), set.add(key));
+                } else if (op < 9) {
+                    assertEquals(expected.remove(key), set.remove(key));
+                } else {
+                    assertEquals(expected.contains(key), set.contains(key));
+                }
+                assertEquals(expected.size(), set.size());
+            }
+            assertEquals(new ArrayList<>(expected), new ArrayList<>(set));
+            assertEquals(expected.first(), set.first());
+            assertEquals(expected.last(), set.last());
+
+            Key from = randomKey(random);
+            Key to = randomKey(random);
+            if (from.compareTo(to) > 0) {
+                Key swap = from;
+                from = to;
+                to = swap;
+            }
+            assertEquals(new ArrayList<>(expected.subSet(from, to)), new ArrayList<>(set.subSet(from, to)));
+            assertEquals(expected.subSet(from, to).size(), set.subSet(from, to).size());
+            assertEquals(new ArrayList<>(expected.headSet(to)), new ArrayList<>(set.headSet(to)));
+            assertEquals(new ArrayList<>(expected.tailSet(from)), new ArrayList<>(set.tailSet(from)));
+
+            Iterator<Key> expectedIterator = expected.iterator();
+            Iterator<Key> iterator = set.iterator();
+            while (iterator.hasNext()) {
+                assertEquals(expectedIterator.next(), iterator.next());
+                if (random.nextBoolean()) {
+                    expectedIterator.remove();
+                    iterator.remove();
+                }
+            }
+            assertEquals(new ArrayList<>(expected), new ArrayList<>(set));
+
+            set.clear();
+            assertTrue(set.isEmpty());
+            assertEquals(0, arena.getInUse());
+        }
+    }
+
+    @Test
+    public void testSortedAppend() {
+        OffHeapArena arena = new OffHeapArena(4L * OffHeapArena.SLAB_SIZE);
+        OffHeapSortedKeySet set = new OffHeapSortedKeySet(arena);
+        List<Key> keys = new ArrayList<>();
+        for (int i = 0; i < 50000; i++) {
+            keys.add(new Key("20240101_0", "fi\0FIELD", String.format("value\0datatype\0uid.%08d", i)));
+        }
+        for (Key key : keys) {
+            assertTrue(set.add(key));
+        }
+        assertFalse(set.add(keys.get(100)));
+        assertEquals(keys, new ArrayList<>(set));
+        assertTrue(set.getOffHeapBytes() > 0);
+        assertEquals(set.getOffHeapBytes(), arena.getInUse());
+    }
+
+    @Test
+    public void testBudget() {
+        // with no budget the set falls back to heap slabs
+        OffHeapArena arena = new OffHeapArena(0);
+        OffHeapSortedKeySet set = new OffHeapSortedKeySet(arena);
+        Random random = new Random(7);
+        SortedSet<Key> expected = new TreeSet<>();
+        for (int i = 0; i < 1000; i++) {
+            Key key = randomKey(random);
+            assertEquals(expected.add(key), set.add(key));
+        }
+        assertEquals(new ArrayList<>(expected), new ArrayList<>(set));
+        assertEquals(0, set.getOffHeapBytes());
+
+        // lowering the budget lets the released slabs go
+        arena.setBudget(OffHeapArena.SLAB_SIZE);
+        OffHeapSortedKeySet other = new OffHeapSortedKeySet(arena);
+        other.addAll(expected);
+        assertEquals(OffHeapArena.SLAB_SIZE, arena.getInUse());
+        arena.setBudget(0);
+        other.clear();
+        assertEquals(0, arena.getInUse());
+        assertEquals(0, arena.getBudget());
+    }
+
+    @Test
+    public void testFileKeySortedSetFactory() throws Exception {
+        FileKeySortedSet set = new FileKeySortedSet.Factory(true).newInstance((Comparator<Key>) null, null, false);
+        assertTrue(set.set instanceof OffHeapSortedKeySet);
+        set = new FileKeySortedSet.Factory().newInstance((Comparator<Key>) null, null, false);
+        assertFalse(set.set instanceof OffHeapSortedKeySet);
+
+        SortedSetTempFileHandler handler = new SortedSetTempFileHandler();
+        try {
+            set = new FileKeySortedSet.Factory(true).newInstance((Comparator<Key>) null, null, false);
+            Random random = new Random(11);
+            SortedSet<Key> expected = new TreeSet<>();
+            for (int i = 0; i < 1000; i++) {
+                Key key = randomKey(random);
+                assertEquals(expected.add(key), set.add(key));
+            }
+            set.persist(handler);
+            assertTrue(set.isPersisted());
+            assertEquals(0, ((OffHeapSortedKeySet) set.set).getOffHeapBytes());
+            assertEquals(new ArrayList<>(expected), new ArrayList<>(set));
+        } finally {
+            handler.deleteFile();
+        }
+    }
+}
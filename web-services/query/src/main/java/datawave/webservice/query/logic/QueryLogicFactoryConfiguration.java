@@ -10,6 +10,7 @@ public class QueryLogicFactoryConfiguration {
     private Map<String,String> logicMap = null;
     private int maxPageSize = 0;
     private long pageByteTrigger = 0;
+    private int resultPrefetchSize = 1;
 
     public Map<String,String> getLogicMap() {
         return logicMap;
@@ -39,4 +40,12 @@ public class QueryLogicFactoryConfiguration {
         this.pageByteTrigger = pageByteTrigger;
     }
 
+    public int getResultPrefetchSize() {
+        return resultPrefetchSize;
+    }
+
+    public void setResultPrefetchSize(int resultPrefetchSize) {
+        this.resultPrefetchSize = resultPrefetchSize;
+    }
+
 }
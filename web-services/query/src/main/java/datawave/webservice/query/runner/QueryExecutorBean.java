@@ -152,6 +152,7 @@ import datawave.webservice.query.exception.PreConditionFailedQueryException;
 import datawave.webservice.query.exception.QueryException;
 import datawave.webservice.query.exception.UnauthorizedQueryException;
 import datawave.webservice.query.factory.Persister;
+import datawave.webservice.query.logic.QueryLogicFactoryConfiguration;
 import datawave.webservice.query.metric.QueryMetricsBean;
 import datawave.webservice.query.result.event.ResponseObjectFactory;
 import datawave.webservice.query.result.logic.QueryLogicDescription;
@@ -223,6 +224,10 @@ public class QueryExecutorBean implements QueryExecutor {
     @SpringBean(refreshable = true)
     private QueryExpirationProperties queryExpirationConf;
 
+    @Inject
+    @SpringBean(refreshable = true)
+    private QueryLogicFactoryConfiguration queryLogicFactoryConfiguration;
+
     @Inject
     private Persister persister;
 
@@ -420,6 +425,10 @@ public class QueryExecutorBean implements QueryExecutor {
         throwBadRequest(DatawaveErrorCode.INVALID_PAGE_SIZE, response);
     }
 
+    private int getResultPrefetchSize() {
+        return (queryLogicFactoryConfiguration != null) ? queryLogicFactoryConfiguration.getResultPrefetchSize() : 1;
+    }
+
     /**
      * Setup the caller data in the QueryData object
      *
@@ -662,6 +671,7 @@ public class QueryExecutorBean implements QueryExecutor {
 
             rq = new RunningQuery(metrics, null, priority, qd.logic, q, qp.getAuths(), qd.p,
                             new RunningQueryTimingImpl(queryExpirationConf, qp.getPageTimeout()), this.predictor, this.userOperationsBean, this.metricFactory);
+            rq.setResultPrefetchSize(getResultPrefetchSize());
             rq.setActiveCall(true);
             rq.getMetric().setProxyServers(qd.proxyServers);
             queryCache.put(q.getId().toString(), rq);
@@ -780,6 +790,7 @@ public class QueryExecutorBean implements QueryExecutor {
             qlCache.add(q.getId().toString(), qd.userid, qd.logic, client);
             rq = new RunningQuery(metrics, null, priority, qd.logic, q, qp.getAuths(), qd.p,
                             new RunningQueryTimingImpl(queryExpirationConf, qp.getPageTimeout()), this.predictor, this.userOperationsBean, this.metricFactory);
+            rq.setResultPrefetchSize(getResultPrefetchSize());
             rq.setActiveCall(true);
             rq.getMetric().setProxyServers(qd.proxyServers);
             rq.setClient(client);
@@ -1137,6 +1148,7 @@ public class QueryExecutorBean implements QueryExecutor {
             AccumuloConnectionFactory.Priority priority = logic.getConnectionPriority();
             RunningQuery query = new RunningQuery(metrics, null, priority, logic, q, q.getQueryAuthorizations(), p,
                             new RunningQueryTimingImpl(queryExpirationConf, qp.getPageTimeout()), this.predictor, this.userOperationsBean, this.metricFactory);
+            query.setResultPrefetchSize(getResultPrefetchSize());
             results.add(query);
             // Put in the cache by id if its not already in the cache.
             if (!queryCache.containsKey(q.getId().toString()))
@@ -1175,6 +1187,7 @@ public class QueryExecutorBean implements QueryExecutor {
                 query = new RunningQuery(metrics, null, priority, logic, q, q.getQueryAuthorizations(), principal,
                                 new RunningQueryTimingImpl(queryExpirationConf, qp.getPageTimeout()), this.predictor, this.userOperationsBean,
                                 this.metricFactory);
+                query.setResultPrefetchSize(getResultPrefetchSize());
                 // Put in the cache by id and name, we will have two copies that reference the same object
                 queryCache.put(q.getId().toString(), query);
             }
@@ -1210,6 +1223,7 @@ public class QueryExecutorBean implements QueryExecutor {
             final AccumuloConnectionFactory.Priority priority = logic.getConnectionPriority();
             query = RunningQuery.createQueryWithAuthorizations(metrics, null, priority, logic, q, auths,
                             new RunningQueryTimingImpl(queryExpirationConf, qp.getPageTimeout()), this.predictor, this.metricFactory);
+            query.setResultPrefetchSize(getResultPrefetchSize());
 
             // Put in the cache by id and name, we will have two copies that reference the same object
             queryCache.put(q.getId().toString(), query);
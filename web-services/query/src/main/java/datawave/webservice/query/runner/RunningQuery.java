@@ -11,6 +11,7 @@ import java.util.concurrent.BlockingQueue;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
 import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
 import java.util.concurrent.TimeoutException;
 import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.concurrent.atomic.AtomicInteger;
@@ -74,14 +75,20 @@ public class RunningQuery extends AbstractRunningQuery implements Runnable {
     private transient RunningQueryTiming timing = null;
     private ExecutorService executor = null;
     private volatile Future<Object> future = null;
-    private final BlockingQueue<Object> resultsThreadQueue = new ArrayBlockingQueue<>(1);
+    private volatile BlockingQueue<Object> resultsThreadQueue = new ArrayBlockingQueue<>(1);
     private final AtomicInteger hasNext = new AtomicInteger(0);
     private final AtomicInteger gotNext = new AtomicInteger(0);
     private final AtomicBoolean running = new AtomicBoolean(false);
+    // incremented when the results thread is stopped so that a thread which has not yet noticed cannot touch the state of its replacement
+    private final AtomicInteger resultsThreadGeneration = new AtomicInteger(0);
     private QueryPredictor predictor = null;
     private long maxResults = 0;
     private int currentTimeoutcount = 0;
     private boolean allowShortCircuitTimeouts = false;
+    private int resultPrefetchSize = 1;
+
+    // how often a results thread blocked on a full queue checks whether it should stop
+    private static final long RESULTS_THREAD_OFFER_MS = 100;
 
     public RunningQuery() {
         super(new QueryMetricFactoryImpl());
@@ -236,73 +243,180 @@ public class RunningQuery extends AbstractRunningQuery implements Runnable {
     }
 
     /**
-     * This is the results thread which will pull results from the iterator and add them to a blocking queue. The blocking queue will be of size 1 which means
-     * that the main RunningQuery.next() loop will have to pull the results before the next one can be retrieved. The hasNext and gotNext counters keep track of
-     * the calls to hasNext and next on the underlying iterator. They will be decremented once a result is acknowledged in the RunningQuery.next() loop. The
-     * running boolean will allow the graceful termination of this thread.
+     * This is the results thread which will pull results from the iterator and add them to a blocking queue. The blocking queue holds up to the result prefetch
+     * size, which means that the main RunningQuery.next() loop will have to pull results before more can be retrieved. With the default size of 1 the results
+     * thread stays one result ahead of the client, while a larger size lets the next page fill while the client is still consuming the current one. The
+     * hasNext and gotNext counters keep track of the calls to hasNext and next on the underlying iterator. They will be decremented once a result is
+     * acknowledged in the RunningQuery.next() loop. The running boolean will allow the graceful termination of this thread.
+     *
+     * A stopped results thread may still be blocked in the iterator after the query has been closed and restarted. The generation it was started with keeps it
+     * from counting results for, queuing results to, or stopping the thread which replaced it.
      *
+     * @param generation
+     *            the results thread generation this thread was started with
+     * @param iterator
+     *            the iterator to pull results from
+     * @param queue
+     *            the queue to add results to
      * @return running (with a value of false)
      */
-    private Object getResultsThread() {
+    private Object getResultsThread(int generation, TransformIterator iterator, BlockingQueue<Object> queue) {
         try {
-            while (running.get() && !this.finished && !this.canceled && this.iter.hasNext()) {
-                synchronized (hasNext) {
-                    hasNext.incrementAndGet();
-                    hasNext.notifyAll();
+            while (isCurrentResultsThread(generation) && !this.finished && !this.canceled && iterator.hasNext()) {
+                if (!incrementCounter(hasNext, generation)) {
+                    break;
                 }
-                // wait until the queue is emptied
-                while (running.get() && !this.finished && !this.canceled && !resultsThreadQueue.isEmpty()) {
-                    try {
-                        Thread.sleep(1);
-                    } catch (InterruptedException e) {
-                        Thread.currentThread().interrupt();
-                        throw new RuntimeException(e);
-                    }
+                Object o = iterator.next();
+
+                // regardless whether the transform iterator returned a result, it may have updated the metrics (next/seek calls etc.)
+                if (iterator.getTransformer() instanceof WritesQueryMetrics) {
+                    ((WritesQueryMetrics) iterator.getTransformer()).writeQueryMetrics(this.getMetric());
                 }
-                // if the queue is available and we are still running, then get the next result
-                if (running.get() && !this.finished && !this.canceled && resultsThreadQueue.isEmpty()) {
-                    Object o = this.iter.next();
-                    if (o != null) {
-                        resultsThreadQueue.offer(o);
-                        synchronized (gotNext) {
-                            gotNext.incrementAndGet();
-                            gotNext.notifyAll();
-                        }
-                    }
 
-                    // regardless whether the transform iterator returned a result, it may have updated the metrics (next/seek calls etc.)
-                    if (iter.getTransformer() instanceof WritesQueryMetrics) {
-                        ((WritesQueryMetrics) iter.getTransformer()).writeQueryMetrics(this.getMetric());
-                    }
+                // block while the queue is full so that we never read further ahead of the client than the prefetch size
+                if (o != null && offerResult(o, generation, queue)) {
+                    incrementCounter(gotNext, generation);
                 }
             }
         } catch (Exception e) {
             if (e instanceof InterruptedException) {
                 Thread.currentThread().interrupt();
             }
-            if (settings.getUncaughtExceptionHandler() != null) {
+            if (!isCurrentResultsThread(generation)) {
+                log.debug("Stopped results thread failed", e);
+            } else if (settings.getUncaughtExceptionHandler() != null) {
                 settings.getUncaughtExceptionHandler().uncaughtException(Thread.currentThread(), e);
             } else {
-                running.set(false);
-                synchronized (hasNext) {
-                    hasNext.notifyAll();
-                }
-                synchronized (gotNext) {
-                    gotNext.notifyAll();
-                }
+                stopRunning(generation);
                 throw new RuntimeException(e);
             }
         }
 
-        running.set(false);
+        stopRunning(generation);
+
+        return running;
+    }
+
+    /**
+     * Whether the results thread started with the given generation is still the current one
+     *
+     * @param generation
+     *            the results thread generation
+     * @return true if the thread has not been stopped
+     */
+    private boolean isCurrentResultsThread(int generation) {
+        return running.get() && resultsThreadGeneration.get() == generation;
+    }
+
+    /**
+     * Increment the hasNext or gotNext counter and wake up the RunningQuery.next() loop, unless the results thread has been stopped
+     *
+     * @param counter
+     *            the hasNext or gotNext counter
+     * @param generation
+     *            the results thread generation
+     * @return false if the results thread has been stopped
+     */
+    private boolean incrementCounter(AtomicInteger counter, int generation) {
+        // the counters are reset under the same lock after the generation changes
+        synchronized (counter) {
+            if (resultsThreadGeneration.get() != generation) {
+                return false;
+            }
+            counter.incrementAndGet();
+            counter.notifyAll();
+            return true;
+        }
+    }
+
+    /**
+     * Mark the results thread as no longer running and wake up the RunningQuery.next() loop, unless the results thread has already been replaced
+     *
+     * @param generation
+     *            the results thread generation
+     */
+    private void stopRunning(int generation) {
+        synchronized (resultsThreadGeneration) {
+            if (resultsThreadGeneration.get() == generation) {
+                running.set(false);
+            }
+        }
         synchronized (hasNext) {
             hasNext.notifyAll();
         }
         synchronized (gotNext) {
             gotNext.notifyAll();
         }
+    }
 
-        return running;
+    /**
+     * Put a result on the results thread queue, waiting for room as long as the query is still running
+     *
+     * @param o
+     *            the result
+     * @param generation
+     *            the results thread generation
+     * @param queue
+     *            the queue the results thread was started with
+     * @return true if the result was queued
+     * @throws InterruptedException
+     *             if interrupted while waiting
+     */
+    private boolean offerResult(Object o, int generation, BlockingQueue<Object> queue) throws InterruptedException {
+        while (!queue.offer(o, RESULTS_THREAD_OFFER_MS, TimeUnit.MILLISECONDS)) {
+            if (!isCurrentResultsThread(generation) || this.finished || this.canceled) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Whether results are pulled by the results thread rather than by the RunningQuery.next() loop itself
+     *
+     * @return true if the results thread is used
+     */
+    private boolean useResultsThread() {
+        return this.allowShortCircuitTimeouts || this.resultPrefetchSize > 1;
+    }
+
+    /**
+     * Get the time at which a wait on the results thread will time out. Only long running queries short circuit, otherwise we wait for the results thread.
+     *
+     * @param pageStartTime
+     *            the page start time
+     * @return the deadline
+     */
+    private long getResultsThreadDeadline(long pageStartTime) {
+        return (this.allowShortCircuitTimeouts && timing != null) ? pageStartTime + timing.getPageShortCircuitTimeoutMs() : Long.MAX_VALUE;
+    }
+
+    /**
+     * Wait for the results thread to move the counter off of zero
+     *
+     * @param counter
+     *            the hasNext or gotNext counter
+     * @param pageStartTime
+     *            the page start time
+     * @return false if interrupted
+     * @throws TimeoutException
+     *             if the page short circuit timeout was reached
+     */
+    private boolean awaitResultsThread(AtomicInteger counter, long pageStartTime) throws TimeoutException {
+        long deadline = getResultsThreadDeadline(pageStartTime);
+        while (counter.get() == 0 && running.get() && !this.finished && !this.canceled) {
+            long timeout = deadline - System.currentTimeMillis();
+            if (timeout <= 0) {
+                throw new TimeoutException((counter == hasNext ? "hasNext" : "gotNext") + " timed out");
+            }
+            try {
+                counter.wait(timeout);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return false;
+            }
+        }
+        return true;
     }
 
     /**
@@ -315,21 +429,11 @@ public class RunningQuery extends AbstractRunningQuery implements Runnable {
      *             if there is a timeout
      */
     private boolean hasNext(long pageStartTime) throws TimeoutException {
-        if (allowShortCircuitTimeouts) {
+        if (useResultsThread()) {
             synchronized (hasNext) {
-                if (hasNext.get() == 0 && running.get() && !this.finished && !this.canceled) {
-                    long timeout = (timing != null ? Math.max(1, (timing.getPageShortCircuitTimeoutMs() - (System.currentTimeMillis() - pageStartTime)))
-                                    : Long.MAX_VALUE);
-                    try {
-                        hasNext.wait(timeout);
-                    } catch (InterruptedException e) {
-                        Thread.currentThread().interrupt();
-                        // if we got interrupted, then just return false
-                        return false;
-                    }
-                    if (running.get() && (hasNext.get() == 0)) {
-                        throw new TimeoutException("hasNext timed out");
-                    }
+                if (!awaitResultsThread(hasNext, pageStartTime)) {
+                    // if we got interrupted, then just return false
+                    return false;
                 }
                 if (hasNext.get() == 0) {
                     log.debug("hasNext returned false.  No more results");
@@ -359,21 +463,11 @@ public class RunningQuery extends AbstractRunningQuery implements Runnable {
      *             if there is a timeout
      */
     private Object getNext(long pageStartTime) throws TimeoutException {
-        if (allowShortCircuitTimeouts) {
+        if (useResultsThread()) {
             synchronized (gotNext) {
-                if (gotNext.get() == 0 && running.get() && !this.finished && !this.canceled) {
-                    long timeout = (timing != null ? Math.max(1, (timing.getPageShortCircuitTimeoutMs() - (System.currentTimeMillis() - pageStartTime)))
-                                    : Long.MAX_VALUE);
-                    try {
-                        gotNext.wait(timeout);
-                    } catch (InterruptedException e) {
-                        Thread.currentThread().interrupt();
-                        // if we got interrupted, then just return null
-                        return null;
-                    }
-                    if (running.get() && (gotNext.get() == 0)) {
-                        throw new TimeoutException("gotNext timed out");
-                    }
+                if (!awaitResultsThread(gotNext, pageStartTime)) {
+                    // if we got interrupted, then just return null
+                    return null;
                 }
                 return resultsThreadQueue.poll();
             }
@@ -394,7 +488,19 @@ public class RunningQuery extends AbstractRunningQuery implements Runnable {
      * terminate the results thread.
      */
     public void terminateResultsThread() {
-        running.set(false);
+        stopResultsThread();
+        executor.shutdown();
+    }
+
+    /**
+     * stop the results thread, leaving the executor available for a restarted query. The cancelled thread may not have returned from the iterator yet, so it
+     * is left with the previous generation and queue while the counters and the queue are reset for the next thread.
+     */
+    private void stopResultsThread() {
+        synchronized (resultsThreadGeneration) {
+            resultsThreadGeneration.incrementAndGet();
+            running.set(false);
+        }
         if (future != null) {
             future.cancel(false);
             while (!future.isDone()) {
@@ -402,7 +508,15 @@ public class RunningQuery extends AbstractRunningQuery implements Runnable {
             }
             future = null;
         }
-        executor.shutdown();
+        resultsThreadQueue = new ArrayBlockingQueue<>(resultPrefetchSize);
+        synchronized (hasNext) {
+            hasNext.set(0);
+            hasNext.notifyAll();
+        }
+        synchronized (gotNext) {
+            gotNext.set(0);
+            gotNext.notifyAll();
+        }
     }
 
     /**
@@ -432,9 +546,12 @@ public class RunningQuery extends AbstractRunningQuery implements Runnable {
             testForUncaughtException(resultList.size());
 
             // start up the results thread if needed
-            if (this.allowShortCircuitTimeouts && future == null && !this.canceled && !this.finished) {
+            if (useResultsThread() && future == null && !this.canceled && !this.finished) {
                 running.set(true);
-                future = executor.submit(() -> getResultsThread());
+                int generation = resultsThreadGeneration.get();
+                TransformIterator iterator = this.iter;
+                BlockingQueue<Object> queue = this.resultsThreadQueue;
+                future = executor.submit(() -> getResultsThread(generation, iterator, queue));
             }
 
             try {
@@ -673,6 +790,9 @@ public class RunningQuery extends AbstractRunningQuery implements Runnable {
     public void closeConnection(AccumuloConnectionFactory factory) throws Exception {
         this.getMetric().setLifecycle(BaseQueryMetric.Lifecycle.CLOSED);
 
+        // stop reading ahead and drop any prefetched results, a reset query will start over with a new iterator
+        stopResultsThread();
+
         if (iter != null && iter.getTransformer() instanceof WritesResultCardinalities) {
             ((WritesResultCardinalities) iter.getTransformer()).writeResultCardinalities();
         }
@@ -730,6 +850,30 @@ public class RunningQuery extends AbstractRunningQuery implements Runnable {
         return queryMetrics;
     }
 
+    public int getResultPrefetchSize() {
+        return resultPrefetchSize;
+    }
+
+    /**
+     * Set the number of results which may be read ahead of the client. A size greater than 1 pulls results on a separate thread so that the next page fills
+     * while the client consumes the current one. The size is capped at the logic's max page size, and can only change before the first page is requested.
+     *
+     * @param resultPrefetchSize
+     *            the number of results to read ahead
+     */
+    public void setResultPrefetchSize(int resultPrefetchSize) {
+        if (future == null) {
+            int size = Math.max(1, resultPrefetchSize);
+            if (size > 1 && this.logic != null && this.logic.getMaxPageSize() > 0) {
+                size = Math.min(size, this.logic.getMaxPageSize());
+            }
+            if (size != this.resultPrefetchSize) {
+                this.resultPrefetchSize = size;
+                this.resultsThreadQueue = new ArrayBlockingQueue<>(size);
+            }
+        }
+    }
+
     public void setQueryMetrics(QueryMetricsBean queryMetrics) {
         if (logic != null && logic.getCollectQueryMetrics() == true) {
             this.queryMetrics = queryMetrics;
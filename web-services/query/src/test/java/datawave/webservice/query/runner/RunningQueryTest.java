@@ -2,10 +2,12 @@ package datawave.webservice.query.runner;
 
 import static org.easymock.EasyMock.anyObject;
 import static org.easymock.EasyMock.createMock;
+import static org.easymock.EasyMock.createNiceMock;
 import static org.easymock.EasyMock.expect;
 import static org.easymock.EasyMock.replay;
 import static org.easymock.EasyMock.verify;
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
 
 import java.io.File;
 import java.net.MalformedURLException;
@@ -22,6 +24,8 @@ import java.util.List;
 import java.util.Map;
 import java.util.Set;
 import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
 
 import org.apache.accumulo.core.client.AccumuloClient;
 import org.apache.accumulo.core.security.Authorizations;
@@ -31,6 +35,7 @@ import org.junit.Before;
 import org.junit.Test;
 
 import com.google.common.collect.Sets;
+import com.google.common.util.concurrent.Uninterruptibles;
 
 import datawave.accumulo.inmemory.InMemoryAccumuloClient;
 import datawave.accumulo.inmemory.InMemoryInstance;
@@ -319,6 +324,107 @@ public class RunningQueryTest {
         assertEquals("overwrite-works", rq.getMetric().getPlan());
     }
 
+    @Test
+    public void testResultPrefetch() throws Exception {
+        InMemoryInstance instance = new InMemoryInstance("test instance");
+        AccumuloClient client = new InMemoryAccumuloClient("root", instance);
+
+        String[] auths = new String[] {"A", "B"};
+
+        DatawaveUser user = new DatawaveUser(userDN, UserType.USER, Arrays.asList(auths), null, null, 0L);
+        DatawavePrincipal principal = new DatawavePrincipal(Collections.singletonList(user));
+
+        RotatingPlanQueryLogic logic = new RotatingPlanQueryLogic(5);
+        logic.setMaxPageSize(3);
+        settings.setQuery("FOO == 'bar'");
+        settings.setPagesize(2);
+        RunningQuery rq = new RunningQuery(client, connectionPriority, logic, settings, null, principal, new QueryMetricFactoryImpl());
+
+        // the prefetch size is capped at the max page size
+        rq.setResultPrefetchSize(10);
+        assertEquals(3, rq.getResultPrefetchSize());
+
+        // the pages are the same as without a prefetch
+        assertEquals(2, rq.next().getResults().size());
+        assertEquals(2, rq.next().getResults().size());
+        assertEquals(1, rq.next().getResults().size());
+        ResultsPage page = rq.next();
+        assertEquals(0, page.getResults().size());
+        assertEquals(ResultsPage.Status.NONE, page.getStatus());
+    }
+
+    @Test
+    public void testResultPrefetchAfterReset() throws Exception {
+        InMemoryInstance instance = new InMemoryInstance("test instance");
+        AccumuloClient client = new InMemoryAccumuloClient("root", instance);
+
+        String[] auths = new String[] {"A", "B"};
+
+        DatawaveUser user = new DatawaveUser(userDN, UserType.USER, Arrays.asList(auths), null, null, 0L);
+        DatawavePrincipal principal = new DatawavePrincipal(Collections.singletonList(user));
+
+        BlockingQueryLogic logic = new BlockingQueryLogic();
+        logic.setMaxPageSize(10);
+        settings.setQuery("FOO == 'bar'");
+        settings.setPagesize(2);
+        RunningQuery rq = new RunningQuery(client, connectionPriority, logic, settings, null, principal, new QueryMetricFactoryImpl());
+        rq.setResultPrefetchSize(2);
+
+        assertEquals(2, rq.next().getResults().size());
+        assertTrue(logic.blocked.await(30, TimeUnit.SECONDS));
+
+        // the results thread is still blocked in the first iterator when the query is reset
+        AccumuloConnectionFactory factory = createNiceMock(AccumuloConnectionFactory.class);
+        replay(factory);
+        rq.closeConnection(factory);
+        rq.setClient(client);
+        logic.release.countDown();
+
+        // the result the old results thread was reading is not returned with the new results
+        assertEquals(2, rq.next().getResults().size());
+        assertEquals(2, rq.next().getResults().size());
+        assertEquals(1, rq.next().getResults().size());
+        ResultsPage page = rq.next();
+        assertEquals(0, page.getResults().size());
+        assertEquals(ResultsPage.Status.NONE, page.getStatus());
+    }
+
+    /**
+     * A logic with five results, where the first iterator does not return its third result until released, ignoring any interrupts
+     */
+    private static class BlockingQueryLogic extends RotatingPlanQueryLogic {
+        private final CountDownLatch blocked = new CountDownLatch(1);
+        private final CountDownLatch release = new CountDownLatch(1);
+        private int setups = 0;
+
+        public BlockingQueryLogic() {
+            super(0, false);
+        }
+
+        @Override
+        public void setupQuery(GenericQueryConfiguration configuration) throws Exception {
+            boolean block = setups++ == 0;
+            this.iterator = new Iterator() {
+                private int count = 0;
+
+                @Override
+                public boolean hasNext() {
+                    return count < 5;
+                }
+
+                @Override
+                public Object next() {
+                    if (block && count == 2) {
+                        blocked.countDown();
+                        Uninterruptibles.awaitUninterruptibly(release);
+                    }
+                    count++;
+                    return new Object();
+                }
+            };
+        }
+    }
+
     private static class RotatingPlanQueryLogic extends BaseQueryLogic {
         final private int pages;
         final private boolean updatePages;